@@ -28,6 +28,7 @@ const methodTypes = {
     "updateFile": "grpc.MethodType.CLIENT_STREAMING",
     "readFile": "grpc.MethodType.SERVER_STREAMING",
     "followJob": "grpc.MethodType.SERVER_STREAMING",
+    "searchStream": "grpc.MethodType.SERVER_STREAMING",
 };
 
 
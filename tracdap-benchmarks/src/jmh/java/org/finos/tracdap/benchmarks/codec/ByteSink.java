@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.benchmarks.codec;
+
+import org.finos.tracdap.common.data.util.Bytes;
+
+import org.apache.arrow.memory.ArrowBuf;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.Flow;
+
+
+class ByteSink implements Flow.Subscriber<ArrowBuf> {
+
+    // Byte stream sink for encoder output, buffers are released as soon as they arrive
+    // Content is only kept when it is needed, so encoding benchmarks do not measure an extra copy
+
+    private final ByteArrayOutputStream content;
+    private long byteCount;
+
+    ByteSink(boolean keepContent) {
+        this.content = keepContent ? new ByteArrayOutputStream() : null;
+    }
+
+    long byteCount() {
+        return byteCount;
+    }
+
+    byte[] content() {
+        return content.toByteArray();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(ArrowBuf chunk) {
+
+        try (chunk) {
+
+            byteCount += chunk.readableBytes();
+
+            if (content != null)
+                content.writeBytes(Bytes.copyFromBuffer(chunk));
+        }
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        // Errors are reported by the pipeline
+    }
+
+    @Override
+    public void onComplete() {
+        // No-op
+    }
+}
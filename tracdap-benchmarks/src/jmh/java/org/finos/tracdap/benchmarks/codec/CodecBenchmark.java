@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.benchmarks.codec;
+
+import org.finos.tracdap.common.async.Flows;
+import org.finos.tracdap.common.codec.ICodec;
+import org.finos.tracdap.common.codec.arrow.ArrowCompression;
+import org.finos.tracdap.common.codec.arrow.ArrowStreamCodec;
+import org.finos.tracdap.common.codec.csv.CsvCodec;
+import org.finos.tracdap.common.codec.json.JsonCodec;
+import org.finos.tracdap.common.data.ArrowVsrContext;
+import org.finos.tracdap.common.data.DataContext;
+import org.finos.tracdap.common.data.DataPipeline;
+import org.finos.tracdap.common.data.util.Bytes;
+import org.finos.tracdap.common.exception.EUnexpected;
+import org.finos.tracdap.metadata.SchemaDefinition;
+import org.finos.tracdap.metadata.TableSchema;
+import org.finos.tracdap.test.data.SampleData;
+import org.finos.tracdap.test.data.SingleBatchDataSink;
+import org.finos.tracdap.test.data.SingleBatchDataSource;
+
+import io.netty.util.concurrent.DefaultEventExecutor;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodecBenchmark {
+
+    // Encode and decode throughput for each format, reported in rows per second
+    // Each column type is measured on its own, as well as the full basic table schema
+
+    static final int N_ROWS = 10000;
+
+    private static final long TIMEOUT_SECONDS = 60;
+
+    @Param({"CSV", "JSON", "ARROW_STREAM", "ARROW_STREAM_LZ4", "ARROW_STREAM_ZSTD"})
+    public String format;
+
+    @Param({"ALL", "boolean_field", "integer_field", "float_field", "decimal_field",
+            "string_field", "categorical_field", "date_field", "datetime_field"})
+    public String column;
+
+    private BufferAllocator allocator;
+    private DefaultEventExecutor eventLoop;
+
+    private ICodec codec;
+    private Map<String, String> encoderOptions;
+
+    private ArrowVsrContext data;
+    private byte[] encodedData;
+
+    @Setup
+    public void setup() throws Exception {
+
+        allocator = new RootAllocator();
+        eventLoop = new DefaultEventExecutor();
+
+        setupCodec(format);
+
+        var schema = columnSchema(column);
+        data = SampleData.generateTestData(schema, allocator, 0, N_ROWS);
+
+        // Encoded data is prepared once, to use as the input for decoding
+        var sink = new ByteSink(true);
+        runEncoder(sink);
+        encodedData = sink.content();
+    }
+
+    @TearDown
+    public void tearDown() {
+
+        data.close();
+        eventLoop.shutdownGracefully();
+        allocator.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(N_ROWS)
+    public long encode() throws Exception {
+
+        var sink = new ByteSink(false);
+        runEncoder(sink);
+
+        return sink.byteCount();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(N_ROWS)
+    public long decode() throws Exception {
+
+        // Includes copying the encoded data into a single Arrow buffer, which is small next to decoding
+        var buffer = Bytes.copyToBuffer(encodedData, allocator);
+        var stream = Flows.publish(List.of(buffer));
+
+        var ctx = new DataContext(eventLoop, allocator);
+        var pipeline = DataPipeline.forSource(stream, ctx);
+
+        pipeline.addStage(codec.getDecoder(data.getSchema(), allocator, Map.of()));
+
+        var sink = new SingleBatchDataSink(pipeline);
+        pipeline.addSink(sink);
+
+        waitFor(pipeline.execute());
+
+        return sink.getRowCount();
+    }
+
+    private void runEncoder(ByteSink sink) throws Exception {
+
+        // The encoder unloads the source batch when it is written, mark it as loaded for the next run
+        data.setLoaded();
+
+        var ctx = new DataContext(eventLoop, allocator);
+        var pipeline = DataPipeline.forSource(new SingleBatchDataSource(data), ctx);
+
+        pipeline.addStage(codec.getEncoder(allocator, encoderOptions));
+        pipeline.addSink(sink);
+
+        waitFor(pipeline.execute());
+    }
+
+    private void setupCodec(String format) {
+
+        switch (format) {
+
+            case "CSV":
+                codec = new CsvCodec();
+                encoderOptions = Map.of();
+                break;
+
+            case "JSON":
+                codec = new JsonCodec();
+                encoderOptions = Map.of();
+                break;
+
+            case "ARROW_STREAM":
+                codec = new ArrowStreamCodec();
+                encoderOptions = Map.of();
+                break;
+
+            case "ARROW_STREAM_LZ4":
+                codec = new ArrowStreamCodec();
+                encoderOptions = Map.of(ArrowCompression.COMPRESSION_OPTION, ArrowCompression.COMPRESSION_LZ4);
+                break;
+
+            case "ARROW_STREAM_ZSTD":
+                codec = new ArrowStreamCodec();
+                encoderOptions = Map.of(ArrowCompression.COMPRESSION_OPTION, ArrowCompression.COMPRESSION_ZSTD);
+                break;
+
+            default:
+                throw new EUnexpected();
+        }
+    }
+
+    static SchemaDefinition columnSchema(String column) {
+
+        var basicSchema = SampleData.BASIC_TABLE_SCHEMA;
+
+        if (column.equals("ALL"))
+            return basicSchema;
+
+        var field = basicSchema.getTable().getFieldsList().stream()
+                .filter(f -> f.getFieldName().equals(column))
+                .findFirst()
+                .orElseThrow(EUnexpected::new);
+
+        return basicSchema.toBuilder()
+                .setTable(TableSchema.newBuilder()
+                .addFields(field.toBuilder().setFieldOrder(0)))
+                .build();
+    }
+
+    static void waitFor(CompletionStage<?> signal) throws Exception {
+
+        signal.toCompletableFuture().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+}
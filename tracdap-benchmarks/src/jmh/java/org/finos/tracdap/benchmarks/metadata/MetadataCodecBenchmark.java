@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.benchmarks.metadata;
+
+import org.finos.tracdap.common.metadata.MetadataCodec;
+import org.finos.tracdap.metadata.BasicType;
+import org.finos.tracdap.metadata.Value;
+import org.finos.tracdap.test.meta.SampleMetadata;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetadataCodecBenchmark {
+
+    // Encoding and decoding for metadata values of each primitive type
+    // These are used for every tag attribute read or written by the metadata service
+
+    @Param({"BOOLEAN", "INTEGER", "FLOAT", "DECIMAL", "STRING", "DATE", "DATETIME"})
+    public BasicType basicType;
+
+    private Object nativeValue;
+    private Value encodedValue;
+
+    @Setup
+    public void setup() {
+
+        nativeValue = SampleMetadata.objectOfType(basicType);
+        encodedValue = MetadataCodec.encodeValue(nativeValue, basicType);
+    }
+
+    @Benchmark
+    public Value encode() {
+
+        return MetadataCodec.encodeValue(nativeValue, basicType);
+    }
+
+    @Benchmark
+    public Object decode() {
+
+        return MetadataCodec.decodeValue(encodedValue);
+    }
+
+    @Benchmark
+    public Value encodeNative() {
+
+        return MetadataCodec.encodeNativeObject(nativeValue);
+    }
+}
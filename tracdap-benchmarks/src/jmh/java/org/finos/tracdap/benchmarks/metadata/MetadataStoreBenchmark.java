@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.benchmarks.metadata;
+
+import org.finos.tracdap.common.db.JdbcDialect;
+import org.finos.tracdap.common.db.JdbcSetup;
+import org.finos.tracdap.common.metadata.MetadataCodec;
+import org.finos.tracdap.common.metadata.MetadataUtil;
+import org.finos.tracdap.common.metadata.UuidFactory;
+import org.finos.tracdap.common.metadata.store.jdbc.JdbcMetadataStore;
+import org.finos.tracdap.metadata.*;
+import org.finos.tracdap.test.meta.SampleMetadata;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.finos.tracdap.test.meta.SampleMetadata.TEST_TENANT;
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetadataStoreBenchmark {
+
+    // Read, write and search latency for the JDBC metadata store, using an in-memory H2 database
+    // Absolute numbers will differ on production databases, but relative changes show regressions in the DAL
+
+    private static final String SCRIPT_LOCATION = "tracdap-libs/tracdap-lib-meta/src/schema/h2/rollout";
+    private static final String JDBC_URL_TEMPLATE = "mem:%s;DB_CLOSE_DELAY=-1";
+
+    private static final String GROUP_ATTR = "benchmark_group";
+    private static final int N_GROUPS = 100;
+    private static final int BATCH_SIZE = 100;
+    private static final int SAVE_BATCH_SIZE = 500;
+
+    @Param({"1000", "10000"})
+    public int nObjects;
+
+    // Zero disables the definition cache
+    @Param({"0", "67108864"})
+    public long definitionCacheSize;
+
+    private JdbcMetadataStore store;
+
+    private List<Tag> latestTags;
+    private List<TagSelector> selectors;
+    private int cursor;
+
+    @Setup
+    public void setup() throws Exception {
+
+        var dbId = UuidFactory.DEFAULT.allocate();
+
+        var properties = new Properties();
+        properties.setProperty("jdbcUrl", String.format(JDBC_URL_TEMPLATE, dbId));
+        properties.setProperty("dialect", "H2");
+        properties.setProperty("h2.user", "trac");
+        properties.setProperty("h2.pass", "trac");
+        properties.setProperty("pool.size", "2");
+
+        var source = JdbcSetup.createDatasource(properties);
+
+        deploySchema(source);
+
+        store = new JdbcMetadataStore(JdbcDialect.H2, source, definitionCacheSize);
+        store.start();
+
+        latestTags = new ArrayList<>(nObjects);
+
+        for (var i = 0; i < nObjects; i += SAVE_BATCH_SIZE) {
+
+            var batch = new ArrayList<Tag>(SAVE_BATCH_SIZE);
+
+            for (var j = i; j < Math.min(i + SAVE_BATCH_SIZE, nObjects); j++)
+                batch.add(newObject(j));
+
+            store.saveNewObjects(TEST_TENANT, batch);
+            latestTags.addAll(batch);
+        }
+
+        selectors = latestTags.stream()
+                .map(tag -> MetadataUtil.selectorFor(tag.getHeader()))
+                .collect(Collectors.toList());
+
+        cursor = 0;
+    }
+
+    @TearDown
+    public void tearDown() {
+
+        // Stopping the store closes the data source, the in-memory database is discarded with the fork
+        store.stop();
+    }
+
+    @Benchmark
+    public Tag loadObject() {
+
+        var selector = selectors.get(nextIndex());
+
+        return store.loadObject(TEST_TENANT, selector);
+    }
+
+    @Benchmark
+    public Tag loadLatest() {
+
+        var header = latestTags.get(nextIndex()).getHeader();
+        var selector = MetadataUtil.selectorForLatest(header);
+
+        return store.loadObject(TEST_TENANT, selector);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<Tag> loadBatch() {
+
+        var start = nextIndex(BATCH_SIZE);
+        var batch = selectors.subList(start, start + BATCH_SIZE);
+
+        return store.loadObjects(TEST_TENANT, batch);
+    }
+
+    @Benchmark
+    public List<Tag> search() {
+
+        var group = nextIndex() % N_GROUPS;
+
+        var searchParams = SearchParameters.newBuilder()
+                .setObjectType(ObjectType.DATA)
+                .setSearch(SearchExpression.newBuilder()
+                .setTerm(SearchTerm.newBuilder()
+                    .setAttrName(GROUP_ATTR)
+                    .setAttrType(BasicType.INTEGER)
+                    .setOperator(SearchOperator.EQ)
+                    .setSearchValue(MetadataCodec.encodeValue(group))))
+                .build();
+
+        return store.search(TEST_TENANT, searchParams);
+    }
+
+    @Benchmark
+    public void saveNewObject() {
+
+        var tag = newObject(nextIndex());
+
+        store.saveNewObjects(TEST_TENANT, List.of(tag));
+    }
+
+    @Benchmark
+    public void saveNewTag() {
+
+        var index = nextIndex();
+        var nextTag = SampleMetadata.nextTag(latestTags.get(index), SampleMetadata.UPDATE_TAG_VERSION);
+
+        store.saveNewTags(TEST_TENANT, List.of(nextTag));
+        latestTags.set(index, nextTag);
+    }
+
+    private int nextIndex() {
+
+        return nextIndex(1);
+    }
+
+    private int nextIndex(int count) {
+
+        // Cycle through the saved objects, so reads are not always served from the same rows
+
+        if (cursor + count > nObjects)
+            cursor = 0;
+
+        var index = cursor;
+        cursor += count;
+
+        return index;
+    }
+
+    private Tag newObject(int index) {
+
+        var tag = SampleMetadata.dummyTag(SampleMetadata.dummyDataDef(), SampleMetadata.INCLUDE_HEADER);
+
+        return tag.toBuilder()
+                .putAttrs(GROUP_ATTR, MetadataCodec.encodeValue(index % N_GROUPS))
+                .build();
+    }
+
+    private void deploySchema(DataSource source) throws Exception {
+
+        // Find project root dir, the same way as the DAL unit tests
+        var tracRepoDir = Paths.get(".").toAbsolutePath();
+        while (!Files.exists(tracRepoDir.resolve("tracdap-api")))
+            tracRepoDir = tracRepoDir.getParent();
+
+        var scriptLocation = "filesystem:" + tracRepoDir.resolve(SCRIPT_LOCATION);
+
+        var flyway = Flyway.configure()
+                .dataSource(source)
+                .locations(scriptLocation)
+                .sqlMigrationPrefix("")
+                .sqlMigrationSuffixes(".sql", ".ddl", ".dml")
+                .load();
+
+        flyway.migrate();
+
+        var tenantStmt = "insert into tenant (tenant_id, tenant_code, description) values (?, ?, ?)";
+
+        try (var conn = source.getConnection(); var stmt = conn.prepareStatement(tenantStmt)) {
+
+            stmt.setShort(1, (short) 1);
+            stmt.setString(2, TEST_TENANT);
+            stmt.setString(3, "Benchmark tenant");
+
+            stmt.execute();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.benchmarks.pipeline;
+
+import org.finos.tracdap.common.data.ArrowVsrContext;
+import org.finos.tracdap.common.data.DataContext;
+import org.finos.tracdap.common.data.DataPipeline;
+import org.finos.tracdap.common.data.pipeline.CounterStage;
+import org.finos.tracdap.test.data.SampleData;
+import org.finos.tracdap.test.data.SingleBatchDataSink;
+
+import io.netty.util.concurrent.DefaultEventExecutor;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PipelineBenchmark {
+
+    // Fixed overhead of the data pipeline for each batch, reported in time per batch
+    // Batches pass through pass-through stages with no data processing, so only the pipeline cost is measured
+
+    static final int N_BATCHES = 1000;
+
+    private static final long TIMEOUT_SECONDS = 60;
+
+    @Param({"1", "100", "10000"})
+    public int rowsPerBatch;
+
+    @Param({"0", "1", "4"})
+    public int nStages;
+
+    private BufferAllocator allocator;
+    private DefaultEventExecutor eventLoop;
+
+    private ArrowVsrContext batch;
+
+    @Setup
+    public void setup() {
+
+        allocator = new RootAllocator();
+        eventLoop = new DefaultEventExecutor();
+
+        batch = SampleData.generateBasicData(allocator, rowsPerBatch);
+    }
+
+    @TearDown
+    public void tearDown() {
+
+        batch.close();
+        eventLoop.shutdownGracefully();
+        allocator.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(N_BATCHES)
+    public long pipeline() throws Exception {
+
+        var ctx = new DataContext(eventLoop, allocator);
+        var pipeline = DataPipeline.forSource(new RepeatBatchSource(batch, N_BATCHES), ctx);
+
+        for (var i = 0; i < nStages; i++)
+            pipeline.addStage(new CounterStage());
+
+        var sink = new SingleBatchDataSink(pipeline);
+        pipeline.addSink(sink);
+
+        pipeline.execute().toCompletableFuture().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        return sink.getRowCount();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.benchmarks.pipeline;
+
+import org.finos.tracdap.common.data.ArrowVsrContext;
+import org.finos.tracdap.common.data.DataPipeline;
+import org.finos.tracdap.common.data.pipeline.BaseDataProducer;
+
+
+class RepeatBatchSource
+        extends BaseDataProducer<DataPipeline.ArrowApi>
+        implements DataPipeline.SourceStage {
+
+    // Sends the same batch repeatedly, so the cost of producing data is not included in the measurement
+
+    private final ArrowVsrContext batch;
+    private final int nBatches;
+
+    private boolean started;
+    private int batchesSent;
+
+    RepeatBatchSource(ArrowVsrContext batch, int nBatches) {
+        super(DataPipeline.ArrowApi.class);
+        this.batch = batch;
+        this.nBatches = nBatches;
+    }
+
+    @Override
+    public void connect() {
+        // no-op
+    }
+
+    @Override
+    public void pump() {
+
+        if (!started) {
+            consumer().onStart(batch);
+            started = true;
+        }
+
+        while (!isDone() && consumerReady() && batchesSent < nBatches) {
+
+            batch.setLoaded();
+            consumer().onBatch();
+            batchesSent++;
+        }
+
+        if (!isDone() && batchesSent == nBatches) {
+            markAsDone();
+            consumer().onComplete();
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return true;
+    }
+
+    @Override
+    public void cancel() {
+        markAsDone();
+    }
+
+    @Override
+    public void close() {
+        // Batch is owned by the benchmark
+    }
+}
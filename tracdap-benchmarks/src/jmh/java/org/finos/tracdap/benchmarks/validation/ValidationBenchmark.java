@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.benchmarks.validation;
+
+import org.finos.tracdap.common.validation.Validator;
+import org.finos.tracdap.metadata.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationBenchmark {
+
+    // Static and version validation for large flows and schemas
+    // Run against the previous commit to compare with an earlier version of the validation engine
+
+    @Param({"100", "1000", "5000"})
+    public int size;
+
+    private Validator validator;
+
+    private FlowDefinition flow;
+    private SchemaDefinition schema;
+    private SchemaDefinition priorSchema;
+
+    @Setup
+    public void setup() {
+
+        validator = new Validator();
+
+        flow = buildFlow(size);
+        schema = buildSchema(size);
+        priorSchema = buildSchema(size - 1);
+
+        // Make sure the sample objects are valid, otherwise the benchmarks measure the error path
+        validator.validateFixedObject(flow);
+        validator.validateFixedObject(schema);
+        validator.validateVersion(schema, priorSchema);
+    }
+
+    @Benchmark
+    public void staticFlow() {
+
+        validator.validateFixedObject(flow);
+    }
+
+    @Benchmark
+    public void staticSchema() {
+
+        validator.validateFixedObject(schema);
+    }
+
+    @Benchmark
+    public void versionSchema() {
+
+        validator.validateVersion(schema, priorSchema);
+    }
+
+    private static FlowDefinition buildFlow(int nModels) {
+
+        // Independent chains of input -> model -> output
+
+        var flow = FlowDefinition.newBuilder();
+
+        for (var i = 0; i < nModels; i++) {
+
+            var inputNode = "input_" + i;
+            var outputNode = "output_" + i;
+            var modelNode = "model_" + i;
+
+            flow.putNodes(inputNode, FlowNode.newBuilder().setNodeType(FlowNodeType.INPUT_NODE).build());
+            flow.putNodes(outputNode, FlowNode.newBuilder().setNodeType(FlowNodeType.OUTPUT_NODE).build());
+            flow.putNodes(modelNode, FlowNode.newBuilder()
+                    .setNodeType(FlowNodeType.MODEL_NODE)
+                    .addInputs("model_input")
+                    .addOutputs("model_output")
+                    .build());
+
+            flow.addEdges(FlowEdge.newBuilder()
+                    .setSource(FlowSocket.newBuilder().setNode(inputNode))
+                    .setTarget(FlowSocket.newBuilder().setNode(modelNode).setSocket("model_input")));
+
+            flow.addEdges(FlowEdge.newBuilder()
+                    .setSource(FlowSocket.newBuilder().setNode(modelNode).setSocket("model_output"))
+                    .setTarget(FlowSocket.newBuilder().setNode(outputNode)));
+        }
+
+        return flow.build();
+    }
+
+    private static SchemaDefinition buildSchema(int nFields) {
+
+        var table = TableSchema.newBuilder();
+
+        for (var i = 0; i < nFields; i++) {
+
+            table.addFields(FieldSchema.newBuilder()
+                    .setFieldName("field_" + i)
+                    .setFieldOrder(i)
+                    .setFieldType(i % 2 == 0 ? BasicType.STRING : BasicType.FLOAT)
+                    .setLabel("Field number " + i)
+                    .setBusinessKey(i == 0));
+        }
+
+        return SchemaDefinition.newBuilder()
+                .setSchemaType(SchemaType.TABLE)
+                .setTable(table)
+                .build();
+    }
+}
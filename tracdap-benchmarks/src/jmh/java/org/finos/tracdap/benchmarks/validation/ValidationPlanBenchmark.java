@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.benchmarks.validation;
+
+import org.finos.tracdap.common.validation.core.ValidationFunction;
+import org.finos.tracdap.common.validation.core.impl.ValidationKey;
+import org.finos.tracdap.common.validation.core.impl.ValidationPlan;
+import org.finos.tracdap.common.validation.core.impl.ValidatorBuilder;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationPlanBenchmark {
+
+    // Validator resolution for every registered validator, as done once for each node during validation
+    // The key lookup is the baseline, it is how validators were resolved before the validation plan
+
+    private Map<ValidationKey, ValidationFunction<?>> validatorMap;
+    private ValidationPlan plan;
+    private ValidationKey[] keys;
+
+    @Setup
+    public void setup() {
+
+        validatorMap = ValidatorBuilder.buildValidatorMap();
+        plan = new ValidationPlan(validatorMap);
+        keys = validatorMap.keySet().toArray(ValidationKey[]::new);
+    }
+
+    @Benchmark
+    public void keyLookup(Blackhole blackhole) {
+
+        // Baseline: build a key for each lookup, which formats the opaque key string, then look up by key
+
+        for (var key : keys) {
+            var lookupKey = new ValidationKey(key.validationType(), key.messageType(), key.method());
+            blackhole.consume(validatorMap.get(lookupKey));
+        }
+    }
+
+    @Benchmark
+    public void planLookup(Blackhole blackhole) {
+
+        for (var key : keys)
+            blackhole.consume(plan.lookup(key.validationType(), key.messageType(), key.method()));
+    }
+}
@@ -30,6 +30,12 @@ public class ConfigDefaults {
     // For now, here are some config defaults!
 
     public static final int NETWORK_IDLE_TIMEOUT = 30;  // seconds
+    public static final int GATEWAY_PROXY_MAX_STREAMS = 100;  // per connection
+    public static final int GATEWAY_PROXY_MAX_CONNECTIONS = 4;  // per target, per event loop
+    public static final int GATEWAY_PROXY_IDLE_TIMEOUT = 60;  // seconds
+    public static final int GATEWAY_PROXY_PENDING_TIMEOUT = 30;  // seconds
+    public static final int METADATA_CACHE_SIZE = 64;  // MB
+    public static final int METADATA_CACHE_LATEST_TTL = 5;  // seconds
 
     public static final String STORAGE_DEFAULT_FORMAT = "ARROW_FILE";
     public static final StorageLayout STORAGE_DEFAULT_LAYOUT = StorageLayout.DATE_SNAP_LAYOUT;
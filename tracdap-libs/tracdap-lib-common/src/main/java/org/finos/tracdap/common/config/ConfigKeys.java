@@ -42,7 +42,17 @@ public class ConfigKeys {
     // Service properties
     public static final String GATEWAY_ROUTE_NAME = "gateway.route.name";
     public static final String GATEWAY_ROUTE_PREFIX = "gateway.route.prefix";
+    public static final String GATEWAY_PROXY_MAX_STREAMS = "gateway.proxy.maxStreams";
+    public static final String GATEWAY_PROXY_MAX_CONNECTIONS = "gateway.proxy.maxConnections";
+    public static final String GATEWAY_PROXY_IDLE_TIMEOUT = "gateway.proxy.idleTimeout";
+    public static final String GATEWAY_PROXY_PENDING_TIMEOUT = "gateway.proxy.pendingTimeout";
     public static final String NETWORK_IDLE_TIMEOUT = "network.idleTimeout";
+    public static final String METADATA_CACHE_SIZE = "metadata.cache.size";
+    public static final String METADATA_CACHE_LATEST_TTL = "metadata.cache.latestTtl";
+
+    // Job scheduling
+    public static final String JOB_MAX_CONCURRENT = "job.maxConcurrent";
+    public static final String JOB_SHARE_WEIGHT = "job.shareWeight";
 
     // Storage defaults
     public static final String STORAGE_DEFAULT_LOCATION = "storage.default.location";
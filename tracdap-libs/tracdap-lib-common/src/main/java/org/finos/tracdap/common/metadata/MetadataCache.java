@@ -0,0 +1,438 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.common.metadata;
+
+import org.finos.tracdap.api.MetadataBatchRequest;
+import org.finos.tracdap.api.MetadataReadRequest;
+import org.finos.tracdap.api.internal.InternalMetadataApiGrpc.InternalMetadataApiFutureStub;
+import org.finos.tracdap.common.async.Futures;
+import org.finos.tracdap.metadata.ObjectType;
+import org.finos.tracdap.metadata.Tag;
+import org.finos.tracdap.metadata.TagHeader;
+import org.finos.tracdap.metadata.TagSelector;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+public class MetadataCache implements MetadataCacheMXBean {
+
+    // Read-through cache for metadata objects, shared by the platform services
+    // Tags are immutable once saved, for a given tenant, object version and tag version
+    // So objects requested by an explicit object and tag version can be held with no expiry, bounded only by size
+    // Services with a blocking metadata client can use get() and put() directly
+
+    // Selectors for the latest object or tag (or as-of a point in time) are resolved to explicit versions
+    // Those resolutions are only held for a short TTL, then the metadata service is asked again
+    // Setting the TTL to zero turns off caching for latest selectors
+    // Latest selectors are indexed by object ID, so saving a new version only invalidates entries for that object
+
+    // Weight is the encoded size of each tag, as for the definition cache in the metadata store
+    // Hit and miss counts are published as an MXBean, under the name given to registerMetrics()
+
+    private static final long MAX_LATEST_ENTRIES = 10000;
+    private static final String METRICS_DOMAIN = "org.finos.tracdap";
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final Cache<ObjectKey, Tag> objects;
+    private final Cache<SelectorKey, ObjectKey> latest;
+    private final ConcurrentMap<ObjectIdKey, Set<SelectorKey>> latestIndex;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    private ObjectName metricsName;
+
+    public MetadataCache(long maxSize, Duration latestTtl) {
+
+        this.objects = maxSize > 0
+                ? CacheBuilder.newBuilder()
+                    .maximumWeight(maxSize)
+                    .weigher((ObjectKey key, Tag tag) -> tag.getSerializedSize())
+                    .build()
+                : null;
+
+        this.latest = maxSize > 0 && !latestTtl.isZero() && !latestTtl.isNegative()
+                ? CacheBuilder.newBuilder()
+                    .maximumSize(MAX_LATEST_ENTRIES)
+                    .expireAfterWrite(latestTtl)
+                    .<SelectorKey, ObjectKey>removalListener(this::latestRemoved)
+                    .build()
+                : null;
+
+        this.latestIndex = new ConcurrentHashMap<>();
+    }
+
+    public static MetadataCache disabled() {
+
+        return new MetadataCache(0, Duration.ZERO);
+    }
+
+    public void registerMetrics(String name) {
+
+        if (objects == null)
+            return;
+
+        try {
+            var objectName = new ObjectName(METRICS_DOMAIN + ":type=MetadataCache,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            metricsName = objectName;
+        }
+        catch (JMException e) {
+            log.warn("Metadata cache metrics are not available: {}", e.getMessage(), e);
+        }
+    }
+
+    public void unregisterMetrics() {
+
+        if (metricsName == null)
+            return;
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(metricsName);
+            metricsName = null;
+        }
+        catch (JMException e) {
+            log.warn("Failed to remove metadata cache metrics: {}", e.getMessage(), e);
+        }
+    }
+
+    public Tag get(String tenant, TagSelector selector) {
+
+        var cached = lookup(tenant, selector);
+
+        if (isCacheable(selector)) {
+            if (cached != null)
+                hitCount.incrementAndGet();
+            else
+                missCount.incrementAndGet();
+        }
+
+        return cached;
+    }
+
+    public void put(String tenant, TagSelector selector, Tag tag) {
+
+        store(tenant, selector, tag);
+    }
+
+    public boolean isCacheable(TagSelector selector) {
+
+        // Lookups that can never be answered from the cache are not counted as misses
+
+        if (objects == null)
+            return false;
+
+        return isExplicitVersion(selector) || latest != null;
+    }
+
+    public CompletionStage<Tag> readObject(InternalMetadataApiFutureStub client, String tenant, TagSelector selector) {
+
+        var cached = get(tenant, selector);
+
+        if (cached != null)
+            return CompletableFuture.completedFuture(cached);
+
+        return reloadObject(client, tenant, selector);
+    }
+
+    public CompletionStage<Tag> reloadObject(InternalMetadataApiFutureStub client, String tenant, TagSelector selector) {
+
+        // Always go to the metadata service, the result replaces anything already in the cache
+
+        var request = MetadataReadRequest.newBuilder()
+                .setTenant(tenant)
+                .setSelector(selector)
+                .build();
+
+        return Futures.javaFuture(client.readObject(request))
+                .thenApply(tag -> store(tenant, selector, tag));
+    }
+
+    public CompletionStage<List<Tag>> readBatch(InternalMetadataApiFutureStub client, String tenant, List<TagSelector> selectors) {
+
+        var results = new Tag[selectors.size()];
+        var missing = new ArrayList<Integer>();
+
+        for (var i = 0; i < selectors.size(); i++) {
+
+            results[i] = get(tenant, selectors.get(i));
+
+            if (results[i] == null)
+                missing.add(i);
+        }
+
+        if (missing.isEmpty())
+            return CompletableFuture.completedFuture(Arrays.asList(results));
+
+        // Only ask the metadata service for the objects that are not already cached
+
+        var request = MetadataBatchRequest.newBuilder()
+                .setTenant(tenant);
+
+        missing.forEach(i -> request.addSelector(selectors.get(i)));
+
+        return Futures.javaFuture(client.readBatch(request.build()))
+                .thenApply(response -> {
+
+                    for (var j = 0; j < missing.size(); j++) {
+                        var i = missing.get(j);
+                        results[i] = store(tenant, selectors.get(i), response.getTag(j));
+                    }
+
+                    return Arrays.asList(results);
+                });
+    }
+
+    public void invalidateLatest(String tenant, TagHeader objectId) {
+
+        // Called when this service saves a new version of an object or tag
+        // Entries for explicit versions are still valid, only the latest resolution is affected
+
+        if (latest == null)
+            return;
+
+        var idKey = new ObjectIdKey(tenant, objectId.getObjectType(), objectId.getObjectId());
+        var selectorKeys = latestIndex.remove(idKey);
+
+        if (selectorKeys != null)
+            latest.invalidateAll(selectorKeys);
+    }
+
+    @Override
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    @Override
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    @Override
+    public double getHitRate() {
+
+        var hits = hitCount.get();
+        var total = hits + missCount.get();
+
+        return total > 0 ? (double) hits / total : 0.0;
+    }
+
+    @Override
+    public long getObjectCount() {
+        return objects != null ? objects.size() : 0;
+    }
+
+    @Override
+    public long getLatestCount() {
+        return latest != null ? latest.size() : 0;
+    }
+
+    private Tag lookup(String tenant, TagSelector selector) {
+
+        if (objects == null)
+            return null;
+
+        if (isExplicitVersion(selector))
+            return objects.getIfPresent(new ObjectKey(tenant, selector));
+
+        if (latest == null)
+            return null;
+
+        var objectKey = latest.getIfPresent(new SelectorKey(tenant, selector));
+
+        return objectKey != null ? objects.getIfPresent(objectKey) : null;
+    }
+
+    private Tag store(String tenant, TagSelector selector, Tag tag) {
+
+        if (objects == null)
+            return tag;
+
+        var header = tag.getHeader();
+        var objectKey = new ObjectKey(tenant, header);
+
+        objects.put(objectKey, tag);
+
+        if (latest != null && !isExplicitVersion(selector)) {
+
+            // Index the selector before it goes in the cache, so an invalidation can always find it
+
+            var selectorKey = new SelectorKey(tenant, selector);
+            var idKey = new ObjectIdKey(tenant, selector.getObjectType(), selector.getObjectId());
+
+            latestIndex.computeIfAbsent(idKey, key -> ConcurrentHashMap.newKeySet()).add(selectorKey);
+            latest.put(selectorKey, objectKey);
+        }
+
+        return tag;
+    }
+
+    private void latestRemoved(RemovalNotification<SelectorKey, ObjectKey> notification) {
+
+        // Entries that expire or are evicted for size are removed from the index
+        // Replaced entries are still in the cache, explicit invalidation has already cleared the index
+
+        if (notification.getCause() == RemovalCause.REPLACED || notification.getCause() == RemovalCause.EXPLICIT)
+            return;
+
+        var selectorKey = notification.getKey();
+
+        if (selectorKey == null)
+            return;
+
+        var idKey = new ObjectIdKey(selectorKey.tenant, selectorKey.selector.getObjectType(), selectorKey.selector.getObjectId());
+
+        latestIndex.computeIfPresent(idKey, (key, selectorKeys) -> {
+            selectorKeys.remove(selectorKey);
+            return selectorKeys.isEmpty() ? null : selectorKeys;
+        });
+    }
+
+    private static boolean isExplicitVersion(TagSelector selector) {
+
+        // The tag version must be explicit as well, tag attributes can be updated without a new object version
+
+        return selector.getObjectCriteriaCase() == TagSelector.ObjectCriteriaCase.OBJECTVERSION &&
+                selector.getTagCriteriaCase() == TagSelector.TagCriteriaCase.TAGVERSION;
+    }
+
+    private static final class ObjectKey {
+
+        private final String tenant;
+        private final ObjectType objectType;
+        private final String objectId;
+        private final int objectVersion;
+        private final int tagVersion;
+
+        ObjectKey(String tenant, TagSelector selector) {
+            this.tenant = tenant;
+            this.objectType = selector.getObjectType();
+            this.objectId = selector.getObjectId();
+            this.objectVersion = selector.getObjectVersion();
+            this.tagVersion = selector.getTagVersion();
+        }
+
+        ObjectKey(String tenant, TagHeader header) {
+            this.tenant = tenant;
+            this.objectType = header.getObjectType();
+            this.objectId = header.getObjectId();
+            this.objectVersion = header.getObjectVersion();
+            this.tagVersion = header.getTagVersion();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+
+            if (this == other) return true;
+            if (other == null || getClass() != other.getClass()) return false;
+
+            var otherKey = (ObjectKey) other;
+
+            return tenant.equals(otherKey.tenant) &&
+                    objectType == otherKey.objectType &&
+                    objectId.equals(otherKey.objectId) &&
+                    objectVersion == otherKey.objectVersion &&
+                    tagVersion == otherKey.tagVersion;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tenant, objectType, objectId, objectVersion, tagVersion);
+        }
+    }
+
+    private static final class ObjectIdKey {
+
+        private final String tenant;
+        private final ObjectType objectType;
+        private final String objectId;
+
+        ObjectIdKey(String tenant, ObjectType objectType, String objectId) {
+            this.tenant = tenant;
+            this.objectType = objectType;
+            this.objectId = objectId;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+
+            if (this == other) return true;
+            if (other == null || getClass() != other.getClass()) return false;
+
+            var otherKey = (ObjectIdKey) other;
+
+            return tenant.equals(otherKey.tenant) &&
+                    objectType == otherKey.objectType &&
+                    objectId.equals(otherKey.objectId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tenant, objectType, objectId);
+        }
+    }
+
+    private static final class SelectorKey {
+
+        private final String tenant;
+        private final TagSelector selector;
+
+        SelectorKey(String tenant, TagSelector selector) {
+            this.tenant = tenant;
+            this.selector = selector;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+
+            if (this == other) return true;
+            if (other == null || getClass() != other.getClass()) return false;
+
+            var otherKey = (SelectorKey) other;
+
+            return tenant.equals(otherKey.tenant) &&
+                    selector.equals(otherKey.selector);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tenant, selector);
+        }
+    }
+}
@@ -18,9 +18,22 @@
 package org.finos.tracdap.common.netty;
 
 import io.netty.channel.DefaultSelectStrategyFactory;
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.MultithreadEventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.ServerSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.util.concurrent.EventExecutorChooserFactory;
 import io.netty.util.concurrent.ThreadPerTaskExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.nio.channels.spi.SelectorProvider;
 import java.time.Duration;
@@ -35,6 +48,12 @@ public class NettyHelpers {
     public static int DEFAULT_THREAD_POOL_QUEUE_SIZE = 50;
     public static Duration DEFAULT_THREAD_POOL_IDLE_LIMIT = Duration.of(30, ChronoUnit.SECONDS);
 
+    private static final Logger log = LoggerFactory.getLogger(NettyHelpers.class);
+
+    // Use the native epoll transport on Linux when it is available, otherwise fall back to NIO
+    // Native transport can be turned off with the standard Netty flag, -Dio.netty.transport.noNative=true
+    private static final boolean NATIVE_TRANSPORT = checkNativeTransport();
+
     public static ThreadFactory threadFactory(String threadPoolName) {
         return new NettyThreadFactoryWrapper(threadPoolName);
     }
@@ -67,6 +86,44 @@ public class NettyHelpers {
                 workQueue, threadFactory, rejectHandler);
     }
 
+    public static boolean nativeTransport() {
+        return NATIVE_TRANSPORT;
+    }
+
+    public static MultithreadEventLoopGroup eventLoopGroup(Executor executor, EventExecutorChooserFactory scheduler, int nThreads) {
+
+        if (NATIVE_TRANSPORT)
+            return new EpollEventLoopGroup(nThreads, executor, scheduler, DefaultSelectStrategyFactory.INSTANCE);
+        else
+            return nioEventLoopGroup(executor, scheduler, nThreads);
+    }
+
+    public static MultithreadEventLoopGroup eventLoopGroup(String threadPoolName, int nThreads) {
+
+        var threadFactory = threadFactory(threadPoolName);
+
+        if (NATIVE_TRANSPORT)
+            return new EpollEventLoopGroup(nThreads, threadFactory);
+        else
+            return new NioEventLoopGroup(nThreads, threadFactory);
+    }
+
+    public static Class<? extends ServerSocketChannel> serverChannelType(EventLoopGroup group) {
+
+        // Channel types must match the event loop they are registered on
+
+        return isEpoll(group)
+                ? EpollServerSocketChannel.class
+                : NioServerSocketChannel.class;
+    }
+
+    public static Class<? extends SocketChannel> clientChannelType(EventLoopGroup group) {
+
+        return isEpoll(group)
+                ? EpollSocketChannel.class
+                : NioSocketChannel.class;
+    }
+
     public static NioEventLoopGroup nioEventLoopGroup(Executor executor, EventExecutorChooserFactory scheduler, int nThreads) {
 
         return new NioEventLoopGroup(
@@ -74,4 +131,27 @@ public class NettyHelpers {
                 SelectorProvider.provider(),
                 DefaultSelectStrategyFactory.INSTANCE);
     }
+
+    private static boolean isEpoll(EventLoopGroup group) {
+
+        // Individual event loops are identified by the group that owns them
+
+        if (group instanceof EventLoop && ((EventLoop) group).parent() != null)
+            return ((EventLoop) group).parent() instanceof EpollEventLoopGroup;
+
+        return group instanceof EpollEventLoopGroup;
+    }
+
+    private static boolean checkNativeTransport() {
+
+        if (Epoll.isAvailable()) {
+            log.info("Using native network transport (epoll)");
+            return true;
+        }
+
+        log.info("Using NIO network transport (native transport is not available)");
+        log.debug("Native transport unavailable: {}", Epoll.unavailabilityCause().getMessage());
+
+        return false;
+    }
 }
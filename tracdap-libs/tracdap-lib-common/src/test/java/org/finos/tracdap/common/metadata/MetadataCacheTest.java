@@ -0,0 +1,407 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.common.metadata;
+
+import org.finos.tracdap.api.MetadataBatchRequest;
+import org.finos.tracdap.api.MetadataBatchResponse;
+import org.finos.tracdap.api.MetadataReadRequest;
+import org.finos.tracdap.api.internal.InternalMetadataApiGrpc.InternalMetadataApiFutureStub;
+import org.finos.tracdap.metadata.*;
+
+import com.google.common.util.concurrent.Futures;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+
+class MetadataCacheTest {
+
+    private static final long CACHE_SIZE = 1024 * 1024;
+    private static final Duration LATEST_TTL = Duration.ofSeconds(60);
+
+    private List<Tag> metadataStore;
+    private InternalMetadataApiFutureStub client;
+
+    @BeforeEach
+    void setupClient() {
+
+        // Mock metadata service, answers selectors from the tags in the store
+
+        metadataStore = new ArrayList<>();
+        client = mock(InternalMetadataApiFutureStub.class);
+
+        when(client.readObject(any())).thenAnswer(call -> {
+            MetadataReadRequest request = call.getArgument(0);
+            return Futures.immediateFuture(resolve(request.getSelector()));
+        });
+
+        when(client.readBatch(any())).thenAnswer(call -> {
+            MetadataBatchRequest request = call.getArgument(0);
+            var response = MetadataBatchResponse.newBuilder();
+            request.getSelectorList().forEach(selector -> response.addTag(resolve(selector)));
+            return Futures.immediateFuture(response.build());
+        });
+    }
+
+    @Test
+    void explicitVersion_cached() throws Exception {
+
+        var cache = new MetadataCache(CACHE_SIZE, LATEST_TTL);
+        var tag = saveTag(dataTag(1, 1));
+        var selector = MetadataUtil.selectorFor(tag.getHeader());
+
+        var result1 = cache.readObject(client, "ACME_CORP", selector).toCompletableFuture().get();
+        var result2 = cache.readObject(client, "ACME_CORP", selector).toCompletableFuture().get();
+
+        Assertions.assertEquals(tag, result1);
+        Assertions.assertEquals(tag, result2);
+        Assertions.assertEquals(1, cache.getHitCount());
+        Assertions.assertEquals(1, cache.getMissCount());
+        Assertions.assertEquals(1, cache.getObjectCount());
+
+        verify(client, times(1)).readObject(any());
+    }
+
+    @Test
+    void explicitVersion_newTagVersion() throws Exception {
+
+        // A new tag version can change attributes without changing the object version
+        // Selectors for each tag version must give back the right tag
+
+        var cache = new MetadataCache(CACHE_SIZE, LATEST_TTL);
+        var v1t1 = saveTag(dataTag(1, 1));
+        var v1t2 = saveTag(nextTag(v1t1, "updated_attr"));
+
+        var selector1 = MetadataUtil.selectorFor(v1t1.getHeader());
+        var selector2 = MetadataUtil.selectorFor(v1t2.getHeader());
+
+        Assertions.assertEquals(v1t1, cache.readObject(client, "ACME_CORP", selector1).toCompletableFuture().get());
+        Assertions.assertEquals(v1t2, cache.readObject(client, "ACME_CORP", selector2).toCompletableFuture().get());
+        Assertions.assertEquals(v1t1, cache.readObject(client, "ACME_CORP", selector1).toCompletableFuture().get());
+
+        Assertions.assertEquals(1, cache.getHitCount());
+        Assertions.assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    void latestTag_resolvedWithTtl() throws Exception {
+
+        // Latest tag for an explicit object version is not immutable, it goes through the latest TTL
+
+        var cache = new MetadataCache(CACHE_SIZE, Duration.ofMillis(200));
+        var v1t1 = saveTag(dataTag(1, 1));
+        var selector = MetadataUtil.selectorFor(v1t1.getHeader(), false, true);
+
+        Assertions.assertEquals(v1t1, cache.readObject(client, "ACME_CORP", selector).toCompletableFuture().get());
+
+        var v1t2 = saveTag(nextTag(v1t1, "updated_attr"));
+
+        // Inside the TTL the cached resolution is still used
+        Assertions.assertEquals(v1t1, cache.readObject(client, "ACME_CORP", selector).toCompletableFuture().get());
+
+        Thread.sleep(300);
+
+        // After the TTL the selector is resolved again
+        Assertions.assertEquals(v1t2, cache.readObject(client, "ACME_CORP", selector).toCompletableFuture().get());
+
+        verify(client, times(2)).readObject(any());
+    }
+
+    @Test
+    void latestObject_invalidated() throws Exception {
+
+        var cache = new MetadataCache(CACHE_SIZE, LATEST_TTL);
+        var v1 = saveTag(dataTag(1, 1));
+        var selector = MetadataUtil.selectorForLatest(v1.getHeader());
+
+        Assertions.assertEquals(v1, cache.readObject(client, "ACME_CORP", selector).toCompletableFuture().get());
+        Assertions.assertEquals(v1, cache.readObject(client, "ACME_CORP", selector).toCompletableFuture().get());
+
+        var v2 = saveTag(nextVersion(v1));
+        cache.invalidateLatest("ACME_CORP", v1.getHeader());
+
+        Assertions.assertEquals(v2, cache.readObject(client, "ACME_CORP", selector).toCompletableFuture().get());
+
+        // The explicit version is still held after the latest resolution is invalidated
+        var v1Selector = MetadataUtil.selectorFor(v1.getHeader());
+        Assertions.assertEquals(v1, cache.readObject(client, "ACME_CORP", v1Selector).toCompletableFuture().get());
+
+        verify(client, times(2)).readObject(any());
+    }
+
+    @Test
+    void latestObject_invalidateOnlyThatObject() throws Exception {
+
+        var cache = new MetadataCache(CACHE_SIZE, LATEST_TTL);
+        var tag1 = saveTag(dataTag(1, 1));
+        var tag2 = saveTag(dataTag(1, 1));
+        var selector1 = MetadataUtil.selectorForLatest(tag1.getHeader());
+        var selector2 = MetadataUtil.selectorForLatest(tag2.getHeader());
+
+        cache.readObject(client, "ACME_CORP", selector1).toCompletableFuture().get();
+        cache.readObject(client, "ACME_CORP", selector2).toCompletableFuture().get();
+        Assertions.assertEquals(2, cache.getLatestCount());
+
+        cache.invalidateLatest("ACME_CORP", tag1.getHeader());
+        Assertions.assertEquals(1, cache.getLatestCount());
+
+        cache.readObject(client, "ACME_CORP", selector2).toCompletableFuture().get();
+        Assertions.assertEquals(1, cache.getHitCount());
+
+        // Invalidating again when nothing is held is a no-op
+        cache.invalidateLatest("ACME_CORP", tag1.getHeader());
+        Assertions.assertEquals(1, cache.getLatestCount());
+    }
+
+    @Test
+    void metricsRegistered() throws Exception {
+
+        var cache = new MetadataCache(CACHE_SIZE, LATEST_TTL);
+        var tag = saveTag(dataTag(1, 1));
+        var selector = MetadataUtil.selectorFor(tag.getHeader());
+
+        cache.readObject(client, "ACME_CORP", selector).toCompletableFuture().get();
+        cache.readObject(client, "ACME_CORP", selector).toCompletableFuture().get();
+
+        var server = ManagementFactory.getPlatformMBeanServer();
+        var name = new ObjectName("org.finos.tracdap:type=MetadataCache,name=\"test\"");
+
+        cache.registerMetrics("test");
+
+        try {
+            Assertions.assertEquals(1L, server.getAttribute(name, "HitCount"));
+            Assertions.assertEquals(1L, server.getAttribute(name, "MissCount"));
+            Assertions.assertEquals(0.5, server.getAttribute(name, "HitRate"));
+        }
+        finally {
+            cache.unregisterMetrics();
+        }
+
+        Assertions.assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    void latestTtlZero_notCached() throws Exception {
+
+        var cache = new MetadataCache(CACHE_SIZE, Duration.ZERO);
+        var tag = saveTag(dataTag(1, 1));
+        var selector = MetadataUtil.selectorForLatest(tag.getHeader());
+
+        cache.readObject(client, "ACME_CORP", selector).toCompletableFuture().get();
+        cache.readObject(client, "ACME_CORP", selector).toCompletableFuture().get();
+
+        verify(client, times(2)).readObject(any());
+    }
+
+    @Test
+    void batch_partialMiss() throws Exception {
+
+        var cache = new MetadataCache(CACHE_SIZE, LATEST_TTL);
+        var tag1 = saveTag(dataTag(1, 1));
+        var tag2 = saveTag(dataTag(1, 1));
+        var tag3 = saveTag(dataTag(1, 1));
+
+        var selector1 = MetadataUtil.selectorFor(tag1.getHeader());
+        var selector2 = MetadataUtil.selectorFor(tag2.getHeader());
+        var selector3 = MetadataUtil.selectorFor(tag3.getHeader());
+
+        cache.readObject(client, "ACME_CORP", selector2).toCompletableFuture().get();
+
+        // Only the missing selectors go to the metadata service, results keep the order of the request
+
+        var batch = cache.readBatch(client, "ACME_CORP", List.of(selector1, selector2, selector3))
+                .toCompletableFuture().get();
+
+        Assertions.assertEquals(List.of(tag1, tag2, tag3), batch);
+        Assertions.assertEquals(1, cache.getHitCount());
+        Assertions.assertEquals(3, cache.getMissCount());
+
+        verify(client).readBatch(MetadataBatchRequest.newBuilder()
+                .setTenant("ACME_CORP")
+                .addSelector(selector1)
+                .addSelector(selector3)
+                .build());
+
+        // Now everything is cached, no more calls are needed
+
+        var batch2 = cache.readBatch(client, "ACME_CORP", List.of(selector1, selector2, selector3))
+                .toCompletableFuture().get();
+
+        Assertions.assertEquals(List.of(tag1, tag2, tag3), batch2);
+        verify(client, times(1)).readBatch(any());
+    }
+
+    @Test
+    void tenantSeparation() throws Exception {
+
+        var cache = new MetadataCache(CACHE_SIZE, LATEST_TTL);
+        var tag = saveTag(dataTag(1, 1));
+        var selector = MetadataUtil.selectorFor(tag.getHeader());
+
+        cache.readObject(client, "ACME_CORP", selector).toCompletableFuture().get();
+        cache.readObject(client, "SOME_OTHER_CORP", selector).toCompletableFuture().get();
+
+        Assertions.assertEquals(0, cache.getHitCount());
+        verify(client, times(2)).readObject(any());
+    }
+
+    @Test
+    void getAndPut_explicitVersion() {
+
+        // Blocking clients (e.g. the orchestrator) use the cache directly
+
+        var cache = new MetadataCache(CACHE_SIZE, Duration.ZERO);
+        var tag = dataTag(1, 1);
+        var selector = MetadataUtil.selectorFor(tag.getHeader());
+
+        Assertions.assertNull(cache.get("ACME_CORP", selector));
+
+        cache.put("ACME_CORP", selector, tag);
+
+        Assertions.assertEquals(tag, cache.get("ACME_CORP", selector));
+        Assertions.assertNull(cache.get("SOME_OTHER_CORP", selector));
+        Assertions.assertEquals(1, cache.getHitCount());
+        Assertions.assertEquals(2, cache.getMissCount());
+        Assertions.assertEquals(1, cache.getObjectCount());
+    }
+
+    @Test
+    void getAndPut_latestTtlZero() {
+
+        var cache = new MetadataCache(CACHE_SIZE, Duration.ZERO);
+        var tag = dataTag(1, 1);
+
+        var latestObject = MetadataUtil.selectorForLatest(tag.getHeader());
+        var latestTag = MetadataUtil.selectorFor(tag.getHeader(), false, true);
+
+        Assertions.assertFalse(cache.isCacheable(latestObject));
+        Assertions.assertFalse(cache.isCacheable(latestTag));
+
+        cache.put("ACME_CORP", latestObject, tag);
+        cache.put("ACME_CORP", latestTag, tag);
+
+        Assertions.assertNull(cache.get("ACME_CORP", latestObject));
+        Assertions.assertNull(cache.get("ACME_CORP", latestTag));
+        Assertions.assertEquals(0, cache.getLatestCount());
+
+        // Lookups that cannot use the cache are not counted as misses
+        Assertions.assertEquals(0, cache.getMissCount());
+    }
+
+    @Test
+    void disabled() throws Exception {
+
+        var cache = MetadataCache.disabled();
+        var tag = saveTag(dataTag(1, 1));
+        var selector = MetadataUtil.selectorFor(tag.getHeader());
+
+        cache.readObject(client, "ACME_CORP", selector).toCompletableFuture().get();
+        cache.readObject(client, "ACME_CORP", selector).toCompletableFuture().get();
+
+        Assertions.assertEquals(0, cache.getObjectCount());
+        verify(client, times(2)).readObject(any());
+    }
+
+    private Tag saveTag(Tag tag) {
+
+        metadataStore.add(tag);
+        return tag;
+    }
+
+    private Tag resolve(TagSelector selector) {
+
+        Tag match = null;
+
+        for (var tag : metadataStore) {
+
+            var header = tag.getHeader();
+
+            if (!header.getObjectId().equals(selector.getObjectId()))
+                continue;
+
+            if (selector.getObjectCriteriaCase() == TagSelector.ObjectCriteriaCase.OBJECTVERSION &&
+                header.getObjectVersion() != selector.getObjectVersion())
+                continue;
+
+            if (selector.getTagCriteriaCase() == TagSelector.TagCriteriaCase.TAGVERSION &&
+                header.getTagVersion() != selector.getTagVersion())
+                continue;
+
+            // Store is in save order, so the last match is the latest
+            match = tag;
+        }
+
+        if (match == null)
+            throw new IllegalStateException("Object not found in test store");
+
+        return match;
+    }
+
+    private Tag dataTag(int objectVersion, int tagVersion) {
+
+        var header = TagHeader.newBuilder()
+                .setObjectType(ObjectType.DATA)
+                .setObjectId(UUID.randomUUID().toString())
+                .setObjectVersion(objectVersion)
+                .setTagVersion(tagVersion)
+                .build();
+
+        var definition = ObjectDefinition.newBuilder()
+                .setObjectType(ObjectType.DATA)
+                .setData(DataDefinition.newBuilder()
+                        .setStorageId(MetadataUtil.selectorFor(header)))
+                .build();
+
+        return Tag.newBuilder()
+                .setHeader(header)
+                .setDefinition(definition)
+                .build();
+    }
+
+    private Tag nextTag(Tag tag, String attrName) {
+
+        var header = tag.getHeader().toBuilder()
+                .setTagVersion(tag.getHeader().getTagVersion() + 1);
+
+        return tag.toBuilder()
+                .setHeader(header)
+                .putAttrs(attrName, Value.newBuilder().setStringValue("new_value").build())
+                .build();
+    }
+
+    private Tag nextVersion(Tag tag) {
+
+        var header = tag.getHeader().toBuilder()
+                .setObjectVersion(tag.getHeader().getObjectVersion() + 1)
+                .setTagVersion(1);
+
+        return tag.toBuilder()
+                .setHeader(header)
+                .build();
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.common.netty;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+
+public class NettyHelpersTest {
+
+    @Test
+    void nioGroup_nioChannels() {
+
+        var group = new NioEventLoopGroup(1);
+
+        try {
+            Assertions.assertEquals(NioServerSocketChannel.class, NettyHelpers.serverChannelType(group));
+            Assertions.assertEquals(NioSocketChannel.class, NettyHelpers.clientChannelType(group));
+
+            // Individual event loops use the same channel types as their group
+            Assertions.assertEquals(NioSocketChannel.class, NettyHelpers.clientChannelType(group.next()));
+        }
+        finally {
+            group.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void eventLoopGroup_transportSelection() {
+
+        var group = NettyHelpers.eventLoopGroup("test-group", 1);
+
+        try {
+
+            if (NettyHelpers.nativeTransport()) {
+                Assertions.assertInstanceOf(EpollEventLoopGroup.class, group);
+                Assertions.assertEquals(EpollServerSocketChannel.class, NettyHelpers.serverChannelType(group));
+                Assertions.assertEquals(EpollSocketChannel.class, NettyHelpers.clientChannelType(group.next()));
+            }
+            else {
+                Assertions.assertInstanceOf(NioEventLoopGroup.class, group);
+                Assertions.assertEquals(NioServerSocketChannel.class, NettyHelpers.serverChannelType(group));
+                Assertions.assertEquals(NioSocketChannel.class, NettyHelpers.clientChannelType(group.next()));
+            }
+        }
+        finally {
+            group.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void eventLoopGroup_connect() throws Exception {
+
+        // Whichever transport is selected, the channel types must work with the group
+
+        EventLoopGroup group = NettyHelpers.eventLoopGroup("test-connect", 2);
+
+        try {
+
+            var server = new ServerBootstrap()
+                    .group(group)
+                    .channel(NettyHelpers.serverChannelType(group))
+                    .childHandler(new ChannelInboundHandlerAdapter())
+                    .bind("localhost", 0)
+                    .sync().channel();
+
+            var port = ((InetSocketAddress) server.localAddress()).getPort();
+
+            var client = new Bootstrap()
+                    .group(group)
+                    .channel(NettyHelpers.clientChannelType(group))
+                    .handler(new ChannelInboundHandlerAdapter())
+                    .connect("localhost", port)
+                    .sync().channel();
+
+            Assertions.assertTrue(client.isActive());
+
+            client.close().sync();
+            server.close().sync();
+        }
+        finally {
+            group.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+        }
+    }
+}
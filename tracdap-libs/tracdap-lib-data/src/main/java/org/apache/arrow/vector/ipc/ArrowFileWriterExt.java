@@ -18,12 +18,24 @@
 package org.apache.arrow.vector.ipc;
 
 import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.compression.CompressionCodec;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.apache.arrow.vector.compression.NoCompressionCodec;
 import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.message.ArrowBlock;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.apache.arrow.vector.ipc.message.IpcOption;
 
 import java.io.IOException;
 import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 public class ArrowFileWriterExt extends ArrowFileWriter {
 
@@ -32,15 +44,47 @@ public class ArrowFileWriterExt extends ArrowFileWriter {
     // This implementation delays writing dictionaries until all record batches are output
     // The dictionary provider must be updated with all dictionary values used during the operation
 
+    // Row counts for each record batch are also recorded in the custom metadata of the footer
+    // This allows readers to find the batches for a range of rows using only the footer
+    // Files without this metadata are still valid, readers must decode the batches to count rows
+
+    public static final String BATCH_ROW_COUNTS_KEY = "trac_batch_row_counts";
+
     private final DictionaryProvider dictionaryProvider;
     private final Set<Long> dictionaryIdsUsed;
+    private final Map<String, String> footerMetadata;
+    private final List<Integer> batchRowCounts;
 
     public ArrowFileWriterExt(VectorSchemaRoot root, DictionaryProvider provider, WritableByteChannel out) {
 
-        super(root, provider, out);
+        this(root, provider, out, NoCompressionCodec.Factory.INSTANCE, CompressionUtil.CodecType.NO_COMPRESSION);
+    }
+
+    public ArrowFileWriterExt(
+            VectorSchemaRoot root, DictionaryProvider provider, WritableByteChannel out,
+            CompressionCodec.Factory compressionFactory, CompressionUtil.CodecType compression) {
+
+        this(root, provider, out, new HashMap<>(), compressionFactory, compression);
+    }
+
+    private ArrowFileWriterExt(
+            VectorSchemaRoot root, DictionaryProvider provider, WritableByteChannel out,
+            Map<String, String> footerMetadata,
+            CompressionCodec.Factory compressionFactory, CompressionUtil.CodecType compression) {
+
+        // The footer metadata map is held by reference and written out in endInternal()
+        super(root, provider, out, footerMetadata, IpcOption.DEFAULT, compressionFactory, compression);
 
         this.dictionaryProvider = provider;
         this.dictionaryIdsUsed = new HashSet<>();
+        this.footerMetadata = footerMetadata;
+        this.batchRowCounts = new ArrayList<>();
+    }
+
+    @Override
+    protected ArrowBlock writeRecordBatch(ArrowRecordBatch batch) throws IOException {
+        batchRowCounts.add(batch.getLength());
+        return super.writeRecordBatch(batch);
     }
 
     @Override
@@ -53,6 +97,24 @@ public class ArrowFileWriterExt extends ArrowFileWriter {
     protected void endInternal(WriteChannel out) throws IOException {
         // Now output all used dictionaries
         super.ensureDictionariesWritten(dictionaryProvider, dictionaryIdsUsed);
+        footerMetadata.put(BATCH_ROW_COUNTS_KEY, encodeRowCounts(batchRowCounts));
         super.endInternal(out);
     }
+
+    public static String encodeRowCounts(List<Integer> rowCounts) {
+
+        return rowCounts.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+    }
+
+    public static List<Integer> decodeRowCounts(String rowCounts) {
+
+        if (rowCounts.isEmpty())
+            return List.of();
+
+        return Arrays.stream(rowCounts.split(","))
+                .map(Integer::parseInt)
+                .collect(Collectors.toList());
+    }
 }
@@ -18,6 +18,7 @@
 package org.finos.tracdap.common.codec;
 
 import org.finos.tracdap.common.config.ConfigManager;
+import org.finos.tracdap.common.exception.EInputValidation;
 import org.finos.tracdap.common.exception.EPluginNotAvailable;
 import org.finos.tracdap.common.plugin.IPluginManager;
 import org.slf4j.Logger;
@@ -30,6 +31,8 @@ import java.util.Map;
 
 public class CodecManager implements ICodecManager {
 
+    private static final String FORMAT_OPTION_SEPARATOR = ";";
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     private final Map<String, ICodec> codecs;
@@ -62,7 +65,7 @@ public class CodecManager implements ICodecManager {
     @Override
     public ICodec getCodec(String format) {
 
-        var protocol = format.toLowerCase();
+        var protocol = baseFormat(format).toLowerCase();
 
         if (codecs.containsKey(protocol)) {
 
@@ -77,4 +80,57 @@ public class CodecManager implements ICodecManager {
             throw new EPluginNotAvailable(message);
         }
     }
+
+    @Override
+    public Map<String, String> getCodecOptions(String format) {
+
+        // Codec options can be passed as mime type parameters, e.g. "application/vnd.apache.arrow.file; compression=zstd"
+        // Only options the codec allows per request are accepted, other options are ignored
+        // Options that affect resources or storage layout (parallelism, row groups etc.) can only be set in config
+
+        var codec = getCodec(format);
+        var requestOptions = codec.requestOptions();
+        var parts = format.split(FORMAT_OPTION_SEPARATOR);
+        var options = new HashMap<String, String>();
+
+        for (var i = 1; i < parts.length; i++) {
+
+            var option = parts[i].split("=", 2);
+
+            if (option.length != 2) {
+                var message = String.format("Invalid data format: [%s] (format options must be key=value pairs)", format);
+                log.error(message);
+                throw new EInputValidation(message);
+            }
+
+            var key = option[0].trim();
+            var value = option[1].trim();
+
+            if (!requestOptions.containsKey(key)) {
+                log.warn("Ignoring unsupported option for data format [{}]: [{}]", baseFormat(format), key);
+                continue;
+            }
+
+            var allowedValues = requestOptions.get(key);
+
+            if (!allowedValues.contains(value.toLowerCase())) {
+                var message = String.format(
+                        "Invalid data format: [%s] (option [%s] must be one of %s)",
+                        format, key, allowedValues);
+                log.error(message);
+                throw new EInputValidation(message);
+            }
+
+            options.put(key, value);
+        }
+
+        return options;
+    }
+
+    private String baseFormat(String format) {
+
+        var separator = format.indexOf(FORMAT_OPTION_SEPARATOR);
+
+        return separator < 0 ? format : format.substring(0, separator).trim();
+    }
 }
@@ -21,6 +21,7 @@ import org.finos.tracdap.common.data.ArrowVsrSchema;
 import org.finos.tracdap.metadata.SchemaDefinition;
 import org.finos.tracdap.common.data.DataPipeline;
 
+import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.BufferAllocator;
 
 import java.util.List;
@@ -40,6 +41,13 @@ public interface ICodec {
 
     List<String> options();
 
+    // Options a client can set for an individual request, as parameters in the data format
+    // Each option is listed with its allowed values, other options can only be set in config
+
+    default Map<String, List<String>> requestOptions() {
+        return Map.of();
+    }
+
     String defaultFileExtension();
     String defaultMimeType();
 
@@ -60,4 +68,51 @@ public interface ICodec {
             ArrowVsrSchema arrowSchema,
             BufferAllocator allocator,
             Map<String, String> options);
+
+    // Decode only the listed fields, in the order they are listed
+    // Codecs avoid materializing the other fields wherever the format allows
+
+    Decoder<?> getDecoder(
+            SchemaDefinition tracSchema,
+            List<String> fields,
+            BufferAllocator allocator,
+            Map<String, String> options);
+
+    // Formats with an index in the file footer can be read from storage one section at a time
+    // Storage reads the footer, then fetches only the sections it needs with ranged reads
+    // Codecs that do not support this return null, stored files are then read in full
+
+    default FileIndexReader getFileIndexReader() {
+        return null;
+    }
+
+    interface FileIndexReader {
+
+        // Size of the fixed trailer at the end of the file, which holds the footer length
+        int trailerSize();
+
+        // Footer length (not including the trailer), read from the trailer at the given offset
+        long readFooterLength(ArrowBuf trailer, long trailerOffset);
+
+        // Build the index from the end of the file, starting at the footer, which is at the given offset in the buffer
+        FileIndex readIndex(ArrowBuf footer, long footerOffset, long fileSize);
+    }
+
+    interface FileIndex {
+
+        int sectionCount();
+
+        long sectionStart(int section);
+
+        long sectionEnd(int section);
+
+        long sectionRowCount(int section);
+
+        // Decoder for one section, the decoder receives only the content of that section
+        Decoder<?> getSectionDecoder(
+                int section,
+                ArrowVsrSchema arrowSchema,
+                BufferAllocator allocator,
+                Map<String, String> options);
+    }
 }
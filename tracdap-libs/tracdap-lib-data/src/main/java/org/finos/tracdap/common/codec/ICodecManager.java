@@ -17,11 +17,15 @@
 
 package org.finos.tracdap.common.codec;
 
+import java.util.Map;
+
 
 public interface ICodecManager {
 
     ICodec getCodec(String format);
 
+    Map<String, String> getCodecOptions(String format);
+
     String getDefaultFileExtension(String format);
     String getDefaultMimeType(String format);
 }
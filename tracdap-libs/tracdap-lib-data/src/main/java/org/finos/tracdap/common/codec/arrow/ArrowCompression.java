@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.common.codec.arrow;
+
+import org.finos.tracdap.common.exception.EConfigParse;
+
+import org.apache.arrow.compression.CommonsCompressionFactory;
+import org.apache.arrow.vector.compression.CompressionCodec;
+import org.apache.arrow.vector.compression.CompressionUtil;
+
+import java.util.List;
+import java.util.Map;
+
+
+public class ArrowCompression {
+
+    // Arrow IPC supports compression of the buffers in each record batch (body compression)
+    // Compression is recorded in each message, so readers can always decompress without being told
+    // Writers only compress if the compression option is set
+
+    public static final String COMPRESSION_OPTION = "compression";
+
+    public static final String COMPRESSION_NONE = "none";
+    public static final String COMPRESSION_LZ4 = "lz4";
+    public static final String COMPRESSION_LZ4_FRAME = "lz4_frame";
+    public static final String COMPRESSION_ZSTD = "zstd";
+
+    public static final List<String> COMPRESSION_VALUES = List.of(
+            COMPRESSION_NONE, COMPRESSION_LZ4,
+            COMPRESSION_LZ4_FRAME, COMPRESSION_ZSTD);
+
+    static CompressionCodec.Factory compressionFactory() {
+
+        return CommonsCompressionFactory.INSTANCE;
+    }
+
+    static CompressionUtil.CodecType compressionOption(Map<String, String> options) {
+
+        var compression = options.get(COMPRESSION_OPTION);
+
+        if (compression == null || compression.isBlank())
+            return CompressionUtil.CodecType.NO_COMPRESSION;
+
+        switch (compression.trim().toLowerCase()) {
+
+            case COMPRESSION_NONE:
+                return CompressionUtil.CodecType.NO_COMPRESSION;
+
+            case COMPRESSION_LZ4:
+            case COMPRESSION_LZ4_FRAME:
+                return CompressionUtil.CodecType.LZ4_FRAME;
+
+            case COMPRESSION_ZSTD:
+                return CompressionUtil.CodecType.ZSTD;
+
+            default:
+                var message = String.format("Invalid Arrow compression [%s]", compression);
+                throw new EConfigParse(message);
+        }
+    }
+}
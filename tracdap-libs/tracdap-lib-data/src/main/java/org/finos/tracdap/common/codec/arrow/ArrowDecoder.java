@@ -41,13 +41,20 @@ public abstract class ArrowDecoder extends BufferDecoder implements DataPipeline
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     private final BufferAllocator allocator;
+    private final List<String> fields;
     private ArrowVsrContext context;
 
     private List<ArrowBuf> buffer;
     private ArrowReader reader;
+    private ArrowProjection projection;
 
     public ArrowDecoder(BufferAllocator allocator) {
+        this(allocator, List.of());
+    }
+
+    public ArrowDecoder(BufferAllocator allocator, List<String> fields) {
         this.allocator = allocator;
+        this.fields = fields;
     }
 
     protected abstract ArrowReader createReader(List<ArrowBuf> buffer) throws IOException;
@@ -68,10 +75,13 @@ public abstract class ArrowDecoder extends BufferDecoder implements DataPipeline
 
             this.buffer = buffer;
             this.reader = createReader(buffer);
+            this.projection = ArrowProjection.forFields(reader.getVectorSchemaRoot(), fields);
+
+            var root = projection != null
+                    ? projection.getVectorSchemaRoot()
+                    : reader.getVectorSchemaRoot();
 
-            this.context = ArrowVsrContext.forSource(
-                    reader.getVectorSchemaRoot(),
-                    reader, allocator);
+            this.context = ArrowVsrContext.forSource(root, reader, allocator);
 
             consumer().onStart(context);
 
@@ -134,6 +144,10 @@ public abstract class ArrowDecoder extends BufferDecoder implements DataPipeline
             var batchAvailable = reader.loadNextBatch();
 
             if (batchAvailable) {
+
+                if (projection != null)
+                    projection.batchLoaded();
+
                 context.setLoaded();
                 consumer().onBatch();
             }
@@ -172,6 +186,7 @@ public abstract class ArrowDecoder extends BufferDecoder implements DataPipeline
             if (reader != null) {
                 reader.close();
                 reader = null;
+                projection = null;
             }
 
             if (buffer != null) {
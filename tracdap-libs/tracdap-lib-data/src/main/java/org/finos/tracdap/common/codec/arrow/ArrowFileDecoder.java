@@ -32,13 +32,18 @@ public class ArrowFileDecoder extends ArrowDecoder {
     private final BufferAllocator arrowAllocator;
 
     public ArrowFileDecoder(BufferAllocator arrowAllocator) {
-        super(arrowAllocator);
+        this(arrowAllocator, List.of());
+    }
+
+    public ArrowFileDecoder(BufferAllocator arrowAllocator, List<String> fields) {
+        super(arrowAllocator, fields);
         this.arrowAllocator = arrowAllocator;
     }
 
     @Override
     protected ArrowReader createReader(List<ArrowBuf> buffer) {
         var channel = new ByteSeekableChannel(buffer);
-        return new ArrowFileReader(channel, arrowAllocator);
+        // Compressed record batches are decompressed as they are loaded
+        return new ArrowFileReader(channel, arrowAllocator, ArrowCompression.compressionFactory());
     }
 }
@@ -21,19 +21,29 @@ import org.finos.tracdap.common.data.ArrowVsrContext;
 import org.finos.tracdap.common.data.util.ByteOutputChannel;
 
 import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.compression.CompressionUtil;
 import org.apache.arrow.vector.ipc.ArrowWriter;
 import org.apache.arrow.vector.ipc.ArrowFileWriterExt;
 
 
 public class ArrowFileEncoder extends ArrowEncoder {
 
+    private final CompressionUtil.CodecType compression;
+
     public ArrowFileEncoder(BufferAllocator allocator) {
+        this(allocator, CompressionUtil.CodecType.NO_COMPRESSION);
+    }
+
+    public ArrowFileEncoder(BufferAllocator allocator, CompressionUtil.CodecType compression) {
         super(allocator);
+        this.compression = compression;
     }
 
     @Override
     protected ArrowWriter createWriter(ArrowVsrContext context, BufferAllocator allocator) {
         var out = new ByteOutputChannel(context.getAllocator(), consumer()::onNext);
-        return new ArrowFileWriterExt(context.getVsr(), context.getDictionaries(), out);
+        return new ArrowFileWriterExt(
+                context.getVsr(), context.getDictionaries(), out,
+                ArrowCompression.compressionFactory(), compression);
     }
 }
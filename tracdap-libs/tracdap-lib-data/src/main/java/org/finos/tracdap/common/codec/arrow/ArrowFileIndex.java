@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.common.codec.arrow;
+
+import org.finos.tracdap.common.data.util.Bytes;
+import org.finos.tracdap.common.exception.EDataCorruption;
+import org.finos.tracdap.common.exception.EUnexpected;
+
+import org.apache.arrow.flatbuf.Footer;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.ipc.ArrowFileWriterExt;
+import org.apache.arrow.vector.ipc.WriteChannel;
+import org.apache.arrow.vector.ipc.message.ArrowBlock;
+import org.apache.arrow.vector.ipc.message.ArrowFooter;
+import org.apache.arrow.vector.ipc.message.MessageSerializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+
+/**
+ * Index of the record batches in an Arrow file, built from the file footer.
+ *
+ * <p>The index can be used to read a range of rows from an Arrow file without
+ * loading the whole file. Record batch messages in the file are stored in the same
+ * form as in the Arrow stream format, so the messages for a range of batches can be
+ * fetched and sent through a regular stream decoder.</p>
+ */
+public class ArrowFileIndex {
+
+    // Arrow files end with [footer] [int32 footer length] [magic bytes]
+    private static final byte[] ARROW_MAGIC = "ARROW1".getBytes(StandardCharsets.UTF_8);
+    public static final int FOOTER_TRAILER_SIZE = Integer.BYTES + ARROW_MAGIC.length;
+
+    // End of stream marker is a continuation token followed by a zero length message
+    private static final int IPC_CONTINUATION_TOKEN = 0xFFFFFFFF;
+
+    private final ArrowFooter footer;
+    private final List<Integer> batchRowCounts;
+
+    private ArrowFileIndex(ArrowFooter footer, List<Integer> batchRowCounts) {
+        this.footer = footer;
+        this.batchRowCounts = batchRowCounts;
+    }
+
+    public static int readFooterLength(ArrowBuf trailer, long trailerOffset) {
+
+        var magicOffset = trailerOffset + Integer.BYTES;
+
+        for (var i = 0; i < ARROW_MAGIC.length; i++) {
+            if (trailer.getByte(magicOffset + i) != ARROW_MAGIC[i])
+                throw new EDataCorruption("Arrow file is invalid (file trailer is missing)");
+        }
+
+        // Arrow buffers are little-endian, as per the Arrow file format
+        var footerLength = trailer.getInt(trailerOffset);
+
+        if (footerLength <= 0)
+            throw new EDataCorruption("Arrow file is invalid (footer length is not valid)");
+
+        return footerLength;
+    }
+
+    public static ArrowFileIndex readFooter(ArrowBuf buffer, long footerOffset, int footerLength) {
+
+        try {
+
+            var footerBytes = buffer.nioBuffer(footerOffset, footerLength);
+            var footer = new ArrowFooter(Footer.getRootAsFooter(footerBytes));
+
+            var rowCountsMetadata = footer.getMetaData() != null
+                    ? footer.getMetaData().get(ArrowFileWriterExt.BATCH_ROW_COUNTS_KEY)
+                    : null;
+
+            var batchRowCounts = rowCountsMetadata != null
+                    ? ArrowFileWriterExt.decodeRowCounts(rowCountsMetadata)
+                    : null;
+
+            if (batchRowCounts != null && batchRowCounts.size() != footer.getRecordBatches().size())
+                throw new EDataCorruption("Arrow file is invalid (footer metadata does not match the file content)");
+
+            return new ArrowFileIndex(footer, batchRowCounts);
+        }
+        catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new EDataCorruption("Arrow file is invalid (footer could not be read)", e);
+        }
+    }
+
+    public boolean hasRowCounts() {
+        return batchRowCounts != null;
+    }
+
+    public int batchCount() {
+        return footer.getRecordBatches().size();
+    }
+
+    public int dictionaryCount() {
+        return footer.getDictionaries().size();
+    }
+
+    public BatchRange selectBatches(long offset, long limit) {
+
+        // Without row counts, all the batches are needed
+        if (batchRowCounts == null)
+            return new BatchRange(0, batchCount(), 0);
+
+        var firstBatch = -1;
+        var firstRow = 0L;
+        var endBatch = batchCount();
+        var currentRow = 0L;
+
+        for (var batch = 0; batch < batchCount(); batch++) {
+
+            var batchStart = currentRow;
+            var batchEnd = currentRow + batchRowCounts.get(batch);
+
+            if (firstBatch < 0 && batchEnd > offset) {
+                firstBatch = batch;
+                firstRow = batchStart;
+            }
+
+            if (limit != 0 && batchStart >= offset + limit) {
+                endBatch = batch;
+                break;
+            }
+
+            currentRow = batchEnd;
+        }
+
+        // Offset is past the end of the data, no batches are needed
+        if (firstBatch < 0)
+            return new BatchRange(0, 0, currentRow);
+
+        return new BatchRange(firstBatch, endBatch, firstRow);
+    }
+
+    public long batchesStart(BatchRange range) {
+        return blockStart(footer.getRecordBatches(), range.firstBatch);
+    }
+
+    public long batchesEnd(BatchRange range) {
+        return blockEnd(footer.getRecordBatches(), range.endBatch - 1);
+    }
+
+    public long dictionariesStart() {
+        return blockStart(footer.getDictionaries(), 0);
+    }
+
+    public long dictionariesEnd() {
+        return blockEnd(footer.getDictionaries(), dictionaryCount() - 1);
+    }
+
+    public ArrowBuf streamHeader(BufferAllocator allocator) {
+
+        // The stream header is just the schema message
+        // Messages for dictionaries and record batches can be appended after it
+
+        try {
+
+            var header = new ByteArrayOutputStream();
+            var headerChannel = new WriteChannel(Channels.newChannel(header));
+
+            MessageSerializer.serialize(headerChannel, footer.getSchema());
+
+            return Bytes.copyToBuffer(header.toByteArray(), allocator);
+        }
+        catch (IOException e) {
+            // Output stream is writing to memory, IO errors are not expected
+            throw new EUnexpected(e);
+        }
+    }
+
+    public ArrowBuf streamFooter(BufferAllocator allocator) {
+
+        var eos = allocator.buffer(2 * Integer.BYTES);
+        eos.writeInt(IPC_CONTINUATION_TOKEN);
+        eos.writeInt(0);
+
+        return eos;
+    }
+
+    private long blockStart(List<ArrowBlock> blocks, int index) {
+
+        return blocks.get(index).getOffset();
+    }
+
+    private long blockEnd(List<ArrowBlock> blocks, int index) {
+
+        var block = blocks.get(index);
+        return block.getOffset() + block.getMetadataLength() + block.getBodyLength();
+    }
+
+    public static class BatchRange {
+
+        public final int firstBatch;
+        public final int endBatch;
+        public final long firstRow;
+
+        public BatchRange(int firstBatch, int endBatch, long firstRow) {
+            this.firstBatch = firstBatch;
+            this.endBatch = endBatch;
+            this.firstRow = firstRow;
+        }
+
+        public boolean isEmpty() {
+            return endBatch <= firstBatch;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.common.codec.arrow;
+
+import org.finos.tracdap.common.exception.EDataConstraint;
+
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+
+class ArrowProjection {
+
+    // Arrow IPC readers load record batches as slices of the message body, so loading is cheap
+    // The projection exposes only the selected vectors and releases the others as soon as each batch is loaded
+    // Vectors are shared with the reader's root, which keeps ownership
+
+    private final VectorSchemaRoot source;
+    private final VectorSchemaRoot projected;
+    private final List<FieldVector> unused;
+
+    static ArrowProjection forFields(VectorSchemaRoot source, List<String> fieldNames) {
+
+        if (fieldNames == null || fieldNames.isEmpty())
+            return null;
+
+        return new ArrowProjection(source, fieldNames);
+    }
+
+    private ArrowProjection(VectorSchemaRoot source, List<String> fieldNames) {
+
+        var sourceVectors = new TreeMap<String, FieldVector>(String.CASE_INSENSITIVE_ORDER);
+
+        for (var vector : source.getFieldVectors())
+            sourceVectors.put(vector.getName(), vector);
+
+        var selected = new ArrayList<FieldVector>(fieldNames.size());
+
+        for (var fieldName : fieldNames) {
+
+            var vector = sourceVectors.get(fieldName);
+
+            if (vector == null) {
+                var message = String.format("Field [%s] is not present in the data", fieldName);
+                throw new EDataConstraint(message);
+            }
+
+            selected.add(vector);
+        }
+
+        var unused = new ArrayList<FieldVector>(source.getFieldVectors());
+        unused.removeAll(selected);
+
+        this.source = source;
+        this.projected = new VectorSchemaRoot(selected);
+        this.unused = unused;
+    }
+
+    VectorSchemaRoot getVectorSchemaRoot() {
+        return projected;
+    }
+
+    void batchLoaded() {
+
+        for (var vector : unused)
+            vector.clear();
+
+        projected.setRowCount(source.getRowCount());
+    }
+}
@@ -35,7 +35,12 @@ public class ArrowStreamCodec implements ICodec {
 
     @Override
     public List<String> options() {
-        return List.of();
+        return List.of(ArrowCompression.COMPRESSION_OPTION);
+    }
+
+    @Override
+    public Map<String, List<String>> requestOptions() {
+        return Map.of(ArrowCompression.COMPRESSION_OPTION, ArrowCompression.COMPRESSION_VALUES);
     }
 
     @Override
@@ -51,7 +56,8 @@ public class ArrowStreamCodec implements ICodec {
     @Override
     public Encoder<DataPipeline.StreamApi>
     getEncoder(BufferAllocator allocator, Map<String, String> options) {
-        return new ArrowStreamEncoder(allocator);
+        var compression = ArrowCompression.compressionOption(options);
+        return new ArrowStreamEncoder(allocator, compression);
     }
 
     @Override
@@ -68,4 +74,12 @@ public class ArrowStreamCodec implements ICodec {
     public Decoder<?> getDecoder(ArrowVsrSchema arrowSchema, BufferAllocator allocator, Map<String, String> options) {
         return new ArrowStreamDecoder(allocator);
     }
+
+    @Override
+    public Decoder<?> getDecoder(
+            SchemaDefinition tracSchema, List<String> fields,
+            BufferAllocator allocator, Map<String, String> options) {
+
+        return new ArrowStreamDecoder(allocator, fields);
+    }
 }
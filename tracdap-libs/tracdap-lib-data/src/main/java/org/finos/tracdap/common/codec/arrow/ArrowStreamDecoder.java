@@ -31,6 +31,7 @@ import org.apache.arrow.vector.ipc.ArrowStreamReader;
 import org.apache.arrow.vector.ipc.message.MessageStreamReader;
 
 import java.io.IOException;
+import java.util.List;
 
 
 public class ArrowStreamDecoder extends StreamingDecoder implements DataPipeline.StreamApi {
@@ -38,15 +39,23 @@ public class ArrowStreamDecoder extends StreamingDecoder implements DataPipeline
     // Pure streaming implementation of the arrow stream codec
     // Uses MessageStreamReader to process incoming bytes and determine when messages are available
     // Once messages arrive, defer to the regular ArrowStreamReader provided by the core Arrow libraries
+    // Message bodies are passed through as-is, compressed record batches are decompressed when they are loaded
 
     private final BufferAllocator allocator;
+    private final List<String> fields;
 
     private MessageStreamReader messageReader;
     private ArrowReader arrowReader;
+    private ArrowProjection projection;
     private ArrowVsrContext context;
 
     public ArrowStreamDecoder(BufferAllocator allocator) {
+        this(allocator, List.of());
+    }
+
+    public ArrowStreamDecoder(BufferAllocator allocator, List<String> fields) {
         this.allocator = allocator;
+        this.fields = fields;
     }
 
     @Override
@@ -55,7 +64,7 @@ public class ArrowStreamDecoder extends StreamingDecoder implements DataPipeline
         try {
 
             messageReader = new MessageStreamReader(allocator);
-            arrowReader = new ArrowStreamReader(messageReader, allocator);
+            arrowReader = new ArrowStreamReader(messageReader, allocator, ArrowCompression.compressionFactory());
         }
         catch (Throwable e) {
             var error = ArrowErrorMapping.mapDecodingError(e);
@@ -130,7 +139,14 @@ public class ArrowStreamDecoder extends StreamingDecoder implements DataPipeline
         if (context == null) {
 
             if (messageReader.hasMessage()) {
-                context = ArrowVsrContext.forSource(arrowReader.getVectorSchemaRoot(), arrowReader, allocator);
+
+                projection = ArrowProjection.forFields(arrowReader.getVectorSchemaRoot(), fields);
+
+                var root = projection != null
+                        ? projection.getVectorSchemaRoot()
+                        : arrowReader.getVectorSchemaRoot();
+
+                context = ArrowVsrContext.forSource(root, arrowReader, allocator);
                 consumer().onStart(context);
             }
             else if (messageReader.hasEos()) {
@@ -145,6 +161,10 @@ public class ArrowStreamDecoder extends StreamingDecoder implements DataPipeline
 
         while (consumerReady() && messageReader.hasMessage(MessageHeader.RecordBatch)) {
             arrowReader.loadNextBatch();
+
+            if (projection != null)
+                projection.batchLoaded();
+
             consumer().onBatch();
         }
 
@@ -169,6 +189,7 @@ public class ArrowStreamDecoder extends StreamingDecoder implements DataPipeline
             if (arrowReader != null) {
                 arrowReader.close();
                 arrowReader = null;
+                projection = null;
             }
 
             if (messageReader != null) {
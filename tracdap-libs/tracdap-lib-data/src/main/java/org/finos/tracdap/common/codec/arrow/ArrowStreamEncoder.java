@@ -21,19 +21,30 @@ import org.finos.tracdap.common.data.ArrowVsrContext;
 import org.finos.tracdap.common.data.util.ByteOutputChannel;
 
 import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.compression.CompressionUtil;
 import org.apache.arrow.vector.ipc.ArrowStreamWriter;
 import org.apache.arrow.vector.ipc.ArrowWriter;
+import org.apache.arrow.vector.ipc.message.IpcOption;
 
 
 public class ArrowStreamEncoder extends ArrowEncoder {
 
+    private final CompressionUtil.CodecType compression;
+
     public ArrowStreamEncoder(BufferAllocator allocator) {
+        this(allocator, CompressionUtil.CodecType.NO_COMPRESSION);
+    }
+
+    public ArrowStreamEncoder(BufferAllocator allocator, CompressionUtil.CodecType compression) {
         super(allocator);
+        this.compression = compression;
     }
 
     @Override
     protected ArrowWriter createWriter(ArrowVsrContext context, BufferAllocator allocator) {
         var out = new ByteOutputChannel(context.getAllocator(), consumer()::onNext);
-        return new ArrowStreamWriter(context.getVsr(), context.getDictionaries(), out);
+        return new ArrowStreamWriter(
+                context.getVsr(), context.getDictionaries(), out, IpcOption.DEFAULT,
+                ArrowCompression.compressionFactory(), compression);
     }
 }
@@ -24,14 +24,17 @@ import com.fasterxml.jackson.dataformat.csv.CsvGenerator;
 import com.fasterxml.jackson.dataformat.csv.CsvParser;
 import org.finos.tracdap.common.codec.ICodec;
 import org.finos.tracdap.common.codec.text.BaseTextEncoder;
-import org.finos.tracdap.common.codec.text.BufferedTextDecoder;
+import org.finos.tracdap.common.codec.text.ParallelTextDecoder;
+import org.finos.tracdap.common.codec.text.SegmentedTextDecoder;
 import org.finos.tracdap.common.codec.text.TextFileConfig;
 import org.finos.tracdap.common.data.ArrowVsrContext;
 import org.finos.tracdap.common.data.ArrowVsrSchema;
 import org.finos.tracdap.common.data.DataPipeline;
 
 import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.types.pojo.Schema;
 import org.finos.tracdap.common.data.SchemaMapping;
+import org.finos.tracdap.common.exception.EConfigParse;
 import org.finos.tracdap.common.exception.EDataConstraint;
 import org.finos.tracdap.metadata.SchemaDefinition;
 import org.finos.tracdap.metadata.SchemaType;
@@ -42,8 +45,12 @@ import java.util.Map;
 
 public class CsvCodec implements ICodec {
 
+    public static final String PARALLELISM_OPTION = "parallelism";
+
     private static final boolean DEFAULT_HEADER_FLAG = true;
     private static final int BATCH_SIZE = 1024;
+    private static final int DEFAULT_PARALLELISM = 1;
+    private static final char QUOTE_CHAR = '"';
 
     private static final String DEFAULT_FILE_EXTENSION = "csv";
     private static final String DEFAULT_MIME_TYPE = "text/csv";
@@ -60,7 +67,7 @@ public class CsvCodec implements ICodec {
 
     @Override
     public List<String> options() {
-        return List.of();
+        return List.of(PARALLELISM_OPTION);
     }
 
     @Override
@@ -88,7 +95,7 @@ public class CsvCodec implements ICodec {
     }
 
     @Override
-    public Decoder<DataPipeline.BufferApi>
+    public Decoder<DataPipeline.StreamApi>
     getDecoder(SchemaDefinition tracSchema, BufferAllocator allocator, Map<String, String> options) {
 
         if (tracSchema.getSchemaType() != SchemaType.TABLE_SCHEMA) {
@@ -100,11 +107,75 @@ public class CsvCodec implements ICodec {
     }
 
     @Override
-    public Decoder<DataPipeline.BufferApi>
+    public Decoder<DataPipeline.StreamApi>
     getDecoder(ArrowVsrSchema arrowSchema, BufferAllocator allocator, Map<String, String> options) {
 
         var config = new TextFileConfig(csvFactory, null, BATCH_SIZE, false);
-        return new BufferedTextDecoder(arrowSchema, allocator, config, this::parserSetup);
+        return newDecoder(arrowSchema, allocator, config, this::parserSetup, options);
+    }
+
+    @Override
+    public Decoder<DataPipeline.StreamApi>
+    getDecoder(SchemaDefinition tracSchema, List<String> fields, BufferAllocator allocator, Map<String, String> options) {
+
+        if (tracSchema.getSchemaType() != SchemaType.TABLE_SCHEMA) {
+            throw new EDataConstraint("CSV decoder only support TABLE_SCHEMA");
+        }
+
+        var arrowSchema = SchemaMapping.tracToArrow(tracSchema, allocator);
+
+        if (fields.isEmpty())
+            return getDecoder(arrowSchema, allocator, options);
+
+        // CSV columns are positional, so the parser still needs the full schema
+        // Values for columns outside the projection are skipped without being converted
+
+        var projectedSchema = arrowSchema.project(fields);
+        var config = new TextFileConfig(csvFactory, null, BATCH_SIZE, false, /* skipUnknownFields = */ true);
+
+        return newDecoder(projectedSchema, allocator, config,
+                (parser, context, firstSegment) -> parserSetup(parser, arrowSchema.logical(), firstSegment),
+                options);
+    }
+
+    private Decoder<DataPipeline.StreamApi> newDecoder(
+            ArrowVsrSchema arrowSchema, BufferAllocator allocator, TextFileConfig config,
+            SegmentedTextDecoder.ParserSetup parserSetup, Map<String, String> options) {
+
+        var parallelism = parallelismOption(options);
+
+        // Segments are parsed on the offload pool of the data context, the event loop only scans for record boundaries
+        // Dictionaries built by separate workers cannot be merged, so dictionary fields are always decoded in sequence
+
+        if (parallelism > 1 && arrowSchema.dictionaryFields().isEmpty()) {
+
+            return new ParallelTextDecoder(
+                    arrowSchema, allocator, config, parserSetup, QUOTE_CHAR, parallelism);
+        }
+
+        return new SegmentedTextDecoder(arrowSchema, allocator, config, parserSetup, QUOTE_CHAR);
+    }
+
+    private int parallelismOption(Map<String, String> options) {
+
+        var parallelism = options.get(PARALLELISM_OPTION);
+
+        if (parallelism == null || parallelism.isBlank())
+            return DEFAULT_PARALLELISM;
+
+        try {
+
+            var value = Integer.parseInt(parallelism.trim());
+
+            if (value <= 0)
+                throw new NumberFormatException("Parallelism must be positive");
+
+            return value;
+        }
+        catch (NumberFormatException e) {
+            var message = String.format("Invalid CSV parallelism [%s]", parallelism);
+            throw new EConfigParse(message, e);
+        }
     }
 
     protected void generatorSetup(JsonGenerator generator, ArrowVsrContext context) {
@@ -117,13 +188,20 @@ public class CsvCodec implements ICodec {
         generator.setSchema(csvSchema);
     }
 
-    protected void parserSetup(JsonParser parser, ArrowVsrContext context) {
+    protected void parserSetup(JsonParser parser, ArrowVsrContext context, boolean firstSegment) {
+
+        parserSetup(parser, context.getSchema().logical(), firstSegment);
+    }
+
+    private void parserSetup(JsonParser parser, Schema fileSchema, boolean firstSegment) {
 
         var csvSchema = CsvSchemaMapping
-                .arrowToCsv(context.getSchema().logical())
+                .arrowToCsv(fileSchema)
                 .build();
 
-        csvSchema = DEFAULT_HEADER_FLAG
+        // The header line is only present in the first segment of the file
+
+        csvSchema = DEFAULT_HEADER_FLAG && firstSegment
                 ? csvSchema.withHeader()
                 : csvSchema.withoutHeader();
 
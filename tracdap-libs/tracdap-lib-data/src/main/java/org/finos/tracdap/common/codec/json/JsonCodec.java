@@ -89,5 +89,26 @@ public class JsonCodec implements ICodec {
         var config = new TextFileConfig(jsonFactory, null, BATCH_SIZE, arrowSchema.isSingleRecord());
         return new BaseTextDecoder(arrowSchema, allocator, config);
     }
+
+    @Override
+    public Decoder<?> getDecoder(
+            SchemaDefinition tracSchema, List<String> fields,
+            BufferAllocator allocator, Map<String, String> options) {
+
+        var arrowSchema = SchemaMapping.tracToArrow(tracSchema, allocator);
+
+        if (fields.isEmpty())
+            return getDecoder(arrowSchema, allocator, options);
+
+        // JSON fields are matched by name, fields outside the projection are skipped without being parsed
+
+        var projectedSchema = arrowSchema.project(fields);
+        var config = new TextFileConfig(
+                jsonFactory, null, BATCH_SIZE,
+                projectedSchema.isSingleRecord(),
+                /* skipUnknownFields = */ true);
+
+        return new BaseTextDecoder(projectedSchema, allocator, config);
+    }
 }
 
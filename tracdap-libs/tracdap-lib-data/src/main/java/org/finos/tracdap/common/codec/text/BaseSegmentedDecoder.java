@@ -0,0 +1,279 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.common.codec.text;
+
+import org.finos.tracdap.common.codec.StreamingDecoder;
+import org.finos.tracdap.common.data.ArrowVsrSchema;
+import org.finos.tracdap.common.exception.EDataCorruption;
+import org.finos.tracdap.common.exception.ETrac;
+import org.finos.tracdap.common.exception.EUnexpected;
+
+import com.fasterxml.jackson.core.JacksonException;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+
+
+abstract class BaseSegmentedDecoder extends StreamingDecoder {
+
+    // Common base for text decoders that split the input into segments of complete records
+    // Incoming chunks are scanned for record boundaries (line breaks outside quotes)
+    // Subclasses decide how and where each segment is parsed
+
+    private static final byte LINE_BREAK = '\n';
+
+    protected final Logger log = LoggerFactory.getLogger(getClass());
+
+    protected final ArrowVsrSchema schema;
+    protected final BufferAllocator allocator;
+    protected final TextFileConfig config;
+    protected final SegmentedTextDecoder.ParserSetup parserSetup;
+    private final byte quoteChar;
+    private final long segmentSize;
+
+    protected final ArrayDeque<ArrowBuf> chunks;
+
+    // Positions are absolute offsets in the input stream
+    private long bytesReceived;
+    private long safeBoundary;
+    private long segmentEnd;
+    private boolean inQuotes;
+    private boolean inputComplete;
+
+    // Line numbers for error reporting, parser locations are relative to each segment
+    private long linesReceived;
+    private long safeBoundaryLine;
+    private long segmentStartLine;
+    private long segmentEndLine;
+
+    protected BaseSegmentedDecoder(
+            ArrowVsrSchema schema,
+            BufferAllocator allocator,
+            TextFileConfig config,
+            SegmentedTextDecoder.ParserSetup parserSetup,
+            char quoteChar,
+            long segmentSize) {
+
+        this.schema = schema;
+        this.allocator = allocator;
+        this.config = config;
+        this.parserSetup = parserSetup;
+        this.quoteChar = (byte) quoteChar;
+        this.segmentSize = segmentSize;
+
+        this.chunks = new ArrayDeque<>();
+    }
+
+    protected abstract void processAvailable() throws Exception;
+
+    @Override
+    public void onStart() {
+
+        if (log.isTraceEnabled())
+            log.trace("CSV DECODER: onStart()");
+
+        // Output starts when the first segment is parsed, consumer().onStart() is called at that point
+    }
+
+    @Override
+    public void onNext(ArrowBuf chunk) {
+
+        if (log.isTraceEnabled())
+            log.trace("CSV DECODER: onNext()");
+
+        // Empty chunks are allowed in the stream but should be ignored
+        if (chunk.readableBytes() == 0) {
+            chunk.close();
+            return;
+        }
+
+        // Chunks are held until they are consumed by a segment, the decoder takes ownership
+        chunks.add(chunk);
+        scanChunk(chunk);
+
+        handleErrors();
+    }
+
+    @Override
+    public void onComplete() {
+
+        if (log.isTraceEnabled())
+            log.trace("CSV DECODER: onComplete()");
+
+        // Empty file can and does happen, treat it as data corruption
+        if (bytesReceived == 0) {
+            var error = new EDataCorruption("CSV data is empty");
+            log.error(error.getMessage(), error);
+            onError(error);
+            return;
+        }
+
+        // The last record may not end with a line break
+        // If the file ends inside quotes, the parser will report the error
+
+        inputComplete = true;
+        safeBoundary = bytesReceived;
+        safeBoundaryLine = linesReceived;
+
+        handleErrors();
+    }
+
+    @Override
+    public void onError(Throwable error) {
+
+        try {
+
+            if (log.isTraceEnabled())
+                log.trace("CSV DECODER: onError()");
+
+            markAsDone();
+            consumer().onError(error);
+        }
+        finally {
+            close();
+        }
+    }
+
+    @Override
+    public void pump() {
+
+        // Processing may be paused waiting for the consumer or for workers, don't pump once the decoder is done
+        if (isDone())
+            return;
+
+        handleErrors();
+    }
+
+    private void scanChunk(ArrowBuf chunk) {
+
+        // Look for record boundaries, i.e. line breaks that are not inside a quoted value
+        // Quotes escaped by doubling them toggle the state twice, so counting quotes is enough
+        // Quote and line break characters never occur inside multibyte UTF-8 sequences
+
+        var bytes = chunk.nioBuffer(chunk.readerIndex(), (int) chunk.readableBytes());
+        var limit = bytes.limit();
+
+        for (var i = bytes.position(); i < limit; i++) {
+
+            var b = bytes.get(i);
+
+            if (b == quoteChar) {
+                inQuotes = !inQuotes;
+            }
+            else if (b == LINE_BREAK) {
+
+                linesReceived += 1;
+
+                if (!inQuotes) {
+                    safeBoundary = bytesReceived + (i - bytes.position()) + 1;
+                    safeBoundaryLine = linesReceived;
+                }
+            }
+        }
+
+        bytesReceived += chunk.readableBytes();
+    }
+
+    protected boolean segmentAvailable() {
+
+        var available = safeBoundary - segmentEnd;
+
+        // Small segments are only parsed at the end of the input
+        // Waiting for a full segment avoids creating a lot of parsers and small batches
+
+        return available > 0 && (available >= segmentSize || inputComplete);
+    }
+
+    protected long nextSegment() {
+
+        // Move the segment boundary up to the last record boundary, returns the segment length
+
+        var segmentLength = safeBoundary - segmentEnd;
+
+        segmentStartLine = segmentEndLine;
+        segmentEndLine = safeBoundaryLine;
+        segmentEnd = safeBoundary;
+
+        return segmentLength;
+    }
+
+    protected long segmentStartLine() {
+        return segmentStartLine;
+    }
+
+    protected boolean allSegmentsStarted() {
+        return inputComplete && segmentEnd == safeBoundary;
+    }
+
+    protected ETrac decodingError(Throwable error, long startLine) {
+
+        if (error instanceof ETrac) {
+
+            // Error has already been handled, propagate as-is
+
+            var errorMessage = "CSV decoding failed: " + error.getMessage();
+
+            log.error(errorMessage, error);
+            return (ETrac) error;
+        }
+
+        if (error instanceof JacksonException) {
+
+            // This exception is a "well-behaved" parse failure, parse location and message should be meaningful
+            // Parser locations are relative to the segment
+
+            var jacksonError = (JacksonException) error;
+            var errorMessage = String.format("CSV decoding failed on line %d: %s",
+                    jacksonError.getLocation().getLineNr() + startLine,
+                    jacksonError.getOriginalMessage());
+
+            log.error(errorMessage, error);
+            return new EDataCorruption(errorMessage, error);
+        }
+
+        if (error instanceof IOException) {
+
+            // Decoders work on a stream of buffers, "real" IO exceptions should not occur
+            // IO exceptions here indicate parse failures, not file/socket communication errors
+
+            var errorMessage = "CSV decoding failed, content is garbled: " + error.getMessage();
+
+            log.error(errorMessage, error);
+            return new EDataCorruption(errorMessage, error);
+        }
+
+        // Ensure unexpected errors are still reported to the Flow API
+
+        log.error("Unexpected error in CSV decoding", error);
+        return new EUnexpected(error);
+    }
+
+    private void handleErrors() {
+
+        try {
+            processAvailable();
+        }
+        catch (Throwable e) {
+            throw decodingError(e, segmentStartLine);
+        }
+    }
+}
@@ -0,0 +1,381 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.common.codec.text;
+
+import org.finos.tracdap.common.data.ArrowVsrContext;
+import org.finos.tracdap.common.data.ArrowVsrSchema;
+import org.finos.tracdap.common.exception.EDataCorruption;
+import org.finos.tracdap.common.exception.ETrac;
+import org.finos.tracdap.common.exception.ETracInternal;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+
+
+public class ParallelTextDecoder extends BaseSegmentedDecoder {
+
+    // Parallel version of the segmented text decoder, for large files in formats with only a blocking parser
+    // Each segment of complete records is parsed on a worker thread, using the offload pool of the data context
+    // Workers have their own parser and vectors, batches are passed back to the event loop in segment order
+
+    // Dictionary encoded fields are not supported, because dictionaries built by each worker cannot be merged
+    // The number of segments in flight is bounded, once the limit is reached no more input is accepted
+
+    private final int maxSegmentsInFlight;
+
+    private final ArrayDeque<Segment> segments;
+
+    private long segmentCount;
+    private boolean gotBatch;
+
+    public ParallelTextDecoder(
+            ArrowVsrSchema schema,
+            BufferAllocator allocator,
+            TextFileConfig config,
+            SegmentedTextDecoder.ParserSetup parserSetup,
+            char quoteChar,
+            int parallelism) {
+
+        this(schema, allocator, config, parserSetup, quoteChar,
+                SegmentedTextDecoder.DEFAULT_SEGMENT_SIZE,
+                parallelism);
+    }
+
+    public ParallelTextDecoder(
+            ArrowVsrSchema schema,
+            BufferAllocator allocator,
+            TextFileConfig config,
+            SegmentedTextDecoder.ParserSetup parserSetup,
+            char quoteChar,
+            long segmentSize,
+            int parallelism) {
+
+        super(schema, allocator, config, parserSetup, quoteChar, segmentSize);
+
+        if (!schema.dictionaryFields().isEmpty())
+            throw new ETracInternal("Parallel text decoder does not support dictionary encoded fields");
+
+        if (parallelism < 1)
+            throw new ETracInternal("Parallel text decoder requires at least one worker");
+
+        // Allow one segment per worker to be waiting for delivery while the next one is parsed
+        this.maxSegmentsInFlight = parallelism * 2;
+
+        this.segments = new ArrayDeque<>();
+    }
+
+    @Override
+    public boolean isReady() {
+
+        // Accept more input as long as there is room for more segments
+        // Input is not parsed on the event loop, so it can keep flowing while the consumer is busy
+
+        return !isDone() && segments.size() < maxSegmentsInFlight;
+    }
+
+    @Override
+    protected void processAvailable() {
+
+        // Hand out new segments to the workers, then deliver any batches that are ready, in segment order
+        // Delivering a segment makes room for another, so keep going until neither step makes progress
+
+        while (true) {
+
+            while (segments.size() < maxSegmentsInFlight && segmentAvailable())
+                startSegment();
+
+            var head = segments.peek();
+
+            if (head == null || !head.isComplete() || !consumerReady())
+                break;
+
+            // Parse errors are reported when the failed segment comes up for delivery
+            if (head.error != null) {
+                onError(head.error);
+                return;
+            }
+
+            if (!head.batches.isEmpty()) {
+                sendBatch(head.batches.poll());
+            }
+            else {
+                segments.poll();
+            }
+        }
+
+        // If there is no more input, send the EOS signal and clean up
+
+        if (segments.isEmpty() && allSegmentsStarted() && consumerReady() && !isDone()) {
+
+            // A file with only a header still produces one (empty) batch
+
+            if (!gotBatch) {
+                startOutput();
+                context.setLoaded();
+                consumer().onBatch();
+            }
+
+            markAsDone();
+            consumer().onComplete();
+            close();
+        }
+    }
+
+    private void startSegment() {
+
+        var segmentLength = nextSegment();
+
+        if (segmentLength > Integer.MAX_VALUE - 8)
+            throw new EDataCorruption("CSV decoding failed, record is too large");
+
+        var segment = new Segment(segmentCount == 0, segmentStartLine(), copySegment((int) segmentLength));
+
+        segmentCount += 1;
+        segments.add(segment);
+
+        offloadExecutor().execute(() -> parseSegment(segment));
+    }
+
+    private byte[] copySegment(int segmentLength) {
+
+        // Workers do not touch the chunks, which are owned by the event loop
+        // Copy the segment into its own buffer and release chunks as soon as they are fully copied
+
+        var bytes = new byte[segmentLength];
+        var offset = 0;
+
+        while (offset < segmentLength) {
+
+            var chunk = chunks.peek();
+
+            // Sanity check, segment boundaries are always inside the chunks that have been received
+            if (chunk == null)
+                throw new ETracInternal("CSV segment boundary is outside the received data (this is a bug)");
+
+            var nBytes = (int) Math.min(chunk.readableBytes(), segmentLength - offset);
+
+            chunk.getBytes(chunk.readerIndex(), bytes, offset, nBytes);
+            chunk.readerIndex(chunk.readerIndex() + nBytes);
+            offset += nBytes;
+
+            if (chunk.readableBytes() == 0)
+                chunks.poll().close();
+        }
+
+        return bytes;
+    }
+
+    private void parseSegment(Segment segment) {
+
+        // Runs on a worker thread, each segment gets its own parser and vectors
+
+        TextFileReader reader = null;
+
+        try {
+
+            reader = new TextFileReader(
+                    schema.physical(),
+                    schema.dictionaryFields(),
+                    schema.dictionaries(),
+                    allocator, new ByteArrayInputStream(segment.bytes), config);
+
+            var workerContext = ArrowVsrContext.forSource(reader.getVectorSchemaRoot(), reader, allocator);
+
+            if (parserSetup != null)
+                parserSetup.setup(reader.getParser(), workerContext, segment.firstSegment);
+
+            var root = reader.getVectorSchemaRoot();
+
+            while (!segment.isCancelled() && reader.readBatch()) {
+
+                // Segments do not line up with batches, so a segment can end with an empty batch
+                if (root.getRowCount() > 0)
+                    segment.addBatch(detachBatch(root));
+
+                reader.resetBatch(root);
+            }
+
+            // Sanity check, blocking parsers always read to the end of the segment
+            if (!segment.isCancelled() && !reader.endOfStream())
+                throw new ETracInternal("CSV parser stopped before the end of a segment (this is a bug)");
+
+            segment.complete(null);
+        }
+        catch (Throwable e) {
+
+            // Errors are built and logged on the worker thread
+            segment.complete(decodingError(e, segment.startLine));
+        }
+        finally {
+
+            if (reader != null)
+                closeReader(reader);
+
+            requestPump();
+        }
+    }
+
+    private VectorSchemaRoot detachBatch(VectorSchemaRoot root) {
+
+        // Move the buffers for a completed batch out of the worker's vectors
+        // The worker's vectors are then allocated again, ready for the next batch
+
+        var fields = root.getSchema().getFields();
+        var vectors = new ArrayList<FieldVector>(fields.size());
+
+        for (var i = 0; i < fields.size(); i++) {
+
+            var source = root.getVector(i);
+            var target = fields.get(i).createVector(allocator);
+
+            source.makeTransferPair(target).transfer();
+            source.setInitialCapacity(config.getBatchSize());
+            source.allocateNew();
+
+            vectors.add(target);
+        }
+
+        return new VectorSchemaRoot(fields, vectors, root.getRowCount());
+    }
+
+    private void sendBatch(VectorSchemaRoot batch) {
+
+        try (batch) {
+
+            startOutput();
+
+            var output = context.getVsr();
+
+            for (var i = 0; i < batch.getFieldVectors().size(); i++) {
+
+                var source = batch.getVector(i);
+                var target = output.getVector(i);
+
+                source.makeTransferPair(target).transfer();
+            }
+
+            context.setRowCount(batch.getRowCount());
+            context.setLoaded();
+            consumer().onBatch();
+
+            gotBatch = true;
+        }
+    }
+
+    private void startOutput() {
+
+        if (context != null)
+            return;
+
+        context = ArrowVsrContext.forSchema(schema, allocator);
+        consumer().onStart(context);
+    }
+
+    private void closeReader(TextFileReader reader) {
+
+        try {
+            reader.close();
+        }
+        catch (IOException e) {
+            log.warn("Unexpected error shutting down the CSV parser: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+
+        // Workers may still be running, segments release their own batches once they are cancelled
+
+        while (!segments.isEmpty())
+            segments.poll().cancel();
+
+        if (context != null) {
+            context.close();
+            context = null;
+        }
+
+        while (!chunks.isEmpty())
+            chunks.poll().close();
+    }
+
+    private static class Segment {
+
+        // A segment is written by one worker thread and read on the event loop once it is complete
+
+        final boolean firstSegment;
+        final long startLine;
+        final byte[] bytes;
+
+        final ArrayDeque<VectorSchemaRoot> batches = new ArrayDeque<>();
+        ETrac error;
+
+        private boolean complete;
+        private boolean cancelled;
+
+        Segment(boolean firstSegment, long startLine, byte[] bytes) {
+            this.firstSegment = firstSegment;
+            this.startLine = startLine;
+            this.bytes = bytes;
+        }
+
+        synchronized void addBatch(VectorSchemaRoot batch) {
+
+            if (cancelled)
+                batch.close();
+            else
+                batches.add(batch);
+        }
+
+        synchronized void complete(ETrac error) {
+
+            this.error = error;
+            this.complete = true;
+
+            if (cancelled)
+                releaseBatches();
+        }
+
+        synchronized boolean isComplete() {
+            return complete;
+        }
+
+        synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        synchronized void cancel() {
+
+            cancelled = true;
+
+            if (complete)
+                releaseBatches();
+        }
+
+        private void releaseBatches() {
+
+            while (!batches.isEmpty())
+                batches.poll().close();
+        }
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.common.codec.text;
+
+import org.finos.tracdap.common.data.ArrowVsrContext;
+import org.finos.tracdap.common.data.ArrowVsrSchema;
+import org.finos.tracdap.common.exception.ETracInternal;
+
+import com.fasterxml.jackson.core.JsonParser;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+
+public class SegmentedTextDecoder extends BaseSegmentedDecoder {
+
+    // Streaming decoder for text formats where Jackson only provides a blocking parser (i.e. CSV)
+    // Each segment of complete records is parsed as soon as it is available, into the same Arrow vectors
+    // Peak memory is around one segment plus one chunk, rather than the whole file
+
+    public static final int DEFAULT_SEGMENT_SIZE = 1024 * 1024;
+
+    @FunctionalInterface
+    public interface ParserSetup {
+
+        void setup(JsonParser parser, ArrowVsrContext context, boolean firstSegment);
+    }
+
+    private TextFileReader reader;
+
+    private boolean segmentActive;
+    private boolean gotBatch;
+
+    public SegmentedTextDecoder(
+            ArrowVsrSchema schema,
+            BufferAllocator allocator,
+            TextFileConfig config,
+            ParserSetup parserSetup,
+            char quoteChar) {
+
+        this(schema, allocator, config, parserSetup, quoteChar, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public SegmentedTextDecoder(
+            ArrowVsrSchema schema,
+            BufferAllocator allocator,
+            TextFileConfig config,
+            ParserSetup parserSetup,
+            char quoteChar,
+            long segmentSize) {
+
+        super(schema, allocator, config, parserSetup, quoteChar, segmentSize);
+    }
+
+    @Override
+    protected void processAvailable() throws Exception {
+
+        // Keep pushing batches as long as the consumer is ready
+
+        while (consumerReady()) {
+
+            if (segmentActive) {
+
+                if (reader.readBatch()) {
+
+                    // Segments do not line up with batches, so a segment can end with an empty batch
+
+                    if (context.getVsr().getRowCount() > 0) {
+                        context.setLoaded();
+                        consumer().onBatch();
+                        gotBatch = true;
+                    }
+
+                    reader.resetBatch(context.getVsr());
+                }
+                else if (reader.endOfStream()) {
+                    segmentActive = false;
+                    releaseChunks();
+                }
+                else {
+                    // Sanity check, blocking parsers always read to the end of the segment
+                    throw new ETracInternal("CSV parser stopped before the end of a segment (this is a bug)");
+                }
+            }
+            else if (segmentAvailable()) {
+                startSegment();
+            }
+            else {
+                break;
+            }
+        }
+
+        // If there is no more input, send the EOS signal and clean up
+
+        if (!segmentActive && allSegmentsStarted() && consumerReady() && !isDone()) {
+
+            // A file with only a header still produces one (empty) batch
+
+            if (!gotBatch) {
+                context.setLoaded();
+                consumer().onBatch();
+            }
+
+            markAsDone();
+            consumer().onComplete();
+            close();
+        }
+    }
+
+    private void startSegment() throws IOException {
+
+        var segmentStream = new SegmentStream(nextSegment());
+        var firstSegment = reader == null;
+
+        segmentActive = true;
+
+        if (firstSegment) {
+
+            this.reader = new TextFileReader(
+                    schema.physical(),
+                    schema.dictionaryFields(),
+                    schema.dictionaries(),
+                    allocator, segmentStream, config);
+
+            this.context = ArrowVsrContext.forSource(
+                    reader.getVectorSchemaRoot(),
+                    reader, allocator);
+
+            if (parserSetup != null)
+                parserSetup.setup(reader.getParser(), context, true);
+
+            consumer().onStart(context);
+        }
+        else {
+
+            reader.continueInput(segmentStream);
+
+            if (parserSetup != null)
+                parserSetup.setup(reader.getParser(), context, false);
+        }
+    }
+
+    private void releaseChunks() {
+
+        // Release chunks that have been fully read by the parser
+
+        while (!chunks.isEmpty() && chunks.peek().readableBytes() == 0)
+            chunks.poll().close();
+    }
+
+    @Override
+    public void close() {
+
+        try {
+
+            if (reader != null) {
+                reader.close();
+                reader = null;
+            }
+
+            if (context != null) {
+                context.close();
+                context = null;
+            }
+
+            while (!chunks.isEmpty())
+                chunks.poll().close();
+        }
+        catch (IOException e) {
+            throw new ETracInternal("Unexpected error shutting down the CSV parser: " + e.getMessage(), e);
+        }
+    }
+
+    private class SegmentStream extends InputStream {
+
+        // Input stream for one segment, reads from the held chunks and stops at the segment boundary
+        // Reading moves the reader index of each chunk, so the next segment starts where this one stopped
+
+        private long remaining;
+
+        SegmentStream(long segmentLength) {
+            this.remaining = segmentLength;
+        }
+
+        @Override
+        public int read() {
+
+            var singleByte = new byte[1];
+            var nBytes = read(singleByte, 0, 1);
+
+            return nBytes < 0 ? -1 : singleByte[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+
+            if (remaining == 0)
+                return -1;
+
+            if (length == 0)
+                return 0;
+
+            ArrowBuf chunk = null;
+
+            for (var candidate : chunks) {
+                if (candidate.readableBytes() > 0) {
+                    chunk = candidate;
+                    break;
+                }
+            }
+
+            // Sanity check, segment boundaries are always inside the chunks that have been received
+            if (chunk == null)
+                throw new ETracInternal("CSV segment boundary is outside the received data (this is a bug)");
+
+            var nBytes = (int) Math.min(Math.min(length, chunk.readableBytes()), remaining);
+
+            chunk.getBytes(chunk.readerIndex(), buffer, offset, nBytes);
+            chunk.readerIndex(chunk.readerIndex() + nBytes);
+
+            remaining -= nBytes;
+
+            return nBytes;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(remaining, Integer.MAX_VALUE);
+        }
+    }
+}
@@ -28,6 +28,7 @@ public class TextFileConfig {
 
     private final int batchSize;
     private final boolean singleRecord;
+    private final boolean skipUnknownFields;
 
     public TextFileConfig(JsonFactory jsonFactory, int batchSize) {
         this(jsonFactory, null, batchSize, false);
@@ -39,10 +40,21 @@ public class TextFileConfig {
             int batchSize,
             boolean singleRecord) {
 
+        this(jsonFactory, formatSchema, batchSize, singleRecord, false);
+    }
+
+    public TextFileConfig(
+            JsonFactory jsonFactory,
+            FormatSchema formatSchema,
+            int batchSize,
+            boolean singleRecord,
+            boolean skipUnknownFields) {
+
         this.jsonFactory = jsonFactory;
         this.formatSchema = formatSchema;
         this.batchSize = batchSize;
         this.singleRecord = singleRecord;
+        this.skipUnknownFields = skipUnknownFields;
     }
 
     public JsonFactory getJsonFactory() {
@@ -64,4 +76,8 @@ public class TextFileConfig {
     public boolean isSingleRecord() {
         return singleRecord;
     }
+
+    public boolean skipUnknownFields() {
+        return skipUnknownFields;
+    }
 }
@@ -45,7 +45,9 @@ public class TextFileReader implements DictionaryProvider {
     private final Schema schema;
     private final VectorSchemaRoot root;
 
-    private final JsonParser parser;
+    private final TextFileConfig config;
+
+    private JsonParser parser;
     private final ByteBufferFeeder feeder;
     private final IBatchConsumer consumer;
 
@@ -86,6 +88,7 @@ public class TextFileReader implements DictionaryProvider {
             TextFileConfig config) {
 
         this.schema = schema;
+        this.config = config;
         this.root = buildRoot(schema, allocator, config);
 
         this.parser = parser;
@@ -177,6 +180,23 @@ public class TextFileReader implements DictionaryProvider {
         feeder.feedInput(ByteBuffer.wrap(buffer));
     }
 
+    public void continueInput(InputStream in) throws IOException {
+
+        // Blocking parsers can continue reading into the same batch with a new input stream
+        // Parsing carries on from the end of the previous stream, which must end on a record boundary
+
+        if (feeder != null)
+            throw new IllegalStateException("Cannot continue with a new input stream, file reader is in non-blocking mode");
+
+        parser.close();
+        parser = config.getJsonFactory().createParser(in);
+
+        if (config.hasFormatSchema())
+            parser.setSchema(config.getFormatSchema());
+
+        consumer.continueStream();
+    }
+
     public boolean readBatch() throws IOException {
 
         return consumer.consumeBatch(parser);
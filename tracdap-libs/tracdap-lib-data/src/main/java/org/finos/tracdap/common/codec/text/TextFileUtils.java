@@ -201,7 +201,9 @@ public class TextFileUtils {
             TextFileConfig config) {
 
         var fieldConsumers = createConsumers(root.getFieldVectors(), dictionaryFields, dictionaries, staging);
-        var recordConsumer = new CompositeObjectConsumer(fieldConsumers, /* caseSensitive = */ true);
+        var recordConsumer = new CompositeObjectConsumer(
+                fieldConsumers, /* caseSensitive = */ true,
+                config.skipUnknownFields());
 
         if (config.isSingleRecord())
             return new SingleRecordConsumer(recordConsumer, staging, root);
@@ -154,4 +154,18 @@ public class BatchConsumer implements IBatchConsumer {
         this.batch = batch;
         this.currentIndex = 0;
     }
+
+    @Override
+    public void continueStream() {
+
+        // Continue consuming from a new parser, after the previous parser reached the end of its input
+        // Used when a blocking parser is fed one segment of the input at a time
+
+        if (delegateActive)
+            throw new IllegalStateException("JSON consumer continued mid-value");
+
+        this.token = null;
+        this.active = false;
+        this.gotLastToken = false;
+    }
 }
@@ -38,6 +38,7 @@ public class CompositeObjectConsumer {
     private final List<IJsonConsumer<?>> delegates;
 
     private final boolean useFieldNames;
+    private final boolean skipUnknownFields;
     private final Map<String, Integer> fieldNameMap;
     private final boolean[] consumedFields;
 
@@ -46,10 +47,17 @@ public class CompositeObjectConsumer {
     private boolean delegateActive = false;
     private boolean gotValue = false;
     private int currentFieldIndex;
+    private int skipDepth = 0;
 
     public CompositeObjectConsumer(List<IJsonConsumer<?>> delegates, boolean isCaseSensitive) {
 
+        this(delegates, isCaseSensitive, false);
+    }
+
+    public CompositeObjectConsumer(List<IJsonConsumer<?>> delegates, boolean isCaseSensitive, boolean skipUnknownFields) {
+
         this.delegates = delegates;
+        this.skipUnknownFields = skipUnknownFields;
 
         useFieldNames = true;
         fieldNameMap = buildFieldNameMap(delegates, isCaseSensitive);
@@ -95,7 +103,15 @@ public class CompositeObjectConsumer {
 
         while (token != null && token != JsonToken.NOT_AVAILABLE) {
 
-            if (delegateActive) {
+            if (skipDepth > 0) {
+
+                // Skipping the content of an unknown field, track nesting until it is complete
+                if (token.isStructStart())
+                    skipDepth++;
+                else if (token.isStructEnd())
+                    skipDepth--;
+            }
+            else if (delegateActive) {
 
                 var delegate = delegates.get(currentFieldIndex);
 
@@ -112,19 +128,28 @@ public class CompositeObjectConsumer {
                 var fieldName = parser.currentName();
                 var fieldIndex = fieldNameMap.get(fieldName);
 
-                if (fieldIndex == null)
-                    throw new EDataCorruption("Unknown field name: " + fieldName);
-
-                currentFieldIndex = fieldIndex;
+                if (fieldIndex == null) {
 
-                var delegate = delegates.get(currentFieldIndex);
+                    if (!skipUnknownFields)
+                        throw new EDataCorruption("Unknown field name: " + fieldName);
 
-                if(delegate.consumeElement(parser)) {
-                    consumedFields[currentFieldIndex] = true;
+                    // Unknown fields are not parsed, scalars are dropped and nested values are skipped
+                    if (token.isStructStart())
+                        skipDepth = 1;
                 }
                 else {
-                    delegateActive = true;
-                    return false;
+
+                    currentFieldIndex = fieldIndex;
+
+                    var delegate = delegates.get(currentFieldIndex);
+
+                    if (delegate.consumeElement(parser)) {
+                        consumedFields[currentFieldIndex] = true;
+                    }
+                    else {
+                        delegateActive = true;
+                        return false;
+                    }
                 }
             }
             else if (token == JsonToken.END_OBJECT) {
@@ -30,4 +30,6 @@ public interface IBatchConsumer {
     boolean endOfStream();
 
     void resetBatch(VectorSchemaRoot batch);
+
+    void continueStream();
 }
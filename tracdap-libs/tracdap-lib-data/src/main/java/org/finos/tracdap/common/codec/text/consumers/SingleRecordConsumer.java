@@ -111,4 +111,10 @@ public class SingleRecordConsumer implements IBatchConsumer {
 
         this.batch = batch;
     }
+
+    @Override
+    public void continueStream() {
+
+        throw new IllegalStateException("Single record consumer cannot continue with a new stream");
+    }
 }
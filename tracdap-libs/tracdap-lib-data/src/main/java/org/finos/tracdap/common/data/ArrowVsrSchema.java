@@ -17,12 +17,16 @@
 
 package org.finos.tracdap.common.data;
 
+import org.finos.tracdap.common.exception.EDataConstraint;
+
 import org.apache.arrow.vector.dictionary.DictionaryProvider;
 import org.apache.arrow.vector.types.pojo.*;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 
@@ -105,6 +109,43 @@ public class ArrowVsrSchema {
         return logicalSchema != null ? logicalSchema : physicalSchema;
     }
 
+    public ArrowVsrSchema project(List<String> fieldNames) {
+
+        // An empty projection means all fields are selected
+        if (fieldNames == null || fieldNames.isEmpty())
+            return this;
+
+        var schemaFields = new TreeMap<String, Field>(String.CASE_INSENSITIVE_ORDER);
+
+        for (var field : physicalSchema.getFields())
+            schemaFields.put(field.getName(), field);
+
+        var projectedFields = new ArrayList<Field>(fieldNames.size());
+        var projectedDictionaryFields = new HashMap<Long, Field>();
+
+        for (var fieldName : fieldNames) {
+
+            var field = schemaFields.get(fieldName);
+
+            if (field == null) {
+                var message = String.format("Field [%s] is not present in the schema", fieldName);
+                throw new EDataConstraint(message);
+            }
+
+            projectedFields.add(field);
+
+            if (field.getDictionary() != null) {
+                var dictionaryId = field.getDictionary().getId();
+                projectedDictionaryFields.put(dictionaryId, dictionaryFields.get(dictionaryId));
+            }
+        }
+
+        var projectedSchema = new Schema(projectedFields, physicalSchema.getCustomMetadata());
+
+        // Dictionaries are shared with the full schema
+        return new ArrowVsrSchema(projectedSchema, projectedDictionaryFields, dictionaries, singleRecord);
+    }
+
     private static Map<Long, Field> buildDictionaryFields(DictionaryProvider dictionaries) {
 
         var dictionaryFields = new HashMap<Long, Field>();
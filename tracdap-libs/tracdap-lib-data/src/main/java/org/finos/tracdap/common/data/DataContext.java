@@ -20,15 +20,23 @@ package org.finos.tracdap.common.data;
 import io.netty.util.concurrent.OrderedEventExecutor;
 import org.apache.arrow.memory.BufferAllocator;
 
+import java.util.concurrent.Executor;
+
 
 public class DataContext implements IDataContext {
 
     private final OrderedEventExecutor eventLoop;
     private final BufferAllocator allocator;
+    private final Executor offloadExecutor;
 
     public DataContext(OrderedEventExecutor eventLoop, BufferAllocator allocator) {
+        this(eventLoop, allocator, null);
+    }
+
+    public DataContext(OrderedEventExecutor eventLoop, BufferAllocator allocator, Executor offloadExecutor) {
         this.eventLoop = eventLoop;
         this.allocator = allocator;
+        this.offloadExecutor = offloadExecutor;
     }
 
     @Override
@@ -40,4 +48,9 @@ public class DataContext implements IDataContext {
     public BufferAllocator arrowAllocator() {
         return allocator;
     }
+
+    @Override
+    public Executor offloadExecutor() {
+        return offloadExecutor;
+    }
 }
@@ -19,7 +19,15 @@ package org.finos.tracdap.common.data;
 
 import org.apache.arrow.memory.BufferAllocator;
 
+import java.util.concurrent.Executor;
+
 public interface IDataContext extends IExecutionContext {
 
     BufferAllocator arrowAllocator();
+
+    default Executor offloadExecutor() {
+
+        // Pool for CPU heavy work that must not run on the event loop, null if no pool is available
+        return null;
+    }
 }
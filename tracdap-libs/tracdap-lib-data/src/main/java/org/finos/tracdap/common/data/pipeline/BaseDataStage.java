@@ -18,16 +18,44 @@
 package org.finos.tracdap.common.data.pipeline;
 
 import org.finos.tracdap.common.data.DataPipeline;
+import org.finos.tracdap.common.exception.ETracInternal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.Executor;
+
 
 public abstract class BaseDataStage implements DataPipeline.DataStage {
 
     private final Logger log = LoggerFactory.getLogger(getClass());
 
+    private DataPipelineImpl pipeline;
     private boolean isDone = false;
 
+    final void bindPipeline(DataPipelineImpl pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    protected final void requestPump() {
+
+        // Stages that complete work off the event loop use this to resume the data pump
+        // Safe to call from any thread, the pump is always scheduled on the pipeline's event loop
+
+        if (pipeline != null)
+            pipeline.pumpData();
+    }
+
+    protected final Executor offloadExecutor() {
+
+        // Stages with CPU heavy work use this to keep it off the event loop
+        // Only available once the stage has been added to a pipeline
+
+        if (pipeline == null)
+            throw new ETracInternal("Data stage is not bound to a pipeline");
+
+        return pipeline.offloadExecutor();
+    }
+
     protected final void markAsDone() {
         log.info("DONE STAGE [{}]", getClass().getSimpleName());
         isDone = true;
@@ -0,0 +1,492 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.common.data.pipeline;
+
+import org.finos.tracdap.common.data.ArrowVsrContext;
+import org.finos.tracdap.common.data.DataPipeline;
+import org.finos.tracdap.common.data.IDataContext;
+import org.finos.tracdap.common.exception.ETracInternal;
+import org.finos.tracdap.common.exception.EUnexpected;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+
+/**
+ * Sink stage that splits a data stream into a sequence of encoded chunks.
+ *
+ * <p>Each chunk is encoded with a fresh encoder and written to its own byte stream.
+ * The sink rolls over to a new chunk once the current chunk reaches either the row limit
+ * or the byte limit (a limit of zero is ignored). The byte limit is checked against encoded output
+ * as it is emitted by the encoder, so chunks can overshoot by up to one encoder buffer.
+ * Chunks that are already complete continue writing in the background while later chunks
+ * are encoded, up to the concurrency limit.</p>
+ *
+ * <p>Once every chunk has been written, the index writer is called with the row count and size
+ * of each chunk. The signal completes with the total size of all chunks, after the index is written.</p>
+ */
+public class ChunkedDataSink
+    extends
+        BaseDataSink<DataPipeline.ArrowApi>
+    implements
+        DataPipeline.ArrowApi {
+
+    private static final int QUEUE_LIMIT = 1024;
+    private static final int QUEUE_SAFETY_LIMIT = 512;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final IDataContext dataContext;
+    private final Supplier<? extends DataPipeline.DataConsumer<DataPipeline.ArrowApi>> encoderFactory;
+    private final BiFunction<Integer, CompletableFuture<Long>, Flow.Subscriber<ArrowBuf>> chunkFactory;
+    private final Function<List<ChunkInfo>, CompletionStage<?>> indexWriter;
+    private final CompletableFuture<Long> signal;
+
+    private final long chunkRowLimit;
+    private final long chunkSizeLimit;
+    private final int chunkConcurrency;
+
+    private final List<ChunkStream> chunks;
+    private final List<CompletableFuture<Long>> chunkSignals;
+    private final List<Long> chunkRowCounts;
+
+    private ArrowVsrContext context;
+    private DataPipeline.DataConsumer<DataPipeline.ArrowApi> encoder;
+    private ChunkStream currentChunk;
+    private long currentChunkRows;
+
+    public ChunkedDataSink(
+            DataPipeline pipeline, IDataContext dataContext,
+            Supplier<? extends DataPipeline.DataConsumer<DataPipeline.ArrowApi>> encoderFactory,
+            BiFunction<Integer, CompletableFuture<Long>, Flow.Subscriber<ArrowBuf>> chunkFactory,
+            Function<List<ChunkInfo>, CompletionStage<?>> indexWriter,
+            CompletableFuture<Long> signal,
+            long chunkRowLimit, long chunkSizeLimit, int chunkConcurrency) {
+
+        super(pipeline);
+
+        this.dataContext = dataContext;
+        this.encoderFactory = encoderFactory;
+        this.chunkFactory = chunkFactory;
+        this.indexWriter = indexWriter;
+        this.signal = signal;
+
+        this.chunkRowLimit = chunkRowLimit;
+        this.chunkSizeLimit = chunkSizeLimit;
+        this.chunkConcurrency = Math.max(chunkConcurrency, 1);
+
+        this.chunks = new ArrayList<>();
+        this.chunkSignals = new ArrayList<>();
+        this.chunkRowCounts = new ArrayList<>();
+    }
+
+    @Override
+    public DataPipeline.ArrowApi dataInterface() {
+        return this;
+    }
+
+    @Override
+    public void connect() {
+
+        // No-op, chunk streams are opened as data arrives
+    }
+
+    @Override
+    public boolean isReady() {
+
+        if (isDone())
+            return false;
+
+        // Limit the number of chunks being written at once
+        // The chunk currently being encoded is counted as in-flight
+
+        var inFlight = chunkSignals.stream().filter(s -> !s.isDone()).count();
+
+        if (currentChunk == null)
+            return inFlight < chunkConcurrency;
+        else
+            return inFlight <= chunkConcurrency && currentChunk.isReady();
+    }
+
+    @Override
+    public void pump() {
+
+        for (var chunk : chunks)
+            chunk.pump();
+    }
+
+    @Override
+    public void onStart(ArrowVsrContext context) {
+
+        if (this.context != null)
+            throw new EUnexpected();
+
+        this.context = context;
+    }
+
+    @Override
+    public void onBatch() {
+
+        if (context == null)
+            throw new EUnexpected();
+
+        if (currentChunk == null)
+            startChunk();
+
+        currentChunkRows += context.getVsr().getRowCount();
+        encoder.dataInterface().onBatch();
+
+        var rowLimitReached = chunkRowLimit > 0 && currentChunkRows >= chunkRowLimit;
+        var sizeLimitReached = chunkSizeLimit > 0 && currentChunk.bytesReceived >= chunkSizeLimit;
+
+        // Do not start the next chunk until more data arrives, to avoid writing empty chunks
+
+        if (rowLimitReached || sizeLimitReached)
+            finishChunk();
+    }
+
+    @Override
+    public void onComplete() {
+
+        if (context == null)
+            throw new EUnexpected();
+
+        // Always write at least one chunk, even if the dataset is empty
+        if (currentChunk == null && chunks.isEmpty())
+            startChunk();
+
+        if (currentChunk != null)
+            finishChunk();
+
+        markAsDone();
+
+        var allChunks = CompletableFuture.allOf(chunkSignals.toArray(CompletableFuture[]::new));
+        var writeIndex = dataContext.toContext(allChunks).thenCompose(x -> indexWriter.apply(chunkInfo()));
+
+        dataContext.toContext(writeIndex).whenComplete((result, error) -> {
+
+            if (error != null) {
+                signal.completeExceptionally(error);
+                reportRegularError(error);
+            }
+            else {
+                var totalSize = chunkSignals.stream().mapToLong(CompletableFuture::join).sum();
+                log.info("Saved {} data chunks", chunkSignals.size());
+                signal.complete(totalSize);
+                reportComplete();
+            }
+        });
+    }
+
+    @Override
+    public void onError(Throwable error) {
+
+        if (isDone()) {
+            log.warn("Data stage is already done, incoming error will be dropped");
+            return;
+        }
+
+        markAsDone();
+        terminateChunks(error);
+        signal.completeExceptionally(error);
+
+        reportRegularError(error);
+    }
+
+    @Override
+    public void terminate(Throwable error) {
+
+        if (isDone()) {
+            log.warn("Requested termination, but stage is already down");
+            return;
+        }
+
+        markAsDone();
+        terminateChunks(error);
+        signal.completeExceptionally(error);
+    }
+
+    @Override
+    public void close() {
+
+        if (encoder != null) {
+            closeEncoder();
+        }
+
+        for (var chunk : chunks)
+            chunk.close();
+    }
+
+    private void startChunk() {
+
+        var chunkIndex = chunks.size();
+        var chunkSignal = new CompletableFuture<Long>();
+        var chunkWriter = chunkFactory.apply(chunkIndex, chunkSignal);
+
+        var chunk = new ChunkStream(chunkIndex, chunkWriter);
+        var encoder = encoderFactory.get();
+
+        if (!(encoder instanceof BaseDataProducer<?>))
+            throw new EUnexpected();
+
+        ((BaseDataProducer<?>) encoder).bind(chunk);
+
+        chunks.add(chunk);
+        chunkSignals.add(chunkSignal);
+
+        // Errors in any single chunk will fail the whole pipeline
+        // Completion of a chunk frees capacity for more chunks, so trigger a pump
+        dataContext.toContext(chunkSignal).whenComplete((size, error) -> {
+            if (error != null)
+                onChunkError(chunkIndex, error);
+            else
+                pipeline.pumpData();
+        });
+
+        this.encoder = encoder;
+        this.currentChunk = chunk;
+        this.currentChunkRows = 0;
+
+        chunk.connect();
+        encoder.dataInterface().onStart(context);
+    }
+
+    private void finishChunk() {
+
+        log.info("Data chunk [{}] complete, rows = {}, size = {}",
+                currentChunk.chunkIndex, currentChunkRows, currentChunk.bytesReceived);
+
+        // Encoder will flush any remaining content into the chunk, then close itself
+        encoder.dataInterface().onComplete();
+        chunkRowCounts.add(currentChunkRows);
+
+        encoder = null;
+        currentChunk = null;
+    }
+
+    private List<ChunkInfo> chunkInfo() {
+
+        var chunkInfo = new ArrayList<ChunkInfo>(chunkSignals.size());
+
+        for (var i = 0; i < chunkSignals.size(); i++)
+            chunkInfo.add(new ChunkInfo(i, chunkRowCounts.get(i), chunkSignals.get(i).join()));
+
+        return chunkInfo;
+    }
+
+    private void onChunkError(int chunkIndex, Throwable error) {
+
+        if (isDone())
+            return;
+
+        log.error("Data chunk [{}] failed: {}", chunkIndex, error.getMessage(), error);
+
+        markAsDone();
+        terminateChunks(error);
+        signal.completeExceptionally(error);
+
+        reportRegularError(error);
+    }
+
+    private void terminateChunks(Throwable error) {
+
+        for (var chunk : chunks) {
+            if (!chunk.isDone())
+                chunk.terminate(error);
+        }
+    }
+
+    private void closeEncoder() {
+
+        try {
+            encoder.close();
+        }
+        catch (Exception e) {
+            log.warn("There was an error closing the chunk encoder: {}", e.getMessage(), e);
+        }
+        finally {
+            encoder = null;
+        }
+    }
+
+    public static class ChunkInfo {
+
+        public final int chunkIndex;
+        public final long rowCount;
+        public final long size;
+
+        public ChunkInfo(int chunkIndex, long rowCount, long size) {
+            this.chunkIndex = chunkIndex;
+            this.rowCount = rowCount;
+            this.size = size;
+        }
+    }
+
+    private class ChunkStream
+        extends
+            BaseDataStage
+        implements
+            DataPipeline.DataConsumer<DataPipeline.StreamApi>,
+            DataPipeline.StreamApi {
+
+        private final int chunkIndex;
+        private final Flow.Subscriber<ArrowBuf> writer;
+        private final Queue<ArrowBuf> queue;
+
+        private Flow.Subscription subscription;
+        private long chunksRequested;
+        private long chunksDelivered;
+        private long bytesReceived;
+        private boolean eos;
+
+        ChunkStream(int chunkIndex, Flow.Subscriber<ArrowBuf> writer) {
+            this.chunkIndex = chunkIndex;
+            this.writer = writer;
+            this.queue = new ArrayDeque<>(QUEUE_LIMIT);
+        }
+
+        @Override
+        public DataPipeline.StreamApi dataInterface() {
+            return this;
+        }
+
+        void connect() {
+
+            subscription = new Subscription();
+            writer.onSubscribe(subscription);
+        }
+
+        void terminate(Throwable error) {
+
+            markAsDone();
+            writer.onError(error);
+            close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return queue.size() < (QUEUE_LIMIT - QUEUE_SAFETY_LIMIT) && !isDone();
+        }
+
+        @Override
+        public void pump() {
+
+            while (chunksRequested > chunksDelivered && !queue.isEmpty()) {
+                chunksDelivered += 1;
+                writer.onNext(queue.remove());
+            }
+
+            if (queue.isEmpty() && eos && !isDone()) {
+                markAsDone();
+                writer.onComplete();
+            }
+        }
+
+        @Override
+        public void onStart() {
+            // No-op, the writer is subscribed when the chunk is opened
+        }
+
+        @Override
+        public void onNext(ArrowBuf chunk) {
+
+            if (isDone()) {
+                log.warn("Data chunk is already done, incoming data will be dropped");
+                chunk.close();
+                return;
+            }
+
+            if (!queue.offer(chunk)) {
+                chunk.close();
+                throw new ETracInternal("Data buffer has overflowed");
+            }
+
+            bytesReceived += chunk.readableBytes();
+
+            pump();
+        }
+
+        @Override
+        public void onComplete() {
+
+            eos = true;
+            pump();
+        }
+
+        @Override
+        public void onError(Throwable error) {
+
+            if (!isDone())
+                terminate(error);
+        }
+
+        @Override
+        public void close() {
+
+            while (!queue.isEmpty())
+                queue.remove().close();
+        }
+
+        private void doRequest(long n) {
+
+            // Chunk writers may signal demand from outside the event loop
+
+            if (!dataContext.eventLoopExecutor().inEventLoop()) {
+                dataContext.eventLoopExecutor().execute(() -> doRequest(n));
+                return;
+            }
+
+            chunksRequested += n;
+            pump();
+
+            // Room in the chunk queue may allow the pipeline to proceed
+            pipeline.pumpData();
+        }
+
+        private void doCancel() {
+
+            var error = new ETracInternal("Write cancelled for data chunk [" + chunkIndex + "]");
+            onChunkError(chunkIndex, error);
+        }
+
+        private class Subscription implements Flow.Subscription {
+
+            @Override
+            public void request(long n) {
+                doRequest(n);
+            }
+
+            @Override
+            public void cancel() {
+                doCancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,650 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.common.data.pipeline;
+
+import org.finos.tracdap.common.data.ArrowVsrContext;
+import org.finos.tracdap.common.data.DataPipeline;
+import org.finos.tracdap.common.data.IDataContext;
+import org.finos.tracdap.common.exception.EDataCorruption;
+import org.finos.tracdap.common.exception.ETracInternal;
+import org.finos.tracdap.common.exception.EUnexpected;
+
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.compare.Range;
+import org.apache.arrow.vector.compare.RangeEqualsVisitor;
+import org.apache.arrow.vector.compare.VectorEqualsVisitor;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+
+/**
+ * Source stage that reads a dataset stored as a sequence of chunks.
+ *
+ * <p>Each chunk is fetched and decoded in its own pipeline, using a separate execution context
+ * so chunks can be decoded concurrently across the available event loops. Decoded batches are
+ * handed back to this stage and emitted in chunk order, so the consumer sees a single ordered
+ * data stream. The number of chunks decoded ahead of the current chunk is bounded by the
+ * read-ahead limit, and each chunk pipeline holds only a small queue of decoded batches.</p>
+ *
+ * <p>All chunks must share the same schema. Each chunk is encoded with its own dictionaries,
+ * which are carried with the batches of that chunk. When the dictionaries change, the output
+ * dictionaries are updated in place before the next batch is sent, so downstream encoders
+ * re-emit them. Dictionaries can only grow between chunks, since values that were already
+ * sent must keep their index.</p>
+ */
+public class ChunkedDataSource
+    extends
+        BaseDataProducer<DataPipeline.ArrowApi>
+    implements
+        DataPipeline.SourceStage {
+
+    private static final int CHUNK_QUEUE_LIMIT = 4;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final IDataContext dataContext;
+    private final Supplier<IDataContext> chunkContexts;
+    private final CompletionStage<Integer> chunkCount;
+    private final ChunkPipelineFactory chunkFactory;
+    private final int readAhead;
+
+    private final List<ChunkCollector> chunks;
+    private int nChunks;
+    private int currentChunk;
+    private volatile boolean cancelled;
+
+    private ArrowVsrContext output;
+
+    @FunctionalInterface
+    public interface ChunkPipelineFactory {
+
+        /// Create a pipeline to read and decode one chunk (the sink will be added by the chunked source)
+        DataPipeline createPipeline(int chunkIndex, IDataContext chunkContext);
+    }
+
+    public ChunkedDataSource(
+            IDataContext dataContext, Supplier<IDataContext> chunkContexts,
+            CompletionStage<Integer> chunkCount, ChunkPipelineFactory chunkFactory,
+            int readAhead) {
+
+        super(DataPipeline.ArrowApi.class);
+
+        this.dataContext = dataContext;
+        this.chunkContexts = chunkContexts;
+        this.chunkCount = chunkCount;
+        this.chunkFactory = chunkFactory;
+        this.readAhead = Math.max(readAhead, 1);
+
+        this.chunks = new ArrayList<>();
+        this.nChunks = -1;
+        this.currentChunk = 0;
+    }
+
+    @Override
+    public void connect() {
+
+        dataContext.toContext(chunkCount).whenComplete((count, error) -> {
+
+            if (isDone())
+                return;
+
+            if (error != null) {
+                reportError(error);
+                return;
+            }
+
+            if (count == null || count < 1) {
+                reportError(new EDataCorruption("Data could not be read, no data chunks were found"));
+                return;
+            }
+
+            log.info("Reading {} data chunks, read-ahead = {}", count, readAhead);
+
+            nChunks = count;
+            startChunks();
+            pumpChunks();
+        });
+    }
+
+    @Override
+    public boolean isReady() {
+        return consumerReady() && nChunks > 0;
+    }
+
+    @Override
+    public void pump() {
+
+        if (isDone() || nChunks < 0)
+            return;
+
+        try {
+            pumpChunks();
+        }
+        catch (Throwable error) {
+            reportError(error);
+        }
+    }
+
+    @Override
+    public void cancel() {
+
+        // Cancel can be requested from outside the pipeline, e.g. when a client call is cancelled
+        // Chunk collectors check the flag straight away, source state is only touched on its own event loop
+
+        cancelled = true;
+
+        var eventLoop = dataContext.eventLoopExecutor();
+
+        if (eventLoop.inEventLoop())
+            cancelAndClose();
+        else
+            eventLoop.execute(this::cancelAndClose);
+    }
+
+    private void cancelAndClose() {
+
+        markAsDone();
+        close();
+    }
+
+    @Override
+    public void close() {
+
+        for (var chunk : chunks)
+            chunk.cancel();
+
+        if (output != null) {
+            output.close();
+            output = null;
+        }
+    }
+
+    private void startChunks() {
+
+        var chunkLimit = Math.min(currentChunk + readAhead, nChunks);
+
+        while (chunks.size() < chunkLimit) {
+
+            var chunkIndex = chunks.size();
+            var chunkContext = chunkContexts.get();
+            var chunkPipeline = chunkFactory.createPipeline(chunkIndex, chunkContext);
+            var collector = new ChunkCollector(chunkPipeline, chunkContext);
+
+            chunkPipeline.addSink(collector);
+            chunks.add(collector);
+
+            // Run the chunk pipeline on its own context
+            chunkContext.eventLoopExecutor().execute(chunkPipeline::execute);
+        }
+    }
+
+    private void pumpChunks() {
+
+        while (!isDone() && currentChunk < nChunks) {
+
+            var chunk = chunks.get(currentChunk);
+
+            if (chunk.error != null) {
+                reportError(chunk.error);
+                return;
+            }
+
+            if (output == null) {
+
+                // Wait for the first chunk to start before sending anything to the consumer
+
+                if (!chunk.started)
+                    return;
+
+                startOutput(chunk);
+            }
+
+            var batchesSent = false;
+
+            while (consumerReady() && !chunk.batches.isEmpty()) {
+
+                var batch = chunk.batches.remove();
+                sendBatch(batch);
+
+                batchesSent = true;
+            }
+
+            // Space is available in the chunk queue, so the chunk pipeline can resume
+            // The chunk pipeline runs on its own context, so the pump must be sent there
+            if (batchesSent)
+                chunk.resume();
+
+            if (!consumerReady())
+                return;
+
+            if (!chunk.complete || !chunk.batches.isEmpty())
+                return;
+
+            chunk.release();
+            currentChunk++;
+
+            startChunks();
+        }
+
+        if (!isDone() && currentChunk == nChunks && consumerReady()) {
+            markAsDone();
+            consumer().onComplete();
+        }
+    }
+
+    private void startOutput(ChunkCollector firstChunk) {
+
+        var fields = firstChunk.schema.getFields();
+        var vectors = new ArrayList<FieldVector>(fields.size());
+
+        for (var field : fields)
+            vectors.add(field.createVector(dataContext.arrowAllocator()));
+
+        var root = new VectorSchemaRoot(fields, vectors);
+
+        // Output dictionaries start as a copy of the dictionaries for the first batch
+        // They are owned by the output context, and updated if later chunks extend them
+
+        var dictionaries = new DictionaryProvider.MapDictionaryProvider();
+        var firstDictionaries = firstChunk.initialDictionaries();
+
+        if (firstDictionaries != null) {
+
+            for (var dictionaryId : firstDictionaries.getDictionaryIds()) {
+
+                var dictionary = firstDictionaries.lookup(dictionaryId);
+                var copy = copyVector(dictionary.getVector(), dataContext);
+
+                dictionaries.put(new Dictionary(copy, dictionary.getEncoding()));
+            }
+        }
+
+        output = ArrowVsrContext.forSource(
+                root, /* vsr ownership */ true,
+                dictionaries, /* dictionaries ownership */ true,
+                dataContext.arrowAllocator());
+
+        consumer().onStart(output);
+    }
+
+    private void sendBatch(ChunkBatch chunkBatch) {
+
+        var batch = chunkBatch.batch;
+
+        try (batch) {
+
+            if (chunkBatch.dictionaries != null)
+                updateDictionaries(chunkBatch.dictionaries);
+
+            if (batch.getFieldVectors().size() != output.getVsr().getFieldVectors().size())
+                throw new EDataCorruption("Data could not be read, data chunks have inconsistent schemas");
+
+            for (var i = 0; i < batch.getFieldVectors().size(); i++) {
+
+                var source = batch.getVector(i);
+                var target = output.getVsr().getVector(i);
+
+                source.makeTransferPair(target).transfer();
+            }
+
+            output.setRowCount(batch.getRowCount());
+            output.setLoaded();
+
+            consumer().onBatch();
+        }
+    }
+
+    private void updateDictionaries(DictionaryProvider chunkDictionaries) {
+
+        var outputDictionaries = output.getDictionaries();
+
+        if (chunkDictionaries.getDictionaryIds().size() != outputDictionaries.getDictionaryIds().size())
+            throw new EDataCorruption("Data could not be read, data chunks have inconsistent dictionaries");
+
+        for (var dictionaryId : chunkDictionaries.getDictionaryIds()) {
+
+            var outputDictionary = outputDictionaries.lookup(dictionaryId);
+
+            if (outputDictionary == null)
+                throw new EDataCorruption("Data could not be read, data chunks have inconsistent dictionaries");
+
+            var current = outputDictionary.getVector();
+            var update = chunkDictionaries.lookup(dictionaryId).getVector();
+
+            if (VectorEqualsVisitor.vectorEquals(current, update))
+                continue;
+
+            // Batches already sent refer to the current dictionary values
+            // Updates are only allowed if all the current values keep their index
+
+            if (!isPrefix(current, update))
+                throw new EDataCorruption("Data could not be read, data chunks have inconsistent dictionaries");
+
+            // Replace the contents of the output dictionary, the chunk keeps its own reference to the buffers
+            update.makeTransferPair(current).splitAndTransfer(0, update.getValueCount());
+        }
+    }
+
+    private static boolean isPrefix(ValueVector current, ValueVector update) {
+
+        if (update.getValueCount() < current.getValueCount())
+            return false;
+
+        var range = new Range(0, 0, current.getValueCount());
+        var visitor = new RangeEqualsVisitor(current, update);
+
+        return visitor.rangeEquals(range);
+    }
+
+    private static FieldVector copyVector(FieldVector vector, IDataContext context) {
+
+        // Split and transfer holds a reference to the underlying buffers, rather than copying data
+
+        var transfer = vector.getTransferPair(context.arrowAllocator());
+        transfer.splitAndTransfer(0, vector.getValueCount());
+
+        return (FieldVector) transfer.getTo();
+    }
+
+    private void reportError(Throwable error) {
+
+        if (isDone())
+            return;
+
+        log.error("Error reading data chunks: {}", error.getMessage(), error);
+
+        markAsDone();
+        consumer().onError(error);
+
+        close();
+    }
+
+    private class ChunkCollector
+        extends
+            BaseDataSink<DataPipeline.ArrowApi>
+        implements
+            DataPipeline.ArrowApi {
+
+        private final IDataContext chunkContext;
+        private final ConcurrentLinkedQueue<ChunkBatch> batches;
+        private final List<DictionaryProvider.MapDictionaryProvider> dictionarySnapshots;
+
+        private ArrowVsrContext incoming;
+
+        private volatile Schema schema;
+        private volatile boolean started;
+        private volatile boolean complete;
+        private volatile Throwable error;
+
+        ChunkCollector(DataPipeline chunkPipeline, IDataContext chunkContext) {
+
+            super(chunkPipeline);
+
+            this.chunkContext = chunkContext;
+            this.batches = new ConcurrentLinkedQueue<>();
+            this.dictionarySnapshots = new ArrayList<>();
+        }
+
+        @Override
+        public DataPipeline.ArrowApi dataInterface() {
+            return this;
+        }
+
+        @Override
+        public void connect() {
+            // No-op
+        }
+
+        @Override
+        public boolean isReady() {
+            return batches.size() < CHUNK_QUEUE_LIMIT && !isDone();
+        }
+
+        @Override
+        public void pump() {
+            // No-op, immediate stage
+        }
+
+        @Override
+        public void onStart(ArrowVsrContext context) {
+
+            if (incoming != null)
+                throw new EUnexpected();
+
+            incoming = context;
+            schema = context.getVsr().getSchema();
+        }
+
+        @Override
+        public void onBatch() {
+
+            if (incoming == null)
+                throw new EUnexpected();
+
+            // Dictionaries are fully loaded by the time each batch arrives
+            // Only send dictionaries with a batch if they changed since the last batch in this chunk
+            var dictionaries = snapshotDictionaries();
+
+            var vectors = new ArrayList<FieldVector>(incoming.getVsr().getFieldVectors().size());
+
+            for (var vector : incoming.getVsr().getFieldVectors()) {
+                var transfer = vector.getTransferPair(incoming.getAllocator());
+                transfer.transfer();
+                vectors.add((FieldVector) transfer.getTo());
+            }
+
+            var batch = new VectorSchemaRoot(schema.getFields(), vectors, incoming.getVsr().getRowCount());
+            incoming.setUnloaded();
+
+            batches.add(new ChunkBatch(batch, dictionaries));
+            started = true;
+
+            if (cancelled)
+                release();
+
+            notifyParent();
+        }
+
+        @Override
+        public void onComplete() {
+
+            // Chunks with no batches still need dictionaries, in case this is the first chunk
+            if (incoming != null && !started) {
+                snapshotDictionaries();
+                started = true;
+            }
+
+            markAsDone();
+            complete = true;
+            notifyParent();
+
+            reportComplete();
+        }
+
+        @Override
+        public void onError(Throwable error) {
+
+            markAsDone();
+            this.error = error;
+            notifyParent();
+
+            reportRegularError(error);
+        }
+
+        @Override
+        public void terminate(Throwable error) {
+
+            if (isDone())
+                return;
+
+            markAsDone();
+            this.error = error;
+            notifyParent();
+        }
+
+        @Override
+        public void close() {
+
+            // Batches and dictionary snapshots are handed over to the parent source, which releases them
+            incoming = null;
+        }
+
+        synchronized void release() {
+
+            ChunkBatch batch;
+
+            while ((batch = batches.poll()) != null)
+                batch.batch.close();
+
+            // Output dictionaries are copies, so snapshots can always be released with the chunk
+            for (var snapshot : dictionarySnapshots)
+                closeDictionaries(snapshot);
+
+            dictionarySnapshots.clear();
+        }
+
+        void resume() {
+
+            chunkContext.eventLoopExecutor().execute(() -> {
+                if (!isDone())
+                    pipeline.pumpData();
+            });
+        }
+
+        void cancel() {
+
+            release();
+
+            chunkContext.eventLoopExecutor().execute(() -> {
+
+                if (!isDone())
+                    pipeline.requestCancel();
+
+                // Pick up anything that arrived while the cancel request was in flight
+                release();
+            });
+        }
+
+        synchronized DictionaryProvider initialDictionaries() {
+
+            return !dictionarySnapshots.isEmpty()
+                    ? dictionarySnapshots.get(0)
+                    : null;
+        }
+
+        private synchronized DictionaryProvider latestDictionaries() {
+
+            return !dictionarySnapshots.isEmpty()
+                    ? dictionarySnapshots.get(dictionarySnapshots.size() - 1)
+                    : null;
+        }
+
+        private synchronized DictionaryProvider.MapDictionaryProvider snapshotDictionaries() {
+
+            var source = incoming.getDictionaries();
+            var latest = latestDictionaries();
+
+            if (latest != null && !dictionariesChanged(source, latest))
+                return null;
+
+            // Copy dictionaries so they outlive the chunk pipeline
+
+            var snapshot = new DictionaryProvider.MapDictionaryProvider();
+
+            if (source != null) {
+
+                for (var dictionaryId : source.getDictionaryIds()) {
+
+                    var dictionary = source.lookup(dictionaryId);
+                    var copy = copyVector(dictionary.getVector(), chunkContext);
+
+                    snapshot.put(new Dictionary(copy, dictionary.getEncoding()));
+                }
+            }
+
+            dictionarySnapshots.add(snapshot);
+
+            return snapshot;
+        }
+
+        private boolean dictionariesChanged(DictionaryProvider source, DictionaryProvider latest) {
+
+            if (source == null)
+                return !latest.getDictionaryIds().isEmpty();
+
+            if (!source.getDictionaryIds().equals(latest.getDictionaryIds()))
+                return true;
+
+            for (var dictionaryId : source.getDictionaryIds()) {
+
+                var sourceVector = source.lookup(dictionaryId).getVector();
+                var latestVector = latest.lookup(dictionaryId).getVector();
+
+                if (!VectorEqualsVisitor.vectorEquals(sourceVector, latestVector))
+                    return true;
+            }
+
+            return false;
+        }
+
+        private void notifyParent() {
+
+            // Wake the parent pipeline, which runs on a different event loop
+            ChunkedDataSource.this.notifyParent();
+        }
+    }
+
+    private void notifyParent() {
+
+        // Always schedule a pump, never call back into the consumer from inside a chunk pipeline
+        dataContext.eventLoopExecutor().execute(this::pump);
+    }
+
+    private static class ChunkBatch {
+
+        final VectorSchemaRoot batch;
+        final DictionaryProvider dictionaries;
+
+        ChunkBatch(VectorSchemaRoot batch, DictionaryProvider dictionaries) {
+            this.batch = batch;
+            this.dictionaries = dictionaries;
+        }
+    }
+
+    private static void closeDictionaries(DictionaryProvider dictionaries) {
+
+        try {
+            for (var dictionaryId : dictionaries.getDictionaryIds())
+                dictionaries.lookup(dictionaryId).getVector().close();
+        }
+        catch (Exception e) {
+            throw new ETracInternal("Failed to release dictionaries for data chunk", e);
+        }
+    }
+}
@@ -31,6 +31,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Flow;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -79,6 +80,17 @@ public class DataPipelineImpl implements DataPipeline {
         return completion;
     }
 
+    Executor offloadExecutor() {
+
+        // Use the dedicated offload pool if there is one, otherwise offloaded work is queued on the event loop
+
+        var offloadExecutor = ctx.offloadExecutor();
+
+        return offloadExecutor != null
+                ? offloadExecutor
+                : ctx.eventLoopExecutor();
+    }
+
     void pumpData() {
 
         // Schedule running the data pump on the pipeline's event loop
@@ -364,6 +376,9 @@ public class DataPipelineImpl implements DataPipeline {
 
         concreteProducer.bind(consumer);
 
+        if (consumer instanceof BaseDataStage)
+            ((BaseDataStage) consumer).bindPipeline(this);
+
         stages.add(consumer);
     }
 }
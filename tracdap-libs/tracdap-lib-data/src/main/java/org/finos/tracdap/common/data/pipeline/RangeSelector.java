@@ -27,6 +27,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.function.LongSupplier;
 
 
 public class RangeSelector
@@ -40,6 +41,7 @@ public class RangeSelector
     private static final Logger log = LoggerFactory.getLogger(RangeSelector.class);
     private final long offset;
     private final long limit;
+    private final LongSupplier firstRow;
     private long currentRow;
 
     private ArrowVsrContext incomingRoot;
@@ -48,10 +50,20 @@ public class RangeSelector
 
     public RangeSelector(long offset, long limit) {
 
+        this(offset, limit, () -> 0);
+    }
+
+    public RangeSelector(long offset, long limit, LongSupplier firstRow) {
+
+        // Sources that skip ahead can start part way into the dataset
+        // The first row number is not known until the source has located its data,
+        // so it is evaluated when the stream starts
+
         super(DataPipeline.ArrowApi.class);
 
         this.offset = offset;
         this.limit = limit;
+        this.firstRow = firstRow;
         this.currentRow = 0;
     }
 
@@ -97,6 +109,7 @@ public class RangeSelector
         }
 
         this.incomingRoot = context;
+        this.currentRow = firstRow.getAsLong();
 
         this.sliceTransfers = sliceTransfers;
         this.sliceRoot = ArrowVsrContext.forSource(
@@ -129,7 +142,7 @@ public class RangeSelector
         else if (batchEndRow >= offset && (batchStartRow < offset + limit || limit == 0)) {
 
             var sliceStart = (int) Math.max(offset - batchStartRow, 0);
-            var sliceEnd = (int) Math.min(offset + limit - batchStartRow, batchSize);
+            var sliceEnd = limit != 0 ? (int) Math.min(offset + limit - batchStartRow, batchSize) : batchSize;
             var sliceLength = sliceEnd - sliceStart;
 
             sliceTransfers.forEach(slice -> slice.splitAndTransfer(sliceStart, sliceLength));
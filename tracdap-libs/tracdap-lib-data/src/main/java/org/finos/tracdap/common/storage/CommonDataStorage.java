@@ -19,22 +19,43 @@ package org.finos.tracdap.common.storage;
 
 import org.finos.tracdap.common.codec.ICodec;
 import org.finos.tracdap.common.codec.ICodecManager;
+import org.finos.tracdap.common.codec.arrow.ArrowFileCodec;
+import org.finos.tracdap.common.codec.arrow.ArrowFileIndex;
+import org.finos.tracdap.common.codec.arrow.ArrowStreamCodec;
 import org.finos.tracdap.common.async.Flows;
+import org.finos.tracdap.common.data.ArrowVsrSchema;
+import org.finos.tracdap.common.data.DataContext;
 import org.finos.tracdap.common.data.DataPipeline;
 import org.finos.tracdap.common.data.IDataContext;
+import org.finos.tracdap.common.data.SchemaMapping;
+import org.finos.tracdap.common.data.pipeline.ChunkedDataSink;
+import org.finos.tracdap.common.data.pipeline.ChunkedDataSource;
 import org.finos.tracdap.common.data.pipeline.RangeSelector;
+import org.finos.tracdap.common.data.util.Bytes;
+import org.finos.tracdap.common.exception.EDataCorruption;
 import org.finos.tracdap.common.exception.EStorageValidation;
+import org.finos.tracdap.common.exception.ETracInternal;
+import org.finos.tracdap.common.metadata.MetadataCodec;
 import org.finos.tracdap.config.PluginConfig;
 import org.finos.tracdap.metadata.SchemaDefinition;
 import org.finos.tracdap.metadata.StorageCopy;
+import org.finos.tracdap.metadata.Value;
 
 import io.netty.channel.EventLoopGroup;
 
+import org.apache.arrow.memory.ArrowBuf;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.stream.Collectors;
 
 
 public class CommonDataStorage implements IDataStorage {
@@ -42,7 +63,41 @@ public class CommonDataStorage implements IDataStorage {
     public static final String DOWNLOAD_SIZE_LIMIT_KEY = "downloadSizeLimit";
     public static final long DOWNLOAD_SIZE_LIMIT_DEFAULT = 1073741824;
 
+    // Chunked storage is enabled by setting a row limit and / or a size limit per chunk
+    // Limits of zero (the default) disable chunking, datasets are saved as a single chunk
+
+    public static final String CHUNK_ROW_LIMIT_KEY = "chunkRowLimit";
+    public static final long CHUNK_ROW_LIMIT_DEFAULT = 0;
+    public static final String CHUNK_SIZE_LIMIT_KEY = "chunkSizeLimit";
+    public static final long CHUNK_SIZE_LIMIT_DEFAULT = 0;
+    public static final String CHUNK_CONCURRENCY_KEY = "chunkConcurrency";
+    public static final int CHUNK_CONCURRENCY_DEFAULT = 4;
+
+    // Datasets saved in chunks are marked with a storage option on their storage copy
+    // Readers only look for chunks when the marker is set, unmarked datasets are read from chunk zero
+
+    public static final String CHUNKED_STORAGE_OPTION = "chunked";
+
+    // Codec options can be set per bucket, e.g. codec.compression = ZSTD or codec.parallelism = 4
+    // Only options that are recognised by the storage format are passed to the codec
+
+    public static final String CODEC_OPTION_PREFIX = "codec.";
+
     private static final String CHUNK_ZERO_STORAGE_PATH = "/chunk-0.%s";
+    private static final String CHUNK_N_STORAGE_PATH = "/chunk-%d.%s";
+
+    // Chunked datasets have a sidecar index with the row count and size of each chunk
+    // The index is written last, so it is only present if every chunk was saved
+    // Paged reads use the index to open only the chunks that cover the requested range
+
+    private static final String CHUNK_INDEX_STORAGE_PATH = "/chunk-index.csv";
+
+    // Paged reads of Arrow files use the file footer to fetch only the batches that are needed
+    // The footer is normally small, read enough of the file tail to get it in one request
+
+    private static final int FOOTER_READ_AHEAD = 64 * 1024;
+    private static final int RANGE_READ_LIMIT = 64 * 1024 * 1024;
+    private static final int WHOLE_FILE_SECTION = -1;
 
     private final Logger log = LoggerFactory.getLogger(getClass());
 
@@ -50,6 +105,12 @@ public class CommonDataStorage implements IDataStorage {
     private final ICodecManager formats;
 
     private final long downloadSizeLimit;
+    private final long chunkRowLimit;
+    private final long chunkSizeLimit;
+    private final int chunkConcurrency;
+    private final Map<String, String> codecOptions;
+
+    private EventLoopGroup eventLoopGroup;
 
     public CommonDataStorage(PluginConfig bucketConfig, IFileStorage fileStorage, ICodecManager formats) {
 
@@ -61,12 +122,35 @@ public class CommonDataStorage implements IDataStorage {
                 Long.toString(DOWNLOAD_SIZE_LIMIT_DEFAULT));
 
         downloadSizeLimit = Long.parseLong(downloadSizeLimitSetting);
+
+        var chunkRowLimitSetting = bucketConfig.getPropertiesOrDefault(
+                CHUNK_ROW_LIMIT_KEY,
+                Long.toString(CHUNK_ROW_LIMIT_DEFAULT));
+
+        var chunkSizeLimitSetting = bucketConfig.getPropertiesOrDefault(
+                CHUNK_SIZE_LIMIT_KEY,
+                Long.toString(CHUNK_SIZE_LIMIT_DEFAULT));
+
+        var chunkConcurrencySetting = bucketConfig.getPropertiesOrDefault(
+                CHUNK_CONCURRENCY_KEY,
+                Integer.toString(CHUNK_CONCURRENCY_DEFAULT));
+
+        chunkRowLimit = Long.parseLong(chunkRowLimitSetting);
+        chunkSizeLimit = Long.parseLong(chunkSizeLimitSetting);
+        chunkConcurrency = Integer.parseInt(chunkConcurrencySetting);
+
+        codecOptions = bucketConfig.getPropertiesMap().entrySet().stream()
+                .filter(prop -> prop.getKey().startsWith(CODEC_OPTION_PREFIX))
+                .collect(Collectors.toMap(
+                        prop -> prop.getKey().substring(CODEC_OPTION_PREFIX.length()),
+                        Map.Entry::getValue));
     }
 
     @Override
     public void start(EventLoopGroup eventLoopGroup) {
 
-        // No-op
+        // Chunks are read on the event loops of the data service
+        this.eventLoopGroup = eventLoopGroup;
     }
 
     @Override
@@ -75,46 +159,590 @@ public class CommonDataStorage implements IDataStorage {
         // No-op
     }
 
+    private boolean chunkingEnabled() {
+
+        return chunkRowLimit > 0 || chunkSizeLimit > 0;
+    }
+
+    private boolean isChunked(StorageCopy storageCopy) {
+
+        // Use the marker recorded when the data was written, regardless of the current chunk settings
+
+        var chunked = storageCopy.getStorageOptionsOrDefault(CHUNKED_STORAGE_OPTION, null);
+
+        return chunked != null && MetadataCodec.decodeBooleanValue(chunked);
+    }
+
+    @Override
+    public Map<String, Value> storageOptions() {
+
+        if (chunkingEnabled())
+            return Map.of(CHUNKED_STORAGE_OPTION, MetadataCodec.encodeValue(true));
+        else
+            return Map.of();
+    }
+
     @Override
     public DataPipeline pipelineReader(
-            StorageCopy storageCopy, SchemaDefinition requiredSchema, IDataContext dataContext,
-            long offset, long limit) {
+            StorageCopy storageCopy, SchemaDefinition requiredSchema, List<String> fields,
+            IDataContext dataContext, long offset, long limit) {
 
         var codec = formats.getCodec(storageCopy.getStorageFormat());
-
         var chunkPath = chunkPath(storageCopy, codec);
+
+        // Datasets stored as a directory may have been saved in multiple chunks
+        // Otherwise there is only chunk zero, which is read directly on the request event loop
+        if (isChunked(storageCopy) && !chunkPath.equals(storageCopy.getStoragePath()))
+            return chunkedReader(storageCopy, requiredSchema, fields, codec, dataContext, offset, limit);
+
+        return singleFileReader(chunkPath, requiredSchema, fields, codec, dataContext, offset, limit);
+    }
+
+    private DataPipeline singleFileReader(
+            String chunkPath, SchemaDefinition requiredSchema, List<String> fields, ICodec codec,
+            IDataContext dataContext, long offset, long limit) {
+
+        var paged = offset != 0 || limit != 0;
+
+        // Arrow files can be read a page at a time using the index in the file footer
+        if (paged && codec instanceof ArrowFileCodec)
+            return arrowFilePageReader(chunkPath, requiredSchema, fields, codec, dataContext, offset, limit);
+
+        // Other formats with an index in the footer are read one section at a time (e.g. Parquet row groups)
+        var indexReader = codec.getFileIndexReader();
+
+        if (indexReader != null)
+            return indexedFileReader(chunkPath, requiredSchema, fields, codec, indexReader, dataContext, offset, limit);
+
+        var pipeline = chunkReader(chunkPath, requiredSchema, fields, codec, dataContext, true);
+
+        if (paged)
+            pipeline.addStage(new RangeSelector(offset, limit));
+
+        return pipeline;
+    }
+
+    private DataPipeline chunkReader(
+            String chunkPath, SchemaDefinition requiredSchema, List<String> fields, ICodec codec,
+            IDataContext dataContext, boolean checkSize) {
+
         var load = fileStorage.reader(chunkPath, dataContext);
-        var checkSize = fileStorage.size(chunkPath, dataContext).thenApply(this::checkSizeBeforeLoad);
-        var checkAndLoad = Flows.waitForSignal(load, checkSize);
+
+        var checkAndLoad = checkSize
+                ? Flows.waitForSignal(load, fileStorage.size(chunkPath, dataContext).thenApply(this::checkSizeBeforeLoad))
+                : load;
 
         var pipeline = DataPipeline.forSource(checkAndLoad, dataContext);
 
-        var options = Map.<String, String>of();
-        var decoder = requiredSchema != null
+        var options = codecOptions(codec);
+        var decoder = createDecoder(requiredSchema, fields, codec, dataContext, options);
+
+        return pipeline.addStage(decoder);
+    }
+
+    private ICodec.Decoder<?> createDecoder(
+            SchemaDefinition requiredSchema, List<String> fields, ICodec codec,
+            IDataContext dataContext, Map<String, String> options) {
+
+        // Field selection is pushed down into the decoder, so unused fields are not decoded
+
+        if (!fields.isEmpty()) {
+
+            if (requiredSchema == null)
+                throw new ETracInternal("Field selection requires a schema");
+
+            return codec.getDecoder(requiredSchema, fields, dataContext.arrowAllocator(), options);
+        }
+
+        return requiredSchema != null
                 ? codec.getDecoder(requiredSchema, dataContext.arrowAllocator(), options)
                 : codec.getDecoder(dataContext.arrowAllocator(), options);
+    }
+
+    private DataPipeline arrowFilePageReader(
+            String chunkPath, SchemaDefinition requiredSchema, List<String> fields, ICodec codec,
+            IDataContext dataContext, long offset, long limit) {
+
+        // Record batch messages in an Arrow file are the same as in the Arrow stream format
+        // Fetch the messages for the batches that are needed and decode them as a stream
+        // The range selector is told where in the dataset the first fetched batch starts
+
+        var page = readArrowFilePage(chunkPath, dataContext, offset, limit);
+
+        Flow.Publisher<ArrowBuf> pageContent = subscriber -> Flows
+                .publish(page.toCompletableFuture().join().content)
+                .subscribe(subscriber);
+
+        var pipeline = DataPipeline.forSource(Flows.waitForSignal(pageContent, page), dataContext);
+
+        var options = codecOptions(codec);
+        var decoder = createDecoder(requiredSchema, fields, new ArrowStreamCodec(), dataContext, options);
 
         pipeline.addStage(decoder);
+        pipeline.addStage(new RangeSelector(offset, limit, () -> page.toCompletableFuture().join().firstRow));
 
-        if (offset != 0 || limit != 0)
-            pipeline.addStage(new RangeSelector(offset, limit));
+        return pipeline;
+    }
+
+    private CompletionStage<DataPage> readArrowFilePage(String chunkPath, IDataContext dataContext, long offset, long limit) {
+
+        return fileStorage.size(chunkPath, dataContext).thenCompose(fileSize -> {
+
+            if (fileSize < ArrowFileIndex.FOOTER_TRAILER_SIZE)
+                throw new EDataCorruption("Arrow file is invalid (file is too small)");
+
+            var tailSize = (int) Math.min(fileSize, FOOTER_READ_AHEAD);
+            var tailOffset = fileSize - tailSize;
+
+            return fileStorage.readChunk(chunkPath, tailOffset, tailSize, dataContext)
+                    .thenCompose(tail -> readArrowFileIndex(chunkPath, fileSize, tail, tailOffset, dataContext))
+                    .thenCompose(index -> readArrowFilePage(chunkPath, index, dataContext, offset, limit));
+        });
+    }
+
+    private CompletionStage<ArrowFileIndex> readArrowFileIndex(
+            String chunkPath, long fileSize, ArrowBuf tail, long tailOffset,
+            IDataContext dataContext) {
+
+        try {
+
+            var trailerOffset = fileSize - ArrowFileIndex.FOOTER_TRAILER_SIZE;
+            var footerLength = ArrowFileIndex.readFooterLength(tail, trailerOffset - tailOffset);
+            var footerOffset = trailerOffset - footerLength;
+
+            if (footerOffset < 0)
+                throw new EDataCorruption("Arrow file is invalid (footer length is not valid)");
+
+            // Most of the time the footer will be in the tail that was already fetched
+            if (footerOffset >= tailOffset)
+                return CompletableFuture.completedFuture(ArrowFileIndex.readFooter(tail, footerOffset - tailOffset, footerLength));
+
+            return fileStorage.readChunk(chunkPath, footerOffset, footerLength, dataContext).thenApply(footer -> {
+                try (footer) {
+                    return ArrowFileIndex.readFooter(footer, 0, footerLength);
+                }
+            });
+        }
+        finally {
+            tail.close();
+        }
+    }
+
+    private CompletionStage<DataPage> readArrowFilePage(
+            String chunkPath, ArrowFileIndex index, IDataContext dataContext,
+            long offset, long limit) {
+
+        var range = index.selectBatches(offset, limit);
+
+        if (!index.hasRowCounts())
+            log.warn("Arrow file does not have a batch index, the whole file will be loaded [{}]", chunkPath);
+
+        var dictionariesSize = index.dictionaryCount() > 0 ? index.dictionariesEnd() - index.dictionariesStart() : 0;
+        var batchesSize = !range.isEmpty() ? index.batchesEnd(range) - index.batchesStart(range) : 0;
+
+        // Size limit applies to the data that will actually be loaded
+        checkSizeBeforeLoad(dictionariesSize + batchesSize);
+
+        // Dictionaries have to be sent before the record batches that use them
+        var parts = new ArrayList<CompletionStage<ArrowBuf>>();
+        parts.add(CompletableFuture.completedFuture(index.streamHeader(dataContext.arrowAllocator())));
+
+        if (index.dictionaryCount() > 0)
+            parts.addAll(readRange(chunkPath, index.dictionariesStart(), index.dictionariesEnd(), dataContext));
+
+        if (!range.isEmpty())
+            parts.addAll(readRange(chunkPath, index.batchesStart(range), index.batchesEnd(range), dataContext));
+
+        parts.add(CompletableFuture.completedFuture(index.streamFooter(dataContext.arrowAllocator())));
+
+        return collectParts(parts).thenApply(content -> new DataPage(content, range.firstRow));
+    }
+
+    private DataPipeline indexedFileReader(
+            String chunkPath, SchemaDefinition requiredSchema, List<String> fields, ICodec codec,
+            ICodec.FileIndexReader indexReader, IDataContext dataContext, long offset, long limit) {
+
+        // Each section is fetched with a ranged read and decoded on its own, using the index from the footer
+        // Sections are decoded in parallel and joined back into a single stream, the same as data chunks
+        // For paged reads, only the sections that cover the requested range are read
+
+        var paged = offset != 0 || limit != 0;
+        var sections = readFileIndex(chunkPath, indexReader, dataContext)
+                .thenApply(index -> selectSections(index, offset, limit));
+        var sectionCount = sections.thenApply(selection -> selection.sections.size());
+
+        var source = new ChunkedDataSource(
+                dataContext, () -> chunkContext(dataContext), sectionCount,
+                (sectionIndex, sectionContext) -> {
+
+                    var selection = sections.toCompletableFuture().join();
+                    var section = selection.sections.get(sectionIndex);
+
+                    return sectionReader(chunkPath, requiredSchema, fields, codec, selection.index, section, sectionContext);
+                },
+                chunkConcurrency);
+
+        var pipeline = DataPipeline.forSource(source, dataContext);
+
+        if (paged)
+            pipeline.addStage(new RangeSelector(offset, limit, () -> sections.toCompletableFuture().join().firstRow));
 
         return pipeline;
     }
 
+    private CompletionStage<ICodec.FileIndex> readFileIndex(
+            String chunkPath, ICodec.FileIndexReader indexReader, IDataContext dataContext) {
+
+        return fileStorage.size(chunkPath, dataContext).thenCompose(fileSize -> {
+
+            if (fileSize < indexReader.trailerSize())
+                throw new EDataCorruption("Data file is invalid (file is too small)");
+
+            var tailSize = (int) Math.min(fileSize, FOOTER_READ_AHEAD);
+            var tailOffset = fileSize - tailSize;
+
+            return fileStorage.readChunk(chunkPath, tailOffset, tailSize, dataContext)
+                    .thenCompose(tail -> readFileIndex(chunkPath, indexReader, fileSize, tail, tailOffset, dataContext));
+        });
+    }
+
+    private CompletionStage<ICodec.FileIndex> readFileIndex(
+            String chunkPath, ICodec.FileIndexReader indexReader,
+            long fileSize, ArrowBuf tail, long tailOffset,
+            IDataContext dataContext) {
+
+        try {
+
+            var trailerOffset = fileSize - indexReader.trailerSize();
+            var footerLength = indexReader.readFooterLength(tail, trailerOffset - tailOffset);
+            var footerOffset = trailerOffset - footerLength;
+
+            if (footerOffset < 0)
+                throw new EDataCorruption("Data file is invalid (footer length is not valid)");
+
+            // Most of the time the footer will be in the tail that was already fetched
+            if (footerOffset >= tailOffset)
+                return CompletableFuture.completedFuture(indexReader.readIndex(tail, footerOffset - tailOffset, fileSize));
+
+            var footerSize = (int) (fileSize - footerOffset);
+
+            return fileStorage.readChunk(chunkPath, footerOffset, footerSize, dataContext).thenApply(footer -> {
+                try (footer) {
+                    return indexReader.readIndex(footer, 0, fileSize);
+                }
+            });
+        }
+        finally {
+            tail.close();
+        }
+    }
+
+    private SectionSelection selectSections(ICodec.FileIndex index, long offset, long limit) {
+
+        // A file with no sections still has a schema (e.g. an empty Parquet file), read it as a whole
+
+        if (index.sectionCount() == 0)
+            return new SectionSelection(index, List.of(WHOLE_FILE_SECTION), 0);
+
+        var paged = offset != 0 || limit != 0;
+
+        var sections = new ArrayList<Integer>();
+        var firstRow = -1L;
+        var currentRow = 0L;
+        var totalSize = 0L;
+
+        for (var section = 0; section < index.sectionCount(); section++) {
+
+            var sectionStart = currentRow;
+            var sectionEnd = currentRow + index.sectionRowCount(section);
+            currentRow = sectionEnd;
+
+            if (paged && sectionEnd <= offset)
+                continue;
+
+            if (paged && limit != 0 && sectionStart >= offset + limit)
+                break;
+
+            if (firstRow < 0)
+                firstRow = sectionStart;
+
+            sections.add(section);
+            totalSize += index.sectionEnd(section) - index.sectionStart(section);
+        }
+
+        // If the offset is past the end of the data, read the last section to get the schema
+
+        if (sections.isEmpty()) {
+            var lastSection = index.sectionCount() - 1;
+            sections.add(lastSection);
+            firstRow = currentRow - index.sectionRowCount(lastSection);
+            totalSize = index.sectionEnd(lastSection) - index.sectionStart(lastSection);
+        }
+
+        checkSizeBeforeLoad(totalSize);
+
+        return new SectionSelection(index, sections, Math.max(firstRow, 0));
+    }
+
+    private DataPipeline sectionReader(
+            String chunkPath, SchemaDefinition requiredSchema, List<String> fields, ICodec codec,
+            ICodec.FileIndex index, int section, IDataContext sectionContext) {
+
+        if (section == WHOLE_FILE_SECTION)
+            return chunkReader(chunkPath, requiredSchema, fields, codec, sectionContext, false);
+
+        var content = collectParts(readRange(chunkPath, index.sectionStart(section), index.sectionEnd(section), sectionContext));
+
+        Flow.Publisher<ArrowBuf> sectionContent = subscriber -> Flows
+                .publish(content.toCompletableFuture().join())
+                .subscribe(subscriber);
+
+        var pipeline = DataPipeline.forSource(Flows.waitForSignal(sectionContent, content), sectionContext);
+
+        var arrowSchema = sectionSchema(requiredSchema, fields, sectionContext);
+        var options = codecOptions(codec);
+        var decoder = index.getSectionDecoder(section, arrowSchema, sectionContext.arrowAllocator(), options);
+
+        return pipeline.addStage(decoder);
+    }
+
+    private ArrowVsrSchema sectionSchema(SchemaDefinition requiredSchema, List<String> fields, IDataContext dataContext) {
+
+        // Field selection is pushed down into the section decoders, the same as for whole files
+
+        if (requiredSchema == null) {
+
+            if (!fields.isEmpty())
+                throw new ETracInternal("Field selection requires a schema");
+
+            return null;
+        }
+
+        var arrowSchema = SchemaMapping.tracToArrow(requiredSchema, dataContext.arrowAllocator());
+
+        return fields.isEmpty() ? arrowSchema : arrowSchema.project(fields);
+    }
+
+    private List<CompletionStage<ArrowBuf>> readRange(String storagePath, long start, long end, IDataContext dataContext) {
+
+        // Large ranges are split into multiple reads, which can run concurrently
+
+        var reads = new ArrayList<CompletionStage<ArrowBuf>>();
+
+        for (var readStart = start; readStart < end; readStart += RANGE_READ_LIMIT) {
+            var readSize = (int) Math.min(end - readStart, RANGE_READ_LIMIT);
+            reads.add(fileStorage.readChunk(storagePath, readStart, readSize, dataContext));
+        }
+
+        return reads;
+    }
+
+    private CompletionStage<List<ArrowBuf>> collectParts(List<CompletionStage<ArrowBuf>> parts) {
+
+        var allParts = CompletableFuture.allOf(parts.stream()
+                .map(CompletionStage::toCompletableFuture)
+                .toArray(CompletableFuture[]::new));
+
+        return allParts.handle((result, error) -> {
+
+            var content = parts.stream()
+                    .map(CompletionStage::toCompletableFuture)
+                    .filter(part -> part.isDone() && !part.isCompletedExceptionally())
+                    .map(CompletableFuture::join)
+                    .collect(Collectors.toList());
+
+            // If any part failed, release the parts that were read successfully
+            if (error != null) {
+                content.forEach(ArrowBuf::close);
+                throw error instanceof CompletionException
+                        ? (CompletionException) error
+                        : new CompletionException(error);
+            }
+
+            return content;
+        });
+    }
+
+    private DataPipeline chunkedReader(
+            StorageCopy storageCopy, SchemaDefinition requiredSchema, List<String> fields, ICodec codec,
+            IDataContext dataContext, long offset, long limit) {
+
+        // The chunk index is used to find the chunks, which are read and decoded in parallel
+        // For paged reads, only the chunks that cover the requested range are read
+        // The size limit is applied to the total size of all the chunks being read
+
+        var paged = offset != 0 || limit != 0;
+        var chunks = selectChunks(storageCopy, codec, dataContext, offset, limit);
+        var chunkCount = chunks.thenApply(selection -> selection.chunkPaths.size());
+
+        var source = new ChunkedDataSource(
+                dataContext, () -> chunkContext(dataContext), chunkCount,
+                (chunkIndex, chunkContext) -> {
+
+                    var selection = chunks.toCompletableFuture().join();
+                    var chunkPath = selection.chunkPaths.get(chunkIndex);
+
+                    return chunkReader(chunkPath, requiredSchema, fields, codec, chunkContext, false);
+                },
+                chunkConcurrency);
+
+        var pipeline = DataPipeline.forSource(source, dataContext);
+
+        if (paged)
+            pipeline.addStage(new RangeSelector(offset, limit, () -> chunks.toCompletableFuture().join().firstRow));
+
+        return pipeline;
+    }
+
+    private CompletionStage<ChunkSelection> selectChunks(
+            StorageCopy storageCopy, ICodec codec, IDataContext dataContext,
+            long offset, long limit) {
+
+        var storagePath = storageCopy.getStoragePath();
+        var extension = codec.defaultFileExtension();
+        var indexPath = storagePath + CHUNK_INDEX_STORAGE_PATH;
+
+        return readChunkIndex(indexPath, dataContext)
+                .thenApply(index -> selectChunks(storagePath, extension, index, offset, limit));
+    }
+
+    private ChunkSelection selectChunks(
+            String storagePath, String extension, List<ChunkedDataSink.ChunkInfo> index,
+            long offset, long limit) {
+
+        var paged = offset != 0 || limit != 0;
+
+        var chunkPaths = new ArrayList<String>();
+        var firstRow = -1L;
+        var currentRow = 0L;
+        var totalSize = 0L;
+
+        for (var chunk : index) {
+
+            var chunkStart = currentRow;
+            var chunkEnd = currentRow + chunk.rowCount;
+            currentRow = chunkEnd;
+
+            if (paged && chunkEnd <= offset)
+                continue;
+
+            if (paged && limit != 0 && chunkStart >= offset + limit)
+                break;
+
+            if (firstRow < 0)
+                firstRow = chunkStart;
+
+            chunkPaths.add(storagePath + String.format(CHUNK_N_STORAGE_PATH, chunk.chunkIndex, extension));
+            totalSize += chunk.size;
+        }
+
+        // If the offset is past the end of the data, read the last chunk to get the schema
+        // All of its rows are before the offset, so they will all be dropped
+
+        if (chunkPaths.isEmpty() && !index.isEmpty()) {
+            var lastChunk = index.get(index.size() - 1);
+            chunkPaths.add(storagePath + String.format(CHUNK_N_STORAGE_PATH, lastChunk.chunkIndex, extension));
+            firstRow = currentRow - lastChunk.rowCount;
+            totalSize = lastChunk.size;
+        }
+
+        checkSizeBeforeLoad(totalSize);
+
+        return new ChunkSelection(chunkPaths, Math.max(firstRow, 0));
+    }
+
+    private CompletionStage<List<ChunkedDataSink.ChunkInfo>> readChunkIndex(String indexPath, IDataContext dataContext) {
+
+        return fileStorage.size(indexPath, dataContext)
+                .thenCompose(size -> fileStorage.readChunk(indexPath, 0, (int) (long) size, dataContext))
+                .thenApply(buffer -> {
+                    try (buffer) {
+                        var content = new String(Bytes.copyFromBuffer(buffer), StandardCharsets.UTF_8);
+                        return decodeChunkIndex(indexPath, content);
+                    }
+                });
+    }
+
+    private List<ChunkedDataSink.ChunkInfo> decodeChunkIndex(String indexPath, String content) {
+
+        var index = new ArrayList<ChunkedDataSink.ChunkInfo>();
+
+        try {
+
+            for (var line : content.split("\n")) {
+
+                if (line.isBlank())
+                    continue;
+
+                var fields = line.split(",");
+
+                if (fields.length != 3 || Integer.parseInt(fields[0]) != index.size())
+                    throw new EDataCorruption("Chunk index is invalid for [" + indexPath + "]");
+
+                var chunkIndex = Integer.parseInt(fields[0]);
+                var rowCount = Long.parseLong(fields[1]);
+                var size = Long.parseLong(fields[2]);
+
+                index.add(new ChunkedDataSink.ChunkInfo(chunkIndex, rowCount, size));
+            }
+
+            return index;
+        }
+        catch (NumberFormatException e) {
+            throw new EDataCorruption("Chunk index is invalid for [" + indexPath + "]", e);
+        }
+    }
+
+    private CompletionStage<Long> writeChunkIndex(
+            String storagePath, List<ChunkedDataSink.ChunkInfo> chunks,
+            IDataContext dataContext) {
+
+        var indexPath = storagePath + CHUNK_INDEX_STORAGE_PATH;
+
+        var content = chunks.stream()
+                .map(chunk -> String.format("%d,%d,%d\n", chunk.chunkIndex, chunk.rowCount, chunk.size))
+                .collect(Collectors.joining());
+
+        var buffer = Bytes.copyToBuffer(content.getBytes(StandardCharsets.UTF_8), dataContext.arrowAllocator());
+
+        var signal = new CompletableFuture<Long>();
+        var writer = fileStorage.writer(indexPath, signal, dataContext);
+
+        Flows.publish(List.of(buffer)).subscribe(writer);
+
+        return signal;
+    }
+
+    private IDataContext chunkContext(IDataContext dataContext) {
+
+        // Spread chunks across the available event loops, so decoding can happen in parallel
+        // If the storage has not been started with an event loop group, use the request context
+
+        if (eventLoopGroup == null)
+            return dataContext;
+
+        return new DataContext(eventLoopGroup.next(), dataContext.arrowAllocator(), dataContext.offloadExecutor());
+    }
+
     @Override
     public DataPipeline pipelineWriter(
             StorageCopy storageCopy, IDataContext dataContext, DataPipeline pipeline,
             CompletableFuture<Long> signal) {
 
         var codec = formats.getCodec(storageCopy.getStorageFormat());
-        var options = Map.<String, String>of();
+        var options = codecOptions(codec);
+
+        var storagePath = storageCopy.getStoragePath();
+        var chunkPath = chunkPath(storageCopy, codec);
+
+        // The chunked writer creates an encoder for each chunk, so decide before adding an encoder here
+        // The storage copy is marked as chunked when it is created, using the storage options for this bucket
+        if (isChunked(storageCopy) && chunkPath.length() > storagePath.length())
+            return chunkedWriter(storageCopy, codec, dataContext, pipeline, signal);
 
         var encoder = codec.getEncoder(dataContext.arrowAllocator(), options);
         pipeline = pipeline.addStage(encoder);
 
-        var storagePath = storageCopy.getStoragePath();
-        var chunkPath = chunkPath(storageCopy, codec);
         var save = fileStorage.writer(chunkPath, signal, dataContext);
 
         if (chunkPath.length() > storagePath.length()) {
@@ -127,6 +755,40 @@ public class CommonDataStorage implements IDataStorage {
         }
     }
 
+    private DataPipeline chunkedWriter(
+            StorageCopy storageCopy, ICodec codec, IDataContext dataContext,
+            DataPipeline pipeline, CompletableFuture<Long> signal) {
+
+        var storagePath = storageCopy.getStoragePath();
+        var extension = codec.defaultFileExtension();
+        var options = codecOptions(codec);
+
+        var mkdir = fileStorage.mkdir(storagePath, /* recursive = */ true, dataContext);
+
+        var sink = new ChunkedDataSink(
+                pipeline, dataContext,
+                () -> codec.getEncoder(dataContext.arrowAllocator(), options),
+                (chunkIndex, chunkSignal) -> {
+                    var chunkPath = storagePath + String.format(CHUNK_N_STORAGE_PATH, chunkIndex, extension);
+                    var save = fileStorage.writer(chunkPath, chunkSignal, dataContext);
+                    return Flows.waitForSignal(save, mkdir);
+                },
+                chunks -> writeChunkIndex(storagePath, chunks, dataContext),
+                signal, chunkRowLimit, chunkSizeLimit, chunkConcurrency);
+
+        return pipeline.addSink(sink);
+    }
+
+    @Override
+    public Map<String, String> codecOptions(ICodec codec) {
+
+        var supportedOptions = codec.options();
+
+        return codecOptions.entrySet().stream()
+                .filter(option -> supportedOptions.contains(option.getKey()))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
     private String chunkPath(StorageCopy storageCopy, ICodec codec) {
 
         var storagePath = storageCopy.getStoragePath();
@@ -138,6 +800,41 @@ public class CommonDataStorage implements IDataStorage {
             return storagePath + String.format(CHUNK_ZERO_STORAGE_PATH, extension);
     }
 
+    private static class DataPage {
+
+        final List<ArrowBuf> content;
+        final long firstRow;
+
+        DataPage(List<ArrowBuf> content, long firstRow) {
+            this.content = content;
+            this.firstRow = firstRow;
+        }
+    }
+
+    private static class SectionSelection {
+
+        final ICodec.FileIndex index;
+        final List<Integer> sections;
+        final long firstRow;
+
+        SectionSelection(ICodec.FileIndex index, List<Integer> sections, long firstRow) {
+            this.index = index;
+            this.sections = sections;
+            this.firstRow = firstRow;
+        }
+    }
+
+    private static class ChunkSelection {
+
+        final List<String> chunkPaths;
+        final long firstRow;
+
+        ChunkSelection(List<String> chunkPaths, long firstRow) {
+            this.chunkPaths = chunkPaths;
+            this.firstRow = firstRow;
+        }
+    }
+
     private long checkSizeBeforeLoad(long fileSize) {
 
         // size limit of zero disables the limit
@@ -21,6 +21,7 @@ import org.finos.tracdap.common.async.Flows;
 import org.finos.tracdap.common.data.IExecutionContext;
 import org.finos.tracdap.common.config.ConfigHelpers;
 import org.finos.tracdap.common.data.IDataContext;
+import org.finos.tracdap.common.exception.EStartup;
 import org.finos.tracdap.common.exception.ETrac;
 
 import org.apache.arrow.memory.ArrowBuf;
@@ -73,6 +74,12 @@ public abstract class CommonFileStorage implements IFileStorage {
     public static final String READ_ONLY_CONFIG_KEY = "readOnly";
     public static final boolean READ_ONLY_CONFIG_DEFAULT = false;
 
+    // Parallel range reads are off by default (concurrency = 1 uses the regular streaming reader)
+    public static final String RANGE_READ_CONCURRENCY_CONFIG_KEY = "rangeReadConcurrency";
+    public static final int RANGE_READ_CONCURRENCY_DEFAULT = 1;
+    public static final String RANGE_READ_PART_SIZE_CONFIG_KEY = "rangeReadPartSize";
+    public static final int RANGE_READ_PART_SIZE_DEFAULT = 8 * 1048576;  // 8 MB
+
     protected static final boolean BUCKET_SEMANTICS = true;
     protected static final boolean FILE_SEMANTICS = false;
 
@@ -101,6 +108,8 @@ public abstract class CommonFileStorage implements IFileStorage {
     protected final boolean bucketSemantics;
     protected final String storageKey;
     protected final boolean readOnly;
+    protected final int rangeReadConcurrency;
+    protected final int rangeReadPartSize;
 
     protected final StorageErrors errors;
 
@@ -117,6 +126,28 @@ public abstract class CommonFileStorage implements IFileStorage {
                 READ_ONLY_CONFIG_KEY,
                 READ_ONLY_CONFIG_DEFAULT);
 
+        this.rangeReadConcurrency = ConfigHelpers.readInt(
+                storageKey, properties,
+                RANGE_READ_CONCURRENCY_CONFIG_KEY,
+                RANGE_READ_CONCURRENCY_DEFAULT);
+
+        this.rangeReadPartSize = ConfigHelpers.readInt(
+                storageKey, properties,
+                RANGE_READ_PART_SIZE_CONFIG_KEY,
+                RANGE_READ_PART_SIZE_DEFAULT);
+
+        if (rangeReadConcurrency < 1) {
+            var message = String.format("Invalid property [%s] for [%s]: Must be at least 1",
+                    RANGE_READ_CONCURRENCY_CONFIG_KEY, storageKey);
+            throw new EStartup(message);
+        }
+
+        if (rangeReadPartSize < 1) {
+            var message = String.format("Invalid property [%s] for [%s]: Must be at least 1",
+                    RANGE_READ_PART_SIZE_CONFIG_KEY, storageKey);
+            throw new EStartup(message);
+        }
+
         this.errors = errors;
     }
 
@@ -354,11 +385,26 @@ public abstract class CommonFileStorage implements IFileStorage {
 
         var objectKey = resolveObjectKey(operationName, storagePath, false);
 
-        var readStream = fsOpenInputStream(objectKey, dataContext);
+        var readStream = rangeReadConcurrency > 1
+                ? parallelRangeReader(storagePath, objectKey, dataContext)
+                : fsOpenInputStream(objectKey, dataContext);
 
         return new ReadStreamMonitor(storagePath, readStream);
     }
 
+    private Flow.Publisher<ArrowBuf>
+    parallelRangeReader(String storagePath, String objectKey, IDataContext dataContext) {
+
+        // Ranges are read using the same low-level operation as readChunk()
+        // The file size is needed up front to plan the ranges
+
+        return new ParallelRangeReader(
+                dataContext, errors, storageKey, storagePath,
+                () -> fsGetFileInfo(objectKey, dataContext),
+                (offset, size) -> fsReadChunk(objectKey, offset, size, dataContext),
+                rangeReadPartSize, rangeReadConcurrency);
+    }
+
     @Override
     public Flow.Subscriber<ArrowBuf>
     writer(String storagePath, CompletableFuture<Long> signal, IDataContext ctx) {
@@ -17,13 +17,17 @@
 
 package org.finos.tracdap.common.storage;
 
+import org.finos.tracdap.common.codec.ICodec;
 import org.finos.tracdap.common.data.DataPipeline;
 import org.finos.tracdap.common.data.IDataContext;
 import org.finos.tracdap.metadata.SchemaDefinition;
 import org.finos.tracdap.metadata.StorageCopy;
+import org.finos.tracdap.metadata.Value;
 
 import io.netty.channel.EventLoopGroup;
 
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 
@@ -44,9 +48,19 @@ public interface IDataStorage extends AutoCloseable {
         return pipelineReader(storageCopy, requiredSchema, dataContext, 0, 0);
     }
 
+    default DataPipeline pipelineReader(
+            StorageCopy storageCopy,
+            SchemaDefinition requiredSchema,
+            IDataContext dataContext,
+            long offset, long limit) {
+
+        return pipelineReader(storageCopy, requiredSchema, List.of(), dataContext, offset, limit);
+    }
+
     DataPipeline pipelineReader(
             StorageCopy storageCopy,
             SchemaDefinition requiredSchema,
+            List<String> fields,
             IDataContext dataContext,
             long offset, long limit);
 
@@ -55,4 +69,16 @@ public interface IDataStorage extends AutoCloseable {
             IDataContext dataContext,
             DataPipeline pipeline,
             CompletableFuture<Long> signal);
+
+    default Map<String, String> codecOptions(ICodec codec) {
+
+        // Storage can supply codec options for the formats it reads and writes
+        return Map.of();
+    }
+
+    default Map<String, Value> storageOptions() {
+
+        // Storage can record options on each new storage copy, which are passed back when the copy is read
+        return Map.of();
+    }
 }
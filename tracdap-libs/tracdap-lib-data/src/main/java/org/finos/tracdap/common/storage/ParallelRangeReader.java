@@ -0,0 +1,338 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.common.storage;
+
+import org.finos.tracdap.common.data.IDataContext;
+
+import io.netty.util.concurrent.OrderedEventExecutor;
+import org.apache.arrow.memory.ArrowBuf;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static org.finos.tracdap.common.storage.CommonFileStorage.READ_OPERATION;
+import static org.finos.tracdap.common.storage.StorageErrors.ExplicitError.DUPLICATE_SUBSCRIPTION;
+import static org.finos.tracdap.common.storage.StorageErrors.ExplicitError.NOT_A_FILE;
+
+
+class ParallelRangeReader implements Flow.Publisher<ArrowBuf> {
+
+    // Read a file as a series of ranged requests, with several ranges in flight at once
+    // Ranges can complete in any order, they are held until all the ranges before them are delivered
+    // The number of ranges held in memory (in flight plus waiting for delivery) is bounded by the read-ahead limit
+    // Ranges are read ahead of demand from the subscriber, but only up to the read-ahead limit
+
+    // Ranges are split into smaller chunks for delivery, in line with the regular file readers
+    private static final long DELIVERY_CHUNK_SIZE = 2 * 1048576;  // 2 MB
+
+    @FunctionalInterface
+    interface RangeRead {
+
+        CompletionStage<ArrowBuf> readRange(long offset, int size);
+    }
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final OrderedEventExecutor executor;
+    private final StorageErrors errors;
+    private final String storageKey;
+    private final String storagePath;
+
+    private final Supplier<CompletionStage<FileStat>> statFunc;
+    private final RangeRead readFunc;
+    private final int partSize;
+    private final int maxPartsInFlight;
+    private final int readAhead;
+
+    private final AtomicBoolean subscriberSet;
+    private Flow.Subscriber<? super ArrowBuf> subscriber;
+
+    private final Map<Integer, ArrowBuf> readyParts;
+    private final Queue<ArrowBuf> pendingChunks;
+
+    private long fileSize;
+    private int nParts;
+    private int nextPart;
+    private int nextDelivery;
+    private int partsInFlight;
+
+    private long nRequested;
+    private long nDelivered;
+    private boolean gotStat;
+    private boolean gotComplete;
+    private boolean gotCancel;
+    private boolean gotError;
+
+    ParallelRangeReader(
+            IDataContext dataContext, StorageErrors errors,
+            String storageKey, String storagePath,
+            Supplier<CompletionStage<FileStat>> statFunc, RangeRead readFunc,
+            int partSize, int maxPartsInFlight) {
+
+        this.executor = dataContext.eventLoopExecutor();
+        this.errors = errors;
+        this.storageKey = storageKey;
+        this.storagePath = storagePath;
+
+        this.statFunc = statFunc;
+        this.readFunc = readFunc;
+        this.partSize = partSize;
+        this.maxPartsInFlight = maxPartsInFlight;
+        this.readAhead = 2 * maxPartsInFlight;
+
+        this.subscriberSet = new AtomicBoolean(false);
+        this.readyParts = new HashMap<>();
+        this.pendingChunks = new ArrayDeque<>();
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ArrowBuf> subscriber) {
+
+        var subscribeOk = subscriberSet.compareAndSet(false, true);
+
+        if (!subscribeOk) {
+
+            // According to Java API docs, errors in subscribe() should be reported as IllegalStateException
+
+            var eStorage = errors.explicitError(READ_OPERATION, storagePath, DUPLICATE_SUBSCRIPTION);
+            var eFlowState = new IllegalStateException(eStorage.getMessage(), eStorage);
+            subscriber.onError(eFlowState);
+            return;
+        }
+
+        this.subscriber = subscriber;
+
+        // Same sequence as CommonFileReader, start is queued before the subscription is activated
+
+        executor.submit(this::start);
+
+        subscriber.onSubscribe(new Subscription());
+    }
+
+    private class Subscription implements Flow.Subscription {
+
+        @Override
+        public void request(long n) {
+            executor.submit(() -> ParallelRangeReader.this.request(n));
+        }
+
+        @Override
+        public void cancel() {
+
+            // Cancel immediately if called from onNext(), so no more chunks are delivered
+            if (executor.inEventLoop())
+                ParallelRangeReader.this.cancel();
+            else
+                executor.submit(ParallelRangeReader.this::cancel);
+        }
+    }
+
+    private void start() {
+
+        if (isDone())
+            return;
+
+        statFunc.get().whenComplete(this::onStat);
+    }
+
+    private void onStat(FileStat stat, Throwable error) {
+
+        if (!executor.inEventLoop()) {
+            executor.execute(() -> onStat(stat, error));
+            return;
+        }
+
+        if (isDone())
+            return;
+
+        if (error != null) {
+            onError(error);
+            return;
+        }
+
+        if (stat.fileType != FileType.FILE) {
+            onError(errors.explicitError(READ_OPERATION, storagePath, NOT_A_FILE));
+            return;
+        }
+
+        fileSize = stat.size;
+        nParts = (int) ((fileSize + partSize - 1) / partSize);
+        gotStat = true;
+
+        log.info("{} {} [{}]: Reading in [{}] ranges, up to [{}] in flight",
+                READ_OPERATION, storageKey, storagePath, nParts, maxPartsInFlight);
+
+        readMore();
+        deliver();
+    }
+
+    private void request(long n) {
+
+        if (isDone())
+            return;
+
+        nRequested += n;
+
+        deliver();
+    }
+
+    private void cancel() {
+
+        if (isDone())
+            return;
+
+        log.info("READ CANCELLED: [{}]", storagePath);
+
+        gotCancel = true;
+
+        // Parts still in flight are released when they arrive
+        releaseParts();
+    }
+
+    private void readMore() {
+
+        while (nextPart < nParts
+                && partsInFlight < maxPartsInFlight
+                && partsInFlight + readyParts.size() + (pendingChunks.isEmpty() ? 0 : 1) < readAhead) {
+
+            var partNumber = nextPart++;
+            var offset = (long) partNumber * partSize;
+            var size = (int) Math.min(partSize, fileSize - offset);
+
+            partsInFlight += 1;
+
+            readFunc.readRange(offset, size)
+                    .whenComplete((part, error) -> onPart(partNumber, part, error));
+        }
+    }
+
+    private void onPart(int partNumber, ArrowBuf part, Throwable error) {
+
+        if (!executor.inEventLoop()) {
+            executor.execute(() -> onPart(partNumber, part, error));
+            return;
+        }
+
+        partsInFlight -= 1;
+
+        if (isDone()) {
+            if (part != null)
+                part.close();
+            return;
+        }
+
+        if (error != null) {
+            onError(error);
+            return;
+        }
+
+        readyParts.put(partNumber, part);
+
+        deliver();
+        readMore();
+    }
+
+    private void deliver() {
+
+        if (!gotStat || isDone())
+            return;
+
+        // Parts are only split into chunks when they are next in line for delivery
+
+        while (pendingChunks.isEmpty() && readyParts.containsKey(nextDelivery))
+            splitPart(readyParts.remove(nextDelivery++));
+
+        while (nDelivered < nRequested && !pendingChunks.isEmpty()) {
+
+            nDelivered += 1;
+            subscriber.onNext(pendingChunks.remove());
+
+            // The subscriber can cancel from inside onNext()
+            if (isDone())
+                return;
+
+            if (pendingChunks.isEmpty() && readyParts.containsKey(nextDelivery))
+                splitPart(readyParts.remove(nextDelivery++));
+        }
+
+        if (nextDelivery == nParts && pendingChunks.isEmpty()) {
+            gotComplete = true;
+            subscriber.onComplete();
+            return;
+        }
+
+        readMore();
+    }
+
+    private void splitPart(ArrowBuf part) {
+
+        var partLength = part.readableBytes();
+
+        if (partLength <= DELIVERY_CHUNK_SIZE) {
+            pendingChunks.add(part);
+            return;
+        }
+
+        // Slices share the memory of the part, each slice holds one reference
+
+        for (var offset = 0L; offset < partLength; offset += DELIVERY_CHUNK_SIZE) {
+
+            var length = Math.min(DELIVERY_CHUNK_SIZE, partLength - offset);
+            var slice = part.slice(part.readerIndex() + offset, length);
+
+            slice.getReferenceManager().retain();
+            pendingChunks.add(slice);
+        }
+
+        part.close();
+    }
+
+    private void onError(Throwable error) {
+
+        var tracError = errors.handleException(READ_OPERATION, storagePath, error);
+
+        log.error("{} {} [{}]: {}", READ_OPERATION, storageKey, storagePath, tracError.getMessage(), tracError);
+
+        gotError = true;
+        releaseParts();
+
+        subscriber.onError(tracError);
+    }
+
+    private boolean isDone() {
+
+        return gotError || gotCancel || gotComplete;
+    }
+
+    private void releaseParts() {
+
+        readyParts.values().forEach(ArrowBuf::close);
+        readyParts.clear();
+
+        while (!pendingChunks.isEmpty())
+            pendingChunks.remove().close();
+    }
+}
@@ -24,12 +24,18 @@ import org.finos.tracdap.common.exception.EUnexpected;
 import io.netty.util.concurrent.OrderedEventExecutor;
 import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.ForeignAllocation;
+import org.apache.arrow.memory.util.MemoryUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.AsynchronousCloseException;
 import java.nio.channels.AsynchronousFileChannel;
 import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
@@ -43,8 +49,6 @@ import static java.nio.file.StandardOpenOption.*;
 
 public class LocalFileReader implements Flow.Publisher<ArrowBuf> {
 
-    private static final int DEFAULT_CHUNK_SIZE = 4096;
-
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     private final String storagePath;
@@ -53,12 +57,20 @@ public class LocalFileReader implements Flow.Publisher<ArrowBuf> {
     private final OrderedEventExecutor executor;
     private final StorageErrors errors;
 
+    private final int maxChunkSize;
+    private final boolean memoryMap;
+    private final long memoryMapThreshold;
+
     private final AtomicBoolean subscriberSet;
     private Flow.Subscriber<? super ArrowBuf> subscriber;
 
     private AsynchronousFileChannel channel;
     private ChunkReadHandler readHandler;
 
+    private FileChannel mappedChannel;
+    private long mappedSize;
+
+    private int chunkSize;
     private int chunksPending;
     private long bytesRead;
     private boolean chunkInProgress;
@@ -69,7 +81,9 @@ public class LocalFileReader implements Flow.Publisher<ArrowBuf> {
     LocalFileReader(
             String storagePath, Path absolutePath,
             IDataContext dataContext,
-            StorageErrors errors) {
+            StorageErrors errors,
+            int chunkSize, int maxChunkSize,
+            boolean memoryMap, long memoryMapThreshold) {
 
         this.storagePath = storagePath;
         this.absolutePath = absolutePath;
@@ -77,6 +91,11 @@ public class LocalFileReader implements Flow.Publisher<ArrowBuf> {
         this.executor = dataContext.eventLoopExecutor();
         this.errors = errors;
 
+        this.chunkSize = chunkSize;
+        this.maxChunkSize = maxChunkSize;
+        this.memoryMap = memoryMap;
+        this.memoryMapThreshold = memoryMapThreshold;
+
         this.subscriberSet = new AtomicBoolean(false);
         this.subscriber = null;
 
@@ -160,6 +179,24 @@ public class LocalFileReader implements Flow.Publisher<ArrowBuf> {
 
         try {
 
+            // Large files can be memory-mapped if that option is enabled
+            // Regions of the file are wrapped as Arrow buffers, so there is no copy and no async read
+
+            if (memoryMap) {
+
+                var fileSize = Files.size(absolutePath);
+
+                if (fileSize >= memoryMapThreshold) {
+
+                    this.mappedChannel = FileChannel.open(absolutePath, READ);
+                    this.mappedSize = fileSize;
+                    this.chunkSize = maxChunkSize;
+
+                    log.info("File channel open for reading (memory mapped): [{}]", absolutePath);
+                    return;
+                }
+            }
+
             this.channel = AsynchronousFileChannel.open(absolutePath, Set.of(READ), executor);
             this.readHandler = new ChunkReadHandler();
 
@@ -179,7 +216,7 @@ public class LocalFileReader implements Flow.Publisher<ArrowBuf> {
 
         try {
 
-            channel.close();
+            closeChannel();
 
             log.info("File channel closed: [{}]", absolutePath);
 
@@ -218,7 +255,7 @@ public class LocalFileReader implements Flow.Publisher<ArrowBuf> {
 
             log.info("Read operation cancelled: [{}]",  absolutePath);
 
-            channel.close();
+            closeChannel();
 
             log.info("File channel closed: [{}]", absolutePath);
 
@@ -244,8 +281,13 @@ public class LocalFileReader implements Flow.Publisher<ArrowBuf> {
             if (chunkInProgress)
                 throw new EUnexpected();
 
-            var chunk = allocator.buffer(DEFAULT_CHUNK_SIZE);
-            var nioChunk = chunk.nioBuffer(0, DEFAULT_CHUNK_SIZE);
+            if (mappedChannel != null) {
+                mapChunk();
+                return;
+            }
+
+            var chunk = allocator.buffer(chunkSize);
+            var nioChunk = chunk.nioBuffer(0, chunkSize);
 
             channel.read(nioChunk, bytesRead, chunk, readHandler);
 
@@ -258,6 +300,32 @@ public class LocalFileReader implements Flow.Publisher<ArrowBuf> {
         }
     }
 
+    private void mapChunk() throws IOException {
+
+        // Map the next region of the file, nBytes = -1 signals the end of the file as for a regular read
+        // Completion is still dispatched through the event loop, to avoid recursion in gotChunk() -> readChunk()
+
+        var remaining = mappedSize - bytesRead;
+        var nBytes = (int) Math.min(remaining, chunkSize);
+
+        ArrowBuf chunk;
+        int result;
+
+        if (nBytes > 0) {
+            var region = mappedChannel.map(FileChannel.MapMode.READ_ONLY, bytesRead, nBytes);
+            chunk = allocator.wrapForeignAllocation(new MappedRegion(region));
+            result = nBytes;
+        }
+        else {
+            chunk = allocator.getEmpty();
+            result = -1;
+        }
+
+        chunkInProgress = true;
+
+        executor.execute(() -> readChunkComplete(result, chunk));
+    }
+
     private void readChunkComplete(Integer nBytes, ArrowBuf chunk) {
 
         // Update counts
@@ -265,6 +333,12 @@ public class LocalFileReader implements Flow.Publisher<ArrowBuf> {
         if (nBytes > 0)
             bytesRead += nBytes;
 
+        // Grow the chunk size while the subscriber keeps requesting more data
+        // Small reads keep latency low for small files, large reads cut the per-chunk overhead on big ones
+
+        if (nBytes == chunkSize && chunksPending > 1 && chunkSize < maxChunkSize)
+            chunkSize = (int) Math.min((long) chunkSize * 2, maxChunkSize);
+
         chunksPending -= 1;
         chunkInProgress = false;
 
@@ -372,7 +446,7 @@ public class LocalFileReader implements Flow.Publisher<ArrowBuf> {
 
             log.error("Read operation failed: {} [{}]", throwable.getMessage(), absolutePath, throwable);
 
-            channel.close();
+            closeChannel();
 
             log.info("File channel closed: [{}]", absolutePath);
 
@@ -390,6 +464,14 @@ public class LocalFileReader implements Flow.Publisher<ArrowBuf> {
         }
     }
 
+    private void closeChannel() throws IOException {
+
+        if (mappedChannel != null)
+            mappedChannel.close();
+        else
+            channel.close();
+    }
+
     private void releaseBuffer(ArrowBuf buffer) {
 
         buffer.close();
@@ -398,6 +480,24 @@ public class LocalFileReader implements Flow.Publisher<ArrowBuf> {
             log.warn("Chunk buffer was not released (this could indicate a memory leak)");
     }
 
+    private static class MappedRegion extends ForeignAllocation {
+
+        // Java 11 has no API to unmap a region explicitly
+        // Releasing the buffer drops the mapping reference, the region is unmapped when it is garbage collected
+
+        private MappedByteBuffer region;
+
+        MappedRegion(MappedByteBuffer region) {
+            super(region.capacity(), MemoryUtil.getByteBufferAddress(region));
+            this.region = region;
+        }
+
+        @Override
+        protected void release0() {
+            region = null;
+        }
+    }
+
     private class ChunkReadHandler implements CompletionHandler<Integer, ArrowBuf> {
 
         @Override
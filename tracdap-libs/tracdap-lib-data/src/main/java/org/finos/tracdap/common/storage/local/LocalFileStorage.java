@@ -17,6 +17,7 @@
 
 package org.finos.tracdap.common.storage.local;
 
+import org.finos.tracdap.common.config.ConfigHelpers;
 import org.finos.tracdap.common.data.IExecutionContext;
 import org.finos.tracdap.common.data.IDataContext;
 import org.finos.tracdap.common.exception.EStartup;
@@ -47,8 +48,21 @@ import static org.finos.tracdap.common.storage.StorageErrors.ExplicitError.*;
 public class LocalFileStorage extends CommonFileStorage {
 
     public static final String CONFIG_ROOT_PATH = "rootPath";
+    public static final String CONFIG_READ_CHUNK_SIZE = "readChunkSize";
+    public static final String CONFIG_READ_CHUNK_SIZE_MAX = "readChunkSizeMax";
+    public static final String CONFIG_READ_MEMORY_MAP = "readMemoryMap";
+    public static final String CONFIG_READ_MEMORY_MAP_THRESHOLD = "readMemoryMapThreshold";
+
+    public static final int DEFAULT_READ_CHUNK_SIZE = 64 * 1024;
+    public static final int DEFAULT_READ_CHUNK_SIZE_MAX = 2 * 1024 * 1024;
+    public static final boolean DEFAULT_READ_MEMORY_MAP = false;
+    public static final int DEFAULT_READ_MEMORY_MAP_THRESHOLD = 16 * 1024 * 1024;
 
     private final Path rootPath;
+    private final int readChunkSize;
+    private final int readChunkSizeMax;
+    private final boolean readMemoryMap;
+    private final int readMemoryMapThreshold;
 
     public LocalFileStorage(String storageKey, Properties properties) {
 
@@ -60,6 +74,23 @@ public class LocalFileStorage extends CommonFileStorage {
         this.rootPath = Paths.get(rootDirProp)
                 .toAbsolutePath()
                 .normalize();
+
+        this.readChunkSize = ConfigHelpers.readInt(storageKey, properties, CONFIG_READ_CHUNK_SIZE, DEFAULT_READ_CHUNK_SIZE);
+        this.readChunkSizeMax = ConfigHelpers.readInt(storageKey, properties, CONFIG_READ_CHUNK_SIZE_MAX, Math.max(readChunkSize, DEFAULT_READ_CHUNK_SIZE_MAX));
+        this.readMemoryMap = ConfigHelpers.optionalBoolean(storageKey, properties, CONFIG_READ_MEMORY_MAP, DEFAULT_READ_MEMORY_MAP);
+        this.readMemoryMapThreshold = ConfigHelpers.readInt(storageKey, properties, CONFIG_READ_MEMORY_MAP_THRESHOLD, DEFAULT_READ_MEMORY_MAP_THRESHOLD);
+
+        if (readChunkSize <= 0 || readChunkSizeMax < readChunkSize) {
+            var err = String.format("Invalid read chunk size for storage: %s (min = %d, max = %d)", storageKey, readChunkSize, readChunkSizeMax);
+            log.error(err);
+            throw new EStartup(err);
+        }
+
+        if (readMemoryMapThreshold < 0) {
+            var err = String.format("Invalid memory map threshold for storage: %s (%d)", storageKey, readMemoryMapThreshold);
+            log.error(err);
+            throw new EStartup(err);
+        }
     }
 
     @Override
@@ -400,7 +431,10 @@ public class LocalFileStorage extends CommonFileStorage {
 
         var absolutePath = resolvePath(storagePath);
 
-        return new LocalFileReader(storagePath, absolutePath, dataContext, errors);
+        return new LocalFileReader(
+                storagePath, absolutePath, dataContext, errors,
+                readChunkSize, readChunkSizeMax,
+                readMemoryMap, readMemoryMapThreshold);
     }
 
     @Override
@@ -17,6 +17,7 @@
 
 package org.finos.tracdap.common.codec;
 
+import org.finos.tracdap.common.codec.arrow.ArrowCompression;
 import org.finos.tracdap.common.codec.arrow.ArrowFileCodec;
 import org.finos.tracdap.common.data.*;
 import org.finos.tracdap.common.codec.arrow.ArrowStreamCodec;
@@ -24,6 +25,7 @@ import org.finos.tracdap.common.codec.csv.CsvCodec;
 import org.finos.tracdap.common.codec.json.JsonCodec;
 import org.finos.tracdap.common.async.Flows;
 import org.finos.tracdap.common.data.util.Bytes;
+import org.finos.tracdap.common.exception.EDataConstraint;
 import org.finos.tracdap.common.exception.EDataCorruption;
 import org.finos.tracdap.common.exception.EUnexpected;
 import org.finos.tracdap.test.data.*;
@@ -67,6 +69,7 @@ public abstract class CodecTestSuite {
         basicData = null;
         structData = null;
         structSupport = true;
+        encoderOptions = Map.of();
     } }
 
     static class ArrowFileTest extends CodecTestSuite { @BeforeAll static void setup() {
@@ -74,6 +77,39 @@ public abstract class CodecTestSuite {
         basicData = null;
         structData = null;
         structSupport = true;
+        encoderOptions = Map.of();
+    } }
+
+    static class ArrowStreamLz4Test extends CodecTestSuite { @BeforeAll static void setup() {
+        codec = new ArrowStreamCodec();
+        basicData = null;
+        structData = null;
+        structSupport = true;
+        encoderOptions = Map.of(ArrowCompression.COMPRESSION_OPTION, ArrowCompression.COMPRESSION_LZ4);
+    } }
+
+    static class ArrowStreamZstdTest extends CodecTestSuite { @BeforeAll static void setup() {
+        codec = new ArrowStreamCodec();
+        basicData = null;
+        structData = null;
+        structSupport = true;
+        encoderOptions = Map.of(ArrowCompression.COMPRESSION_OPTION, ArrowCompression.COMPRESSION_ZSTD);
+    } }
+
+    static class ArrowFileLz4Test extends CodecTestSuite { @BeforeAll static void setup() {
+        codec = new ArrowFileCodec();
+        basicData = null;
+        structData = null;
+        structSupport = true;
+        encoderOptions = Map.of(ArrowCompression.COMPRESSION_OPTION, ArrowCompression.COMPRESSION_LZ4);
+    } }
+
+    static class ArrowFileZstdTest extends CodecTestSuite { @BeforeAll static void setup() {
+        codec = new ArrowFileCodec();
+        basicData = null;
+        structData = null;
+        structSupport = true;
+        encoderOptions = Map.of(ArrowCompression.COMPRESSION_OPTION, ArrowCompression.COMPRESSION_ZSTD);
     } }
 
     static class CSVTest extends CodecTestSuite { @BeforeAll static void setup() {
@@ -81,6 +117,7 @@ public abstract class CodecTestSuite {
         basicData = SampleData.BASIC_CSV_DATA_RESOURCE;
         structData = null;
         structSupport = false;
+        encoderOptions = Map.of();
     } }
 
     static class JSONTest extends CodecTestSuite { @BeforeAll static void setup() {
@@ -88,15 +125,17 @@ public abstract class CodecTestSuite {
         basicData = SampleData.BASIC_JSON_DATA_RESOURCE;
         structData = SampleData.STRUCT_JSON_DATA_RESOURCE;
         structSupport = true;
+        encoderOptions = Map.of();
     } }
 
     private static final Duration TEST_TIMEOUT = Duration.ofSeconds(20);
 
     BufferAllocator allocator;
-    static ICodec codec;
-    static String basicData;
-    static String structData;
-    static boolean structSupport;
+    protected static ICodec codec;
+    protected static String basicData;
+    protected static String structData;
+    protected static boolean structSupport;
+    protected static Map<String, String> encoderOptions;
 
     private boolean basicDataAvailable() {
         return basicData != null;
@@ -180,6 +219,87 @@ public abstract class CodecTestSuite {
         }
     }
 
+    @Test
+    void roundTrip_fieldSelection() {
+
+        try (var inputData = generateBasicData(allocator)) {
+
+            // Select a subset of fields, in a different order, with names that do not match case exactly
+            var fields = List.of("categorical_field", "FLOAT_FIELD", "string_field");
+            var expectedFields = List.of("categorical_field", "float_field", "string_field");
+
+            var ctx = new DataContext(new DefaultEventExecutor(), allocator);
+
+            var dataSrc = new SingleBatchDataSource(inputData);
+            var pipeline = DataPipeline.forSource(dataSrc, ctx);
+
+            pipeline.addStage(codec.getEncoder(allocator, encoderOptions));
+            pipeline.addStage(codec.getDecoder(SampleData.BASIC_TABLE_SCHEMA, fields, allocator, Map.of()));
+
+            var dataSink = new SingleBatchDataSink(pipeline, batch -> {
+
+                var vectors = batch.getVsr().getFieldVectors();
+                Assertions.assertEquals(expectedFields.size(), vectors.size());
+
+                for (var i = 0; i < expectedFields.size(); i++) {
+
+                    var rtVector = vectors.get(i);
+                    var originalVector = inputData.getVsr().getVector(expectedFields.get(i));
+
+                    Assertions.assertEquals(expectedFields.get(i), rtVector.getName());
+
+                    for (var row = 0; row < batch.getVsr().getRowCount(); row++) {
+
+                        var originalValue = DataComparison.getArrowValue(originalVector, row, inputData.getDictionaries());
+                        var rtValue = DataComparison.getArrowValue(rtVector, row, batch.getDictionaries());
+
+                        Assertions.assertEquals(originalValue, rtValue);
+                    }
+                }
+            });
+
+            pipeline.addSink(dataSink);
+
+            var exec = pipeline.execute();
+            waitFor(TEST_TIMEOUT, exec);
+            Assertions.assertDoesNotThrow(() -> getResultOf(exec));
+
+            Assertions.assertEquals(inputData.getVsr().getRowCount(), dataSink.getRowCount());
+        }
+    }
+
+    @Test
+    void roundTrip_fieldSelectionUnknown() {
+
+        try (var inputData = generateBasicData(allocator)) {
+
+            var fields = List.of("integer_field", "no_such_field");
+
+            var ctx = new DataContext(new DefaultEventExecutor(), allocator);
+
+            var dataSrc = new SingleBatchDataSource(inputData);
+            var pipeline = DataPipeline.forSource(dataSrc, ctx);
+
+            pipeline.addStage(codec.getEncoder(allocator, encoderOptions));
+
+            // Codecs that know the schema up front fail straight away, others fail when the data arrives
+            try {
+                pipeline.addStage(codec.getDecoder(SampleData.BASIC_TABLE_SCHEMA, fields, allocator, Map.of()));
+            }
+            catch (EDataConstraint e) {
+                return;
+            }
+
+            var dataSink = new SingleBatchDataSink(pipeline);
+            pipeline.addSink(dataSink);
+
+            var exec = pipeline.execute();
+            waitFor(TEST_TIMEOUT, exec);
+
+            Assertions.assertThrows(EDataConstraint.class, () -> getResultOf(exec));
+        }
+    }
+
     @Test
     @EnabledIf(value = "structSupported", disabledReason = "This codec does not support STRUCT data")
     void roundTrip_struct() {
@@ -415,7 +535,7 @@ public abstract class CodecTestSuite {
         var dataSrc = new SingleBatchDataSource(inputData);
         var pipeline = DataPipeline.forSource(dataSrc, ctx);
 
-        pipeline.addStage(codec.getEncoder(allocator, Map.of()));
+        pipeline.addStage(codec.getEncoder(allocator, encoderOptions));
         pipeline.addStage(codec.getDecoder(inputData.getSchema(), allocator, Map.of()));
 
         var dataSink = new SingleBatchDataSink(pipeline, (batch, offset) ->
@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.common.codec.text;
+
+import org.finos.tracdap.common.async.Flows;
+import org.finos.tracdap.common.codec.csv.CsvSchemaMapping;
+import org.finos.tracdap.common.data.ArrowVsrContext;
+import org.finos.tracdap.common.data.ArrowVsrSchema;
+import org.finos.tracdap.common.data.DataContext;
+import org.finos.tracdap.common.data.DataPipeline;
+import org.finos.tracdap.common.data.util.Bytes;
+import org.finos.tracdap.common.exception.EDataCorruption;
+import org.finos.tracdap.test.data.MemoryTestHelpers;
+import org.finos.tracdap.test.data.SingleBatchDataSink;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.csv.CsvFactory;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import io.netty.util.concurrent.DefaultEventExecutor;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+import static org.finos.tracdap.test.concurrent.ConcurrentTestHelpers.getResultOf;
+import static org.finos.tracdap.test.concurrent.ConcurrentTestHelpers.waitFor;
+
+
+class ParallelTextDecoderTest {
+
+    private static final Duration TEST_TIMEOUT = Duration.ofSeconds(20);
+    private static final int BATCH_SIZE = 100;
+    private static final int SEGMENT_SIZE = 256;
+    private static final int PARALLELISM = 4;
+
+    private static final Schema SCHEMA = new Schema(List.of(
+            new Field("id", FieldType.notNullable(new ArrowType.Int(64, true)), null),
+            new Field("text", FieldType.nullable(new ArrowType.Utf8()), null)));
+
+    private static final CsvFactory CSV_FACTORY = new CsvFactory()
+            .enable(CsvParser.Feature.FAIL_ON_MISSING_COLUMNS)
+            .enable(CsvParser.Feature.EMPTY_UNQUOTED_STRING_AS_NULL);
+
+    private BufferAllocator allocator;
+    private ExecutorService workerPool;
+
+    @BeforeEach
+    void setup() {
+        allocator = MemoryTestHelpers.testAllocator(false);
+        workerPool = Executors.newFixedThreadPool(PARALLELISM);
+    }
+
+    @AfterEach
+    void tearDown() {
+        workerPool.shutdown();
+        allocator.close();
+    }
+
+    @Test
+    void decodeSegments() throws Exception {
+
+        // Quoted values with line breaks and quotes must not be split between segments
+
+        var csv = new StringBuilder("id,text\n");
+        var expected = new ArrayList<String>();
+
+        for (var i = 0; i < 1000; i++) {
+
+            var text = i % 3 == 0
+                    ? String.format("line one %d\nline \"two\" %d", i, i)
+                    : String.format("value %d", i);
+
+            csv.append(i).append(",\"").append(text.replace("\"", "\"\"")).append("\"\n");
+            expected.add(text);
+        }
+
+        var received = decode(csv.toString(), 7);
+
+        Assertions.assertEquals(expected, received);
+    }
+
+    @Test
+    void decodeSegments_order() throws Exception {
+
+        // Many more segments than workers, batches must come out in the original order
+        // Uneven row lengths mean workers finish their segments at different times
+
+        var csv = new StringBuilder("id,text\n");
+        var expected = new ArrayList<String>();
+
+        for (var i = 0; i < 20000; i++) {
+
+            var text = "x".repeat(i % 97);
+
+            csv.append(i).append(",\"").append(text).append("\"\n");
+            expected.add(text);
+        }
+
+        var received = decode(csv.toString(), 1000);
+
+        Assertions.assertEquals(expected, received);
+    }
+
+    @Test
+    void decodeSegments_noFinalLineBreak() throws Exception {
+
+        var csv = "id,text\n1,\"a\"\n2,\"b\"";
+        var received = decode(csv, 3);
+
+        Assertions.assertEquals(List.of("a", "b"), received);
+    }
+
+    @Test
+    void decodeSegments_headerOnly() throws Exception {
+
+        var csv = "id,text\n";
+        var received = decode(csv, 3);
+
+        Assertions.assertEquals(List.of(), received);
+    }
+
+    @Test
+    void decodeSegments_errorLineNumber() {
+
+        var csv = new StringBuilder("id,text\n");
+
+        for (var i = 0; i < 500; i++)
+            csv.append(i).append(",\"value ").append(i).append("\"\n");
+
+        // Missing column on line 502, well past the first segment
+        csv.append("500\n");
+
+        var error = Assertions.assertThrows(EDataCorruption.class, () -> decode(csv.toString(), 50));
+
+        // Line numbers are reported for the whole file, not relative to the segment
+        var match = Pattern.compile("line (\\d+)").matcher(error.getMessage());
+        Assertions.assertTrue(match.find(), error.getMessage());
+
+        var lineNumber = Integer.parseInt(match.group(1));
+        Assertions.assertTrue(lineNumber >= 501 && lineNumber <= 503, error.getMessage());
+    }
+
+    private List<String> decode(String csv, int chunkSize) throws Exception {
+
+        var bytes = csv.getBytes(StandardCharsets.UTF_8);
+        var chunks = new ArrayList<ArrowBuf>();
+
+        for (var offset = 0; offset < bytes.length; offset += chunkSize) {
+            var chunk = Arrays.copyOfRange(bytes, offset, Math.min(offset + chunkSize, bytes.length));
+            chunks.add(Bytes.copyToBuffer(chunk, allocator));
+        }
+
+        var config = new TextFileConfig(CSV_FACTORY, null, BATCH_SIZE, false);
+        var decoder = new ParallelTextDecoder(
+                new ArrowVsrSchema(SCHEMA), allocator, config,
+                this::parserSetup, '"', SEGMENT_SIZE,
+                PARALLELISM);
+
+        var received = new ArrayList<String>();
+
+        var dataCtx = new DataContext(new DefaultEventExecutor(), allocator, workerPool);
+        var pipeline = DataPipeline.forSource(Flows.publish(chunks), dataCtx);
+        pipeline.addStage(decoder);
+
+        var dataSink = new SingleBatchDataSink(pipeline, batch -> {
+
+            var ids = (BigIntVector) batch.getVsr().getVector("id");
+            var values = (VarCharVector) batch.getVsr().getVector("text");
+
+            for (var row = 0; row < batch.getVsr().getRowCount(); row++) {
+                Assertions.assertEquals(received.size(), ids.get(row));
+                received.add(new String(values.get(row), StandardCharsets.UTF_8));
+            }
+        });
+
+        pipeline.addSink(dataSink);
+
+        var exec = pipeline.execute();
+        waitFor(TEST_TIMEOUT, exec);
+        getResultOf(exec);
+
+        return received;
+    }
+
+    private void parserSetup(JsonParser parser, ArrowVsrContext context, boolean firstSegment) {
+
+        var csvSchema = CsvSchemaMapping.arrowToCsv(context.getSchema().logical()).build();
+
+        parser.setSchema(firstSegment ? csvSchema.withHeader() : csvSchema.withoutHeader());
+    }
+}
@@ -0,0 +1,493 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.common.storage;
+
+import org.finos.tracdap.common.codec.ICodec;
+import org.finos.tracdap.common.codec.ICodecManager;
+import org.finos.tracdap.common.codec.arrow.ArrowFileCodec;
+import org.finos.tracdap.common.codec.arrow.ArrowFileIndex;
+import org.finos.tracdap.common.codec.csv.CsvCodec;
+import org.finos.tracdap.common.data.ArrowVsrContext;
+import org.finos.tracdap.common.data.DataContext;
+import org.finos.tracdap.common.data.DataPipeline;
+import org.finos.tracdap.common.data.IDataContext;
+import org.finos.tracdap.common.data.IExecutionContext;
+import org.finos.tracdap.common.data.util.Bytes;
+import org.finos.tracdap.common.storage.local.LocalFileStorage;
+import org.finos.tracdap.config.PluginConfig;
+import org.finos.tracdap.metadata.CopyStatus;
+import org.finos.tracdap.metadata.StorageCopy;
+import org.finos.tracdap.test.data.DataComparison;
+import org.finos.tracdap.test.data.MemoryTestHelpers;
+import org.finos.tracdap.test.data.SingleBatchDataSink;
+import org.finos.tracdap.test.data.SingleBatchDataSource;
+
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.DefaultEventExecutor;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.finos.tracdap.test.concurrent.ConcurrentTestHelpers.getResultOf;
+import static org.finos.tracdap.test.concurrent.ConcurrentTestHelpers.waitFor;
+import static org.finos.tracdap.test.data.SampleData.BASIC_TABLE_SCHEMA;
+import static org.finos.tracdap.test.data.SampleData.generateBasicData;
+
+
+public class ChunkedDataStorageTest {
+
+    private static final Duration TEST_TIMEOUT = Duration.ofSeconds(20);
+    private static final String STORAGE_FORMAT = "ARROW_FILE";
+
+    @TempDir
+    static Path storageDir;
+
+    static LocalFileStorage fileStorage;
+    static DefaultEventLoopGroup eventLoopGroup;
+
+    private BufferAllocator allocator;
+    private DataContext dataContext;
+
+    @BeforeAll
+    static void setupStorage() {
+
+        var storageProps = new Properties();
+        storageProps.put(IStorageManager.PROP_STORAGE_KEY, "TEST_STORAGE");
+        storageProps.put(LocalFileStorage.CONFIG_ROOT_PATH, storageDir.toString());
+
+        fileStorage = new LocalFileStorage("TEST_STORAGE", storageProps);
+        eventLoopGroup = new DefaultEventLoopGroup(4, new DefaultThreadFactory("t-chunks"));
+    }
+
+    @AfterAll
+    static void tearDownStorage() {
+
+        fileStorage.close();
+        eventLoopGroup.shutdownGracefully();
+    }
+
+    @BeforeEach
+    void setupContext() {
+
+        allocator = MemoryTestHelpers.testAllocator(false);
+
+        var elExecutor = new DefaultEventExecutor(new DefaultThreadFactory("t-events"));
+        dataContext = new DataContext(elExecutor, allocator);
+    }
+
+    @AfterEach
+    void closeAllocator() {
+
+        allocator.close();
+    }
+
+    @Test
+    void chunkedRoundTrip_rowLimit() throws Exception {
+
+        var storage = dataStorage(Map.of(CommonDataStorage.CHUNK_ROW_LIMIT_KEY, "2048"));
+
+        // 10000 rows in batches of 1024 rows, rollover after two batches
+        roundTrip(storage, "chunkedRoundTrip_rowLimit", 10000, 5);
+    }
+
+    @Test
+    void chunkedRoundTrip_limitedConcurrency() throws Exception {
+
+        var storage = dataStorage(Map.of(
+                CommonDataStorage.CHUNK_ROW_LIMIT_KEY, "1024",
+                CommonDataStorage.CHUNK_CONCURRENCY_KEY, "1"));
+
+        // Every batch is a new chunk, only one chunk is written / read at a time
+        roundTrip(storage, "chunkedRoundTrip_limitedConcurrency", 5000, 5);
+    }
+
+    @Test
+    void chunkedRoundTrip_singleChunk() throws Exception {
+
+        var storage = dataStorage(Map.of(CommonDataStorage.CHUNK_ROW_LIMIT_KEY, "1000000"));
+
+        roundTrip(storage, "chunkedRoundTrip_singleChunk", 10000, 1);
+    }
+
+    @Test
+    void pagedRead_chunkIndex() throws Exception {
+
+        var storage = dataStorage(Map.of(CommonDataStorage.CHUNK_ROW_LIMIT_KEY, "2048"));
+        var storageCopy = storageCopy(storage, "pagedRead_chunkIndex");
+
+        // Pages inside one chunk, across chunk boundaries and past the end of the data
+        pagedRead(storage, storageCopy, 10000, 100, 500);
+        pagedRead(storage, storageCopy, 10000, 2000, 3000);
+        pagedRead(storage, storageCopy, 10000, 9000, 0);
+        pagedRead(storage, storageCopy, 10000, 12000, 100);
+    }
+
+    @Test
+    void pagedRead_chunkingDisabled() throws Exception {
+
+        var chunkedStorage = dataStorage(Map.of(CommonDataStorage.CHUNK_ROW_LIMIT_KEY, "2048"));
+        var storage = dataStorage(Map.of());
+
+        // The chunked marker is recorded on the storage copy when the data is written
+        var storageCopy = storageCopy(chunkedStorage, "pagedRead_chunkingDisabled");
+
+        // Chunked data must still be readable after chunking is turned off
+        pagedRead(chunkedStorage, storageCopy, 10000, 0, 1000);
+        pagedRead(storage, storageCopy, 10000, 0, 0);
+        pagedRead(storage, storageCopy, 10000, 2000, 3000);
+    }
+
+    @Test
+    void pagedRead_arrowFooter() throws Exception {
+
+        var storage = dataStorage(Map.of());
+        var storageCopy = storageCopy(storage, "pagedRead_arrowFooter");
+
+        // Chunking is off, pages are read using the footer of a single Arrow file
+        pagedRead(storage, storageCopy, 10000, 100, 500);
+        pagedRead(storage, storageCopy, 10000, 1000, 3000);
+        pagedRead(storage, storageCopy, 10000, 9000, 0);
+        pagedRead(storage, storageCopy, 10000, 12000, 100);
+
+        // Only the footer and the batches for each page are fetched
+        // There is no full read of the file and no lookup for a chunk index
+        checkArrowPageReads(storageCopy, 100, 500);
+        checkArrowPageReads(storageCopy, 1000, 3000);
+        checkArrowPageReads(storageCopy, 9000, 0);
+    }
+
+    @Test
+    void unchunkedRead_noChunkIndex() throws Exception {
+
+        var storage = dataStorage(Map.of());
+        var storageCopy = storageCopy(storage, "unchunkedRead_noChunkIndex");
+
+        Assertions.assertFalse(storageCopy.containsStorageOptions(CommonDataStorage.CHUNKED_STORAGE_OPTION));
+
+        // Unchunked datasets are read straight from chunk zero, there is no chunk index
+        pagedRead(storage, storageCopy, 10000, 0, 0);
+
+        var storagePath = storageDir.resolve("unchunkedRead_noChunkIndex");
+        Assertions.assertTrue(Files.exists(storagePath.resolve("chunk-0.arrow")));
+        Assertions.assertFalse(Files.exists(storagePath.resolve("chunk-index.csv")));
+    }
+
+    private CommonDataStorage dataStorage(Map<String, String> properties) {
+
+        return dataStorage(properties, fileStorage);
+    }
+
+    private CommonDataStorage dataStorage(Map<String, String> properties, IFileStorage fileStorage) {
+
+        var config = PluginConfig.newBuilder()
+                .setProtocol("LOCAL")
+                .putAllProperties(properties)
+                .build();
+
+        var storage = new CommonDataStorage(config, fileStorage, new TestCodecs());
+        storage.start(eventLoopGroup);
+
+        return storage;
+    }
+
+    private StorageCopy storageCopy(CommonDataStorage storage, String storagePath) {
+
+        return StorageCopy.newBuilder()
+                .setStorageKey("TEST_STORAGE")
+                .setStoragePath(storagePath)
+                .setStorageFormat(STORAGE_FORMAT)
+                .setCopyStatus(CopyStatus.COPY_AVAILABLE)
+                .putAllStorageOptions(storage.storageOptions())
+                .build();
+    }
+
+    private void roundTrip(
+            CommonDataStorage storage, String storagePath,
+            int nRows, int expectedChunks) throws Exception {
+
+        var storageCopy = storageCopy(storage, storagePath);
+
+        try (var inputData = generateBasicData(allocator, nRows)) {
+
+            // Round trip through CSV to split the data into multiple batches
+
+            var csv = new CsvCodec();
+            var signal = new CompletableFuture<Long>();
+
+            var writer = DataPipeline.forSource(new SingleBatchDataSource(inputData), dataContext);
+            writer.addStage(csv.getEncoder(allocator, Map.of()));
+            writer.addStage(csv.getDecoder(BASIC_TABLE_SCHEMA, allocator, Map.of()));
+            writer = storage.pipelineWriter(storageCopy, dataContext, writer, signal);
+
+            var write = writer.execute();
+            waitFor(TEST_TIMEOUT, write, signal);
+            getResultOf(write);
+
+            Assertions.assertTrue(getResultOf(signal) > 0);
+
+            try (var chunkFiles = Files.list(storageDir.resolve(storagePath))) {
+                var chunkCount = chunkFiles.filter(f -> f.getFileName().toString().endsWith(".arrow")).count();
+                Assertions.assertEquals(expectedChunks, chunkCount);
+            }
+
+            Assertions.assertTrue(Files.exists(storageDir.resolve(storagePath).resolve("chunk-index.csv")));
+
+            var reader = storage.pipelineReader(storageCopy, BASIC_TABLE_SCHEMA, dataContext);
+
+            var dataSink = new SingleBatchDataSink(reader, (ArrowVsrContext batch, Long offset) ->
+                    DataComparison.compareBatches(inputData, batch, offset, false));
+
+            reader.addSink(dataSink);
+
+            var read = reader.execute();
+            waitFor(TEST_TIMEOUT, read);
+            getResultOf(read);
+
+            Assertions.assertEquals(nRows, dataSink.getRowCount());
+            DataComparison.compareSchemas(inputData.getSchema(), dataSink.getSchema());
+        }
+    }
+
+    private void pagedRead(
+            CommonDataStorage storage, StorageCopy storageCopy,
+            int nRows, long offset, long limit) throws Exception {
+
+        try (var inputData = generateBasicData(allocator, nRows)) {
+
+            if (!Files.exists(storageDir.resolve(storageCopy.getStoragePath())))
+                writeData(storage, storageCopy, inputData);
+
+            var reader = storage.pipelineReader(storageCopy, BASIC_TABLE_SCHEMA, dataContext, offset, limit);
+
+            var dataSink = new SingleBatchDataSink(reader, (ArrowVsrContext batch, Long batchOffset) ->
+                    DataComparison.compareBatches(inputData, batch, offset + batchOffset, false));
+
+            reader.addSink(dataSink);
+
+            var read = reader.execute();
+            waitFor(TEST_TIMEOUT, read);
+            getResultOf(read);
+
+            var availableRows = Math.max(nRows - offset, 0);
+            var expectedRows = limit != 0 ? Math.min(limit, availableRows) : availableRows;
+
+            Assertions.assertEquals(expectedRows, dataSink.getRowCount());
+            DataComparison.compareSchemas(inputData.getSchema(), dataSink.getSchema());
+        }
+    }
+
+    private void writeData(CommonDataStorage storage, StorageCopy storageCopy, ArrowVsrContext inputData) throws Exception {
+
+        // Round trip through CSV to split the data into multiple batches
+
+        var csv = new CsvCodec();
+        var signal = new CompletableFuture<Long>();
+
+        var writer = DataPipeline.forSource(new SingleBatchDataSource(inputData), dataContext);
+        writer.addStage(csv.getEncoder(allocator, Map.of()));
+        writer.addStage(csv.getDecoder(BASIC_TABLE_SCHEMA, allocator, Map.of()));
+        writer = storage.pipelineWriter(storageCopy, dataContext, writer, signal);
+
+        var write = writer.execute();
+        waitFor(TEST_TIMEOUT, write, signal);
+        getResultOf(write);
+    }
+
+    private void checkArrowPageReads(StorageCopy storageCopy, long offset, long limit) throws Exception {
+
+        var countingStorage = new CountingFileStorage(fileStorage);
+        var storage = dataStorage(Map.of(), countingStorage);
+
+        pagedRead(storage, storageCopy, 10000, offset, limit);
+
+        var chunkPath = storageCopy.getStoragePath() + "/chunk-0.arrow";
+        var fileBytes = Files.readAllBytes(storageDir.resolve(chunkPath));
+        var fileSize = (long) fileBytes.length;
+        var trailerOffset = fileSize - ArrowFileIndex.FOOTER_TRAILER_SIZE;
+
+        Assertions.assertEquals(0, countingStorage.fullReads.get());
+        Assertions.assertEquals(List.of(), countingStorage.existsRequests);
+        Assertions.assertEquals(List.of(chunkPath), countingStorage.sizeRequests);
+        Assertions.assertTrue(countingStorage.readPaths.stream().allMatch(chunkPath::equals));
+
+        // Reads that run up to the file trailer fetch the footer, everything else must be a range from the index
+
+        var index = readArrowFileIndex(fileBytes);
+        var range = index.selectBatches(offset, limit);
+
+        var expectedRanges = new ArrayList<List<Long>>();
+
+        if (index.dictionaryCount() > 0)
+            expectedRanges.add(List.of(index.dictionariesStart(), index.dictionariesEnd()));
+
+        if (!range.isEmpty())
+            expectedRanges.add(List.of(index.batchesStart(range), index.batchesEnd(range)));
+
+        var footerReads = countingStorage.chunkReads.stream()
+                .filter(read -> read.get(1) >= trailerOffset)
+                .count();
+
+        var dataReads = countingStorage.chunkReads.stream()
+                .filter(read -> read.get(1) < trailerOffset)
+                .sorted(Comparator.comparing(read -> read.get(0)))
+                .collect(Collectors.toList());
+
+        Assertions.assertTrue(footerReads > 0);
+        Assertions.assertEquals(expectedRanges, dataReads);
+
+        var bytesRead = countingStorage.chunkReads.stream().mapToLong(read -> read.get(1) - read.get(0)).sum();
+        Assertions.assertTrue(bytesRead < fileSize);
+    }
+
+    private ArrowFileIndex readArrowFileIndex(byte[] fileBytes) {
+
+        try (var file = Bytes.copyToBuffer(fileBytes, allocator)) {
+
+            var trailerOffset = fileBytes.length - ArrowFileIndex.FOOTER_TRAILER_SIZE;
+            var footerLength = ArrowFileIndex.readFooterLength(file, trailerOffset);
+
+            return ArrowFileIndex.readFooter(file, trailerOffset - footerLength, footerLength);
+        }
+    }
+
+    private static class CountingFileStorage implements IFileStorage {
+
+        // Records the file operations used by a read, all the work is passed to the real storage
+        // Ranged reads are recorded as [start offset, end offset]
+
+        private final IFileStorage delegate;
+
+        final List<String> existsRequests = new CopyOnWriteArrayList<>();
+        final List<String> sizeRequests = new CopyOnWriteArrayList<>();
+        final List<String> readPaths = new CopyOnWriteArrayList<>();
+        final List<List<Long>> chunkReads = new CopyOnWriteArrayList<>();
+        final AtomicInteger fullReads = new AtomicInteger();
+
+        CountingFileStorage(IFileStorage delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void start(EventLoopGroup eventLoopGroup) {
+            // No-op, the real storage is managed by the test class
+        }
+
+        @Override
+        public void stop() {
+            // No-op, the real storage is managed by the test class
+        }
+
+        @Override
+        public CompletionStage<Boolean> exists(String storagePath, IExecutionContext execContext) {
+            existsRequests.add(storagePath);
+            return delegate.exists(storagePath, execContext);
+        }
+
+        @Override
+        public CompletionStage<Long> size(String storagePath, IExecutionContext execContext) {
+            sizeRequests.add(storagePath);
+            return delegate.size(storagePath, execContext);
+        }
+
+        @Override
+        public CompletionStage<FileStat> stat(String storagePath, IExecutionContext execContext) {
+            return delegate.stat(storagePath, execContext);
+        }
+
+        @Override
+        public CompletionStage<List<FileStat>> ls(String storagePath, IExecutionContext execContext) {
+            return delegate.ls(storagePath, execContext);
+        }
+
+        @Override
+        public CompletionStage<Void> mkdir(String storagePath, boolean recursive, IExecutionContext execContext) {
+            return delegate.mkdir(storagePath, recursive, execContext);
+        }
+
+        @Override
+        public CompletionStage<Void> rm(String storagePath, IExecutionContext execContext) {
+            return delegate.rm(storagePath, execContext);
+        }
+
+        @Override
+        public CompletionStage<Void> rmdir(String storagePath, IExecutionContext execContext) {
+            return delegate.rmdir(storagePath, execContext);
+        }
+
+        @Override
+        public CompletionStage<ArrowBuf> readChunk(String storagePath, long offset, int size, IDataContext dataContext) {
+            readPaths.add(storagePath);
+            chunkReads.add(List.of(offset, offset + size));
+            return delegate.readChunk(storagePath, offset, size, dataContext);
+        }
+
+        @Override
+        public Flow.Publisher<ArrowBuf> reader(String storagePath, IDataContext dataContext) {
+            fullReads.incrementAndGet();
+            return delegate.reader(storagePath, dataContext);
+        }
+
+        @Override
+        public Flow.Subscriber<ArrowBuf> writer(String storagePath, CompletableFuture<Long> signal, IDataContext dataContext) {
+            return delegate.writer(storagePath, signal, dataContext);
+        }
+    }
+
+    private static class TestCodecs implements ICodecManager {
+
+        private final ICodec codec = new ArrowFileCodec();
+
+        @Override
+        public ICodec getCodec(String format) {
+            return codec;
+        }
+
+        @Override
+        public Map<String, String> getCodecOptions(String format) {
+            return Map.of();
+        }
+
+        @Override
+        public String getDefaultFileExtension(String format) {
+            return codec.defaultFileExtension();
+        }
+
+        @Override
+        public String getDefaultMimeType(String format) {
+            return codec.defaultMimeType();
+        }
+    }
+}
@@ -20,6 +20,7 @@ package org.finos.tracdap.common.storage;
 import org.finos.tracdap.common.data.IDataContext;
 import org.finos.tracdap.common.data.util.Bytes;
 import org.finos.tracdap.common.exception.EStorageRequest;
+import org.finos.tracdap.common.exception.ETrac;
 import org.finos.tracdap.common.exception.EValidationGap;
 import org.finos.tracdap.common.async.Flows;
 
@@ -74,6 +75,13 @@ public abstract class StorageReadWriteTestSuite {
     // Windows limits individual path segments to 255 chars
     private static final String LONG_PATH_TXT_FILE = "long_" + "A".repeat(246) + ".txt";
 
+    // Back ends can supply storage that points at a missing bucket or container, to test errors from the service
+    // The storage is started by this method and stopped by the test that uses it
+
+    protected IFileStorage missingBucketStorage() {
+        return null;
+    }
+
 
     // -----------------------------------------------------------------------------------------------------------------
     // Basic round trip
@@ -143,6 +151,20 @@ public abstract class StorageReadWriteTestSuite {
                 storage, dataContext);
     }
 
+    @Test
+    void roundTrip_manyChunks() throws Exception {
+
+        // Enough data for several blocks / messages in back ends that split content, more than is sent at once
+
+        var storagePath = "roundTrip_manyChunks.dat";
+
+        var bytes = randomChunks(20, 1024 * 1024);
+
+        StorageReadWriteTestSuite.roundTripTest(
+                storagePath, bytes,
+                storage, dataContext);
+    }
+
     @Test
     void roundTrip_empty() throws Exception {
 
@@ -350,6 +372,41 @@ public abstract class StorageReadWriteTestSuite {
                 storage.writer(storagePath, writeSignal, dataContext));
     }
 
+    @Test
+    void testWrite_storageError() throws Exception {
+
+        // Errors in the storage service are reported as storage errors
+        // Depending on the back end, the error can come from the write itself or the checks before writing
+
+        var missingStorage = missingBucketStorage();
+        Assumptions.assumeTrue(missingStorage != null, "Missing bucket test is not available for this back end");
+
+        try {
+
+            var chunks = randomChunks(5, 1024 * 1024).stream()
+                    .map(bs -> Bytes.copyToBuffer(bs, dataContext.arrowAllocator()))
+                    .collect(Collectors.toList());
+
+            var writeSignal = new CompletableFuture<Long>();
+            var writer = missingStorage.writer("testWrite_storageError.dat", writeSignal, dataContext);
+            Flows.publish(chunks).subscribe(writer);
+
+            waitFor(TEST_TIMEOUT, writeSignal);
+
+            var error = Assertions.assertThrows(CompletionException.class, () -> getResultOf(writeSignal, false));
+            Assertions.assertInstanceOf(ETrac.class, error.getCause());
+
+            // Allow time for background cleanup
+            Thread.sleep(ASYNC_DELAY.toMillis());
+
+            // Chunks that were never sent to the writer are still held by the publisher
+            chunks.stream().filter(chunk -> chunk.refCnt() > 0).forEach(ArrowBuf::close);
+        }
+        finally {
+            missingStorage.stop();
+        }
+    }
+
     @Test
     void testRead_missing() {
 
@@ -639,6 +696,72 @@ public abstract class StorageReadWriteTestSuite {
         Assertions.assertFalse(getResultOf(exists));
     }
 
+    @Test
+    void testWrite_errorAfterManyChunks() throws Exception {
+
+        // Upstream error after several blocks / messages may already have been sent
+
+        var storagePath = "testWrite_errorAfterManyChunks.dat";
+
+        var chunks = randomChunks(10, 1024 * 1024).stream()
+                .map(bs -> Bytes.copyToBuffer(bs, dataContext.arrowAllocator()))
+                .collect(Collectors.toList());
+
+        var writerSignal = new CompletableFuture<Long>();
+        var writer = storage.writer(storagePath, writerSignal, dataContext);
+
+        var subscription = mock(Flow.Subscription.class);
+        writer.onSubscribe(subscription);
+        verify(subscription, timeout(TEST_TIMEOUT.toMillis())).request(anyLong());
+
+        chunks.forEach(writer::onNext);
+        Thread.sleep(ASYNC_DELAY.toMillis());
+
+        var upstreamError = new TestException();
+        writer.onError(upstreamError);
+        waitFor(TEST_TIMEOUT, writerSignal);
+
+        verify(subscription, never()).cancel();
+
+        var error = Assertions.assertThrows(CompletionException.class, () -> getResultOf(writerSignal, false));
+        Assertions.assertSame(upstreamError, error.getCause().getCause());
+
+        // Allow time for background cleanup
+        Thread.sleep(ASYNC_DELAY.toMillis());
+
+        // Buffers held for blocks / messages in flight must be released after the error as well
+        for (var chunk : chunks)
+            Assertions.assertEquals(0, chunk.refCnt());
+
+        var exists = storage.exists(storagePath, dataContext);
+        waitFor(TEST_TIMEOUT, exists);
+        Assertions.assertFalse(getResultOf(exists));
+    }
+
+    @Test
+    void testWrite_completeImmediately() throws Exception {
+
+        // Completing without sending any data should create an empty file
+
+        var storagePath = "testWrite_completeImmediately.dat";
+
+        var writerSignal = new CompletableFuture<Long>();
+        var writer = storage.writer(storagePath, writerSignal, dataContext);
+
+        var subscription = mock(Flow.Subscription.class);
+        writer.onSubscribe(subscription);
+        verify(subscription, timeout(TEST_TIMEOUT.toMillis())).request(anyLong());
+
+        writer.onComplete();
+
+        waitFor(TEST_TIMEOUT, writerSignal);
+        Assertions.assertEquals(0, getResultOf(writerSignal));
+
+        var size = storage.size(storagePath, dataContext);
+        waitFor(TEST_TIMEOUT, size);
+        Assertions.assertEquals(0, getResultOf(size));
+    }
+
     @Test
     void testWrite_errorThenRetry() throws Exception {
 
@@ -1014,6 +1137,20 @@ public abstract class StorageReadWriteTestSuite {
         return (T) unchecked;
     }
 
+    private static List<byte[]> randomChunks(int nChunks, int chunkSize) {
+
+        var random = new Random();
+        var chunks = new ArrayList<byte[]>();
+
+        for (var i = 0; i < nChunks; i++) {
+            var chunk = new byte[chunkSize];
+            random.nextBytes(chunk);
+            chunks.add(chunk);
+        }
+
+        return chunks;
+    }
+
     private static class TestException extends RuntimeException {
 
         TestException() { super("Test error handling"); }
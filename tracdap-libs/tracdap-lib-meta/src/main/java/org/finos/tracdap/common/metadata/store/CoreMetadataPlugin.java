@@ -20,8 +20,10 @@ package org.finos.tracdap.common.metadata.store;
 import org.finos.tracdap.common.config.ConfigManager;
 import org.finos.tracdap.common.db.JdbcSetup;
 import org.finos.tracdap.common.exception.EPluginNotAvailable;
+import org.finos.tracdap.common.exception.EStartup;
 import org.finos.tracdap.common.plugin.PluginServiceInfo;
 import org.finos.tracdap.common.plugin.TracPlugin;
+import org.finos.tracdap.common.metadata.store.jdbc.JdbcDefinitionCodec;
 import org.finos.tracdap.common.metadata.store.jdbc.JdbcMetadataStore;
 
 import java.util.List;
@@ -34,6 +36,11 @@ public class CoreMetadataPlugin extends TracPlugin {
 
     private static final String JDBC_METADATA_STORE = "JDBC_METADATA_STORE";
 
+    private static final String DEFINITION_CACHE_SIZE_PROPERTY = "definitionCache.size";
+    private static final String DEFINITION_COMPRESSION_PROPERTY = "definitionStorage.compression";
+    private static final String DEFINITION_THRESHOLD_PROPERTY = "definitionStorage.threshold";
+    private static final String DEFINITION_DEDUP_PROPERTY = "definitionStorage.dedup";
+
     private static final List<PluginServiceInfo> serviceInfo = List.of(
             new PluginServiceInfo(IMetadataStore.class, JDBC_METADATA_STORE, List.of("JDBC", "SQL")));
 
@@ -54,13 +61,86 @@ public class CoreMetadataPlugin extends TracPlugin {
         if (JDBC_METADATA_STORE.equals(serviceName)) {
 
             var dialect = JdbcSetup.getSqlDialect(properties);
+            var definitionCacheSize = definitionCacheSize(properties);
+            var definitionCodec = definitionCodec(properties);
             var datasource = JdbcSetup.createDatasource(properties);
 
-            return (T) new JdbcMetadataStore(dialect, datasource);
+            return (T) new JdbcMetadataStore(dialect, datasource, definitionCacheSize, definitionCodec);
         }
 
         // Should never happen, protected by PluginManager
         var message = String.format("Plugin [%s] does not support the service [%s]", pluginName(), serviceName);
         throw new EPluginNotAvailable(message);
     }
+
+    private long definitionCacheSize(Properties properties) {
+
+        var cacheSize = properties.getProperty(DEFINITION_CACHE_SIZE_PROPERTY);
+
+        if (cacheSize == null || cacheSize.isBlank())
+            return JdbcMetadataStore.DEFAULT_DEFINITION_CACHE_SIZE;
+
+        try {
+
+            var value = Long.parseLong(cacheSize.trim());
+
+            if (value < 0)
+                throw new NumberFormatException();
+
+            return value;
+        }
+        catch (NumberFormatException e) {
+            var message = String.format("Invalid property [%s]: [%s]", DEFINITION_CACHE_SIZE_PROPERTY, cacheSize);
+            throw new EStartup(message);
+        }
+    }
+
+    private JdbcDefinitionCodec definitionCodec(Properties properties) {
+
+        // Definition storage encoding is optional, by default definitions are stored as plain protobuf
+
+        var compression = properties.getProperty(DEFINITION_COMPRESSION_PROPERTY);
+        var threshold = properties.getProperty(DEFINITION_THRESHOLD_PROPERTY);
+        var dedup = properties.getProperty(DEFINITION_DEDUP_PROPERTY);
+
+        var compressionValue = JdbcDefinitionCodec.Compression.NONE;
+        var thresholdValue = JdbcDefinitionCodec.DEFAULT_THRESHOLD;
+        var dedupValue = false;
+
+        if (compression != null && !compression.isBlank()) {
+            try {
+                compressionValue = JdbcDefinitionCodec.Compression.valueOf(compression.trim().toUpperCase());
+            }
+            catch (IllegalArgumentException e) {
+                var message = String.format("Invalid property [%s]: [%s]", DEFINITION_COMPRESSION_PROPERTY, compression);
+                throw new EStartup(message);
+            }
+        }
+
+        if (threshold != null && !threshold.isBlank()) {
+            try {
+
+                thresholdValue = Integer.parseInt(threshold.trim());
+
+                if (thresholdValue < 0)
+                    throw new NumberFormatException();
+            }
+            catch (NumberFormatException e) {
+                var message = String.format("Invalid property [%s]: [%s]", DEFINITION_THRESHOLD_PROPERTY, threshold);
+                throw new EStartup(message);
+            }
+        }
+
+        if (dedup != null && !dedup.isBlank()) {
+
+            if (!dedup.trim().equalsIgnoreCase("true") && !dedup.trim().equalsIgnoreCase("false")) {
+                var message = String.format("Invalid property [%s]: [%s]", DEFINITION_DEDUP_PROPERTY, dedup);
+                throw new EStartup(message);
+            }
+
+            dedupValue = Boolean.parseBoolean(dedup.trim());
+        }
+
+        return new JdbcDefinitionCodec(compressionValue, thresholdValue, dedupValue);
+    }
 }
@@ -51,7 +51,13 @@ public interface IMetadataStore {
 
     List<Tag> loadObjects(String tenant, List<TagSelector> selector);
 
-    List<Tag> search(String tenant, SearchParameters searchParameters);
+    MetadataSearchPage search(String tenant, SearchParameters searchParameters, int pageSize, String pageToken);
+
+    // Search for the first page of results using the default page size
+
+    default List<Tag> search(String tenant, SearchParameters searchParameters) {
+        return search(tenant, searchParameters, 0, null).getResults();
+    }
 
     // -----------------------------------------------------------------------------------------------------------------
     // ALTERNATE LOAD METHODS
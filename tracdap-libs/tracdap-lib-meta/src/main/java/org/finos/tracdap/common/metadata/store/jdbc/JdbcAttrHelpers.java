@@ -35,6 +35,8 @@ public class JdbcAttrHelpers {
 
     private static final Logger log = LoggerFactory.getLogger(JdbcAttrHelpers.class);
 
+    static final int STRING_PREFIX_LENGTH = 256;
+
     static void setAttrValue(PreparedStatement stmt, int pIndex, BasicType attrType, Value value) throws SQLException {
 
         switch (attrType) {
@@ -91,6 +93,28 @@ public class JdbcAttrHelpers {
         }
     }
 
+    static void setStringPrefix(PreparedStatement stmt, int pIndex, Value value) throws SQLException {
+
+        var stringValue = MetadataCodec.decodeStringValue(value);
+        stmt.setString(pIndex, stringPrefix(stringValue));
+    }
+
+    static String stringPrefix(String value) {
+
+        // String attrs are indexed on a bounded prefix, to stay within index key limits for all the SQL dialects
+        // Cut on code points, so the prefix is always a valid string and matches the database substring functions
+
+        if (value.length() <= STRING_PREFIX_LENGTH)
+            return value;
+
+        var nCodePoints = value.codePointCount(0, value.length());
+
+        if (nCodePoints <= STRING_PREFIX_LENGTH)
+            return value;
+
+        return value.substring(0, value.offsetByCodePoints(0, STRING_PREFIX_LENGTH));
+    }
+
     static Value readAttrValue(ResultSet rs) throws SQLException {
 
         BasicType primitiveType = fetchAttrType(rs);
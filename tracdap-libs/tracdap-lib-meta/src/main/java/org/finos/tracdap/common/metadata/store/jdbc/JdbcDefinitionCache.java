@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.finos.tracdap.common.metadata.store.jdbc;
+
+import org.finos.tracdap.metadata.ObjectDefinition;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.Objects;
+import java.util.UUID;
+
+
+class JdbcDefinitionCache {
+
+    // Object definitions are immutable once saved, for a given tenant, object and version
+    // Decoded definitions can be held in memory and shared, this avoids fetching and parsing the blob on every read
+    // Header fields (is latest, etc.) and tags are mutable, so they are not held in the cache
+
+    // Weight is the encoded size of each definition, which is a reasonable proxy for its size in memory
+
+    private final Cache<DefinitionKey, ObjectDefinition> cache;
+
+    JdbcDefinitionCache(long maxSize) {
+
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxSize)
+                .weigher((DefinitionKey key, ObjectDefinition definition) -> definition.getSerializedSize())
+                .build();
+    }
+
+    ObjectDefinition get(short tenantId, UUID objectId, int objectVersion) {
+
+        return cache.getIfPresent(new DefinitionKey(tenantId, objectId, objectVersion));
+    }
+
+    void put(short tenantId, UUID objectId, int objectVersion, ObjectDefinition definition) {
+
+        cache.put(new DefinitionKey(tenantId, objectId, objectVersion), definition);
+    }
+
+    private static final class DefinitionKey {
+
+        private final short tenantId;
+        private final UUID objectId;
+        private final int objectVersion;
+
+        DefinitionKey(short tenantId, UUID objectId, int objectVersion) {
+            this.tenantId = tenantId;
+            this.objectId = objectId;
+            this.objectVersion = objectVersion;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+
+            if (this == other) return true;
+            if (other == null || getClass() != other.getClass()) return false;
+
+            var otherKey = (DefinitionKey) other;
+
+            return tenantId == otherKey.tenantId &&
+                    objectId.equals(otherKey.objectId) &&
+                    objectVersion == otherKey.objectVersion;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tenantId, objectId, objectVersion);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.common.metadata.store.jdbc;
+
+import org.finos.tracdap.common.exception.ETracInternal;
+import org.finos.tracdap.metadata.ObjectDefinition;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorInputStream;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorOutputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorInputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+
+public class JdbcDefinitionCodec {
+
+    // Storage encoding for object definitions, this is transparent to clients of the metadata store
+    // Large definitions can be compressed, and identical definitions can be stored once (dedup)
+    // The codec is recorded for each definition, so reads never depend on the current settings
+
+    public enum Compression {
+        NONE,
+        LZ4,
+        ZSTD
+    }
+
+    public static final int DEFAULT_THRESHOLD = 16 * 1024;
+
+    public static final JdbcDefinitionCodec DEFAULT = new JdbcDefinitionCodec(Compression.NONE, DEFAULT_THRESHOLD, false);
+
+    // Codec markers held in object_definition.definition_codec - never change these values!
+    static final int CODEC_NONE = 0;
+    static final int CODEC_LZ4 = 1;
+    static final int CODEC_ZSTD = 2;
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private final Compression compression;
+    private final int threshold;
+    private final boolean dedup;
+
+    public JdbcDefinitionCodec(Compression compression, int threshold, boolean dedup) {
+
+        this.compression = compression;
+        this.threshold = threshold;
+        this.dedup = dedup;
+    }
+
+    boolean dedup() {
+        return dedup;
+    }
+
+    EncodedDefinition encode(ObjectDefinition definition) {
+
+        var content = definition.toByteArray();
+
+        // Small definitions are always stored as they are, compression and dedup are not worth the overhead
+
+        if (content.length < threshold)
+            return new EncodedDefinition(content, CODEC_NONE);
+
+        var encoded = compress(content);
+
+        if (!dedup)
+            return encoded;
+
+        // Hash the protobuf content before compression, so dedup does not depend on the compression settings
+
+        var hash = contentHash(content);
+
+        return new EncodedDefinition(encoded.content, encoded.codec, hash.getLong(), hash.getLong());
+    }
+
+    static ObjectDefinition decode(byte[] content, int codec) throws InvalidProtocolBufferException {
+
+        switch (codec) {
+
+            case CODEC_NONE:
+                return ObjectDefinition.parseFrom(content);
+
+            case CODEC_LZ4:
+            case CODEC_ZSTD:
+
+                try (var stream = decompressStream(new ByteArrayInputStream(content), codec)) {
+                    return ObjectDefinition.parseFrom(stream);
+                }
+                catch (InvalidProtocolBufferException e) {
+                    throw e;
+                }
+                catch (IOException e) {
+                    throw new InvalidProtocolBufferException(e);
+                }
+
+            default:
+                throw new InvalidProtocolBufferException("Unknown definition codec: " + codec);
+        }
+    }
+
+    private EncodedDefinition compress(byte[] content) {
+
+        if (compression == Compression.NONE)
+            return new EncodedDefinition(content, CODEC_NONE);
+
+        var codec = compression == Compression.LZ4 ? CODEC_LZ4 : CODEC_ZSTD;
+        var buffer = new ByteArrayOutputStream(content.length / 4);
+
+        try (var stream = compressStream(buffer, codec)) {
+            stream.write(content);
+        }
+        catch (IOException e) {
+
+            // Compressing into memory should not fail
+            throw new ETracInternal("Failed to compress object definition: " + e.getMessage(), e);
+        }
+
+        // Keep the original content if compression does not help
+
+        if (buffer.size() >= content.length)
+            return new EncodedDefinition(content, CODEC_NONE);
+
+        return new EncodedDefinition(buffer.toByteArray(), codec);
+    }
+
+    private static OutputStream compressStream(OutputStream out, int codec) throws IOException {
+
+        return codec == CODEC_LZ4
+                ? new FramedLZ4CompressorOutputStream(out)
+                : new ZstdCompressorOutputStream(out);
+    }
+
+    private static InputStream decompressStream(InputStream in, int codec) throws IOException {
+
+        return codec == CODEC_LZ4
+                ? new FramedLZ4CompressorInputStream(in)
+                : new ZstdCompressorInputStream(in);
+    }
+
+    private static ByteBuffer contentHash(byte[] content) {
+
+        try {
+
+            // Dedup uses the first 128 bits of the hash, stored as two longs (the same as object IDs)
+
+            var digest = MessageDigest.getInstance(HASH_ALGORITHM);
+            return ByteBuffer.wrap(digest.digest(content));
+        }
+        catch (NoSuchAlgorithmException e) {
+
+            // SHA-256 is required on every Java platform
+            throw new ETracInternal("Hash algorithm not available: " + HASH_ALGORITHM, e);
+        }
+    }
+
+    static class EncodedDefinition {
+
+        final byte[] content;
+        final int codec;
+
+        final boolean hashed;
+        final long hashHi;
+        final long hashLo;
+
+        EncodedDefinition(byte[] content, int codec) {
+            this.content = content;
+            this.codec = codec;
+            this.hashed = false;
+            this.hashHi = 0;
+            this.hashLo = 0;
+        }
+
+        EncodedDefinition(byte[] content, int codec, long hashHi, long hashLo) {
+            this.content = content;
+            this.codec = codec;
+            this.hashed = true;
+            this.hashHi = hashHi;
+            this.hashLo = hashLo;
+        }
+    }
+}
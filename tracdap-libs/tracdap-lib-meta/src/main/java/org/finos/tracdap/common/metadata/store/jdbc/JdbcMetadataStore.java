@@ -27,6 +27,7 @@ import org.finos.tracdap.common.exception.EStartup;
 import org.finos.tracdap.common.metadata.store.IMetadataStore;
 
 import org.finos.tracdap.common.metadata.store.MetadataBatchUpdate;
+import org.finos.tracdap.common.metadata.store.MetadataSearchPage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,6 +44,8 @@ import java.util.stream.Collectors;
 
 public class JdbcMetadataStore extends JdbcBaseDal implements IMetadataStore {
 
+    public static final long DEFAULT_DEFINITION_CACHE_SIZE = 64 * 1024 * 1024;
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     private final DataSource dataSource;
@@ -56,14 +59,29 @@ public class JdbcMetadataStore extends JdbcBaseDal implements IMetadataStore {
 
     public JdbcMetadataStore(JdbcDialect dialect, DataSource dataSource) {
 
+        this(dialect, dataSource, DEFAULT_DEFINITION_CACHE_SIZE);
+    }
+
+    public JdbcMetadataStore(JdbcDialect dialect, DataSource dataSource, long definitionCacheSize) {
+
+        this(dialect, dataSource, definitionCacheSize, JdbcDefinitionCodec.DEFAULT);
+    }
+
+    public JdbcMetadataStore(
+            JdbcDialect dialect, DataSource dataSource,
+            long definitionCacheSize, JdbcDefinitionCodec definitionCodec) {
+
         super(dataSource, dialect);
 
         this.dataSource = dataSource;
 
+        // Cache size of zero disables the definition cache
+        var definitionCache = definitionCacheSize > 0 ? new JdbcDefinitionCache(definitionCacheSize) : null;
+
         tenants = new JdbcTenantImpl();
-        readSingle = new JdbcReadImpl();
-        readBatch = new JdbcReadBatchImpl(this.dialect);
-        writeBatch = new JdbcWriteBatchImpl(this.dialect, readBatch);
+        readSingle = new JdbcReadImpl(definitionCache);
+        readBatch = new JdbcReadBatchImpl(this.dialect, definitionCache);
+        writeBatch = new JdbcWriteBatchImpl(this.dialect, readBatch, definitionCodec);
         search = new JdbcSearchImpl();
     }
 
@@ -251,6 +269,7 @@ public class JdbcMetadataStore extends JdbcBaseDal implements IMetadataStore {
             long[] defPk = writeBatch.writeObjectDefinition(conn, tenantId, objectType.keys, parts);
             long[] tagPk = writeBatch.writeTagRecord(conn, tenantId, defPk, parts);
             writeBatch.writeTagAttrs(conn, tenantId, tagPk, parts);
+            writeBatch.writeLatestTag(conn, tenantId, objectType.keys, defPk, tagPk, parts);
         }
         catch (SQLException error) {
 
@@ -274,6 +293,7 @@ public class JdbcMetadataStore extends JdbcBaseDal implements IMetadataStore {
             long[] defPk = writeBatch.writeObjectDefinition(conn, tenantId, objectPk, parts);
             long[] tagPk = writeBatch.writeTagRecord(conn, tenantId, defPk, parts);
             writeBatch.writeTagAttrs(conn, tenantId, tagPk, parts);
+            writeBatch.writeLatestTag(conn, tenantId, objectPk, defPk, tagPk, parts);
         }
         catch (SQLException error) {
 
@@ -299,6 +319,7 @@ public class JdbcMetadataStore extends JdbcBaseDal implements IMetadataStore {
             long[] defPk = writeBatch.writeObjectDefinition(conn, tenantId, objectType.keys, parts);
             long[] tagPk = writeBatch.writeTagRecord(conn, tenantId, defPk, parts);
             writeBatch.writeTagAttrs(conn, tenantId, tagPk, parts);
+            writeBatch.updateLatestVersion(conn, tenantId, objectType.keys, defPk, tagPk, parts);
         }
         catch (SQLException error) {
 
@@ -326,6 +347,7 @@ public class JdbcMetadataStore extends JdbcBaseDal implements IMetadataStore {
 
             long[] tagPk = writeBatch.writeTagRecord(conn, tenantId, defPk, parts);
             writeBatch.writeTagAttrs(conn, tenantId, tagPk, parts);
+            writeBatch.updateLatestTag(conn, tenantId, objectType.keys, defPk, tagPk, parts);
         }
         catch (SQLException error) {
 
@@ -365,14 +387,10 @@ public class JdbcMetadataStore extends JdbcBaseDal implements IMetadataStore {
 
             var tenantId = tenants.getTenantId(conn, tenant);
 
-            var objectType = readSingle.readObjectTypeById(conn, tenantId, parts.objectId[0]);
-            checkObjectType(parts, objectType);
-
-            var definition = readSingle.readDefinition(conn, tenantId, objectType.key, parts.selector[0]);
-            var tagRecord = readSingle.readTagRecord(conn, tenantId, definition.key, parts.selector[0]);
-            var tagAttrs = readSingle.readTagAttrs(conn, tenantId, tagRecord.key);
+            var records = readSingle.readObjects(conn, tenantId, parts.objectType, parts.objectId, parts.selector);
+            var tags = buildTags(parts.objectType, parts.objectId, records.definition, records.tag);
 
-            return buildTag(objectType.item, parts.objectId[0], definition, tagRecord, tagAttrs);
+            return tags.get(0);
         }
         catch (SQLException error) {
 
@@ -387,12 +405,12 @@ public class JdbcMetadataStore extends JdbcBaseDal implements IMetadataStore {
     // Batch loading may be used e.g. to query all items related to a job in a single query
     // This can be used both by the platform (e.g. to set up a job) and applications / UI (e.g. to display a job)
     // Latency remains important, optimisations are in ReadBatchImpl
+    // Small batches use the same joined query as single item reads, which avoids the mapping table
 
     @Override
     public List<Tag> loadObjects(String tenant, List<TagSelector> selectors) {
 
         return wrapTransaction(conn -> {
-            prepareMappingTable(conn);
             return loadObjects(conn, tenant, selectors, false, false);
         });
     }
@@ -401,7 +419,6 @@ public class JdbcMetadataStore extends JdbcBaseDal implements IMetadataStore {
     public List<Tag> loadPriorObjects(String tenant, List<TagSelector> selectors) {
 
         return wrapTransaction(conn -> {
-            prepareMappingTable(conn);
             return loadObjects(conn, tenant, selectors, true, false);
         });
     }
@@ -410,7 +427,6 @@ public class JdbcMetadataStore extends JdbcBaseDal implements IMetadataStore {
     public List<Tag> loadPriorTags(String tenant, List<TagSelector> selectors) {
 
         return wrapTransaction(conn -> {
-            prepareMappingTable(conn);
             return loadObjects(conn, tenant, selectors, false, true);
         });
     }
@@ -425,10 +441,17 @@ public class JdbcMetadataStore extends JdbcBaseDal implements IMetadataStore {
 
             var tenantId = tenants.getTenantId(conn, tenant);
 
+            if (!selectors.isEmpty() && selectors.size() <= JdbcReadImpl.JOINED_BATCH_LIMIT) {
+                var records = readSingle.readObjects(conn, tenantId, parts.objectType, parts.objectId, parts.selector);
+                return buildTags(parts.objectType, parts.objectId, records.definition, records.tag);
+            }
+
+            prepareMappingTable(conn);
+
             var objectType = readBatch.readObjectTypeById(conn, tenantId, parts.objectId);
             checkObjectTypes(parts, objectType);
 
-            var definition = readBatch.readDefinition(conn, tenantId, objectType.keys, parts.selector);
+            var definition = readBatch.readDefinition(conn, tenantId, objectType.keys, parts.objectId, parts.selector);
             var tag = readBatch.readTag(conn, tenantId, definition.keys, parts.selector);
 
             return buildTags(objectType.items, parts.objectId, definition, tag);
@@ -448,26 +471,30 @@ public class JdbcMetadataStore extends JdbcBaseDal implements IMetadataStore {
     // -----------------------------------------------------------------------------------------------------------------
 
     @Override
-    public List<Tag> search(String tenant, SearchParameters searchParameters) {
+    public MetadataSearchPage search(String tenant, SearchParameters searchParameters, int pageSize, String pageToken) {
 
         return wrapTransaction(conn -> {
             prepareMappingTable(conn);
-            return search(conn, tenant, searchParameters);
+            return search(conn, tenant, searchParameters, pageSize, pageToken);
         });
     }
 
-    private List<Tag> search(Connection conn, String tenant, SearchParameters searchParameters) {
+    private MetadataSearchPage search(
+            Connection conn, String tenant, SearchParameters searchParameters,
+            int pageSize, String pageToken) {
 
         try {
 
             var tenantId = tenants.getTenantId(conn, tenant);
 
-            long[] tagPk = search.search(conn, tenantId, searchParameters);
-            var tag = readBatch.readTagWithHeader(conn, tenantId, tagPk);
+            var searchResult = search.search(conn, tenantId, searchParameters, pageSize, pageToken);
+            var tag = readBatch.readTagWithHeader(conn, tenantId, searchResult.tagPks);
 
-            return Arrays.stream(tag.items)
+            var results = Arrays.stream(tag.items)
                     .map(Tag.Builder::build)
                     .collect(Collectors.toList());
+
+            return new MetadataSearchPage(results, searchResult.nextPageToken);
         }
         catch (SQLException error) {
 
@@ -743,43 +770,11 @@ public class JdbcMetadataStore extends JdbcBaseDal implements IMetadataStore {
                 throw new MetadataException(MetadataErrorCode.WRONG_OBJECT_TYPE);
     }
 
-    private void checkObjectType(ObjectParts parts, KeyedItem<ObjectType> existingType) throws MetadataException {
-
-        if (parts.objectType[0] != existingType.item)
-            throw new MetadataException(MetadataErrorCode.WRONG_OBJECT_TYPE);
-    }
-
 
     // -----------------------------------------------------------------------------------------------------------------
     // BUILD TAGS
     // -----------------------------------------------------------------------------------------------------------------
 
-    private Tag buildTag(
-            ObjectType objectType, UUID objectId,
-            KeyedItem<ObjectDefinition> definition,
-            KeyedItem<Void> tagRecord,
-            Map<String, Value> tagAttrs) {
-
-        var objectTimestamp = definition.timestamp.atOffset(ZoneOffset.UTC);
-        var tagTimestamp = tagRecord.timestamp.atOffset(ZoneOffset.UTC);
-
-        var header = TagHeader.newBuilder()
-                .setObjectType(objectType)
-                .setObjectId(objectId.toString())
-                .setObjectVersion(definition.version)
-                .setTagVersion(tagRecord.version)
-                .setIsLatestTag(tagRecord.isLatest)
-                .setIsLatestObject(definition.isLatest)
-                .setObjectTimestamp(MetadataCodec.encodeDatetime(objectTimestamp))
-                .setTagTimestamp(MetadataCodec.encodeDatetime(tagTimestamp));
-
-        return Tag.newBuilder()
-                .setHeader(header)
-                .setDefinition(definition.item)
-                .putAllAttrs(tagAttrs)
-                .build();
-    }
-
     private List<Tag> buildTags(
             ObjectType[] objectType, UUID[] objectId,
             KeyedItems<ObjectDefinition> definitions,
@@ -43,10 +43,12 @@ class JdbcReadBatchImpl {
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     private final IDialect dialect;
+    private final JdbcDefinitionCache definitionCache;
     private final AtomicInteger mappingStage;
 
-    JdbcReadBatchImpl(IDialect dialect) {
+    JdbcReadBatchImpl(IDialect dialect, JdbcDefinitionCache definitionCache) {
         this.dialect = dialect;
+        this.definitionCache = definitionCache;
         this.mappingStage = new AtomicInteger();
     }
 
@@ -103,25 +105,72 @@ class JdbcReadBatchImpl {
     }
 
     KeyedItems<ObjectDefinition>
-    readDefinition(Connection conn, short tenantId, long[] objectFk, TagSelector[] selector) throws SQLException {
+    readDefinition(
+            Connection conn, short tenantId,
+            long[] objectFk, UUID[] objectId, TagSelector[] selector)
+            throws SQLException {
 
         var mappingStage = insertObjectSelectors(conn, objectFk, selector);
         mapObjectSelectors(conn, tenantId, mappingStage);
 
-        return fetchDefinition(conn, tenantId, objectFk.length, mappingStage);
+        if (definitionCache == null)
+            return fetchDefinition(conn, tenantId, objectFk.length, mappingStage, true);
+
+        // Resolve versions with a header-only fetch, definitions come from the cache where possible
+        // Only the definitions that are not cached are fetched, using their definition PKs
+
+        var headers = fetchDefinition(conn, tenantId, objectFk.length, mappingStage, false);
+        var missing = new ArrayList<Integer>();
+
+        for (var i = 0; i < objectFk.length; i++) {
+
+            headers.items[i] = definitionCache.get(tenantId, objectId[i], headers.versions[i]);
+
+            if (headers.items[i] == null)
+                missing.add(i);
+        }
+
+        if (missing.isEmpty())
+            return headers;
+
+        var missingPks = missing.stream().mapToLong(i -> headers.keys[i]).toArray();
+        var contentStage = insertPk(conn, missingPks);
+        var content = fetchDefinition(conn, tenantId, missingPks.length, contentStage, true);
+
+        for (var i = 0; i < missingPks.length; i++) {
+
+            var index = missing.get(i);
+            var definition = content.items[i];
+
+            definitionCache.put(tenantId, objectId[index], headers.versions[index], definition);
+            headers.items[index] = definition;
+        }
+
+        return headers;
     }
 
     private KeyedItems<ObjectDefinition>
     fetchDefinition(
             Connection conn, short tenantId,
-            int length, int mappingStage)
+            int length, int mappingStage,
+            boolean includeContent)
             throws SQLException {
 
+        // Deduplicated definitions take their content from the referenced definition
+
         var query =
-                "select definition_pk, object_version, object_timestamp, definition, object_is_latest\n" +
+                "select def.definition_pk, def.object_version, def.object_timestamp,\n" +
+                (includeContent
+                    ? "  case when def.definition_ref is null then def.definition else ref.definition end as definition,\n" +
+                      "  coalesce(ref.definition_codec, def.definition_codec) as definition_codec,\n"
+                    : "") +
+                "  def.object_is_latest\n" +
                 "from object_definition def\n" +
                 "join key_mapping km\n" +
                 "  on def.definition_pk = km.pk\n" +
+                "left join object_definition ref\n" +
+                "  on ref.tenant_id = def.tenant_id\n" +
+                "  and ref.definition_pk = def.definition_ref\n" +
                 "where def.tenant_id = ?\n" +
                 "  and km.mapping_stage = ?\n" +
                 "order by km.ordering";
@@ -150,15 +199,15 @@ class JdbcReadBatchImpl {
                     if (!rs.next())
                         throw new JdbcException(JdbcErrorCode.NO_DATA);
 
-                    var defPk = rs.getLong(1);
-                    var defVersion = rs.getInt(2);
-                    var sqlTimestamp = rs.getTimestamp(3);
+                    var defPk = rs.getLong("definition_pk");
+                    var defVersion = rs.getInt("object_version");
+                    var sqlTimestamp = rs.getTimestamp("object_timestamp");
                     var defTimestamp = sqlTimestamp.toInstant();
-                    var defEncoded = rs.getBytes(4);
-                    var defDecoded = ObjectDefinition.parseFrom(defEncoded);
-                    var objectIsLatest = rs.getBoolean(5);
+                    var objectIsLatest = rs.getBoolean("object_is_latest");
 
-                    // TODO: Encode / decode helper, type = protobuf | json ?
+                    var defDecoded = includeContent
+                            ? JdbcDefinitionCodec.decode(rs.getBytes("definition"), rs.getInt("definition_codec"))
+                            : null;
 
                     pks[i] = defPk;
                     versions[i] = defVersion;
@@ -687,6 +736,52 @@ class JdbcReadBatchImpl {
         return fetchMappedPk(conn, mappingStage, configEntry.length);
     }
 
+    long[] lookupDefinitionByHash(
+            Connection conn, short tenantId,
+            JdbcDefinitionCodec.EncodedDefinition[] definitions)
+            throws SQLException {
+
+        // Look for an existing definition with the same content, to use for dedup
+        // Only definitions that hold their own content are matched, so references are never chained
+        // Not all definitions have a match, zero is returned where there is no match (PKs are always positive)
+
+        var query =
+                "select definition_pk\n" +
+                "from object_definition\n" +
+                "where tenant_id = ?\n" +
+                "  and definition_hash_hi = ?\n" +
+                "  and definition_hash_lo = ?\n" +
+                "  and definition_ref is null\n" +
+                "order by definition_pk";
+
+        if (log.isDebugEnabled()) {
+            log.debug("QUERY lookupDefinitionByHash: \n{}", query);
+        }
+
+        var pks = new long[definitions.length];
+
+        try (var stmt = conn.prepareStatement(query)) {
+
+            for (var i = 0; i < definitions.length; i++) {
+
+                if (!definitions[i].hashed)
+                    continue;
+
+                stmt.setShort(1, tenantId);
+                stmt.setLong(2, definitions[i].hashHi);
+                stmt.setLong(3, definitions[i].hashLo);
+                stmt.setMaxRows(1);
+
+                try (var rs = stmt.executeQuery()) {
+                    if (rs.next())
+                        pks[i] = rs.getLong(1);
+                }
+            }
+        }
+
+        return pks;
+    }
+
     private long[] fetchMappedPk(Connection conn, int mappingStage, int length) throws SQLException {
 
         var query =
@@ -30,6 +30,7 @@ import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.Instant;
 import java.util.*;
@@ -37,357 +38,484 @@ import java.util.*;
 
 class JdbcReadImpl {
 
+    // Loads for a single object or a small batch are resolved in one statement
+    // Each selector contributes two branches to a union query, joining object ID -> definition -> tag:
+    //   - A header row (row_kind = 0) with the object type, definition and tag record
+    //   - Zero or more attr rows (row_kind = 1), one for each tag attr record
+    // The definition is only selected in the header branch, so the blob is not repeated for every attr
+    // This avoids writing selectors into the key mapping table, which needs several round trips
+
+    static final int JOINED_BATCH_LIMIT = 16;
+
+    private static final String HEADER_BRANCH =
+            "select %d as item_index, 0 as row_kind,\n" +
+            "  oid.object_type,\n" +
+            "  def.definition_pk, def.object_version, def.object_timestamp, def.object_is_latest,\n" +
+            "  %s as definition,\n" +
+            "  coalesce(ref.definition_codec, def.definition_codec) as definition_codec,\n" +
+            "  tag.tag_pk, tag.tag_version, tag.tag_timestamp, tag.tag_is_latest,\n" +
+            "  null as attr_name, null as attr_type, null as attr_index,\n" +
+            "  null as attr_value_boolean, null as attr_value_integer, null as attr_value_float,\n" +
+            "  null as attr_value_string, null as attr_value_decimal,\n" +
+            "  null as attr_value_date, null as attr_value_datetime\n" +
+            "from object_id oid\n" +
+            "left join object_definition def\n" +
+            "  on def.tenant_id = oid.tenant_id\n" +
+            "  and def.object_fk = oid.object_pk\n" +
+            "  and %s\n" +
+            "left join object_definition ref\n" +
+            "  on ref.tenant_id = def.tenant_id\n" +
+            "  and ref.definition_pk = def.definition_ref\n" +
+            "left join tag\n" +
+            "  on tag.tenant_id = def.tenant_id\n" +
+            "  and tag.definition_fk = def.definition_pk\n" +
+            "  and %s\n" +
+            "where oid.tenant_id = ?\n" +
+            "  and oid.object_id_hi = ?\n" +
+            "  and oid.object_id_lo = ?\n";
+
+    private static final String ATTR_BRANCH =
+            "select %d as item_index, 1 as row_kind,\n" +
+            "  null,\n" +
+            "  null, null, null, null,\n" +
+            "  %s, null,\n" +
+            "  null, null, null, null,\n" +
+            "  ta.attr_name, ta.attr_type, ta.attr_index,\n" +
+            "  ta.attr_value_boolean, ta.attr_value_integer, ta.attr_value_float,\n" +
+            "  ta.attr_value_string, ta.attr_value_decimal,\n" +
+            "  ta.attr_value_date, ta.attr_value_datetime\n" +
+            "from object_id oid\n" +
+            "join object_definition def\n" +
+            "  on def.tenant_id = oid.tenant_id\n" +
+            "  and def.object_fk = oid.object_pk\n" +
+            "  and %s\n" +
+            "join tag\n" +
+            "  on tag.tenant_id = def.tenant_id\n" +
+            "  and tag.definition_fk = def.definition_pk\n" +
+            "  and %s\n" +
+            "join tag_attr ta\n" +
+            "  on ta.tenant_id = tag.tenant_id\n" +
+            "  and ta.tag_fk = tag.tag_pk\n" +
+            "where oid.tenant_id = ?\n" +
+            "  and oid.object_id_hi = ?\n" +
+            "  and oid.object_id_lo = ?\n";
+
+    private static final String UNION_ALL = "union all\n";
+    private static final String ORDER_BY = "order by item_index, row_kind, attr_name, attr_index";
+
+    // Definitions that are not needed are selected as a typed null
+    // A bare null is not enough, some dialects (e.g. PostgreSQL) cannot match an untyped column with a blob in a union
+    // Deduplicated definitions take their content (and codec) from the referenced definition
+
+    private static final String DEFINITION_COLUMN = "case when def.definition_ref is null then def.definition else ref.definition end";
+    private static final String DEFINITION_NOT_SELECTED = "case when 1 = 0 then def.definition end";
+
+    private static final String DEFINITION_BY_PK =
+            "select def.definition_pk,\n" +
+            "  case when def.definition_ref is null then def.definition else ref.definition end as definition,\n" +
+            "  coalesce(ref.definition_codec, def.definition_codec) as definition_codec\n" +
+            "from object_definition def\n" +
+            "left join object_definition ref\n" +
+            "  on ref.tenant_id = def.tenant_id\n" +
+            "  and ref.definition_pk = def.definition_ref\n" +
+            "where def.tenant_id = ?\n" +
+            "  and def.definition_pk in (%s)";
+
+    private static final String OBJECT_VERSION_CRITERIA = "def.object_version = ?";
+    private static final String OBJECT_AS_OF_CRITERIA = "def.object_timestamp <= ? and (def.object_superseded is null or def.object_superseded > ?)";
+    private static final String OBJECT_LATEST_CRITERIA = "def.object_is_latest = ?";
+    private static final String TAG_VERSION_CRITERIA = "tag.tag_version = ?";
+    private static final String TAG_AS_OF_CRITERIA = "tag.tag_timestamp <= ? and (tag.tag_superseded is null or tag.tag_superseded > ?)";
+    private static final String TAG_LATEST_CRITERIA = "tag.tag_is_latest = ?";
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
-    KeyedItem<ObjectType>
-    readObjectTypeById(Connection conn, short tenantId, UUID objectId) throws SQLException {
+    private final JdbcDefinitionCache definitionCache;
 
-        var query =
-                "select object_pk, object_type\n" +
-                "from object_id\n" +
-                "where tenant_id = ?\n" +
-                "and object_id_hi = ?\n" +
-                "and object_id_lo = ?";
+    JdbcReadImpl(JdbcDefinitionCache definitionCache) {
+        this.definitionCache = definitionCache;
+    }
 
-        if (log.isDebugEnabled()) {
-            log.debug("QUERY readObjectTypeById: \n{}", query);
-        }
+    static class ObjectRecords {
 
-        try (var stmt = conn.prepareStatement(query)) {
+        final KeyedItems<ObjectDefinition> definition;
+        final KeyedItems<Tag.Builder> tag;
 
-            stmt.setShort(1, tenantId);
-            stmt.setLong(2, objectId.getMostSignificantBits());
-            stmt.setLong(3, objectId.getLeastSignificantBits());
+        ObjectRecords(KeyedItems<ObjectDefinition> definition, KeyedItems<Tag.Builder> tag) {
+            this.definition = definition;
+            this.tag = tag;
+        }
+    }
 
-            try (var rs = stmt.executeQuery()) {
+    ObjectRecords
+    readObjects(
+            Connection conn, short tenantId,
+            ObjectType[] objectType, UUID[] objectId,
+            TagSelector[] selector)
+            throws SQLException {
 
-                if (!rs.next())
-                    throw new JdbcException(JdbcErrorCode.NO_DATA);
+        var length = objectId.length;
 
-                var objectPk = rs.getLong(1);
-                var objectTypeCode = rs.getString(2);
-                var objectType = ObjectType.valueOf(objectTypeCode);
+        // Definitions are immutable for an explicit object version, these can be served from the cache
+        // Other selectors need the query to resolve the version, so with the cache enabled they run header-only
+        // Definitions that are still missing after the query are fetched by PK and added to the cache
 
-                if (rs.next())
-                    throw new JdbcException(JdbcErrorCode.TOO_MANY_ROWS);
+        var cached = new ObjectDefinition[length];
 
-                return new KeyedItem<>(objectPk, objectType);
+        if (definitionCache != null) {
+            for (var i = 0; i < length; i++) {
+                if (selector[i].getObjectCriteriaCase() == TagSelector.ObjectCriteriaCase.OBJECTVERSION)
+                    cached[i] = definitionCache.get(tenantId, objectId[i], selector[i].getObjectVersion());
             }
         }
-    }
 
-    KeyedItem<ObjectDefinition>
-    readDefinition(
-            Connection conn, short tenantId,
-            long objectPk, TagSelector selector)
-            throws SQLException {
+        var query = new StringBuilder();
 
-        if (selector.getObjectCriteriaCase() == TagSelector.ObjectCriteriaCase.OBJECTVERSION)
-            return readDefinitionByVersion(conn, tenantId, objectPk, selector.getObjectVersion());
+        for (var i = 0; i < length; i++) {
 
-        if (selector.getObjectCriteriaCase() == TagSelector.ObjectCriteriaCase.OBJECTASOF) {
-            var objectAsOf = MetadataCodec.decodeDatetime(selector.getObjectAsOf()).toInstant();
-            return readDefinitionByAsOf(conn, tenantId, objectPk, objectAsOf);
-        }
+            var objectCriteria = objectCriteria(selector[i]);
+            var tagCriteria = tagCriteria(selector[i]);
+            var definitionColumn = selectDefinition(selector[i], cached[i]) ? DEFINITION_COLUMN : DEFINITION_NOT_SELECTED;
 
-        if (selector.getObjectCriteriaCase() == TagSelector.ObjectCriteriaCase.LATESTOBJECT)
-            return readDefinitionByLatest(conn, tenantId, objectPk);
+            if (i > 0)
+                query.append(UNION_ALL);
 
-        throw new EValidationGap("Object version criteria not set in selector");
-    }
+            query.append(String.format(HEADER_BRANCH, i, definitionColumn, objectCriteria, tagCriteria));
+            query.append(UNION_ALL);
+            query.append(String.format(ATTR_BRANCH, i, DEFINITION_NOT_SELECTED, objectCriteria, tagCriteria));
+        }
 
-    KeyedItem<ObjectDefinition>
-    readDefinitionByVersion(
-            Connection conn, short tenantId,
-            long objectPk, int objectVersion)
-            throws SQLException {
-
-        var query =
-                "select definition_pk, object_version, object_timestamp, definition, object_is_latest\n" +
-                "from object_definition\n" +
-                "where tenant_id = ?\n" +
-                "and object_fk = ?\n" +
-                "and object_version = ?";
+        query.append(ORDER_BY);
 
         if (log.isDebugEnabled()) {
-            log.debug("QUERY readDefinitionByVersion: \n{}", query);
+            log.debug("QUERY readObjects: \n{}", query);
         }
 
-        try (var stmt = conn.prepareStatement(query)) {
+        try (var stmt = conn.prepareStatement(query.toString())) {
 
-            stmt.setShort(1, tenantId);
-            stmt.setLong(2, objectPk);
-            stmt.setInt(3, objectVersion);
+            var param = 1;
 
-            return fetchDefinition(stmt);
-        }
-    }
+            for (var i = 0; i < length; i++) {
 
-    KeyedItem<ObjectDefinition>
-    readDefinitionByAsOf(
-            Connection conn, short tenantId,
-            long objectPk, Instant objectAsOf)
-            throws SQLException {
+                // Header and attr branches take the same parameters
+                param = setBranchParams(stmt, param, tenantId, objectId[i], selector[i]);
+                param = setBranchParams(stmt, param, tenantId, objectId[i], selector[i]);
+            }
 
-        var query =
-                "select definition_pk, object_version, object_timestamp, definition, object_is_latest\n" +
-                "from object_definition\n" +
-                "where tenant_id = ?\n" +
-                "and object_fk = ?\n" +
-                "and object_timestamp <= ?\n" +
-                "and (object_superseded is null or object_superseded > ?)\n";
+            ObjectRecords records;
 
-        if (log.isDebugEnabled()) {
-            log.debug("QUERY readDefinitionByAsOf: \n{}", query);
+            try (var rs = stmt.executeQuery()) {
+                records = fetchObjects(rs, tenantId, objectType, objectId, cached);
+            }
+
+            readMissingDefinitions(conn, tenantId, objectId, records.definition);
+
+            return records;
         }
+    }
 
-        try (var stmt = conn.prepareStatement(query)) {
+    private boolean selectDefinition(TagSelector selector, ObjectDefinition cached) {
 
-            var sqlAsOf = java.sql.Timestamp.from(objectAsOf);
+        if (definitionCache == null)
+            return true;
 
-            stmt.setShort(1, tenantId);
-            stmt.setLong(2, objectPk);
-            stmt.setTimestamp(3, sqlAsOf);
-            stmt.setTimestamp(4, sqlAsOf);
+        // An explicit version that missed the cache is known to need the definition
 
-            return fetchDefinition(stmt);
-        }
+        return cached == null && selector.getObjectCriteriaCase() == TagSelector.ObjectCriteriaCase.OBJECTVERSION;
     }
 
-    KeyedItem<ObjectDefinition>
-    readDefinitionByLatest(
-            Connection conn, short tenantId, long objectPk)
+    private void readMissingDefinitions(
+            Connection conn, short tenantId, UUID[] objectId,
+            KeyedItems<ObjectDefinition> definitions)
             throws SQLException {
 
-        var query =
-                "select definition_pk, object_version, object_timestamp, definition, object_is_latest\n" +
-                "from object_definition\n" +
-                "where tenant_id = ?\n" +
-                "  and object_fk = ?\n" +
-                "  and object_is_latest = ?";
+        var missing = new ArrayList<Integer>();
+
+        for (var i = 0; i < objectId.length; i++)
+            if (definitions.items[i] == null)
+                missing.add(i);
+
+        if (missing.isEmpty())
+            return;
+
+        var params = String.join(", ", Collections.nCopies(missing.size(), "?"));
+        var query = String.format(DEFINITION_BY_PK, params);
 
         if (log.isDebugEnabled()) {
-            log.debug("QUERY readDefinitionByLatest: \n{}", query);
+            log.debug("QUERY readMissingDefinitions: \n{}", query);
         }
 
         try (var stmt = conn.prepareStatement(query)) {
 
             stmt.setShort(1, tenantId);
-            stmt.setLong(2, objectPk);
-            stmt.setBoolean(3, true);
 
-            return fetchDefinition(stmt);
-        }
-    }
+            for (var i = 0; i < missing.size(); i++)
+                stmt.setLong(i + 2, definitions.keys[missing.get(i)]);
 
-    private KeyedItem<ObjectDefinition>
-    fetchDefinition(PreparedStatement stmt) throws SQLException {
+            var encoded = new HashMap<Long, byte[]>();
+            var codecs = new HashMap<Long, Integer>();
 
-        try (var rs = stmt.executeQuery()) {
+            try (var rs = stmt.executeQuery()) {
 
-            if (!rs.next())
-                throw new JdbcException(JdbcErrorCode.NO_DATA);
+                while (rs.next()) {
+                    var defPk = rs.getLong("definition_pk");
+                    encoded.put(defPk, rs.getBytes("definition"));
+                    codecs.put(defPk, rs.getInt("definition_codec"));
+                }
+            }
 
-            var defPk = rs.getLong(1);
-            var objectVersion = rs.getInt(2);
-            var sqlTimestamp = rs.getTimestamp(3);
-            var objectTimestamp = sqlTimestamp.toInstant();
-            var defEncoded = rs.getBytes(4);
-            var defDecoded = ObjectDefinition.parseFrom(defEncoded);
-            var objectIsLatest = rs.getBoolean(5);
+            for (var index : missing) {
 
-            // TODO: Encode / decode helper, type = protobuf | json ?
+                var defPk = definitions.keys[index];
 
-            if (rs.next())
-                throw new JdbcException(JdbcErrorCode.TOO_MANY_ROWS);
+                if (!encoded.containsKey(defPk))
+                    throw new JdbcException(JdbcErrorCode.NO_DATA);
 
-            return new KeyedItem<>(defPk, objectVersion, objectTimestamp, defDecoded, objectIsLatest);
-        }
-        catch (InvalidProtocolBufferException e) {
-            throw new MetadataException(MetadataErrorCode.INVALID_OBJECT_DEFINITION);
+                definitions.items[index] = decodeDefinition(
+                        tenantId, objectId[index], definitions.versions[index],
+                        encoded.get(defPk), codecs.get(defPk), null);
+            }
         }
     }
 
-    KeyedItem<Void>
-    readTagRecord(
-            Connection conn, short tenantId,
-            long definitionPk, TagSelector selector)
+    private ObjectRecords
+    fetchObjects(
+            ResultSet rs, short tenantId,
+            ObjectType[] objectType, UUID[] objectId,
+            ObjectDefinition[] cached)
             throws SQLException {
 
-        if (selector.getTagCriteriaCase() == TagSelector.TagCriteriaCase.TAGVERSION)
-            return readTagRecordByVersion(conn, tenantId, definitionPk, selector.getTagVersion());
+        var length = objectId.length;
 
-        if (selector.getTagCriteriaCase() == TagSelector.TagCriteriaCase.TAGASOF) {
-            var tagAsOf = MetadataCodec.decodeDatetime(selector.getTagAsOf()).toInstant();
-            return readTagRecordByAsOf(conn, tenantId, definitionPk, tagAsOf);
-        }
+        var storedType = new ObjectType[length];
+        var encodedDefs = new byte[length][];
+        var defCodecs = new int[length];
 
-        if (selector.getTagCriteriaCase() == TagSelector.TagCriteriaCase.LATESTTAG)
-            return readTagRecordByLatest(conn, tenantId, definitionPk);
+        var defPks = new long[length];
+        var defVersions = new int[length];
+        var defTimestamps = new Instant[length];
+        var defsIsLatest = new boolean[length];
+        var defFound = new boolean[length];
 
-        throw new EValidationGap("Tag version criteria not set in selector");
-    }
+        var tagPks = new long[length];
+        var tagVersions = new int[length];
+        var tagTimestamps = new Instant[length];
+        var tagsIsLatest = new boolean[length];
+        var tagFound = new boolean[length];
 
-    KeyedItem<Void>
-    readTagRecordByVersion(Connection conn, short tenantId, long definitionPk, int tagVersion) throws SQLException {
+        var tags = new Tag.Builder[length];
 
-        var query =
-                "select tag_pk, tag_version, tag_timestamp, tag_is_latest\n" +
-                "from tag\n" +
-                "where tenant_id = ?\n" +
-                "and definition_fk = ?\n" +
-                "and tag_version = ?";
+        var currentItem = -1;
+        var currentAttrArray = new ArrayList<Value>();
+        var currentAttrName = "";
 
-        if (log.isDebugEnabled()) {
-            log.debug("QUERY readTagRecordByVersion: \n{}", query);
-        }
+        while (rs.next()) {
 
-        try (var stmt = conn.prepareStatement(query)) {
+            var itemIndex = rs.getInt("item_index");
+            var rowKind = rs.getInt("row_kind");
 
-            stmt.setShort(1, tenantId);
-            stmt.setLong(2, definitionPk);
-            stmt.setInt(3, tagVersion);
+            // Finished processing a multi-valued attr, record it against the previous tag / attr
+            if (!currentAttrArray.isEmpty()) {
 
-            return readTagRecord(stmt);
-        }
-    }
+                var attrName = rowKind == 0 ? null : rs.getString("attr_name");
 
-    KeyedItem<Void>
-    readTagRecordByAsOf(
-            Connection conn, short tenantId,
-            long definitionPk, Instant tagAsOf)
-            throws SQLException {
+                if (itemIndex != currentItem || !currentAttrName.equals(attrName)) {
+                    var arrayValue = JdbcAttrHelpers.assembleArrayValue(currentAttrArray);
+                    tags[currentItem].putAttrs(currentAttrName, arrayValue);
+                    currentAttrArray = new ArrayList<>();
+                }
+            }
 
-        var query =
-                "select tag_pk, tag_version, tag_timestamp, tag_is_latest\n" +
-                "from tag\n" +
-                "where tenant_id = ?\n" +
-                "and definition_fk = ?\n" +
-                "and tag_timestamp <= ?\n" +
-                "and (tag_superseded is null or tag_superseded > ?)\n";
+            currentItem = itemIndex;
 
-        if (log.isDebugEnabled()) {
-            log.debug("QUERY readTagRecordByAsOf: \n{}", query);
-        }
+            if (rowKind == 0) {
 
-        try (var stmt = conn.prepareStatement(query)) {
+                // More than one header row means the selector matched more than one definition or tag
+                if (tags[itemIndex] != null)
+                    throw new JdbcException(JdbcErrorCode.TOO_MANY_ROWS);
 
-            var sqlAsOf = java.sql.Timestamp.from(tagAsOf);
+                storedType[itemIndex] = ObjectType.valueOf(rs.getString("object_type"));
+                tags[itemIndex] = Tag.newBuilder();
 
-            stmt.setShort(1, tenantId);
-            stmt.setLong(2, definitionPk);
-            stmt.setTimestamp(3, sqlAsOf);
-            stmt.setTimestamp(4, sqlAsOf);
+                defPks[itemIndex] = rs.getLong("definition_pk");
+                defFound[itemIndex] = !rs.wasNull();
 
-            return readTagRecord(stmt);
-        }
-    }
+                if (defFound[itemIndex]) {
+                    defVersions[itemIndex] = rs.getInt("object_version");
+                    defTimestamps[itemIndex] = rs.getTimestamp("object_timestamp").toInstant();
+                    defsIsLatest[itemIndex] = rs.getBoolean("object_is_latest");
+                    encodedDefs[itemIndex] = rs.getBytes("definition");
+                    defCodecs[itemIndex] = rs.getInt("definition_codec");
+                }
 
-    KeyedItem<Void>
-    readTagRecordByLatest(Connection conn, short tenantId, long definitionPk) throws SQLException {
+                tagPks[itemIndex] = rs.getLong("tag_pk");
+                tagFound[itemIndex] = !rs.wasNull();
 
-        var query =
-                "select tag_pk, tag_version, tag_timestamp, tag_is_latest\n" +
-                "from tag\n" +
-                "where tenant_id = ?\n" +
-                "and definition_fk = ?\n" +
-                "and tag_is_latest = ?";
+                if (tagFound[itemIndex]) {
+                    tagVersions[itemIndex] = rs.getInt("tag_version");
+                    tagTimestamps[itemIndex] = rs.getTimestamp("tag_timestamp").toInstant();
+                    tagsIsLatest[itemIndex] = rs.getBoolean("tag_is_latest");
+                }
+            }
+            else {
 
-        if (log.isDebugEnabled()) {
-            log.debug("QUERY readTagRecordByLatest: \n{}", query);
-        }
+                // Attr rows always sort after the header row for the same item
+                if (tags[itemIndex] == null)
+                    throw new JdbcException(JdbcErrorCode.NO_DATA);
 
-        try (var stmt = conn.prepareStatement(query)) {
+                var attrName = rs.getString("attr_name");
+                var attrIndex = rs.getInt("attr_index");
+                var attrValue = JdbcAttrHelpers.readAttrValue(rs);
 
-            stmt.setShort(1, tenantId);
-            stmt.setLong(2, definitionPk);
-            stmt.setBoolean(3, true);
+                currentAttrName = attrName;
 
-            return readTagRecord(stmt);
+                if (attrIndex < 0)
+                    tags[itemIndex].putAttrs(attrName, attrValue);
+                else
+                    currentAttrArray.add(attrValue);
+            }
         }
-    }
 
-    private KeyedItem<Void>
-    readTagRecord(PreparedStatement stmt) throws SQLException {
+        // Check in case the last attr record was part of a multi-valued attr
+        if (!currentAttrArray.isEmpty()) {
+            var arrayValue = JdbcAttrHelpers.assembleArrayValue(currentAttrArray);
+            tags[currentItem].putAttrs(currentAttrName, arrayValue);
+        }
 
-        try (var rs = stmt.executeQuery()) {
+        // Report errors in the same order as a staged load
+        // Missing objects first, then wrong object types, then missing versions or tags
 
-            if (!rs.next())
+        for (var i = 0; i < length; i++)
+            if (tags[i] == null)
                 throw new JdbcException(JdbcErrorCode.NO_DATA);
 
-            var tagPk = rs.getLong(1);
-            var tagVersion = rs.getInt(2);
-            var sqlTimestamp = rs.getTimestamp(3);
-            var tagTimestamp = sqlTimestamp.toInstant();
-            var tagIsLatest = rs.getBoolean(4);
+        for (var i = 0; i < length; i++)
+            if (storedType[i] != objectType[i])
+                throw new MetadataException(MetadataErrorCode.WRONG_OBJECT_TYPE);
 
-            if (rs.next())
-                throw new JdbcException(JdbcErrorCode.TOO_MANY_ROWS);
+        for (var i = 0; i < length; i++)
+            if (!defFound[i] || !tagFound[i])
+                throw new JdbcException(JdbcErrorCode.NO_DATA);
+
+        var defs = new ObjectDefinition[length];
 
-            // Tag record requires only PK and version info
-            return new KeyedItem<>(tagPk, tagVersion, tagTimestamp, null, tagIsLatest);
+        for (var i = 0; i < length; i++)
+            defs[i] = decodeDefinition(tenantId, objectId[i], defVersions[i], encodedDefs[i], defCodecs[i], cached[i]);
+
+        var definitions = new KeyedItems<>(defPks, defVersions, defTimestamps, defs, defsIsLatest);
+        var tagRecords = new KeyedItems<>(tagPks, tagVersions, tagTimestamps, tags, tagsIsLatest);
+
+        return new ObjectRecords(definitions, tagRecords);
+    }
+
+    private ObjectDefinition decodeDefinition(
+            short tenantId, UUID objectId, int objectVersion,
+            byte[] encoded, int codec, ObjectDefinition cached)
+            throws SQLException {
+
+        if (cached != null)
+            return cached;
+
+        // Header-only rows resolve the version, the definition comes from the cache if it is there
+        // Otherwise the item is left empty and fetched by PK after the joined query
+
+        if (encoded == null)
+            return definitionCache.get(tenantId, objectId, objectVersion);
+
+        try {
+
+            var definition = JdbcDefinitionCodec.decode(encoded, codec);
+
+            if (definitionCache != null)
+                definitionCache.put(tenantId, objectId, objectVersion, definition);
+
+            return definition;
+        }
+        catch (InvalidProtocolBufferException e) {
+            throw new MetadataException(MetadataErrorCode.INVALID_OBJECT_DEFINITION);
         }
     }
 
-    Map<String, Value>
-    readTagAttrs(Connection conn, short tenantId, long tagPk) throws SQLException {
+    private String objectCriteria(TagSelector selector) {
 
-        var query =
-                "select * from tag_attr\n" +
-                "where tenant_id = ?\n" +
-                "and tag_fk = ?";
+        switch (selector.getObjectCriteriaCase()) {
 
-        if (log.isDebugEnabled()) {
-            log.debug("QUERY readTagAttrs: \n{}", query);
+            case OBJECTVERSION: return OBJECT_VERSION_CRITERIA;
+            case OBJECTASOF: return OBJECT_AS_OF_CRITERIA;
+            case LATESTOBJECT: return OBJECT_LATEST_CRITERIA;
+
+            default:
+                throw new EValidationGap("Object version criteria not set in selector");
         }
+    }
 
-        try (var stmt = conn.prepareStatement(query)) {
+    private String tagCriteria(TagSelector selector) {
 
-            stmt.setShort(1, tenantId);
-            stmt.setLong(2, tagPk);
+        switch (selector.getTagCriteriaCase()) {
 
-            try (var rs = stmt.executeQuery()) {
+            case TAGVERSION: return TAG_VERSION_CRITERIA;
+            case TAGASOF: return TAG_AS_OF_CRITERIA;
+            case LATESTTAG: return TAG_LATEST_CRITERIA;
 
-                var attrs = new HashMap<String, Value>();
+            default:
+                throw new EValidationGap("Tag version criteria not set in selector");
+        }
+    }
 
-                var currentAttrArray = new ArrayList<Value>();
-                var currentAttrName = "";
+    private int setBranchParams(
+            PreparedStatement stmt, int param,
+            short tenantId, UUID objectId, TagSelector selector)
+            throws SQLException {
 
-                while (rs.next()) {
+        // Parameters appear in query order - object criteria, tag criteria, then the object ID
 
-                    var attrName = rs.getString("attr_name");
-                    var attrIndex = rs.getInt("attr_index");
-                    var attrValue = JdbcAttrHelpers.readAttrValue(rs);
+        switch (selector.getObjectCriteriaCase()) {
 
-                    // Check to see if we have finished processing a multi-valued attr
-                    // If so, record it against the last attr name before moving on
-                    if (!currentAttrArray.isEmpty() && !attrName.equals(currentAttrName)) {
+            case OBJECTVERSION:
+                stmt.setInt(param++, selector.getObjectVersion());
+                break;
 
-                        var arrayValue = JdbcAttrHelpers.assembleArrayValue(currentAttrArray);
-                        attrs.put(currentAttrName, arrayValue);
+            case OBJECTASOF:
+                var objectAsOf = MetadataCodec.decodeDatetime(selector.getObjectAsOf()).toInstant();
+                var sqlObjectAsOf = java.sql.Timestamp.from(objectAsOf);
+                stmt.setTimestamp(param++, sqlObjectAsOf);
+                stmt.setTimestamp(param++, sqlObjectAsOf);
+                break;
 
-                        currentAttrArray = new ArrayList<>();
-                    }
+            case LATESTOBJECT:
+                stmt.setBoolean(param++, true);
+                break;
 
-                    // Update current attr name
-                    currentAttrName = attrName;
+            default:
+                throw new EValidationGap("Object version criteria not set in selector");
+        }
 
-                    // Accumulate the current attr record
-                    if (attrIndex < 0)
-                        attrs.put(attrName, attrValue);
-                    else
-                        currentAttrArray.add(attrValue);
-                }
+        switch (selector.getTagCriteriaCase()) {
 
-                // Check in case the last attr record was part of a multi-valued attr
-                if (!currentAttrArray.isEmpty()) {
-                    var arrayValue = JdbcAttrHelpers.assembleArrayValue(currentAttrArray);
-                    attrs.put(currentAttrName, arrayValue);
-                }
+            case TAGVERSION:
+                stmt.setInt(param++, selector.getTagVersion());
+                break;
 
-                return attrs;
-            }
+            case TAGASOF:
+                var tagAsOf = MetadataCodec.decodeDatetime(selector.getTagAsOf()).toInstant();
+                var sqlTagAsOf = java.sql.Timestamp.from(tagAsOf);
+                stmt.setTimestamp(param++, sqlTagAsOf);
+                stmt.setTimestamp(param++, sqlTagAsOf);
+                break;
+
+            case LATESTTAG:
+                stmt.setBoolean(param++, true);
+                break;
+
+            default:
+                throw new EValidationGap("Tag version criteria not set in selector");
         }
+
+        stmt.setShort(param++, tenantId);
+        stmt.setLong(param++, objectId.getMostSignificantBits());
+        stmt.setLong(param++, objectId.getLeastSignificantBits());
+
+        return param;
     }
 
     public KeyedItem<ConfigDetails>
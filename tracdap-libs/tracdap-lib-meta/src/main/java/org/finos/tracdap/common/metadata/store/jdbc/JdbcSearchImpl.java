@@ -17,29 +17,52 @@
 
 package org.finos.tracdap.common.metadata.store.jdbc;
 
+import org.finos.tracdap.common.exception.EInputValidation;
 import org.finos.tracdap.metadata.SearchParameters;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.DateTimeException;
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.Base64;
 
 
 class JdbcSearchImpl {
 
-    private static final int MAX_SEARCH_RESULT = 100;
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private static final int SEARCH_FETCH_SIZE = 100;
+    private static final int MAX_CONFIG_RESULT = 100;
 
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     private final JdbcSearchQueryBuilder queryBuilder = new JdbcSearchQueryBuilder();
 
-    long[] search(Connection conn, short tenantId, SearchParameters searchParameters) throws SQLException {
+    SearchResult search(
+            Connection conn, short tenantId, SearchParameters searchParameters,
+            int pageSize, String pageToken) throws SQLException {
+
+        var pageLimit = pageSize > 0 ? Math.min(pageSize, MAX_PAGE_SIZE) : DEFAULT_PAGE_SIZE;
+        var pagePosition = pageToken != null ? decodePageToken(pageToken) : null;
+
+        // Searches for the latest version and tag of each object use the latest tag projection
+        // As-of searches need the history, since the latest tag may have been created after the as-of time
 
-        var query = (searchParameters.getPriorVersions() || searchParameters.getPriorTags())
-                ? queryBuilder.buildPriorSearchQuery(tenantId, searchParameters)
-                : queryBuilder.buildSearchQuery(tenantId, searchParameters);
+        JdbcSearchQuery query;
+
+        if (searchParameters.getPriorVersions() || searchParameters.getPriorTags())
+            query = queryBuilder.buildPriorSearchQuery(tenantId, searchParameters, pagePosition);
+        else if (searchParameters.hasSearchAsOf())
+            query = queryBuilder.buildSearchQuery(tenantId, searchParameters, pagePosition);
+        else
+            query = queryBuilder.buildLatestSearchQuery(tenantId, searchParameters, pagePosition);
 
         if (log.isDebugEnabled()) {
             log.debug("QUERY search: \n{}", query);
@@ -50,7 +73,13 @@ class JdbcSearchImpl {
             for (int pIndex = 0; pIndex < query.getParams().size(); pIndex++)
                 query.getParams().get(pIndex).accept(stmt, pIndex + 1);
 
-            return readPks(stmt, "tag_pk");
+            // Read one extra row to know if there is another page
+            // Fetch size is bounded so large pages are streamed from the cursor instead of buffered by the driver
+
+            stmt.setMaxRows(pageLimit + 1);
+            stmt.setFetchSize(Math.min(pageLimit + 1, SEARCH_FETCH_SIZE));
+
+            return readSearchPage(stmt, pageLimit);
         }
     }
 
@@ -80,22 +109,98 @@ class JdbcSearchImpl {
         }
     }
 
+    private SearchResult readSearchPage(PreparedStatement stmt, int pageLimit) throws SQLException {
+
+        long[] pks = new long[pageLimit];
+        Timestamp lastTimestamp = null;
+        int i = 0;
+
+        try (var rs = stmt.executeQuery()) {
+
+            while (i < pageLimit && rs.next()) {
+                pks[i] = rs.getLong("tag_pk");
+                lastTimestamp = rs.getTimestamp("tag_timestamp");
+                i++;
+            }
+
+            var hasNextPage = i == pageLimit && rs.next();
+
+            var nextPageToken = hasNextPage
+                    ? encodePageToken(new JdbcSearchQuery.PagePosition(lastTimestamp, pks[i - 1]))
+                    : null;
+
+            var pagePks = i < pageLimit ? Arrays.copyOfRange(pks, 0, i) : pks;
+
+            return new SearchResult(pagePks, nextPageToken);
+        }
+    }
+
     private long[] readPks(PreparedStatement stmt, String columnName) throws SQLException {
 
-        long[] pks = new long[MAX_SEARCH_RESULT];
+        long[] pks = new long[MAX_CONFIG_RESULT];
         int i = 0;
 
         try (var rs = stmt.executeQuery()) {
 
-            while (rs.next() && i < MAX_SEARCH_RESULT) {
+            while (rs.next() && i < MAX_CONFIG_RESULT) {
                 pks[i] = rs.getLong(columnName);
                 i++;
             }
 
-            if (i < MAX_SEARCH_RESULT)
+            if (i < MAX_CONFIG_RESULT)
                 return Arrays.copyOfRange(pks, 0, i);
             else
                 return pks;
         }
     }
+
+    static String encodePageToken(JdbcSearchQuery.PagePosition position) {
+
+        // Tokens are opaque to clients, they hold the sort position of the last result on the page
+
+        var instant = position.getTagTimestamp().toInstant();
+
+        var token = String.format("%d.%d.%d",
+                instant.getEpochSecond(),
+                instant.getNano(),
+                position.getTagPk());
+
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static JdbcSearchQuery.PagePosition decodePageToken(String pageToken) {
+
+        try {
+
+            var token = new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8);
+            var parts = token.split("\\.");
+
+            if (parts.length != 3)
+                throw new IllegalArgumentException("Wrong number of parts");
+
+            var instant = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            var tagPk = Long.parseLong(parts[2]);
+
+            return new JdbcSearchQuery.PagePosition(Timestamp.from(instant), tagPk);
+        }
+        catch (IllegalArgumentException | ArithmeticException | DateTimeException e) {
+
+            // NumberFormatException is a subclass of IllegalArgumentException
+            var message = String.format("Invalid search page token [%s]", pageToken);
+            throw new EInputValidation(message, e);
+        }
+    }
+
+    static class SearchResult {
+
+        final long[] tagPks;
+        final String nextPageToken;
+
+        SearchResult(long[] tagPks, String nextPageToken) {
+            this.tagPks = tagPks;
+            this.nextPageToken = nextPageToken;
+        }
+    }
 }
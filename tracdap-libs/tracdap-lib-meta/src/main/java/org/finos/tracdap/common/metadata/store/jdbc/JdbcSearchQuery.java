@@ -19,6 +19,7 @@ package org.finos.tracdap.common.metadata.store.jdbc;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.List;
 
 class JdbcSearchQuery {
@@ -107,6 +108,27 @@ class JdbcSearchQuery {
         }
     }
 
+    static class PagePosition {
+
+        // Position of the last result on a page, in search order (tag timestamp desc, tag pk desc)
+
+        private final Timestamp tagTimestamp;
+        private final long tagPk;
+
+        PagePosition(Timestamp tagTimestamp, long tagPk) {
+            this.tagTimestamp = tagTimestamp;
+            this.tagPk = tagPk;
+        }
+
+        Timestamp getTagTimestamp() {
+            return tagTimestamp;
+        }
+
+        long getTagPk() {
+            return tagPk;
+        }
+    }
+
     @FunctionalInterface
     interface ParamSetter {
 
@@ -43,7 +43,66 @@ class JdbcSearchQueryBuilder {
         log = LoggerFactory.getLogger(getClass());
     }
 
-    JdbcSearchQuery buildSearchQuery(short tenantId, SearchParameters searchParameters) {
+    JdbcSearchQuery buildLatestSearchQuery(
+            short tenantId, SearchParameters searchParameters,
+            JdbcSearchQuery.PagePosition pagePosition) {
+
+        // Searches for the latest tag of the latest version do not need to look at history
+        // The latest_tag projection holds one row per object, pointing to its latest tag
+        // So the query scans live objects only, in index order, with no version or tag conditions
+
+        // The tag table is joined on its primary key, so search terms can join attrs in the usual way
+        // Grouping by tag is still needed, search terms on multi-valued attrs can match more than once
+
+        var queryParts = new JdbcSearchQuery(0, 0, List.of());
+        queryParts = buildSearchExpr(queryParts, searchParameters.hasSearch() ? searchParameters.getSearch() : null);
+
+        var searchClause = !queryParts.getFragments().isEmpty()
+                ? "  and %4$s\n"
+                : "";
+
+        var pageClause = pagePosition != null
+                ? "  and (lt%1$d.tag_timestamp < ?\n" +
+                  "    or (lt%1$d.tag_timestamp = ? and lt%1$d.tag_fk < ?))\n"
+                : "";
+
+        var queryTemplate = "select lt%1$d.tag_fk as tag_pk, lt%1$d.tag_timestamp\n" +
+                "from latest_tag lt%1$d\n" +
+                "join tag t%1$d\n" +
+                "  on t%1$d.tenant_id = lt%1$d.tenant_id\n" +
+                "  and t%1$d.tag_pk = lt%1$d.tag_fk\n" +
+                // Join clause
+                "%3$s" +
+                "where lt%1$d.tenant_id = ?\n" +
+                "  and lt%1$d.object_type = ?\n" +
+                searchClause +
+                // Page position, using the same keyset ordering as the other search queries
+                pageClause +
+                "group by lt%1$d.tag_fk, lt%1$d.tag_timestamp\n" +
+                "order by lt%1$d.tag_timestamp desc, lt%1$d.tag_fk desc";
+
+        var baseParams = Stream.of(
+                wrapErrors((stmt, pIndex) -> stmt.setShort(pIndex, tenantId)),
+                wrapErrors((stmt, pIndex) -> stmt.setString(pIndex, searchParameters.getObjectType().name())));
+
+        var partsParams =  queryParts.getFragments().stream().flatMap(
+                frag -> frag.getParams().stream());
+
+        var pageParams = pagePosition != null
+                ? Stream.of(
+                    wrapErrors((stmt, pIndex) -> stmt.setTimestamp(pIndex, pagePosition.getTagTimestamp())),
+                    wrapErrors((stmt, pIndex) -> stmt.setTimestamp(pIndex, pagePosition.getTagTimestamp())),
+                    wrapErrors((stmt, pIndex) -> stmt.setLong(pIndex, pagePosition.getTagPk())))
+                : Stream.<JdbcSearchQuery.ParamSetter>empty();
+
+        var allParams = Stream.concat(Stream.concat(baseParams, partsParams), pageParams);
+
+        return buildSearchQueryFromTemplate(queryTemplate, 0, queryParts, allParams);
+    }
+
+    JdbcSearchQuery buildSearchQuery(
+            short tenantId, SearchParameters searchParameters,
+            JdbcSearchQuery.PagePosition pagePosition) {
 
         // For latest of as-of searches with no prior versions/tags considered,
         // there will only be a single result per object. So it is fine to group
@@ -51,11 +110,17 @@ class JdbcSearchQueryBuilder {
 
         var selectFields = "t%1$d.tag_pk";
         var groupByFields = "t%1$d.tag_pk";
+        var sortKeyField = "t%1$d.tag_pk";
 
-        return buildCommonSearchQuery(tenantId, searchParameters, selectFields, groupByFields);
+        return buildCommonSearchQuery(
+                tenantId, searchParameters,
+                selectFields, groupByFields, sortKeyField,
+                pagePosition);
     }
 
-    JdbcSearchQuery buildPriorSearchQuery(short tenantId, SearchParameters searchParameters) {
+    JdbcSearchQuery buildPriorSearchQuery(
+            short tenantId, SearchParameters searchParameters,
+            JdbcSearchQuery.PagePosition pagePosition) {
 
         // When prior versions/tags are considered, there can be multiple hits per object.
         // In this case we group by object FK to limit results to a single entry per object.
@@ -70,17 +135,31 @@ class JdbcSearchQueryBuilder {
 
         var selectFields = "max(t%1$d.tag_pk) as tag_pk";
         var groupByFields = "od%1$d.object_fk";
+        var sortKeyField = "max(t%1$d.tag_pk)";
 
-        return buildCommonSearchQuery(tenantId, searchParameters, selectFields, groupByFields);
+        return buildCommonSearchQuery(
+                tenantId, searchParameters,
+                selectFields, groupByFields, sortKeyField,
+                pagePosition);
     }
 
     JdbcSearchQuery buildCommonSearchQuery(
             short tenantId, SearchParameters searchParameters,
-            String selectFields, String groupByFields) {
+            String selectFields, String groupByFields, String sortKeyField,
+            JdbcSearchQuery.PagePosition pagePosition) {
+
+        // Results are ordered by timestamp, with the sort key (tag pk) to break ties
+        // Paging uses the timestamp and sort key of the last result on the previous page (keyset pagination),
+        // so each page is a range scan on the search order and the cost does not grow with the page number
+
+        var havingClause = pagePosition != null
+                ? "having max(t%1$d.tag_timestamp) < ?\n" +
+                  "    or (max(t%1$d.tag_timestamp) = ? and SORT_KEY_FIELD < ?)\n"
+                : "";
 
         // Base query template selects for tenant and object type
 
-        var baseQueryTemplate = "select SELECT_FIELDS\n" +
+        var baseQueryTemplate = "select SELECT_FIELDS, max(t%1$d.tag_timestamp) as tag_timestamp\n" +
                 "from tag t%1$d\n" +
                 // Join clause
                 "%3$s" +
@@ -88,10 +167,13 @@ class JdbcSearchQueryBuilder {
                 "  and t%1$d.object_type = ?\n" +
                 "  and %4$s\n" +
                 "group by GROUP_BY_FIELDS\n" +
-                "order by max(t%1$d.tag_timestamp) desc";
+                // Having clause for paging
+                havingClause +
+                "order by max(t%1$d.tag_timestamp) desc, SORT_KEY_FIELD desc";
 
         baseQueryTemplate = baseQueryTemplate.replace("SELECT_FIELDS", selectFields);
         baseQueryTemplate = baseQueryTemplate.replace("GROUP_BY_FIELDS", groupByFields);
+        baseQueryTemplate = baseQueryTemplate.replace("SORT_KEY_FIELD", sortKeyField);
 
         // Stream of params for the base query
 
@@ -112,9 +194,18 @@ class JdbcSearchQueryBuilder {
         var partsParams =  queryParts.getFragments().stream().flatMap(
                 frag -> frag.getParams().stream());
 
+        // Stream of params for the having clause, these come after everything in the where clause
+
+        var pageParams = pagePosition != null
+                ? Stream.of(
+                    wrapErrors((stmt, pIndex) -> stmt.setTimestamp(pIndex, pagePosition.getTagTimestamp())),
+                    wrapErrors((stmt, pIndex) -> stmt.setTimestamp(pIndex, pagePosition.getTagTimestamp())),
+                    wrapErrors((stmt, pIndex) -> stmt.setLong(pIndex, pagePosition.getTagPk())))
+                : Stream.<JdbcSearchQuery.ParamSetter>empty();
+
         // Combine base and sub parts to make the final query
 
-        var allParams = Stream.concat(baseParams, partsParams);
+        var allParams = Stream.concat(Stream.concat(baseParams, partsParams), pageParams);
 
         return buildSearchQueryFromTemplate(baseQueryTemplate, 0, queryParts, allParams);
     }
@@ -379,8 +470,16 @@ class JdbcSearchQueryBuilder {
         // %1$d = nextAttrNumber
         // %2$s = attrType
 
-        var whereTemplate = "ta%1$d.attr_name = ? " +
-                "and ta%1$d.attr_value_%2$s = ?";
+        // String values are matched on the indexed prefix, then on the full value
+
+        var stringTerm = searchTerm.getAttrType() == BasicType.STRING;
+
+        var whereTemplate = stringTerm
+                ? "ta%1$d.attr_name = ? " +
+                  "and ta%1$d.attr_value_string_prefix = ? " +
+                  "and ta%1$d.attr_value_%2$s = ?"
+                : "ta%1$d.attr_name = ? " +
+                  "and ta%1$d.attr_value_%2$s = ?";
 
         // Match attr name
         var paramNameSetter = wrapErrors((stmt, pIndex) ->
@@ -391,6 +490,15 @@ class JdbcSearchQueryBuilder {
                 JdbcAttrHelpers.setAttrValue(
                 stmt, pIndex, searchTerm.getAttrType(), searchTerm.getSearchValue()));
 
+        if (stringTerm) {
+
+            var paramPrefixSetter = wrapErrors((stmt, pIndex) ->
+                    JdbcAttrHelpers.setStringPrefix(stmt, pIndex, searchTerm.getSearchValue()));
+
+            return buildSearchTermFromTemplates(baseQuery, searchTerm, joinTemplate, whereTemplate,
+                    Stream.of(paramNameSetter, paramPrefixSetter, paramValueSetter));
+        }
+
         return buildSearchTermFromTemplates(baseQuery, searchTerm, joinTemplate, whereTemplate,
                 Stream.of(paramNameSetter, paramValueSetter));
     }
@@ -467,20 +575,35 @@ class JdbcSearchQueryBuilder {
         // %1$d = nextAttrNumber
         // %2$s = attrType
 
-        var whereTemplate = "ta%1$d.attr_name = ? " +
-                "and ta%1$d.attr_value_%2$s in (" + itemPlaceholders + ")";
+        // String values are matched on the indexed prefix, then on the full value
+
+        var stringTerm = searchTerm.getAttrType() == BasicType.STRING;
+
+        var whereTemplate = stringTerm
+                ? "ta%1$d.attr_name = ? " +
+                  "and ta%1$d.attr_value_string_prefix in (" + itemPlaceholders + ") " +
+                  "and ta%1$d.attr_value_%2$s in (" + itemPlaceholders + ")"
+                : "ta%1$d.attr_name = ? " +
+                  "and ta%1$d.attr_value_%2$s in (" + itemPlaceholders + ")";
 
         // Match attr name
         var paramNameSetter = wrapErrors((stmt, pIndex) ->
                 stmt.setString(pIndex, searchTerm.getAttrName()));
 
+        // Condition for attr value prefix (strings only)
+        var paramPrefixSetters = stringTerm
+                ? searchTerm.getSearchValue().getArrayValue()
+                    .getItemsList().stream().map(item -> wrapErrors((stmt, pIndex) ->
+                    JdbcAttrHelpers.setStringPrefix(stmt, pIndex, item)))
+                : Stream.<JdbcSearchQuery.ParamSetter>empty();
+
         // Condition for attr value
         var paramValueSetters = searchTerm.getSearchValue().getArrayValue()
                 .getItemsList().stream().map(item -> wrapErrors((stmt, pIndex) ->
                 JdbcAttrHelpers.setAttrValue(stmt, pIndex, searchTerm.getAttrType(), item)));
 
         return buildSearchTermFromTemplates(baseQuery, searchTerm, joinTemplate, whereTemplate,
-                Stream.concat(Stream.of(paramNameSetter), paramValueSetters));
+                Stream.concat(Stream.of(paramNameSetter), Stream.concat(paramPrefixSetters, paramValueSetters)));
     }
 
     JdbcSearchQuery buildSearchTermFromTemplatesForExistsOperator(
@@ -37,10 +37,12 @@ class JdbcWriteBatchImpl {
 
     private final IDialect dialect;
     private final JdbcReadBatchImpl readBatch;
+    private final JdbcDefinitionCodec definitionCodec;
 
-    JdbcWriteBatchImpl(IDialect dialect, JdbcReadBatchImpl readBatch) {
+    JdbcWriteBatchImpl(IDialect dialect, JdbcReadBatchImpl readBatch, JdbcDefinitionCodec definitionCodec) {
         this.dialect = dialect;
         this.readBatch = readBatch;
+        this.definitionCodec = definitionCodec;
     }
 
     long[] writeObjectId(Connection conn, short tenantId, JdbcMetadataStore.ObjectParts parts) throws SQLException {
@@ -94,9 +96,13 @@ class JdbcWriteBatchImpl {
                 "  object_is_latest,\n" +
                 "  meta_format,\n" +
                 "  meta_version,\n" +
-                "  definition" +
+                "  definition,\n" +
+                "  definition_codec,\n" +
+                "  definition_hash_hi,\n" +
+                "  definition_hash_lo,\n" +
+                "  definition_ref" +
                 ")\n" +
-                "values (?, ?, ?, ?, ?, ?, ?, ?)";
+                "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
         // Only request generated key columns if the driver supports it
         var keySupport = dialect.supportsGeneratedKeys();
@@ -106,6 +112,18 @@ class JdbcWriteBatchImpl {
             log.debug("QUERY writeObjectDefinition: \n{}", query);
         }
 
+        // Encode definitions before the insert, dedup needs to look up existing definitions by hash
+        // Identical definitions saved in the same batch are not matched against each other
+
+        var encoded = new JdbcDefinitionCodec.EncodedDefinition[objectPk.length];
+
+        for (var i = 0; i < objectPk.length; i++)
+            encoded[i] = definitionCodec.encode(parts.definition[i]);
+
+        var definitionRef = definitionCodec.dedup()
+                ? readBatch.lookupDefinitionByHash(conn, tenantId, encoded)
+                : new long[objectPk.length];
+
         try (var stmt = keySupport ? conn.prepareStatement(query, keyColumns) : conn.prepareStatement(query)) {
 
             for (var i = 0; i < objectPk.length; i++) {
@@ -123,7 +141,30 @@ class JdbcWriteBatchImpl {
                 stmt.setBoolean(5, true);
                 stmt.setInt(6, MetadataFormat.PROTO.getNumber());
                 stmt.setInt(7, MetadataVersion.CURRENT.getNumber());
-                stmt.setBytes(8, parts.definition[i].toByteArray());
+
+                // Duplicates store an empty blob and a reference to the definition holding the content
+                // Otherwise store the encoded content, with its hash if dedup is enabled
+
+                if (definitionRef[i] != 0) {
+                    stmt.setBytes(8, new byte[0]);
+                    stmt.setInt(9, JdbcDefinitionCodec.CODEC_NONE);
+                    stmt.setNull(10, Types.BIGINT);
+                    stmt.setNull(11, Types.BIGINT);
+                    stmt.setLong(12, definitionRef[i]);
+                }
+                else {
+                    stmt.setBytes(8, encoded[i].content);
+                    stmt.setInt(9, encoded[i].codec);
+                    if (encoded[i].hashed) {
+                        stmt.setLong(10, encoded[i].hashHi);
+                        stmt.setLong(11, encoded[i].hashLo);
+                    }
+                    else {
+                        stmt.setNull(10, Types.BIGINT);
+                        stmt.setNull(11, Types.BIGINT);
+                    }
+                    stmt.setNull(12, Types.BIGINT);
+                }
 
                 stmt.addBatch();
             }
@@ -198,9 +239,10 @@ class JdbcWriteBatchImpl {
                 "  attr_value_string,\n" +
                 "  attr_value_decimal,\n" +
                 "  attr_value_date,\n" +
-                "  attr_value_datetime\n" +
+                "  attr_value_datetime,\n" +
+                "  attr_value_string_prefix\n" +
                 ")\n" +
-                "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+                "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
         if (log.isDebugEnabled()) {
             log.debug("QUERY writeTagAttrs: \n{}", query);
@@ -232,12 +274,17 @@ class JdbcWriteBatchImpl {
                         stmt.setNull(10, Types.DECIMAL);
                         stmt.setNull(11, Types.DATE);
                         stmt.setNull(12, Types.TIMESTAMP);
+                        stmt.setNull(13, Types.VARCHAR);
 
                         // Map attr type to a param index in the SQL statement
                         var paramIndex = ATTR_TYPE_MAPPING[attrType.ordinal()];
 
                         JdbcAttrHelpers.setAttrValue(stmt, paramIndex, attrType, attrValue);
 
+                        // String values are also stored as a bounded prefix, which is indexed for searching
+                        if (attrType == BasicType.STRING)
+                            JdbcAttrHelpers.setStringPrefix(stmt, 13, attrValue);
+
                         stmt.addBatch();
 
                         attrIndex++;
@@ -344,6 +391,120 @@ class JdbcWriteBatchImpl {
         }
     }
 
+    void writeLatestTag(
+            Connection conn, short tenantId, long[] objectPk, long[] definitionPk, long[] tagPk,
+            JdbcMetadataStore.ObjectParts parts) throws SQLException {
+
+        var query =
+                "insert into latest_tag (\n" +
+                "  tenant_id,\n" +
+                "  object_fk,\n" +
+                "  definition_fk,\n" +
+                "  tag_fk,\n" +
+                "  tag_timestamp,\n" +
+                "  object_type" +
+                ")\n" +
+                "values (?, ?, ?, ?, ?, ?)";
+
+        if (log.isDebugEnabled()) {
+            log.debug("QUERY writeLatestTag: \n{}", query);
+        }
+
+        try (var stmt = conn.prepareStatement(query)) {
+
+            for (var i = 0; i < objectPk.length; i++) {
+
+                var sqlTimestamp = java.sql.Timestamp.from(parts.tagTimestamp[i]);
+
+                stmt.setShort(1, tenantId);
+                stmt.setLong(2, objectPk[i]);
+                stmt.setLong(3, definitionPk[i]);
+                stmt.setLong(4, tagPk[i]);
+                stmt.setTimestamp(5, sqlTimestamp);
+                stmt.setString(6, parts.objectType[i].name());
+
+                stmt.addBatch();
+            }
+
+            stmt.executeBatch();
+        }
+    }
+
+    void updateLatestVersion(
+            Connection conn, short tenantId, long[] objectPk, long[] definitionPk, long[] tagPk,
+            JdbcMetadataStore.ObjectParts parts) throws SQLException {
+
+        var query =
+                "update latest_tag \n" +
+                "set\n" +
+                "  definition_fk = ?,\n" +
+                "  tag_fk = ?,\n" +
+                "  tag_timestamp = ?\n" +
+                "where tenant_id = ?\n" +
+                "  and object_fk = ?";
+
+        if (log.isDebugEnabled()) {
+            log.debug("QUERY updateLatestVersion: \n{}", query);
+        }
+
+        try (var stmt = conn.prepareStatement(query)) {
+
+            for (var i = 0; i < objectPk.length; i++) {
+
+                var sqlTimestamp = java.sql.Timestamp.from(parts.tagTimestamp[i]);
+
+                stmt.setLong(1, definitionPk[i]);
+                stmt.setLong(2, tagPk[i]);
+                stmt.setTimestamp(3, sqlTimestamp);
+                stmt.setShort(4, tenantId);
+                stmt.setLong(5, objectPk[i]);
+
+                stmt.addBatch();
+            }
+
+            stmt.executeBatch();
+        }
+    }
+
+    void updateLatestTag(
+            Connection conn, short tenantId, long[] objectPk, long[] definitionPk, long[] tagPk,
+            JdbcMetadataStore.ObjectParts parts) throws SQLException {
+
+        // New tags can be added to prior versions of an object
+        // These are not the latest tag for the object, so the definition is included in the match condition
+
+        var query =
+                "update latest_tag \n" +
+                "set\n" +
+                "  tag_fk = ?,\n" +
+                "  tag_timestamp = ?\n" +
+                "where tenant_id = ?\n" +
+                "  and object_fk = ?\n" +
+                "  and definition_fk = ?";
+
+        if (log.isDebugEnabled()) {
+            log.debug("QUERY updateLatestTag: \n{}", query);
+        }
+
+        try (var stmt = conn.prepareStatement(query)) {
+
+            for (var i = 0; i < objectPk.length; i++) {
+
+                var sqlTimestamp = java.sql.Timestamp.from(parts.tagTimestamp[i]);
+
+                stmt.setLong(1, tagPk[i]);
+                stmt.setTimestamp(2, sqlTimestamp);
+                stmt.setShort(3, tenantId);
+                stmt.setLong(4, objectPk[i]);
+                stmt.setLong(5, definitionPk[i]);
+
+                stmt.addBatch();
+            }
+
+            stmt.executeBatch();
+        }
+    }
+
     void closeObjectDefinition(Connection conn, short tenantId, long[] objectPk, JdbcMetadataStore.ObjectParts parts) throws SQLException {
 
         var query =
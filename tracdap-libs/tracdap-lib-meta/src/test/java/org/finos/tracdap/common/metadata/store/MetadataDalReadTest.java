@@ -23,6 +23,7 @@ import org.finos.tracdap.common.metadata.MetadataCodec;
 import org.finos.tracdap.common.exception.EMetadataNotFound;
 import org.finos.tracdap.common.exception.EMetadataWrongType;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
@@ -296,6 +297,50 @@ abstract class MetadataDalReadTest implements IMetadataStoreTest {
         assertEquals(nextDefTag2, v2t2);
     }
 
+    @Test
+    void loadRepeated_single() {
+
+        // Repeated loads can be served from the definition cache
+        // Header flags and tags are mutable, changes must still be visible on each load
+
+        var origDef = dummyDataDef();
+        var origTag = dummyTag(origDef, INCLUDE_HEADER);
+        var nextDefTag1 = tagForNextObject(origTag, nextDataDef(origDef), INCLUDE_HEADER);
+        var nextDefTag2 = nextTag(nextDefTag1, UPDATE_TAG_VERSION);
+        var origId = UUID.fromString(origTag.getHeader().getObjectId());
+
+        var selector = TagSelector.newBuilder()
+                .setObjectType(ObjectType.DATA)
+                .setObjectId(origId.toString());
+
+        var selectorV1 = selector.setObjectVersion(1).setLatestTag(true).build();
+        var selectorLatest = selector.setLatestObject(true).setLatestTag(true).build();
+
+        store.saveNewObjects(TEST_TENANT, Collections.singletonList(origTag));
+
+        var v1Explicit = store.loadObject(TEST_TENANT, selectorV1);
+        var v1Latest = store.loadObject(TEST_TENANT, selectorLatest);
+
+        assertEquals(origTag, v1Explicit);
+        assertEquals(origTag, v1Latest);
+
+        store.saveNewVersions(TEST_TENANT, Collections.singletonList(nextDefTag1));
+        store.saveNewTags(TEST_TENANT, Collections.singletonList(nextDefTag2));
+
+        var v1Reload = store.loadObject(TEST_TENANT, selectorV1);
+        var v2Latest = store.loadObject(TEST_TENANT, selectorLatest);
+        var v2Reload = store.loadObject(TEST_TENANT, selectorLatest);
+
+        var expectedV1 = origTag.toBuilder()
+                .setHeader(origTag.getHeader().toBuilder()
+                        .setIsLatestObject(false))
+                .build();
+
+        assertEquals(expectedV1, v1Reload);
+        assertEquals(nextDefTag2, v2Latest);
+        assertEquals(nextDefTag2, v2Reload);
+    }
+
     @Test
     void loadLatest_batch() {
 
@@ -343,6 +388,86 @@ abstract class MetadataDalReadTest implements IMetadataStoreTest {
         assertEquals(nextDefTag2, v2t2);
     }
 
+    @Test
+    void loadLargeBatch() {
+
+        // Batches above the joined query limit are loaded using the key mapping table
+        // Mix object types and selector types, results must come back in the order requested
+
+        var tags = new ArrayList<org.finos.tracdap.metadata.Tag>();
+        var selectors = new ArrayList<TagSelector>();
+
+        for (var i = 0; i < 40; i++) {
+
+            var objectType = i % 2 == 0 ? ObjectType.DATA : ObjectType.MODEL;
+            var tag = dummyTag(dummyDefinitionForType(objectType), INCLUDE_HEADER);
+
+            var selector = TagSelector.newBuilder()
+                    .setObjectType(objectType)
+                    .setObjectId(tag.getHeader().getObjectId());
+
+            if (i % 3 == 0)
+                selector.setObjectVersion(1).setTagVersion(1);
+            else
+                selector.setLatestObject(true).setLatestTag(true);
+
+            tags.add(tag);
+            selectors.add(selector.build());
+        }
+
+        store.saveNewObjects(TEST_TENANT, tags);
+
+        var smallBatch = store.loadObjects(TEST_TENANT, selectors.subList(0, 5));
+        var largeBatch = store.loadObjects(TEST_TENANT, selectors);
+
+        assertEquals(tags.subList(0, 5), smallBatch);
+        assertEquals(tags, largeBatch);
+    }
+
+    @Test
+    void loadRepeated_largeBatch() {
+
+        // Large batches also use the definition cache
+        // Repeated loads must still see new versions and the updated header flags
+
+        var v1Tags = new ArrayList<org.finos.tracdap.metadata.Tag>();
+        var v2Tags = new ArrayList<org.finos.tracdap.metadata.Tag>();
+        var expectedV1 = new ArrayList<org.finos.tracdap.metadata.Tag>();
+        var v1Selectors = new ArrayList<TagSelector>();
+        var latestSelectors = new ArrayList<TagSelector>();
+
+        for (var i = 0; i < 40; i++) {
+
+            var v1Def = dummyDataDef();
+            var v1Tag = dummyTag(v1Def, INCLUDE_HEADER);
+            var v2Tag = tagForNextObject(v1Tag, nextDataDef(v1Def), INCLUDE_HEADER);
+
+            var selector = TagSelector.newBuilder()
+                    .setObjectType(ObjectType.DATA)
+                    .setObjectId(v1Tag.getHeader().getObjectId());
+
+            v1Tags.add(v1Tag);
+            v2Tags.add(v2Tag);
+            expectedV1.add(v1Tag.toBuilder()
+                    .setHeader(v1Tag.getHeader().toBuilder().setIsLatestObject(false))
+                    .build());
+
+            v1Selectors.add(selector.setObjectVersion(1).setLatestTag(true).build());
+            latestSelectors.add(selector.setLatestObject(true).setLatestTag(true).build());
+        }
+
+        store.saveNewObjects(TEST_TENANT, v1Tags);
+
+        assertEquals(v1Tags, store.loadObjects(TEST_TENANT, latestSelectors));
+        assertEquals(v1Tags, store.loadObjects(TEST_TENANT, latestSelectors));
+
+        store.saveNewVersions(TEST_TENANT, v2Tags);
+
+        assertEquals(v2Tags, store.loadObjects(TEST_TENANT, latestSelectors));
+        assertEquals(v2Tags, store.loadObjects(TEST_TENANT, latestSelectors));
+        assertEquals(expectedV1, store.loadObjects(TEST_TENANT, v1Selectors));
+    }
+
     @Test
     void loadComboSelector_single() throws Exception {
 
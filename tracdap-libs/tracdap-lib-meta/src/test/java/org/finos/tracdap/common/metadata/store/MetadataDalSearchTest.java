@@ -17,6 +17,7 @@
 
 package org.finos.tracdap.common.metadata.store;
 
+import org.finos.tracdap.common.exception.EInputValidation;
 import org.finos.tracdap.metadata.*;
 import org.finos.tracdap.common.metadata.TypeSystem;
 import org.finos.tracdap.common.metadata.MetadataCodec;
@@ -945,6 +946,60 @@ abstract class MetadataDalSearchTest implements IMetadataStoreTest {
         assertEquals(Set.of(t1, t2), Set.copyOf(searchResult));
     }
 
+    @Test
+    void searchTerm_longStrings() {
+
+        // String attrs are indexed on a prefix, long values that share the same prefix must still be matched exactly
+        // Include some multi-byte characters, the prefix length is in characters, not bytes
+
+        var commonPrefix = "ü".repeat(200) + "x".repeat(100);
+
+        var def1 = SampleMetadata.dummyDataDef();
+        var def2 = SampleMetadata.nextDataDef(def1);
+        var def3 = SampleMetadata.nextDataDef(def2);
+
+        var attrToLookFor = "attr_to_look_for_LONG_STRING";
+        var tag1 = tagForDef(def1, attrToLookFor, encodeValue(commonPrefix + "_value_1"));
+        var tag2 = tagForDef(def2, attrToLookFor, encodeValue(commonPrefix + "_value_2"));
+        var tag3 = tagForDef(def3, attrToLookFor, encodeValue(commonPrefix));
+
+        store.saveNewObjects(SampleMetadata.TEST_TENANT, List.of(tag1, tag2, tag3));
+
+        var eqParams = SearchParameters.newBuilder()
+                .setObjectType(ObjectType.DATA)
+                .setSearch(searchTerm(attrToLookFor, BasicType.STRING, SearchOperator.EQ, encodeValue(commonPrefix + "_value_1")))
+                .build();
+
+        var eqResult = store.search(SampleMetadata.TEST_TENANT, eqParams);
+
+        assertEquals(List.of(clearDefinitionBody(tag1)), eqResult);
+
+        var inValues = List.of(commonPrefix + "_value_2", commonPrefix);
+
+        var inParams = SearchParameters.newBuilder()
+                .setObjectType(ObjectType.DATA)
+                .setSearch(searchTerm(attrToLookFor, BasicType.STRING, SearchOperator.IN,
+                        encodeArrayValue(inValues, TypeSystem.descriptor(BasicType.STRING))))
+                .build();
+
+        var inResult = store.search(SampleMetadata.TEST_TENANT, inParams);
+
+        assertEquals(Set.of(clearDefinitionBody(tag2), clearDefinitionBody(tag3)), Set.copyOf(inResult));
+
+        var neParams = SearchParameters.newBuilder()
+                .setObjectType(ObjectType.DATA)
+                .setSearch(SearchExpression.newBuilder()
+                .setLogical(LogicalExpression.newBuilder()
+                .setOperator(LogicalOperator.AND)
+                .addExpr(searchTerm(attrToLookFor, BasicType.STRING, SearchOperator.EXISTS, Value.getDefaultInstance()))
+                .addExpr(searchTerm(attrToLookFor, BasicType.STRING, SearchOperator.NE, encodeValue(commonPrefix)))))
+                .build();
+
+        var neResult = store.search(SampleMetadata.TEST_TENANT, neParams);
+
+        assertEquals(Set.of(clearDefinitionBody(tag1), clearDefinitionBody(tag2)), Set.copyOf(neResult));
+    }
+
 
     // -----------------------------------------------------------------------------------------------------------------
     // LOGICAL OPERATORS
@@ -1362,6 +1417,47 @@ abstract class MetadataDalSearchTest implements IMetadataStoreTest {
         assertEquals(v2t2, searchResult2.get(0));
     }
 
+    @Test
+    void latestVersion_tagOnPriorVersion() {
+
+        var attrToLookFor = "latest_version_prior_tag_attr";
+        var valueToLookFor = "same_value_all_versions";
+
+        var defV1 = SampleMetadata.dummyDataDef();
+        var defV2 = SampleMetadata.nextDataDef(defV1);
+
+        var tagV1T1 = tagForDef(defV1, attrToLookFor, encodeValue(valueToLookFor));
+        var tagV2T1 = tagForNextObject(tagV1T1, defV2, INCLUDE_HEADER);
+        var tagV1T2 = SampleMetadata.nextTag(tagV1T1, UPDATE_TAG_VERSION);
+        var tagV2T2 = SampleMetadata.nextTag(tagV2T1, UPDATE_TAG_VERSION);
+
+        store.saveNewObjects(TEST_TENANT, Collections.singletonList(tagV1T1));
+        store.saveNewVersions(TEST_TENANT, Collections.singletonList(tagV2T1));
+
+        var searchParams = SearchParameters.newBuilder()
+                .setObjectType(ObjectType.DATA)
+                .setSearch(searchTerm(attrToLookFor, BasicType.STRING, SearchOperator.EQ, encodeValue(valueToLookFor)))
+                .build();
+
+        // A new tag on a prior version does not change the latest tag for the object
+
+        store.saveNewTags(TEST_TENANT, Collections.singletonList(tagV1T2));
+
+        var searchResult = store.search(SampleMetadata.TEST_TENANT, searchParams);
+
+        assertEquals(1, searchResult.size());
+        assertEquals(clearDefinitionBody(tagV2T1), searchResult.get(0));
+
+        // A new tag on the latest version does
+
+        store.saveNewTags(TEST_TENANT, Collections.singletonList(tagV2T2));
+
+        var searchResult2 = store.search(SampleMetadata.TEST_TENANT, searchParams);
+
+        assertEquals(1, searchResult2.size());
+        assertEquals(clearDefinitionBody(tagV2T2), searchResult2.get(0));
+    }
+
     @Test
     void priorVersionsFlag() {
 
@@ -1909,6 +2005,132 @@ abstract class MetadataDalSearchTest implements IMetadataStoreTest {
         assertEquals(obj1Tag.getHeader(), result.get(1).getHeader());
     }
 
+    @Test
+    void pagedSearch() {
+
+        // More results than the default page size, saved in one batch so many timestamps will be equal
+
+        var nObjects = 250;
+        var tags = new ArrayList<Tag>();
+
+        for (var i = 0; i < nObjects; i++) {
+
+            var tag = SampleMetadata.dummyTag(dummyDataDef(), INCLUDE_HEADER).toBuilder()
+                    .putAttrs("dal_search_paging_test", MetadataCodec.encodeValue("some_value"))
+                    .build();
+
+            tags.add(tag);
+        }
+
+        store.saveNewObjects(TEST_TENANT, tags);
+
+        var searchParams = SearchParameters.newBuilder()
+                .setObjectType(ObjectType.DATA)
+                .setSearch(searchTerm("dal_search_paging_test", BasicType.STRING, SearchOperator.EQ, encodeValue("some_value")))
+                .build();
+
+        // Default search returns the first page only
+
+        var firstPage = store.search(TEST_TENANT, searchParams);
+        assertEquals(100, firstPage.size());
+
+        var results = new ArrayList<Tag>();
+        var nPages = 0;
+        String pageToken = null;
+
+        do {
+            var page = store.search(TEST_TENANT, searchParams, 60, pageToken);
+            results.addAll(page.getResults());
+            pageToken = page.getNextPageToken();
+            nPages++;
+        }
+        while (pageToken != null);
+
+        assertEquals(5, nPages);
+        assertEquals(nObjects, results.size());
+
+        var objectIds = results.stream()
+                .map(tag -> tag.getHeader().getObjectId())
+                .collect(Collectors.toSet());
+
+        var expectedIds = tags.stream()
+                .map(tag -> tag.getHeader().getObjectId())
+                .collect(Collectors.toSet());
+
+        assertEquals(expectedIds, objectIds);
+
+        // Paging must preserve the search ordering, the latest timestamps come first
+
+        for (var i = 1; i < results.size(); i++) {
+
+            var prior = MetadataCodec.decodeDatetime(results.get(i - 1).getHeader().getTagTimestamp());
+            var next = MetadataCodec.decodeDatetime(results.get(i).getHeader().getTagTimestamp());
+
+            assertFalse(next.isAfter(prior));
+        }
+
+        // Paging across the whole result set in one page gives the same results
+
+        var singlePage = store.search(TEST_TENANT, searchParams, nObjects, null);
+        assertFalse(singlePage.hasNextPage());
+        assertEquals(results, singlePage.getResults());
+    }
+
+    @Test
+    void pagedSearch_priorVersions() {
+
+        var obj1 = dummyDataDef();
+        var obj2 = nextDataDef(obj1);
+        var obj3 = dummyDataDef();
+
+        var obj1Tag = SampleMetadata.dummyTag(obj1, INCLUDE_HEADER).toBuilder()
+                .putAttrs("dal_search_paging_prior", MetadataCodec.encodeValue("some_value"))
+                .build();
+
+        var obj2Tag = tagForNextObject(obj1Tag, obj2, INCLUDE_HEADER);
+
+        var obj3Tag = SampleMetadata.dummyTag(obj3, INCLUDE_HEADER).toBuilder()
+                .putAttrs("dal_search_paging_prior", MetadataCodec.encodeValue("some_value"))
+                .build();
+
+        store.saveNewObjects(TEST_TENANT, List.of(obj1Tag, obj3Tag));
+        store.saveNewVersions(TEST_TENANT, List.of(obj2Tag));
+
+        var searchParams = SearchParameters.newBuilder()
+                .setObjectType(ObjectType.DATA)
+                .setSearch(searchTerm("dal_search_paging_prior", BasicType.STRING, SearchOperator.EQ, encodeValue("some_value")))
+                .setPriorVersions(true)
+                .build();
+
+        var page1 = store.search(TEST_TENANT, searchParams, 1, null);
+        assertEquals(1, page1.getResults().size());
+        assertTrue(page1.hasNextPage());
+
+        var page2 = store.search(TEST_TENANT, searchParams, 1, page1.getNextPageToken());
+        assertEquals(1, page2.getResults().size());
+        assertFalse(page2.hasNextPage());
+
+        // One result per object, even though obj1 has two matching versions
+
+        var objectIds = Stream.of(page1, page2)
+                .map(page -> page.getResults().get(0).getHeader().getObjectId())
+                .collect(Collectors.toSet());
+
+        assertEquals(Set.of(obj1Tag.getHeader().getObjectId(), obj3Tag.getHeader().getObjectId()), objectIds);
+    }
+
+    @Test
+    void pagedSearch_invalidToken() {
+
+        var searchParams = SearchParameters.newBuilder()
+                .setObjectType(ObjectType.DATA)
+                .setSearch(searchTerm("dal_search_paging_test", BasicType.STRING, SearchOperator.EQ, encodeValue("some_value")))
+                .build();
+
+        assertThrows(EInputValidation.class, () -> store.search(TEST_TENANT, searchParams, 10, "not_a_page_token"));
+        assertThrows(EInputValidation.class, () -> store.search(TEST_TENANT, searchParams, 10, "!!!"));
+    }
+
 
     // -----------------------------------------------------------------------------------------------------------------
     // HELPERS
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.common.metadata.store;
+
+import org.finos.tracdap.common.metadata.MetadataUtil;
+import org.finos.tracdap.common.metadata.store.jdbc.JdbcDefinitionCodec;
+import org.finos.tracdap.common.metadata.test.IMetadataStoreTest;
+import org.finos.tracdap.common.metadata.test.JdbcUnit;
+import org.finos.tracdap.metadata.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.finos.tracdap.test.meta.SampleMetadata.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+abstract class MetadataDalStorageTest implements IMetadataStoreTest {
+
+    // Definitions stored with compression and dedup must load back exactly as they were saved
+    // The definition cache is turned off, so every load decodes the stored definition
+
+    private static final int THRESHOLD = 1024;
+    private static final int N_LARGE_FIELDS = 500;
+
+    private IMetadataStore store;
+
+    public void setStore(IMetadataStore store) {
+        this.store = store;
+    }
+
+    static class NoCompressionTest extends MetadataDalStorageTest {
+
+        @RegisterExtension
+        static final JdbcUnit jdbc = new JdbcUnit(0, new JdbcDefinitionCodec(
+                JdbcDefinitionCodec.Compression.NONE, THRESHOLD, true));
+    }
+
+    static class Lz4Test extends MetadataDalStorageTest {
+
+        @RegisterExtension
+        static final JdbcUnit jdbc = new JdbcUnit(0, new JdbcDefinitionCodec(
+                JdbcDefinitionCodec.Compression.LZ4, THRESHOLD, true));
+    }
+
+    static class ZstdTest extends MetadataDalStorageTest {
+
+        @RegisterExtension
+        static final JdbcUnit jdbc = new JdbcUnit(0, new JdbcDefinitionCodec(
+                JdbcDefinitionCodec.Compression.ZSTD, THRESHOLD, true));
+    }
+
+    @Test
+    void roundTrip_small() {
+
+        var origTag = dummyTag(dummySchemaDef(), INCLUDE_HEADER);
+        var origId = UUID.fromString(origTag.getHeader().getObjectId());
+
+        store.saveNewObjects(TEST_TENANT, Collections.singletonList(origTag));
+        var result = store.loadObject(TEST_TENANT, ObjectType.SCHEMA, origId, 1, 1);
+
+        assertEquals(origTag, result);
+    }
+
+    @Test
+    void roundTrip_large() {
+
+        var origTag = dummyTag(largeSchemaDef("round_trip"), INCLUDE_HEADER);
+        var origId = UUID.fromString(origTag.getHeader().getObjectId());
+
+        store.saveNewObjects(TEST_TENANT, Collections.singletonList(origTag));
+        var result = store.loadObject(TEST_TENANT, ObjectType.SCHEMA, origId, 1, 1);
+
+        assertEquals(origTag, result);
+    }
+
+    @Test
+    void duplicateVersions() {
+
+        // New versions of large objects are often identical to the previous version
+
+        var v1Def = largeSchemaDef("duplicate_versions");
+        var v1Tag = dummyTag(v1Def, INCLUDE_HEADER);
+        var v2Tag = tagForNextObject(v1Tag, v1Def, INCLUDE_HEADER);
+        var v3Tag = tagForNextObject(v2Tag, nextSchemaDef(v1Def), INCLUDE_HEADER);
+        var v4Tag = tagForNextObject(v3Tag, v1Def, INCLUDE_HEADER);
+
+        store.saveNewObjects(TEST_TENANT, Collections.singletonList(v1Tag));
+        store.saveNewVersions(TEST_TENANT, Collections.singletonList(v2Tag));
+        store.saveNewVersions(TEST_TENANT, Collections.singletonList(v3Tag));
+        store.saveNewVersions(TEST_TENANT, Collections.singletonList(v4Tag));
+
+        var v1 = store.loadObject(TEST_TENANT, MetadataUtil.selectorFor(v1Tag.getHeader()));
+        var v2 = store.loadObject(TEST_TENANT, MetadataUtil.selectorFor(v2Tag.getHeader()));
+        var v3 = store.loadObject(TEST_TENANT, MetadataUtil.selectorFor(v3Tag.getHeader()));
+        var latest = store.loadObject(TEST_TENANT, MetadataUtil.selectorForLatest(v4Tag.getHeader()));
+
+        assertEquals(v1Def, v1.getDefinition());
+        assertEquals(v1Def, v2.getDefinition());
+        assertEquals(nextSchemaDef(v1Def), v3.getDefinition());
+        assertEquals(v4Tag, latest);
+    }
+
+    @Test
+    void duplicateObjects_batchLoad() {
+
+        // Use enough objects that the batch is loaded using the key mapping table
+
+        var nObjects = 20;
+        var definition = largeSchemaDef("duplicate_objects");
+        var origTags = new ArrayList<Tag>(nObjects);
+
+        // Save the first object on its own, so the rest are stored as duplicates
+
+        origTags.add(dummyTag(definition, INCLUDE_HEADER));
+        store.saveNewObjects(TEST_TENANT, List.copyOf(origTags));
+
+        for (var i = 1; i < nObjects; i++)
+            origTags.add(dummyTag(definition, INCLUDE_HEADER));
+
+        store.saveNewObjects(TEST_TENANT, origTags.subList(1, nObjects));
+
+        var selectors = origTags.stream()
+                .map(tag -> MetadataUtil.selectorFor(tag.getHeader()))
+                .collect(Collectors.toList());
+
+        var result = store.loadObjects(TEST_TENANT, selectors);
+
+        assertEquals(origTags, result);
+    }
+
+    private static ObjectDefinition largeSchemaDef(String fieldPrefix) {
+
+        var schema = dummySchemaDef().getSchema().toBuilder();
+        var table = schema.getTableBuilder();
+        var nFields = table.getFieldsCount();
+
+        for (var i = 0; i < N_LARGE_FIELDS; i++) {
+
+            table.addFields(FieldSchema.newBuilder()
+                    .setFieldName(String.format("%s_field_%d", fieldPrefix, i))
+                    .setFieldType(BasicType.DECIMAL)
+                    .setFieldOrder(nFields + i)
+                    .setLabel(String.format("Field number %d of a large schema", i)));
+        }
+
+        return ObjectDefinition.newBuilder()
+                .setObjectType(ObjectType.SCHEMA)
+                .setSchema(schema)
+                .build();
+    }
+}
@@ -20,6 +20,7 @@ package org.finos.tracdap.common.metadata.test;
 import org.finos.tracdap.common.db.JdbcDialect;
 import org.finos.tracdap.common.db.JdbcSetup;
 import org.finos.tracdap.common.metadata.UuidFactory;
+import org.finos.tracdap.common.metadata.store.jdbc.JdbcDefinitionCodec;
 import org.finos.tracdap.common.metadata.store.jdbc.JdbcMetadataStore;
 import org.flywaydb.core.Flyway;
 import org.junit.jupiter.api.Assertions;
@@ -43,10 +44,22 @@ public class JdbcUnit implements BeforeAllCallback, BeforeEachCallback, AfterEac
 
     private static final String JDBC_URL_TEMPLATE = "mem:%s;DB_CLOSE_DELAY=-1";
 
+    private final long definitionCacheSize;
+    private final JdbcDefinitionCodec definitionCodec;
+
     private Properties properties;
     private DataSource source;
     private JdbcMetadataStore dal;
 
+    public JdbcUnit() {
+        this(JdbcMetadataStore.DEFAULT_DEFINITION_CACHE_SIZE, JdbcDefinitionCodec.DEFAULT);
+    }
+
+    public JdbcUnit(long definitionCacheSize, JdbcDefinitionCodec definitionCodec) {
+        this.definitionCacheSize = definitionCacheSize;
+        this.definitionCodec = definitionCodec;
+    }
+
     @Override
     public void beforeAll(ExtensionContext context) throws Exception {
 
@@ -117,7 +130,7 @@ public class JdbcUnit implements BeforeAllCallback, BeforeEachCallback, AfterEac
             Assertions.fail("JUnit extension for DAL testing requires the test class to implement IDalTestable");
 
         source = JdbcSetup.createDatasource(properties);
-        dal = new JdbcMetadataStore(JdbcDialect.H2, source);
+        dal = new JdbcMetadataStore(JdbcDialect.H2, source, definitionCacheSize, definitionCodec);
         dal.start();
 
         var testInstance = context.getTestInstance();
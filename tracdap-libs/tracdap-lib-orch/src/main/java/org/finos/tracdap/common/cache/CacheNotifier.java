@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.finos.tracdap.common.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+
+public class CacheNotifier {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheNotifier.class);
+
+    private final List<IJobCacheListener> listeners = new CopyOnWriteArrayList<>();
+
+    public void addListener(IJobCacheListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(IJobCacheListener listener) {
+        listeners.remove(listener);
+    }
+
+    public boolean hasListeners() {
+        return !listeners.isEmpty();
+    }
+
+    public void notifyChange(String key, int revision, String status) {
+
+        // Notification errors must not affect the cache operation that triggered them
+
+        for (var listener : listeners) {
+            try {
+                listener.entryChanged(key, revision, status);
+            }
+            catch (Exception e) {
+                log.warn("Cache change notification failed for [{}]: {}", key, e.getMessage(), e);
+            }
+        }
+    }
+}
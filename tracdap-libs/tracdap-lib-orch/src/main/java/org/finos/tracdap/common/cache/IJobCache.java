@@ -40,4 +40,10 @@ public interface IJobCache<TValue extends Serializable> {
     Optional<CacheEntry<TValue>> queryKey(String key);
     List<CacheEntry<TValue>> queryStatus(List<String> statuses);
     List<CacheEntry<TValue>> queryStatus(List<String> statuses, boolean includeOpenTickets);
+
+    // Change notifications are best-effort, a notification can be delayed, repeated or missed
+    // Clients should still query the cache periodically as a fallback
+
+    void addListener(IJobCacheListener listener);
+    void removeListener(IJobCacheListener listener);
 }
@@ -20,8 +20,13 @@ package org.finos.tracdap.common.cache;
 import java.io.Serializable;
 
 
-public interface IJobCacheManager {
+public interface IJobCacheManager extends AutoCloseable {
 
     <TValue extends Serializable>
     IJobCache<TValue> getCache(String cacheName, Class<TValue> cacheType);
+
+    @Override
+    default void close() {
+        // No-op by default, managers that hold background resources should release them
+    }
 }
@@ -19,14 +19,19 @@ package org.finos.tracdap.common.cache.jdbc;
 
 import org.finos.tracdap.common.cache.CacheEntry;
 import org.finos.tracdap.common.cache.CacheHelpers;
+import org.finos.tracdap.common.cache.CacheNotifier;
 import org.finos.tracdap.common.cache.CacheTicket;
 import org.finos.tracdap.common.cache.IJobCache;
+import org.finos.tracdap.common.cache.IJobCacheListener;
 import org.finos.tracdap.common.db.JdbcBaseDal;
 import org.finos.tracdap.common.db.JdbcDialect;
 import org.finos.tracdap.common.db.JdbcErrorCode;
 import org.finos.tracdap.common.db.JdbcException;
 import org.finos.tracdap.common.exception.*;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import javax.sql.DataSource;
 import java.io.Serializable;
 import java.sql.*;
@@ -35,7 +40,14 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -44,12 +56,46 @@ public class JdbcJobCache <TValue extends Serializable> extends JdbcBaseDal impl
 
     private static final int FIRST_REVISION = 0;
 
+    private static final Duration CHANGE_RETENTION = Duration.ofMinutes(5);
+    private static final int CHANGE_PRUNE_FREQUENCY = 100;
+    private static final int OWN_CHANGES_LIMIT = 10000;
+    private static final Duration CHANGE_GAP_TIMEOUT = Duration.ofSeconds(30);
+    private static final int CHANGE_GAP_LIMIT = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
     private final String cacheName;
 
+    // Changes made by this instance are notified in-process right away
+    // Other changes are picked up by watching the change log table
+
+    private final CacheNotifier notifier;
+    private final ScheduledExecutorService changeScheduler;
+    private final Duration changePollInterval;
+    private final Set<String> ownChanges;
+
+    private ScheduledFuture<?> changePollTask;
+    private long lastChangePk = -1;
+    private int changePollCount = 0;
+
+    // Change PKs are allocated when rows are inserted, but transactions can commit out of order
+    // Skipped PKs below the high-water mark are held as gaps, so late commits are still picked up
+    // Gaps can also be left by rollbacks or sequence caching, so they are given up after a timeout
+
+    private final NavigableMap<Long, Instant> changeGaps = new TreeMap<>();
+
     // Only JDBC cache manager can create instances
-    JdbcJobCache(DataSource dataSource, JdbcDialect dialect, String cacheName) {
+    JdbcJobCache(
+            DataSource dataSource, JdbcDialect dialect, String cacheName,
+            ScheduledExecutorService changeScheduler, Duration changePollInterval) {
+
         super(dataSource, dialect);
         this.cacheName = cacheName;
+
+        this.notifier = new CacheNotifier();
+        this.changeScheduler = changeScheduler;
+        this.changePollInterval = changePollInterval;
+        this.ownChanges = ConcurrentHashMap.newKeySet();
     }
 
     @Override
@@ -226,9 +272,13 @@ public class JdbcJobCache <TValue extends Serializable> extends JdbcBaseDal impl
         CacheHelpers.checkValidStatus(ticket, status);
         CacheHelpers.checkValidValue(ticket, value);
 
-        return wrapTransaction(conn -> {
+        var newRevision = wrapTransaction(conn -> {
             return createEntry(jdbcTicket(ticket), status, value, conn);
         });
+
+        notifyOwnChange(ticket.key(), newRevision, status);
+
+        return newRevision;
     }
 
     private int createEntry(JdbcCacheTicket ticket, String status, TValue value, Connection conn) throws SQLException {
@@ -285,6 +335,8 @@ public class JdbcJobCache <TValue extends Serializable> extends JdbcBaseDal impl
             stmt.executeUpdate();
         }
 
+        recordChange(ticket.key(), newRevision, status, conn);
+
         return newRevision;
     }
 
@@ -296,9 +348,13 @@ public class JdbcJobCache <TValue extends Serializable> extends JdbcBaseDal impl
         CacheHelpers. checkValidStatus(ticket, status);
         CacheHelpers.checkValidValue(ticket, value);
 
-        return wrapTransaction(conn -> {
+        var newRevision = wrapTransaction(conn -> {
             return updateEntry(jdbcTicket(ticket), status, value, conn);
         });
+
+        notifyOwnChange(ticket.key(), newRevision, status);
+
+        return newRevision;
     }
 
     private int updateEntry(JdbcCacheTicket ticket, String status, TValue value, Connection conn) throws SQLException {
@@ -331,9 +387,11 @@ public class JdbcJobCache <TValue extends Serializable> extends JdbcBaseDal impl
                 var message = String.format("Cache entry not found for %s [%s]", ticket.key(), cacheName);
                 throw new ECacheNotFound(message);
             }
-
-            return newRevision;
         }
+
+        recordChange(ticket.key(), newRevision, status, conn);
+
+        return newRevision;
     }
 
     @Override
@@ -525,6 +583,196 @@ public class JdbcJobCache <TValue extends Serializable> extends JdbcBaseDal impl
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public void addListener(IJobCacheListener listener) {
+
+        notifier.addListener(listener);
+
+        synchronized (this) {
+            if (changePollTask == null && changeScheduler != null) {
+
+                var interval = changePollInterval.toMillis();
+
+                changePollTask = changeScheduler.scheduleWithFixedDelay(
+                        this::pollChanges, interval, interval, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    @Override
+    public void removeListener(IJobCacheListener listener) {
+
+        notifier.removeListener(listener);
+
+        synchronized (this) {
+            if (changePollTask != null && !notifier.hasListeners()) {
+                changePollTask.cancel(false);
+                changePollTask = null;
+                lastChangePk = -1;
+                changeGaps.clear();
+                ownChanges.clear();
+            }
+        }
+    }
+
+    private void recordChange(String key, int revision, String status, Connection conn) throws SQLException {
+
+        var query =
+                "insert into cache_change (\n" +
+                "  cache_name,\n" +
+                "  entry,\n" +
+                "  revision,\n" +
+                "  status,\n" +
+                "  change_time\n" +
+                ")\n" +
+                "values (?, ?, ?, ?, ?)";
+
+        try (var stmt = conn.prepareStatement(query)) {
+
+            stmt.setString(1, cacheName);
+            stmt.setString(2, key);
+            stmt.setInt(3, revision);
+            stmt.setString(4, status);
+            stmt.setTimestamp(5, java.sql.Timestamp.from(Instant.now()));
+
+            stmt.executeUpdate();
+        }
+    }
+
+    private void notifyOwnChange(String key, int revision, String status) {
+
+        if (!notifier.hasListeners())
+            return;
+
+        // Remember changes made by this instance, so they are not notified twice when they show up in the change log
+        // The set is only a guard against duplicates, if it fills up (e.g. change polling is stalled) just reset it
+
+        if (ownChanges.size() >= OWN_CHANGES_LIMIT)
+            ownChanges.clear();
+
+        ownChanges.add(changeKey(key, revision));
+
+        notifier.notifyChange(key, revision, status);
+    }
+
+    private String changeKey(String key, int revision) {
+
+        return key + "/" + revision;
+    }
+
+    private synchronized void pollChanges() {
+
+        try {
+
+            var changes = wrapTransaction(conn -> {
+                return readChanges(conn);
+            });
+
+            for (var change : changes) {
+                if (!ownChanges.remove(changeKey(change.key(), change.revision())))
+                    notifier.notifyChange(change.key(), change.revision(), change.status());
+            }
+
+            // Clear out old changes every so often, multiple nodes doing this at once is harmless
+
+            if (++changePollCount % CHANGE_PRUNE_FREQUENCY == 0) {
+                wrapTransaction(conn -> {
+                    pruneChanges(conn);
+                });
+            }
+        }
+        catch (Exception e) {
+
+            // Clients still query the cache periodically, so missed notifications are not fatal
+            log.warn("Failed to read changes for job cache [{}]: {}", cacheName, e.getMessage(), e);
+        }
+    }
+
+    private List<CacheEntry<TValue>> readChanges(Connection conn) throws SQLException {
+
+        // The first poll sets the starting point, changes from before this cache was watched are not notified
+
+        if (lastChangePk < 0) {
+
+            var startQuery = "select max(change_pk) from cache_change where cache_name = ?";
+
+            try (var stmt = conn.prepareStatement(startQuery)) {
+
+                stmt.setString(1, cacheName);
+
+                try (var rs = stmt.executeQuery()) {
+                    rs.next();
+                    lastChangePk = rs.getLong(1);  // Zero if there are no changes
+                }
+            }
+
+            return List.of();
+        }
+
+        // Read from the oldest open gap, changes already seen in that window are skipped
+
+        var pollTime = Instant.now();
+        changeGaps.values().removeIf(gapTime -> gapTime.plus(CHANGE_GAP_TIMEOUT).isBefore(pollTime));
+
+        var windowStart = changeGaps.isEmpty() ? lastChangePk : changeGaps.firstKey() - 1;
+
+        var query =
+                "select change_pk, entry, revision, status\n" +
+                "from cache_change\n" +
+                "where cache_name = ?\n" +
+                "and change_pk > ?\n" +
+                "order by change_pk";
+
+        var changes = new ArrayList<CacheEntry<TValue>>();
+
+        try (var stmt = conn.prepareStatement(query)) {
+
+            stmt.setString(1, cacheName);
+            stmt.setLong(2, windowStart);
+
+            try (var rs = stmt.executeQuery()) {
+                while (rs.next()) {
+
+                    var changePk = rs.getLong(1);
+
+                    if (changePk <= lastChangePk) {
+                        if (changeGaps.remove(changePk) == null)
+                            continue;
+                    }
+                    else {
+                        for (var gapPk = lastChangePk + 1; gapPk < changePk && changeGaps.size() < CHANGE_GAP_LIMIT; gapPk++)
+                            changeGaps.put(gapPk, pollTime);
+
+                        lastChangePk = changePk;
+                    }
+
+                    var key = rs.getString(2);
+                    var revision = rs.getInt(3);
+                    var status = rs.getString(4);
+
+                    changes.add(CacheEntry.forValue(key, revision, status, null));
+                }
+            }
+        }
+
+        return changes;
+    }
+
+    private void pruneChanges(Connection conn) throws SQLException {
+
+        var query =
+                "delete from cache_change\n" +
+                "where change_time < ?";
+
+        try (var stmt = conn.prepareStatement(query)) {
+
+            var sqlCutoff = java.sql.Timestamp.from(Instant.now().minus(CHANGE_RETENTION));
+
+            stmt.setTimestamp(1, sqlCutoff);
+            stmt.executeUpdate();
+        }
+    }
+
     private void checkJdbcTicket(JdbcCacheTicket ticket, Connection conn) throws SQLException {
 
         var query =
@@ -23,22 +23,76 @@ import org.finos.tracdap.common.db.JdbcDialect;
 
 import javax.sql.DataSource;
 import java.io.Serializable;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 
 public class JdbcJobCacheManager implements IJobCacheManager {
 
+    public static final Duration DEFAULT_CHANGE_POLL_INTERVAL = Duration.ofMillis(500);
+    private static final Duration CHANGE_SCHEDULER_SHUTDOWN_TIMEOUT = Duration.ofSeconds(5);
+
     private final DataSource dataSource;
     private final JdbcDialect dialect;
+    private final Duration changePollInterval;
+
+    private ScheduledExecutorService changeScheduler;
 
     public JdbcJobCacheManager(DataSource dataSource, JdbcDialect dialect) {
+        this(dataSource, dialect, DEFAULT_CHANGE_POLL_INTERVAL);
+    }
+
+    public JdbcJobCacheManager(DataSource dataSource, JdbcDialect dialect, Duration changePollInterval) {
         this.dataSource = dataSource;
         this.dialect = dialect;
+        this.changePollInterval = changePollInterval;
     }
 
     @Override
     public <TValue extends Serializable> IJobCache<TValue>
     getCache(String cacheName, Class<TValue> cacheType) {
 
-        return new JdbcJobCache<>(dataSource, dialect, cacheName);
+        return new JdbcJobCache<>(dataSource, dialect, cacheName, changeScheduler(), changePollInterval);
+    }
+
+    @Override
+    public synchronized void close() {
+
+        // Stop watching the change log, a poll that is already running is allowed to finish
+
+        if (changeScheduler == null)
+            return;
+
+        changeScheduler.shutdown();
+
+        try {
+            if (!changeScheduler.awaitTermination(CHANGE_SCHEDULER_SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS))
+                changeScheduler.shutdownNow();
+        }
+        catch (InterruptedException e) {
+            changeScheduler.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        changeScheduler = null;
+    }
+
+    private synchronized ScheduledExecutorService changeScheduler() {
+
+        // A single background thread watches the change log for all caches
+        // Listeners are expected to hand off work, so one thread is enough
+
+        if (changeScheduler == null) {
+
+            changeScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                var thread = new Thread(runnable, "job-cache-changes");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        return changeScheduler;
     }
 }
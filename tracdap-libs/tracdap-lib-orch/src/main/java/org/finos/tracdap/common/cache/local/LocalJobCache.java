@@ -19,8 +19,10 @@ package org.finos.tracdap.common.cache.local;
 
 import org.finos.tracdap.common.cache.CacheEntry;
 import org.finos.tracdap.common.cache.CacheHelpers;
+import org.finos.tracdap.common.cache.CacheNotifier;
 import org.finos.tracdap.common.cache.CacheTicket;
 import org.finos.tracdap.common.cache.IJobCache;
+import org.finos.tracdap.common.cache.IJobCacheListener;
 import org.finos.tracdap.common.exception.*;
 
 import org.slf4j.Logger;
@@ -43,6 +45,7 @@ public class LocalJobCache<TValue extends Serializable> implements IJobCache<TVa
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     private final ConcurrentMap<String, LocalJobCacheEntry> _cache;
+    private final CacheNotifier notifier;
 
     // Package-local constructor
     // Instances must be created by LocalJobCacheManager
@@ -50,6 +53,7 @@ public class LocalJobCache<TValue extends Serializable> implements IJobCache<TVa
     LocalJobCache() {
 
         this._cache = new ConcurrentHashMap<>();
+        this.notifier = new CacheNotifier();
     }
 
     @Override
@@ -172,6 +176,9 @@ public class LocalJobCache<TValue extends Serializable> implements IJobCache<TVa
             return newEntry;
         });
 
+        // All changes are in-process, so listeners can be notified directly
+        notifier.notifyChange(ticket.key(), added.revision, status);
+
         return added.revision;
     }
 
@@ -203,6 +210,8 @@ public class LocalJobCache<TValue extends Serializable> implements IJobCache<TVa
             return newEntry;
         });
 
+        notifier.notifyChange(ticket.key(), updated.revision, status);
+
         return updated.revision;
     }
 
@@ -309,6 +318,18 @@ public class LocalJobCache<TValue extends Serializable> implements IJobCache<TVa
         return results;
     }
 
+    @Override
+    public void addListener(IJobCacheListener listener) {
+
+        notifier.addListener(listener);
+    }
+
+    @Override
+    public void removeListener(IJobCacheListener listener) {
+
+        notifier.removeListener(listener);
+    }
+
     private void checkEntryMatchesTicket(LocalJobCacheEntry entry, CacheTicket ticket, String operation) {
 
         if (entry == null || entry.ticket != ticket) {
@@ -20,14 +20,17 @@ package org.finos.tracdap.common.orch;
 import org.finos.tracdap.common.cache.IJobCacheManager;
 import org.finos.tracdap.common.cache.jdbc.JdbcJobCacheManager;
 import org.finos.tracdap.common.cache.local.LocalJobCacheManager;
+import org.finos.tracdap.common.config.ConfigHelpers;
 import org.finos.tracdap.common.config.ConfigManager;
 import org.finos.tracdap.common.db.JdbcSetup;
 import org.finos.tracdap.common.exception.EPluginNotAvailable;
+import org.finos.tracdap.common.exception.EStartup;
 import org.finos.tracdap.common.exec.IBatchExecutor;
 import org.finos.tracdap.common.exec.local.LocalBatchExecutor;
 import org.finos.tracdap.common.plugin.PluginServiceInfo;
 import org.finos.tracdap.common.plugin.TracPlugin;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Properties;
 
@@ -40,6 +43,8 @@ public class CoreOrchestratorPlugin extends TracPlugin {
     private static final String LOCAL_JOB_CACHE_NAME = "LOCAL_JOB_CACHE";
     private static final String JDBC_JOB_CACHE_NAME = "JDBC_JIB_CACHE";
 
+    private static final String CHANGE_POLL_INTERVAL_PROPERTY = "changePollInterval";
+
     private static final List<PluginServiceInfo> psi = List.of(
             new PluginServiceInfo(IBatchExecutor.class, LOCAL_EXECUTOR_NAME, List.of("LOCAL")),
             new PluginServiceInfo(IJobCacheManager.class, LOCAL_JOB_CACHE_NAME, List.of("LOCAL")),
@@ -72,7 +77,17 @@ public class CoreOrchestratorPlugin extends TracPlugin {
                 var dialect = JdbcSetup.getSqlDialect(properties);
                 var datasource = JdbcSetup.createDatasource(properties);
 
-                return (T) new JdbcJobCacheManager(datasource, dialect);
+                // Interval for picking up job cache changes made by other nodes, in milliseconds
+                var changePollInterval = ConfigHelpers.readInt(
+                        "JDBC job cache", properties, CHANGE_POLL_INTERVAL_PROPERTY,
+                        (int) JdbcJobCacheManager.DEFAULT_CHANGE_POLL_INTERVAL.toMillis());
+
+                if (changePollInterval <= 0) {
+                    var message = String.format("Invalid property [%s] for JDBC job cache: Must be positive", CHANGE_POLL_INTERVAL_PROPERTY);
+                    throw new EStartup(message);
+                }
+
+                return (T) new JdbcJobCacheManager(datasource, dialect, Duration.ofMillis(changePollInterval));
 
             default:
 
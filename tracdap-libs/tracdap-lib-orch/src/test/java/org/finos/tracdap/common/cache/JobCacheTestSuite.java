@@ -30,9 +30,11 @@ import java.io.Serializable;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 import java.util.Random;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.BiFunction;
 
 
@@ -2176,6 +2178,95 @@ public abstract class JobCacheTestSuite {
     }
 
 
+    // -----------------------------------------------------------------------------------------------------------------
+    // LISTENERS
+    // -----------------------------------------------------------------------------------------------------------------
+
+
+    @Test
+    void listener_createAndUpdate() {
+
+        var key = newKey();
+        var changes = new CopyOnWriteArrayList<String>();
+
+        IJobCacheListener listener = (changeKey, revision, status) -> {
+            if (changeKey.equals(key))
+                changes.add(revision + "/" + status);
+        };
+
+        cache.addListener(listener);
+
+        try {
+
+            int revision;
+
+            try (var ticket = cache.openNewTicket(key, TICKET_TIMEOUT)) {
+                revision = cache.createEntry(ticket, "status1", new DummyState());
+            }
+
+            try (var ticket = cache.openTicket(key, revision, TICKET_TIMEOUT)) {
+                cache.updateEntry(ticket, "status2", new DummyState());
+            }
+
+            // Changes made through this cache instance are notified before the update call returns
+
+            Assertions.assertEquals(List.of("1/status1", "2/status2"), changes);
+        }
+        finally {
+            cache.removeListener(listener);
+        }
+    }
+
+    @Test
+    void listener_removed() {
+
+        var key = newKey();
+        var changes = new CopyOnWriteArrayList<String>();
+
+        IJobCacheListener listener = (changeKey, revision, status) -> {
+            if (changeKey.equals(key))
+                changes.add(revision + "/" + status);
+        };
+
+        cache.addListener(listener);
+        cache.removeListener(listener);
+
+        try (var ticket = cache.openNewTicket(key, TICKET_TIMEOUT)) {
+            cache.createEntry(ticket, "status1", new DummyState());
+        }
+
+        Assertions.assertTrue(changes.isEmpty());
+    }
+
+    @Test
+    void listener_errorDoesNotBreakUpdate() {
+
+        var key = newKey();
+
+        IJobCacheListener listener = (changeKey, revision, status) -> {
+            throw new RuntimeException("Listener error");
+        };
+
+        cache.addListener(listener);
+
+        try {
+
+            // Errors in listeners are logged and ignored, the update itself still succeeds
+
+            try (var ticket = cache.openNewTicket(key, TICKET_TIMEOUT)) {
+                cache.createEntry(ticket, "status1", new DummyState());
+            }
+
+            var entry = cache.queryKey(key);
+            Assertions.assertTrue(entry.isPresent());
+            Assertions.assertEquals("status1", entry.get().status());
+        }
+        finally {
+            cache.removeListener(listener);
+        }
+    }
+
+
     // -----------------------------------------------------------------------------------------------------------------
     // HELPERS AND EXTRAS
     // -----------------------------------------------------------------------------------------------------------------
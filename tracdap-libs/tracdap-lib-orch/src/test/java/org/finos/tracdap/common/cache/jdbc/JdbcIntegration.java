@@ -37,6 +37,7 @@ public class JdbcIntegration implements BeforeAllCallback, AfterAllCallback {
     private static final String TRAC_SECRET_KEY = "TRAC_SECRET_KEY";
 
     private DataSource dataSource;
+    private JdbcJobCacheManager cacheManager;
 
     @Override
     public void beforeAll(ExtensionContext context) throws Exception {
@@ -58,7 +59,7 @@ public class JdbcIntegration implements BeforeAllCallback, AfterAllCallback {
             var dialect = JdbcSetup.getSqlDialect(cacheConfig);
             dataSource= JdbcSetup.createDatasource(configManager, cacheConfig);
 
-            var cacheManager = new JdbcJobCacheManager(dataSource, dialect);
+            cacheManager = new JdbcJobCacheManager(dataSource, dialect);
 
             var testClassMaybe = context.getTestClass();
 
@@ -84,6 +85,11 @@ public class JdbcIntegration implements BeforeAllCallback, AfterAllCallback {
     @Override
     public void afterAll(ExtensionContext context) {
 
+        if (cacheManager != null) {
+            cacheManager.close();
+            cacheManager = null;
+        }
+
         if (dataSource != null) {
             JdbcSetup.destroyDatasource(dataSource);
             dataSource = null;
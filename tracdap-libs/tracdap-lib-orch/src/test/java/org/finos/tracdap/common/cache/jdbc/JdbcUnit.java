@@ -38,6 +38,7 @@ public class JdbcUnit implements BeforeAllCallback, AfterAllCallback {
     private static final String JDBC_URL_TEMPLATE = "mem:%s;DB_CLOSE_DELAY=-1";
 
     private DataSource source;
+    private JdbcJobCacheManager manager;
 
     @Override
     public void beforeAll(ExtensionContext context) throws Exception {
@@ -76,7 +77,7 @@ public class JdbcUnit implements BeforeAllCallback, AfterAllCallback {
             source = JdbcSetup.createDatasource(properties);
 
             var dialect = JdbcSetup.getSqlDialect(properties);
-            var manager = new JdbcJobCacheManager(source, dialect);
+            manager = new JdbcJobCacheManager(source, dialect);
 
             var testClassMaybe = context.getTestClass();
 
@@ -102,6 +103,11 @@ public class JdbcUnit implements BeforeAllCallback, AfterAllCallback {
     @Override
     public void afterAll(ExtensionContext extensionContext) {
 
+        if (manager != null) {
+            manager.close();
+            manager = null;
+        }
+
         if (source != null) {
             JdbcSetup.destroyDatasource(source);
             source = null;
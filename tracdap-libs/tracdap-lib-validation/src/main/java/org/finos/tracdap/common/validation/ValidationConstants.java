@@ -28,6 +28,10 @@ public class ValidationConstants {
 
     public static final Pattern MIME_TYPE = Pattern.compile("\\A\\w+/[-.\\w]+(?:\\+[-.\\w]+)?\\Z");
 
+    // Data formats can carry codec options as mime type parameters, e.g. "application/vnd.apache.arrow.stream; compression=zstd"
+    public static final String FORMAT_OPTION_SEPARATOR = ";";
+    public static final Pattern FORMAT_OPTION = Pattern.compile("\\A\\s*\\w+\\s*=\\s*[-.\\w]+\\s*\\Z");
+
     public static final List<String> REGISTERED_MIME_TYPES = List.of(
             "application", "audio", "font", "example",
             "image", "message", "model", "multipart",
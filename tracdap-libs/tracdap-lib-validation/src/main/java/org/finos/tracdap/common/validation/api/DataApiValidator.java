@@ -51,6 +51,7 @@ public class DataApiValidator {
     private static final Descriptors.FieldDescriptor DRR_TENANT;
     private static final Descriptors.FieldDescriptor DRR_SELECTOR;
     private static final Descriptors.FieldDescriptor DRR_FORMAT;
+    private static final Descriptors.FieldDescriptor DRR_FIELDS;
 
     private static final Descriptors.Descriptor DATA_DOWNLOAD_REQUEST;
     private static final Descriptors.FieldDescriptor DDR_TENANT;
@@ -92,6 +93,7 @@ public class DataApiValidator {
         DRR_TENANT = ValidatorUtils.field(DATA_READ_REQUEST, DataReadRequest.TENANT_FIELD_NUMBER);
         DRR_SELECTOR = ValidatorUtils.field(DATA_READ_REQUEST, DataReadRequest.SELECTOR_FIELD_NUMBER);
         DRR_FORMAT = ValidatorUtils.field(DATA_READ_REQUEST, DataReadRequest.FORMAT_FIELD_NUMBER);
+        DRR_FIELDS = ValidatorUtils.field(DATA_READ_REQUEST, DataReadRequest.FIELDS_FIELD_NUMBER);
 
         DATA_DOWNLOAD_REQUEST = DataDownloadRequest.getDescriptor();
         DDR_TENANT = ValidatorUtils.field(DATA_DOWNLOAD_REQUEST, DataDownloadRequest.TENANT_FIELD_NUMBER);
@@ -217,6 +219,11 @@ public class DataApiValidator {
                 .apply(CommonValidators::dataFormat)
                 .pop();
 
+        ctx = ctx.pushRepeated(DRR_FIELDS)
+                .applyRepeated(CommonValidators::identifier)
+                .apply(CommonValidators::caseInsensitiveDuplicates)
+                .pop();
+
         return ctx;
     }
 
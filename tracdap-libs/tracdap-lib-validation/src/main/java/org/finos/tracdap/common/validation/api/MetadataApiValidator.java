@@ -67,6 +67,8 @@ public class MetadataApiValidator {
     private static final Descriptors.Descriptor METADATA_SEARCH_REQUEST;
     private static final Descriptors.FieldDescriptor MSR_TENANT;
     private static final Descriptors.FieldDescriptor MSR_SEARCH_PARAMS;
+    private static final Descriptors.FieldDescriptor MSR_PAGE_SIZE;
+    private static final Descriptors.FieldDescriptor MSR_PAGE_TOKEN;
 
     private static final Descriptors.Descriptor METADATA_GET_REQUEST;
     private static final Descriptors.FieldDescriptor MGR_TENANT;
@@ -103,6 +105,8 @@ public class MetadataApiValidator {
         METADATA_SEARCH_REQUEST = MetadataSearchRequest.getDescriptor();
         MSR_TENANT = field(METADATA_SEARCH_REQUEST, MetadataSearchRequest.TENANT_FIELD_NUMBER);
         MSR_SEARCH_PARAMS = field(METADATA_SEARCH_REQUEST, MetadataSearchRequest.SEARCHPARAMS_FIELD_NUMBER);
+        MSR_PAGE_SIZE = field(METADATA_SEARCH_REQUEST, MetadataSearchRequest.PAGESIZE_FIELD_NUMBER);
+        MSR_PAGE_TOKEN = field(METADATA_SEARCH_REQUEST, MetadataSearchRequest.PAGETOKEN_FIELD_NUMBER);
 
         METADATA_GET_REQUEST = MetadataGetRequest.getDescriptor();
         MGR_TENANT = field(METADATA_GET_REQUEST, MetadataGetRequest.TENANT_FIELD_NUMBER);
@@ -364,9 +368,25 @@ public class MetadataApiValidator {
                 .apply(SearchValidator::searchParameters, SearchParameters.class)
                 .pop();
 
+        ctx = ctx.push(MSR_PAGE_SIZE)
+                .apply(CommonValidators::optional)
+                .apply(CommonValidators::positive, Integer.class)
+                .pop();
+
+        // Page tokens are opaque to the client, the metadata store checks them when they are decoded
+        ctx = ctx.push(MSR_PAGE_TOKEN)
+                .apply(CommonValidators::optional)
+                .pop();
+
         return ctx;
     }
 
+    @Validator(method = "searchStream")
+    public static ValidationContext searchStream(MetadataSearchRequest msg, ValidationContext ctx) {
+
+        return search(msg, ctx);
+    }
+
     @Validator(method = "getObject")
     public static ValidationContext getObject(MetadataGetRequest msg, ValidationContext ctx) {
 
@@ -36,6 +36,7 @@ public class OrchestratorApiValidator {
     private static final Descriptors.FieldDescriptor JR_TENANT;
     private static final Descriptors.FieldDescriptor JR_JOB;
     private static final Descriptors.FieldDescriptor JR_JOB_ATTRS;
+    private static final Descriptors.FieldDescriptor JR_PRIORITY;
 
     private static final Descriptors.Descriptor JOB_STATUS_REQUEST;
     private static final Descriptors.FieldDescriptor JSR_TENANT;
@@ -47,6 +48,7 @@ public class OrchestratorApiValidator {
         JR_TENANT = field(JOB_REQUEST, JobRequest.TENANT_FIELD_NUMBER);
         JR_JOB = field(JOB_REQUEST, JobRequest.JOB_FIELD_NUMBER);
         JR_JOB_ATTRS = field(JOB_REQUEST, JobRequest.JOBATTRS_FIELD_NUMBER);
+        JR_PRIORITY = field(JOB_REQUEST, JobRequest.PRIORITY_FIELD_NUMBER);
 
         JOB_STATUS_REQUEST = JobStatusRequest.getDescriptor();
         JSR_TENANT = field(JOB_STATUS_REQUEST, JobStatusRequest.TENANT_FIELD_NUMBER);
@@ -82,6 +84,11 @@ public class OrchestratorApiValidator {
                 .applyRepeated(TagUpdateValidator::reservedAttrs, TagUpdate.class, false)
                 .pop();
 
+        ctx = ctx.push(JR_PRIORITY)
+                .apply(CommonValidators::optional)
+                .apply(CommonValidators::notNegative, Integer.class)
+                .pop();
+
         return ctx;
     }
 
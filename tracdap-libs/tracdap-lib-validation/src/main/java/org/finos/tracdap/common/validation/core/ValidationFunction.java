@@ -22,13 +22,23 @@ import com.google.protobuf.Message;
 import org.finos.tracdap.common.exception.ETrac;
 import org.finos.tracdap.common.exception.EUnexpected;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.io.IOException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 
 public class ValidationFunction<T> {
 
+    private static final Logger log = LoggerFactory.getLogger(ValidationFunction.class);
+
+    private static final String FUNCTION_METHOD_NAME = "apply";
+
     @FunctionalInterface
     public interface Basic { ValidationContext apply(ValidationContext ctx); }
 
@@ -128,6 +138,28 @@ public class ValidationFunction<T> {
         if (!signatureMatch)
             throw new EUnexpected();
 
+        // Prefer a compiled call to the validator, fall back to reflection if it cannot be compiled
+
+        var compiled = compileFunction(method, Typed.class, ValidationContext.class, Object.class, ValidationContext.class);
+
+        if (compiled != null) {
+
+            @SuppressWarnings("unchecked")
+            var typed = (Typed<S>) compiled;
+
+            return (msg, ctx) -> {
+                try {
+                    return typed.apply(msg, ctx);
+                }
+                catch (ETrac e) {
+                    throw e;
+                }
+                catch (RuntimeException e) {
+                    throw new EUnexpected(e);
+                }
+            };
+        }
+
         return (msg, ctx) -> {
 
             try {
@@ -160,6 +192,26 @@ public class ValidationFunction<T> {
         if (!signatureMatch)
             throw new EUnexpected();
 
+        var compiled = compileFunction(method, Version.class, ValidationContext.class, Object.class, Object.class, ValidationContext.class);
+
+        if (compiled != null) {
+
+            @SuppressWarnings("unchecked")
+            var version = (Version<S>) compiled;
+
+            return (msg, prior, ctx) -> {
+                try {
+                    return version.apply(msg, prior, ctx);
+                }
+                catch (ETrac e) {
+                    throw e;
+                }
+                catch (RuntimeException e) {
+                    throw new EUnexpected(e);
+                }
+            };
+        }
+
         return (msg, prior, ctx) -> {
 
             try {
@@ -174,4 +226,31 @@ public class ValidationFunction<T> {
             }
         };
     }
+
+    private static Object compileFunction(Method method, Class<?> funcInterface, Class<?> returnType, Class<?>... paramTypes) {
+
+        // Build an implementation of the functional interface that calls the validator directly
+        // This avoids the cost of reflection on every call, which adds up for large objects
+
+        try {
+
+            var lookup = MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup());
+            var handle = lookup.unreflect(method);
+
+            var callSite = LambdaMetafactory.metafactory(
+                    lookup, FUNCTION_METHOD_NAME,
+                    MethodType.methodType(funcInterface),
+                    MethodType.methodType(returnType, paramTypes),
+                    handle, handle.type());
+
+            return callSite.getTarget().invoke();
+        }
+        catch (Throwable e) {
+
+            log.warn("Validator [{}.{}] cannot be compiled, falling back to reflection: {}",
+                    method.getDeclaringClass().getSimpleName(), method.getName(), e.getMessage());
+
+            return null;
+        }
+    }
 }
@@ -32,21 +32,22 @@ import com.google.protobuf.Message;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
-import java.util.Stack;
 import java.util.function.Function;
 
 
 public class ValidationContextImpl implements ValidationContext {
 
-    private static final Map<ValidationKey, ValidationFunction<?>> validators = ValidatorBuilder.buildValidatorMap();
+    private static final ValidationPlan validators = ValidatorBuilder.buildValidationPlan();
 
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     private final ValidationType validationType;
-    private final Stack<ValidationLocation> location;
+    private final Deque<ValidationLocation> location;
     private final ValidationContextImpl priorCtx;
     private final List<ValidationFailure> failures;
 
@@ -59,7 +60,7 @@ public class ValidationContextImpl implements ValidationContext {
             MetadataBundle metadata, ResourceBundle resources) {
 
         this.validationType = validationType;
-        this.location = new Stack<>();
+        this.location = new ArrayDeque<>();
         this.location.push(root);
 
         this.priorCtx = priorCtx;
@@ -231,7 +232,7 @@ public class ValidationContextImpl implements ValidationContext {
             }
         }
 
-        var fieldName = String.format("%d", index);
+        var fieldName = Integer.toString(index);
         var loc = new ValidationLocation(parentLoc, obj, parentLoc.field(), fieldName);
         location.push(loc);
 
@@ -347,7 +348,7 @@ public class ValidationContextImpl implements ValidationContext {
 
     public ValidationContext pop() {
 
-        if (location.empty())
+        if (location.isEmpty())
             throw new IllegalStateException();
 
         // Failures propagate up the stack
@@ -392,10 +393,10 @@ public class ValidationContextImpl implements ValidationContext {
         if (msg == null)
             throw new ETracInternal("applyRegistered() can only be applied to message types");
 
-        var key = new ValidationKey(validationType, msg.getDescriptorForType(), loc.method());
-        var validator = validators.get(key);
+        var validator = validators.lookup(validationType, msg.getDescriptorForType(), loc.method());
 
         if (validator == null) {
+            var key = new ValidationKey(validationType, msg.getDescriptorForType(), loc.method());
             var err = String.format("Required validator is not registered: [%s]", key.displayName());
             log.error(err);
             throw new ETracInternal(err);
@@ -122,6 +122,14 @@ public class ValidationKey implements Comparable<ValidationKey> {
         return validationType;
     }
 
+    public Descriptors.Descriptor messageType() {
+        return messageType;
+    }
+
+    public Descriptors.MethodDescriptor method() {
+        return method;
+    }
+
     public String shortName() {
         return shortName;
     }
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.common.validation.core.impl;
+
+import org.finos.tracdap.common.validation.core.ValidationFunction;
+import org.finos.tracdap.common.validation.core.ValidationType;
+
+import com.google.protobuf.Descriptors;
+
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+
+public class ValidationPlan {
+
+    // Registered validators, resolved once per message type, validation type and method
+    // Lookups are by descriptor identity, so no key is built and no strings are formatted for each node
+    // Generated message types always use the same descriptor instance
+
+    // Messages with a descriptor from somewhere else (e.g. dynamic messages) fall back to lookup by key,
+    // which matches on the full name of the message type as before
+
+    private final Map<Descriptors.Descriptor, PlanEntry> entries;
+    private final Map<ValidationKey, ValidationFunction<?>> validatorMap;
+
+    public ValidationPlan(Map<ValidationKey, ValidationFunction<?>> validatorMap) {
+
+        this.entries = new IdentityHashMap<>();
+        this.validatorMap = Map.copyOf(validatorMap);
+
+        for (var validator : validatorMap.entrySet()) {
+
+            var key = validator.getKey();
+            var entry = entries.computeIfAbsent(key.messageType(), x -> new PlanEntry());
+
+            if (key.method() != null)
+                entry.methodValidators
+                        .computeIfAbsent(key.validationType(), x -> new IdentityHashMap<>())
+                        .put(key.method(), validator.getValue());
+            else
+                entry.typeValidators.put(key.validationType(), validator.getValue());
+        }
+    }
+
+    public ValidationFunction<?> lookup(
+            ValidationType validationType,
+            Descriptors.Descriptor messageType,
+            Descriptors.MethodDescriptor method) {
+
+        var entry = entries.get(messageType);
+
+        if (entry != null) {
+
+            var validator = method != null
+                    ? lookupMethod(entry, validationType, method)
+                    : entry.typeValidators.get(validationType);
+
+            if (validator != null)
+                return validator;
+        }
+
+        return validatorMap.get(new ValidationKey(validationType, messageType, method));
+    }
+
+    public int size() {
+        return validatorMap.size();
+    }
+
+    private static ValidationFunction<?> lookupMethod(
+            PlanEntry entry, ValidationType validationType,
+            Descriptors.MethodDescriptor method) {
+
+        var methodValidators = entry.methodValidators.get(validationType);
+
+        return methodValidators != null ? methodValidators.get(method) : null;
+    }
+
+    private static class PlanEntry {
+
+        private final Map<ValidationType, ValidationFunction<?>> typeValidators = new EnumMap<>(ValidationType.class);
+        private final Map<ValidationType, Map<Descriptors.MethodDescriptor, ValidationFunction<?>>> methodValidators = new EnumMap<>(ValidationType.class);
+    }
+}
@@ -58,6 +58,11 @@ public class ValidatorBuilder {
                 consistencyValidatorPackage);
     }
 
+    public static ValidationPlan buildValidationPlan() {
+
+        return new ValidationPlan(buildValidatorMap());
+    }
+
     public static Map<ValidationKey, ValidationFunction<?>> scanPackages(Package... packages) {
 
         var validatorMap = new HashMap<ValidationKey, ValidationFunction<?>>();
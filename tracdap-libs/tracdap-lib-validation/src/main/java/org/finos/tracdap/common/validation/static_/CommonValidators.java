@@ -350,6 +350,22 @@ public class CommonValidators {
 
     public static ValidationContext dataFormat(String value, ValidationContext ctx) {
 
+        // Codec options can follow the format as parameters, they must all be simple key=value pairs
+
+        if (value.contains(ValidationConstants.FORMAT_OPTION_SEPARATOR)) {
+
+            var parts = value.split(ValidationConstants.FORMAT_OPTION_SEPARATOR, -1);
+
+            for (var i = 1; i < parts.length; i++) {
+                if (!ValidationConstants.FORMAT_OPTION.matcher(parts[i]).matches()) {
+                    var err = String.format("Invalid data format [%s]: Format option [%s] is not valid", value, parts[i].trim());
+                    return ctx.error(err);
+                }
+            }
+
+            value = parts[0].trim();
+        }
+
         var formatCodeMatch = MetadataConstants.VALID_IDENTIFIER.matcher(value);
 
         if (formatCodeMatch.matches()) {
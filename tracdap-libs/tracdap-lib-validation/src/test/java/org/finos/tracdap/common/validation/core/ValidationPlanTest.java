@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.common.validation.core;
+
+import org.finos.tracdap.api.MetadataReadRequest;
+import org.finos.tracdap.api.MetadataServiceProto;
+import org.finos.tracdap.common.validation.core.impl.ValidationKey;
+import org.finos.tracdap.common.validation.core.impl.ValidationPlan;
+import org.finos.tracdap.common.validation.core.impl.ValidatorBuilder;
+import org.finos.tracdap.metadata.*;
+
+import com.google.protobuf.DescriptorProtos;
+import com.google.protobuf.Descriptors;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+
+public class ValidationPlanTest {
+
+    private static ValidationPlan plan;
+
+    @BeforeAll
+    static void buildPlan() {
+
+        plan = ValidatorBuilder.buildValidationPlan();
+    }
+
+    @Test
+    void planMatchesRegistry() {
+
+        var validatorMap = ValidatorBuilder.buildValidatorMap();
+
+        Assertions.assertEquals(validatorMap.size(), plan.size());
+
+        // Every registered validator is found by the plan, using the descriptor and method in its key
+
+        for (var entry : validatorMap.entrySet()) {
+
+            var key = entry.getKey();
+            var validator = plan.lookup(key.validationType(), key.messageType(), key.method());
+
+            Assertions.assertNotNull(validator, key.displayName());
+            Assertions.assertEquals(entry.getValue().targetClass(), validator.targetClass(), key.displayName());
+        }
+    }
+
+    @Test
+    void lookupByType() {
+
+        var staticValidator = plan.lookup(ValidationType.STATIC, SchemaDefinition.getDescriptor(), null);
+        var versionValidator = plan.lookup(ValidationType.VERSION, SchemaDefinition.getDescriptor(), null);
+
+        Assertions.assertNotNull(staticValidator);
+        Assertions.assertNotNull(versionValidator);
+        Assertions.assertNotSame(staticValidator, versionValidator);
+        Assertions.assertTrue(staticValidator.isTyped());
+        Assertions.assertTrue(versionValidator.isVersion());
+    }
+
+    @Test
+    void lookupByMethod() {
+
+        var method = MetadataServiceProto.getDescriptor()
+                .findServiceByName("TracMetadataApi")
+                .findMethodByName("readObject");
+
+        var methodValidator = plan.lookup(ValidationType.STATIC, MetadataReadRequest.getDescriptor(), method);
+
+        Assertions.assertNotNull(methodValidator);
+    }
+
+    @Test
+    void lookupByMethod_typeMismatch() {
+
+        // Method validators are registered for static validation only, other validation types must not match
+
+        var method = MetadataServiceProto.getDescriptor()
+                .findServiceByName("TracMetadataApi")
+                .findMethodByName("readObject");
+
+        var versionValidator = plan.lookup(ValidationType.VERSION, MetadataReadRequest.getDescriptor(), method);
+        var consistencyValidator = plan.lookup(ValidationType.CONSISTENCY, MetadataReadRequest.getDescriptor(), method);
+
+        Assertions.assertNull(versionValidator);
+        Assertions.assertNull(consistencyValidator);
+    }
+
+    @Test
+    void lookupMissing() {
+
+        // No consistency validators are registered for tag headers
+
+        var validator = plan.lookup(ValidationType.CONSISTENCY, TagHeader.getDescriptor(), null);
+
+        Assertions.assertNull(validator);
+    }
+
+    @Test
+    void lookupByName() throws Exception {
+
+        // A descriptor that is not the generated instance is still matched, using the full type name
+
+        var fileProto = SchemaDefinition.getDescriptor().getFile().toProto();
+        var deps = SchemaDefinition.getDescriptor().getFile().getDependencies().toArray(Descriptors.FileDescriptor[]::new);
+        var copyFile = Descriptors.FileDescriptor.buildFrom(DescriptorProtos.FileDescriptorProto.newBuilder(fileProto).build(), deps);
+        var copyDescriptor = copyFile.findMessageTypeByName(SchemaDefinition.getDescriptor().getName());
+
+        Assertions.assertNotSame(SchemaDefinition.getDescriptor(), copyDescriptor);
+
+        var validator = plan.lookup(ValidationType.STATIC, copyDescriptor, null);
+        var expected = plan.lookup(ValidationType.STATIC, SchemaDefinition.getDescriptor(), null);
+
+        Assertions.assertSame(expected, validator);
+
+        // Keys for the copy and the original are equal
+        Assertions.assertEquals(
+                new ValidationKey(ValidationType.STATIC, SchemaDefinition.getDescriptor()),
+                new ValidationKey(ValidationType.STATIC, copyDescriptor));
+    }
+}
@@ -18,6 +18,7 @@
 package org.finos.tracdap.plugins.aws.storage;
 
 import org.finos.tracdap.common.async.Flows;
+import org.finos.tracdap.common.config.ConfigHelpers;
 import org.finos.tracdap.common.data.IExecutionContext;
 import org.finos.tracdap.common.data.IDataContext;
 import org.finos.tracdap.common.exception.EStartup;
@@ -65,6 +66,16 @@ public class S3ObjectStorage extends CommonFileStorage {
     public static final String ACCESS_KEY_ID_PROPERTY = "accessKeyId";
     public static final String SECRET_ACCESS_KEY_PROPERTY = "secretAccessKey";
 
+    // Objects are written with multipart upload, part size and concurrency can be set per bucket
+    // S3 requires every part except the last to be at least 5 MiB
+
+    public static final String MULTIPART_PART_SIZE_PROPERTY = "multipartPartSize";
+    public static final int MULTIPART_PART_SIZE_DEFAULT = 8 * 1024 * 1024;
+    public static final String MULTIPART_CONCURRENCY_PROPERTY = "multipartConcurrency";
+    public static final int MULTIPART_CONCURRENCY_DEFAULT = 4;
+
+    private static final int MULTIPART_PART_SIZE_MIN = 5 * 1024 * 1024;
+
     private final Properties properties;
 
     private final String bucket;
@@ -72,6 +83,9 @@ public class S3ObjectStorage extends CommonFileStorage {
     private final Region region;
     private final URI endpoint;
 
+    private final int multipartPartSize;
+    private final int multipartConcurrency;
+
     // private final AwsCredentialsProvider credentials;
     private S3AsyncClient client;
 
@@ -91,6 +105,28 @@ public class S3ObjectStorage extends CommonFileStorage {
         this.prefix = normalizePrefix(prefix);
         this.region = region != null && !region.isBlank() ? Region.of(region) : null;
         this.endpoint = endpoint != null && !endpoint.isBlank() ? URI.create(endpoint) : null;
+
+        this.multipartPartSize = ConfigHelpers.readInt(
+                storageKey, properties,
+                MULTIPART_PART_SIZE_PROPERTY,
+                MULTIPART_PART_SIZE_DEFAULT);
+
+        this.multipartConcurrency = ConfigHelpers.readInt(
+                storageKey, properties,
+                MULTIPART_CONCURRENCY_PROPERTY,
+                MULTIPART_CONCURRENCY_DEFAULT);
+
+        if (multipartPartSize < MULTIPART_PART_SIZE_MIN) {
+            var message = String.format("Invalid property [%s] for [%s]: Minimum part size is %d bytes",
+                    MULTIPART_PART_SIZE_PROPERTY, storageKey, MULTIPART_PART_SIZE_MIN);
+            throw new EStartup(message);
+        }
+
+        if (multipartConcurrency < 1) {
+            var message = String.format("Invalid property [%s] for [%s]: Must be at least 1",
+                    MULTIPART_CONCURRENCY_PROPERTY, storageKey);
+            throw new EStartup(message);
+        }
     }
 
     private String normalizePrefix(String prefix) {
@@ -510,7 +546,8 @@ public class S3ObjectStorage extends CommonFileStorage {
 
         return new S3ObjectWriter(
                 storageKey, storagePath, bucket, objectKey,
-                client, signal, dataContext, errors);
+                client, signal, dataContext, errors,
+                multipartPartSize, multipartConcurrency);
     }
 
     private FileStat
@@ -18,13 +18,11 @@
 package org.finos.tracdap.plugins.aws.storage;
 
 import org.finos.tracdap.common.data.IDataContext;
-import org.finos.tracdap.common.data.util.Bytes;
 import org.finos.tracdap.common.storage.StorageErrors;
 
 import software.amazon.awssdk.core.async.AsyncRequestBody;
 import software.amazon.awssdk.services.s3.S3AsyncClient;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
-import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.*;
 
 import io.netty.util.concurrent.OrderedEventExecutor;
 import org.apache.arrow.memory.ArrowBuf;
@@ -32,19 +30,31 @@ import org.apache.arrow.memory.ArrowBuf;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Flow;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 import static org.finos.tracdap.common.storage.CommonFileStorage.WRITE_OPERATION;
 import static org.finos.tracdap.common.storage.StorageErrors.ExplicitError.DUPLICATE_SUBSCRIPTION;
+import static org.finos.tracdap.common.storage.StorageErrors.ExplicitError.IO_ERROR;
 
 
 public class S3ObjectWriter implements Flow.Subscriber<ArrowBuf> {
 
+    // Objects are written using a multipart upload, so the whole object is never held in memory
+    // Each part is sent as soon as enough data is buffered, up to a limit on the number of parts in flight
+    // Demand is only signalled upstream while there is room for more parts, which provides back-pressure
+    // Objects that fit inside a single part are written with one put request
+
+    // S3 allows at most 10000 parts in one upload
+    private static final int MAX_PART_COUNT = 10000;
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     private final String storageKey;
@@ -58,19 +68,32 @@ public class S3ObjectWriter implements Flow.Subscriber<ArrowBuf> {
     private final OrderedEventExecutor executor;
     private final StorageErrors errors;
 
+    private final long partSize;
+    private final int maxPartsInFlight;
+
     private final AtomicBoolean subscriptionSet;
     private Flow.Subscription subscription;
+    private boolean requestPending;
 
     private final List<ArrowBuf> buffer = new ArrayList<>();
+    private long bufferedBytes;
     private long bytesWritten;
 
+    private CompletableFuture<String> upload;
+    private final List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+    private int partsInFlight;
+
+    private boolean completeReceived;
+    private Throwable failure;
+
     public S3ObjectWriter(
             String storageKey, String storagePath,
             String bucket, String objectKey,
             S3AsyncClient client,
             CompletableFuture<Long> signal,
             IDataContext dataContext,
-            StorageErrors errors) {
+            StorageErrors errors,
+            long partSize, int maxPartsInFlight) {
 
         this.storageKey = storageKey;
         this.storagePath = storagePath;
@@ -83,6 +106,9 @@ public class S3ObjectWriter implements Flow.Subscriber<ArrowBuf> {
         this.executor = dataContext.eventLoopExecutor();
         this.errors = errors;
 
+        this.partSize = partSize;
+        this.maxPartsInFlight = maxPartsInFlight;
+
         this.subscriptionSet = new AtomicBoolean();
         this.subscription = null;
     }
@@ -100,70 +126,304 @@ public class S3ObjectWriter implements Flow.Subscriber<ArrowBuf> {
 
         this.subscription = subscription;
 
-        executor.submit(() -> this.subscription.request(128));
+        executor.submit(this::requestMore);
     }
 
     @Override
     public void onNext(ArrowBuf item) {
 
+        // All writer state is managed on the event loop for the data context
+
+        if (!executor.inEventLoop()) {
+            executor.execute(() -> onNext(item));
+            return;
+        }
+
+        requestPending = false;
+
+        // Data that arrives after a failure is discarded
+        if (failure != null || completeReceived) {
+            item.close();
+            return;
+        }
+
         buffer.add(item);
-        this.subscription.request(1);
+        bufferedBytes += item.readableBytes();
+        bytesWritten += item.readableBytes();
+
+        if (bufferedBytes >= partSize)
+            sendPart();
+
+        requestMore();
     }
 
     @Override
     public void onError(Throwable throwable) {
 
-        try {
-            var tracError = errors.handleException(WRITE_OPERATION, storagePath, throwable);
+        if (!executor.inEventLoop()) {
+            executor.execute(() -> onError(throwable));
+            return;
+        }
 
-            log.error("{} {} [{}]: {}", WRITE_OPERATION, storageKey, storagePath, tracError.getMessage(), tracError);
+        // An error from upstream in the data pipeline, not from the storage client
+        // There is no need to cancel the subscription, but any upload in progress must be aborted
 
-            signal.completeExceptionally(throwable);
-        }
-        finally {
-            buffer.forEach(ArrowBuf::close);
-            buffer.clear();
-        }
+        var tracError = errors.handleException(WRITE_OPERATION, storagePath, throwable);
+
+        log.error("{} {} [{}]: {}", WRITE_OPERATION, storageKey, storagePath, tracError.getMessage(), tracError);
+
+        failWrite(throwable, /* upstream = */ true);
     }
 
     @Override
     public void onComplete() {
 
-        var content = Bytes.readFromBuffer(buffer);
-        var contentLength = (long) content.remaining();
-        var body = AsyncRequestBody.fromByteBuffer(content);
+        if (!executor.inEventLoop()) {
+            executor.execute(this::onComplete);
+            return;
+        }
+
+        if (failure != null)
+            return;
+
+        completeReceived = true;
+
+        // Small objects are sent in one request, without starting a multipart upload
+
+        if (upload == null) {
+            putObject();
+            return;
+        }
+
+        // The last part is allowed to be smaller than the minimum part size
+
+        if (bufferedBytes > 0)
+            sendPart();
+
+        if (failure != null)
+            return;
+
+        var allParts = CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new));
+
+        allParts
+                .thenCompose(x -> upload)
+                .thenCompose(this::completeUpload)
+                .handle(this::onCompleteHandler);
+    }
+
+    private void requestMore() {
+
+        // Only ask for more data when there is room for another part
+        // The data for the current part is held in memory until the part is sent
+
+        if (requestPending || failure != null || completeReceived || subscription == null)
+            return;
+
+        if (partsInFlight >= maxPartsInFlight)
+            return;
+
+        requestPending = true;
+        subscription.request(1);
+    }
+
+    private void sendPart() {
+
+        var partNumber = parts.size() + 1;
+
+        if (partNumber > MAX_PART_COUNT) {
+            var error = errors.explicitError(WRITE_OPERATION, storagePath, IO_ERROR, "Object is too large for the configured part size");
+            failWrite(error, /* upstream = */ false);
+            return;
+        }
+
+        var partBuffers = List.copyOf(buffer);
+        var partLength = bufferedBytes;
+
+        buffer.clear();
+        bufferedBytes = 0;
+
+        if (upload == null)
+            upload = createUpload();
+
+        partsInFlight += 1;
+
+        // Part buffers are only released when the part request is finished, successfully or not
+
+        var part = upload
+                .thenCompose(uploadId -> uploadPart(uploadId, partNumber, partBuffers, partLength))
+                .whenComplete((result, error) -> {
+
+                    partBuffers.forEach(ArrowBuf::close);
+                    partsInFlight -= 1;
+
+                    if (error != null)
+                        failWrite(error, /* upstream = */ false);
+                    else
+                        requestMore();
+                });
+
+        parts.add(part);
+    }
+
+    private CompletableFuture<String> createUpload() {
 
-        // Store bytes written to use in completion handler
-        bytesWritten = contentLength;
+        log.info("{} {} [{}]: Starting multipart upload", WRITE_OPERATION, storageKey, storagePath);
+
+        var request = CreateMultipartUploadRequest.builder()
+                .bucket(bucket)
+                .key(objectKey)
+                .build();
+
+        var response = dataContext.toContext(client.createMultipartUpload(request));
+
+        return response.thenApply(CreateMultipartUploadResponse::uploadId);
+    }
+
+    private CompletionStage<CompletedPart> uploadPart(String uploadId, int partNumber, List<ArrowBuf> partBuffers, long partLength) {
+
+        var request = UploadPartRequest.builder()
+                .bucket(bucket)
+                .key(objectKey)
+                .uploadId(uploadId)
+                .partNumber(partNumber)
+                .contentLength(partLength)
+                .build();
+
+        var body = requestBody(partBuffers);
+        var response = dataContext.toContext(client.uploadPart(request, body));
+
+        return response.thenApply(result -> CompletedPart.builder()
+                .partNumber(partNumber)
+                .eTag(result.eTag())
+                .build());
+    }
+
+    private CompletionStage<Void> completeUpload(String uploadId) {
+
+        var completedParts = parts.stream()
+                .map(CompletableFuture::join)
+                .sorted(Comparator.comparing(CompletedPart::partNumber))
+                .collect(Collectors.toList());
+
+        var request = CompleteMultipartUploadRequest.builder()
+                .bucket(bucket)
+                .key(objectKey)
+                .uploadId(uploadId)
+                .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                .build();
+
+        var response = dataContext.toContext(client.completeMultipartUpload(request));
+
+        return response.thenAccept(result -> {});
+    }
+
+    private CompletionStage<Void> abortUpload() {
+
+        // Wait for any parts still in flight, parts that finish after an abort are kept by S3
+
+        var allParts = CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new));
+
+        return allParts
+                .handle((x, error) -> null)
+                .thenCompose(x -> upload)
+                .thenCompose(uploadId -> {
+
+                    var request = AbortMultipartUploadRequest.builder()
+                            .bucket(bucket)
+                            .key(objectKey)
+                            .uploadId(uploadId)
+                            .build();
+
+                    return dataContext.toContext(client.abortMultipartUpload(request));
+                })
+                .handle((result, error) -> {
+
+                    if (error != null)
+                        log.warn("{} {} [{}]: Failed to abort multipart upload: {}",
+                                WRITE_OPERATION, storageKey, storagePath, error.getMessage(), error);
+
+                    return null;
+                });
+    }
+
+    private void putObject() {
 
         var request = PutObjectRequest.builder()
                 .bucket(this.bucket)
                 .key(objectKey)
-                .contentLength(contentLength)
+                .contentLength(bufferedBytes)
                 .build();
 
+        var body = requestBody(buffer);
         var response = dataContext.toContext(client.putObject(request, body));
 
-        response.handle(this::onCompleteHandler);
+        response.thenAccept(result -> {}).handle(this::onCompleteHandler);
     }
 
-    private CompletionStage<Void> onCompleteHandler(PutObjectResponse result, Throwable error) {
+    private AsyncRequestBody requestBody(List<ArrowBuf> buffers) {
+
+        if (buffers.isEmpty())
+            return AsyncRequestBody.empty();
 
-        try {
+        // Send the Arrow buffers without copying, they are not released until the request is finished
 
-            if (error != null) {
-                var mappedError = errors.handleException(WRITE_OPERATION, storagePath, error);
-                signal.completeExceptionally(mappedError);
-            }
-            else {
-                signal.complete(bytesWritten);
-            }
+        var nioBuffers = buffers.stream()
+                .map(buf -> buf.nioBuffer(buf.readerIndex(), (int) buf.readableBytes()))
+                .toArray(ByteBuffer[]::new);
 
-            return CompletableFuture.completedFuture(null);
+        return AsyncRequestBody.fromByteBuffersUnsafe(nioBuffers);
+    }
+
+    private Void onCompleteHandler(Void result, Throwable error) {
+
+        if (error != null) {
+            failWrite(error, /* upstream = */ false);
+            return null;
         }
-        finally {
-            buffer.forEach(ArrowBuf::close);
-            buffer.clear();
+
+        releaseBuffer();
+
+        log.info("{} {} [{}]: Write complete, [{}] bytes in [{}] part(s)",
+                WRITE_OPERATION, storageKey, storagePath, bytesWritten, Math.max(parts.size(), 1));
+
+        signal.complete(bytesWritten);
+
+        return null;
+    }
+
+    private void failWrite(Throwable error, boolean upstream) {
+
+        // Only one error is reported, there can be several if multiple parts fail
+
+        if (failure != null) {
+            log.warn("Another error was reported after the write operation already failed");
+            log.warn(error.getMessage(), error);
+            return;
         }
+
+        failure = error;
+        releaseBuffer();
+
+        // Errors in the storage client stop the upstream data flow
+
+        if (!upstream && subscription != null && !completeReceived)
+            subscription.cancel();
+
+        var signalError = upstream
+                ? error
+                : errors.handleException(WRITE_OPERATION, storagePath, error);
+
+        var abort = upload != null
+                ? abortUpload()
+                : CompletableFuture.<Void>completedFuture(null);
+
+        abort.whenComplete((x, e) -> signal.completeExceptionally(signalError));
+    }
+
+    private void releaseBuffer() {
+
+        buffer.forEach(ArrowBuf::close);
+        buffer.clear();
+        bufferedBytes = 0;
     }
 }
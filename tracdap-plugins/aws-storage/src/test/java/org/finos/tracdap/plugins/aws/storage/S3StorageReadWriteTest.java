@@ -17,11 +17,14 @@
 
 package org.finos.tracdap.plugins.aws.storage;
 
+import org.finos.tracdap.common.async.Flows;
 import org.finos.tracdap.common.data.DataContext;
+import org.finos.tracdap.common.data.util.Bytes;
 import org.finos.tracdap.common.storage.StorageReadWriteTestSuite;
 
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
+import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.RootAllocator;
 
@@ -31,9 +34,16 @@ import java.time.Duration;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Properties;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
 
+import static org.finos.tracdap.test.concurrent.ConcurrentTestHelpers.getResultOf;
 import static org.finos.tracdap.test.concurrent.ConcurrentTestHelpers.resultOf;
 import static org.finos.tracdap.test.concurrent.ConcurrentTestHelpers.waitFor;
 
@@ -45,6 +55,10 @@ public class S3StorageReadWriteTest extends StorageReadWriteTestSuite {
 
     static Duration SETUP_TIMEOUT = Duration.of(10, ChronoUnit.SECONDS);
 
+    // Use the smallest allowed part size, so tests exercise multipart uploads without needing huge objects
+    static int TEST_PART_SIZE = 5 * 1024 * 1024;
+    static int TEST_CHUNK_SIZE = 1024 * 1024;
+
     static Properties storageProps;
     static String testSuiteDir;
 
@@ -80,6 +94,8 @@ public class S3StorageReadWriteTest extends StorageReadWriteTestSuite {
         resultOf(mkdir);
 
         storageProps.put(S3ObjectStorage.PREFIX_PROPERTY, testSuiteDir);
+        storageProps.put(S3ObjectStorage.MULTIPART_PART_SIZE_PROPERTY, String.valueOf(TEST_PART_SIZE));
+        storageProps.put(S3ObjectStorage.MULTIPART_CONCURRENCY_PROPERTY, "2");
         testStorage = new S3ObjectStorage("TEST_" + testNumber, storageProps);
         testStorage.start(elg);
 
@@ -93,6 +109,109 @@ public class S3StorageReadWriteTest extends StorageReadWriteTestSuite {
         dataContext = testCtx;
     }
 
+    @Test
+    void multipart_roundTrip() throws Exception {
+
+        // 12 chunks of 1 MiB = three parts, the last one smaller than the minimum part size
+
+        var storagePath = "multipart_roundTrip.dat";
+        var original = new byte[12 * TEST_CHUNK_SIZE];
+        new Random().nextBytes(original);
+
+        var chunks = new ArrayList<ArrowBuf>();
+
+        for (var offset = 0; offset < original.length; offset += TEST_CHUNK_SIZE) {
+            var chunk = Arrays.copyOfRange(original, offset, offset + TEST_CHUNK_SIZE);
+            chunks.add(Bytes.copyToBuffer(chunk, allocator));
+        }
+
+        var writeSignal = new CompletableFuture<Long>();
+        var writer = storage.writer(storagePath, writeSignal, dataContext);
+        Flows.publish(chunks).subscribe(writer);
+
+        waitFor(Duration.ofMinutes(1), writeSignal);
+        Assertions.assertEquals(original.length, getResultOf(writeSignal));
+
+        var reader = storage.reader(storagePath, dataContext);
+        var readResult = Flows.fold(reader, (list, buf) -> { list.add(buf); return list; }, new ArrayList<ArrowBuf>());
+
+        waitFor(Duration.ofMinutes(1), readResult);
+        var roundTrip = getResultOf(readResult);
+
+        try {
+            Assertions.assertArrayEquals(original, Bytes.copyFromBuffer(roundTrip));
+        }
+        finally {
+            roundTrip.forEach(ArrowBuf::close);
+        }
+    }
+
+    @Test
+    void multipart_backPressure() throws Exception {
+
+        // The writer should not ask for more data than it can hold in flight
+
+        var storagePath = "multipart_backPressure.dat";
+        var requested = new AtomicLong();
+
+        var writeSignal = new CompletableFuture<Long>();
+        var writer = storage.writer(storagePath, writeSignal, dataContext);
+
+        writer.onSubscribe(new Flow.Subscription() {
+            @Override public void request(long n) { requested.addAndGet(n); }
+            @Override public void cancel() { }
+        });
+
+        Thread.sleep(ASYNC_DELAY.toMillis());
+
+        // Demand is signalled one chunk at a time
+        Assertions.assertEquals(1, requested.get());
+
+        var chunk = new byte[TEST_CHUNK_SIZE];
+        new Random().nextBytes(chunk);
+
+        for (var i = 0; i < 15; i++)
+            writer.onNext(Bytes.copyToBuffer(chunk, allocator));
+
+        writer.onComplete();
+
+        waitFor(Duration.ofMinutes(1), writeSignal);
+        Assertions.assertEquals(15L * TEST_CHUNK_SIZE, getResultOf(writeSignal));
+    }
+
+    @Test
+    void multipart_abortOnError() throws Exception {
+
+        // Enough data to start a multipart upload, then fail from upstream
+
+        var storagePath = "multipart_abortOnError.dat";
+
+        var writeSignal = new CompletableFuture<Long>();
+        var writer = storage.writer(storagePath, writeSignal, dataContext);
+
+        writer.onSubscribe(new Flow.Subscription() {
+            @Override public void request(long n) { }
+            @Override public void cancel() { }
+        });
+
+        var chunk = new byte[TEST_CHUNK_SIZE];
+        new Random().nextBytes(chunk);
+
+        for (var i = 0; i < 6; i++)
+            writer.onNext(Bytes.copyToBuffer(chunk, allocator));
+
+        writer.onError(new RuntimeException("Upstream failure"));
+
+        waitFor(Duration.ofMinutes(1), writeSignal);
+        Assertions.assertThrows(CompletionException.class, () -> getResultOf(writeSignal, false));
+
+        // No object is created for an aborted upload
+
+        var exists = storage.exists(storagePath, dataContext);
+        waitFor(TEST_TIMEOUT, exists);
+        Assertions.assertFalse(getResultOf(exists));
+    }
+
     @AfterAll
     static void tearDownStorage() throws Exception {
 
@@ -573,7 +573,7 @@ public class AzureBlobStorage extends CommonFileStorage {
         var blobName = usePrefix(storagePath);
         var blobClient = containerClient.getBlobAsyncClient(blobName);
 
-        return new AzureBlobWriter(blobClient, signal, ctx);
+        return new AzureBlobWriter(blobClient, errors, storagePath, signal, ctx);
     }
 
     private String normalizePrefix(String prefix) {
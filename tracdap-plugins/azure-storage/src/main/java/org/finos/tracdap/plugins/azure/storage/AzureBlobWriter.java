@@ -18,152 +18,235 @@
 package org.finos.tracdap.plugins.azure.storage;
 
 import org.finos.tracdap.common.data.IDataContext;
+import org.finos.tracdap.common.storage.StorageErrors;
 
 import com.azure.storage.blob.BlobAsyncClient;
-import com.azure.storage.blob.models.BlockBlobItem;
-import com.azure.storage.blob.models.ParallelTransferOptions;
-import org.reactivestreams.Processor;
-import org.reactivestreams.Subscriber;
-import org.reactivestreams.Subscription;
+import com.azure.storage.blob.specialized.BlockBlobAsyncClient;
 import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
 
+import io.netty.util.concurrent.OrderedEventExecutor;
 import org.apache.arrow.memory.ArrowBuf;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Flow;
+import java.util.stream.Collectors;
+
+import static org.finos.tracdap.common.storage.CommonFileStorage.WRITE_OPERATION;
 
 
 public class AzureBlobWriter implements Flow.Subscriber<ArrowBuf> {
 
+    // Blobs are written by staging blocks, then committing the block list once all the data is sent
+    // Block content is sent straight from the Arrow buffers as read-only views, without copying
+    // Buffers for each block are released when the SDK completes the stage block call for that block
+    // The number of blocks in flight is limited, demand is only signalled upstream while there is room for more
+
     private static final boolean ALWAYS_OVERWRITE = true;
+    private static final long BLOCK_SIZE = 4194304;  // 4 MB
+    private static final int MAX_BLOCKS_IN_FLIGHT = 4;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
 
-    private final BlobAsyncClient blobClient;
+    private final BlockBlobAsyncClient blockClient;
+    private final StorageErrors errors;
+    private final String storagePath;
     private final CompletableFuture<Long> signal;
-    private final IDataContext dataContext;
+    private final OrderedEventExecutor executor;
+    private final Scheduler scheduler;
 
-    private FluxTransformer fluxTransformer;
+    private Flow.Subscription subscription;
+    private boolean requestPending;
+
+    private final List<ArrowBuf> buffer = new ArrayList<>();
+    private long bufferedBytes;
     private long nBytes;
 
-    AzureBlobWriter(BlobAsyncClient blobClient, CompletableFuture<Long> signal, IDataContext dataContext) {
+    private final List<String> blockIds = new ArrayList<>();
+    private final List<CompletableFuture<Void>> blocks = new ArrayList<>();
+    private int blocksInFlight;
+
+    private boolean completeReceived;
+    private Throwable failure;
+
+    AzureBlobWriter(
+            BlobAsyncClient blobClient, StorageErrors errors, String storagePath,
+            CompletableFuture<Long> signal, IDataContext dataContext) {
 
-        this.blobClient = blobClient;
+        this.blockClient = blobClient.getBlockBlobAsyncClient();
+        this.errors = errors;
+        this.storagePath = storagePath;
         this.signal = signal;
-        this.dataContext = dataContext;
+        this.executor = dataContext.eventLoopExecutor();
+        this.scheduler = AzureScheduling.schedulerFor(executor);
     }
 
     @Override
     public void onSubscribe(Flow.Subscription subscription) {
 
-        fluxTransformer = new FluxTransformer();
+        this.subscription = subscription;
 
-        var fluxSubscription = new FluxSubscription(subscription);
-        fluxTransformer.onSubscribe(fluxSubscription);
-
-        // Using default transfer options
-        var options = new ParallelTransferOptions();
-
-        var scheduler = AzureScheduling.schedulerFor(dataContext.eventLoopExecutor());
-
-        blobClient.upload(Flux.from(fluxTransformer), options, ALWAYS_OVERWRITE)
-                .publishOn(scheduler)
-                .subscribe(this::onSuccess, this::onFailure);
+        executor.submit(this::requestMore);
     }
 
     @Override
     public void onNext(ArrowBuf item) {
+
+        if (!executor.inEventLoop()) {
+            executor.execute(() -> onNext(item));
+            return;
+        }
+
+        requestPending = false;
+
+        // Data that arrives after a failure is discarded
+        if (failure != null || completeReceived) {
+            item.close();
+            return;
+        }
+
+        buffer.add(item);
+        bufferedBytes += item.readableBytes();
         nBytes += item.readableBytes();
-        fluxTransformer.onNext(item);
+
+        if (bufferedBytes >= BLOCK_SIZE)
+            stageBlock();
+
+        requestMore();
     }
 
     @Override
     public void onError(Throwable error) {
 
+        if (!executor.inEventLoop()) {
+            executor.execute(() -> onError(error));
+            return;
+        }
+
         // onError() can be called before onSubscribe() in some cases
-        // In this case, pass the error straight to the callback signal
+        // Staged blocks that are never committed are discarded by the storage service
 
-        if (fluxTransformer != null)
-            fluxTransformer.onError(error);
-        else
-            signal.completeExceptionally(error);
+        failWrite(error, /* upstream = */ true);
     }
 
     @Override
     public void onComplete() {
-        fluxTransformer.onComplete();
-    }
 
-    private void onSuccess(BlockBlobItem blob) {
-        signal.complete(nBytes);
-    }
+        if (!executor.inEventLoop()) {
+            executor.execute(this::onComplete);
+            return;
+        }
+
+        if (failure != null)
+            return;
+
+        completeReceived = true;
+
+        if (bufferedBytes > 0)
+            stageBlock();
+
+        var allBlocks = CompletableFuture.allOf(blocks.toArray(CompletableFuture[]::new));
+
+        allBlocks
+                .thenCompose(x -> blockClient
+                        .commitBlockList(blockIds, ALWAYS_OVERWRITE)
+                        .publishOn(scheduler)
+                        .toFuture())
+                .whenComplete((blob, error) -> {
 
-    private void onFailure(Throwable error) {
-        signal.completeExceptionally(error);
+                    if (error != null)
+                        failWrite(error, /* upstream = */ false);
+                    else
+                        signal.complete(nBytes);
+                });
     }
 
-    private static class FluxTransformer implements Processor<ArrowBuf, ByteBuffer> {
+    private void requestMore() {
 
-        private Subscriber<? super ByteBuffer> subscriber;
-        private Subscription subscription;
+        if (requestPending || failure != null || completeReceived || subscription == null)
+            return;
 
-        @Override
-        public void subscribe(Subscriber<? super ByteBuffer> subscriber) {
+        if (blocksInFlight >= MAX_BLOCKS_IN_FLIGHT)
+            return;
 
-            this.subscriber = subscriber;
+        requestPending = true;
+        subscription.request(1);
+    }
 
-            if (subscription != null)
-                subscriber.onSubscribe(subscription);
-        }
+    private void stageBlock() {
 
-        @Override
-        public void onSubscribe(Subscription subscription) {
+        // Block IDs must all be the same length within a blob
 
-            this.subscription = subscription;
+        var blockNumber = String.format("%08d", blockIds.size());
+        var blockId = Base64.getEncoder().encodeToString(blockNumber.getBytes(StandardCharsets.US_ASCII));
 
-            if (subscriber != null)
-                subscriber.onSubscribe(subscription);
-        }
+        var blockBuffers = List.copyOf(buffer);
+        var blockLength = bufferedBytes;
 
-        @Override
-        public void onNext(ArrowBuf arrowBuf) {
+        buffer.clear();
+        bufferedBytes = 0;
 
-            try (arrowBuf) {  // always release arrow buf
+        var views = blockBuffers.stream()
+                .map(buf -> buf.nioBuffer(buf.readerIndex(), (int) buf.readableBytes()).asReadOnlyBuffer())
+                .collect(Collectors.toList());
 
-                var copyBuf = ByteBuffer.allocateDirect((int) arrowBuf.readableBytes());
-                copyBuf.put(arrowBuf.nioBuffer());
-                copyBuf.flip();
+        // The SDK can subscribe to the content again if the request is retried, each subscription gets new views
+        var content = Flux.defer(() -> Flux.fromIterable(views).map(ByteBuffer::duplicate));
 
-                subscriber.onNext(copyBuf);
-            }
-        }
+        blocksInFlight += 1;
 
-        @Override
-        public void onError(Throwable error) {
-            subscriber.onError(error);
-        }
+        var block = blockClient
+                .stageBlock(blockId, content, blockLength)
+                .publishOn(scheduler)
+                .toFuture()
+                .whenComplete((result, error) -> {
 
-        @Override
-        public void onComplete() {
-            subscriber.onComplete();
-        }
+                    blockBuffers.forEach(ArrowBuf::close);
+                    blocksInFlight -= 1;
+
+                    if (error != null)
+                        failWrite(error, /* upstream = */ false);
+                    else
+                        requestMore();
+                });
+
+        blockIds.add(blockId);
+        blocks.add(block);
     }
 
-    private static class FluxSubscription implements Subscription {
+    private void failWrite(Throwable error, boolean upstream) {
 
-        private final Flow.Subscription innerSubscription;
+        // Only one error is reported, there can be several if multiple blocks fail
 
-        FluxSubscription(Flow.Subscription innerSubscription) {
-            this.innerSubscription = innerSubscription;
+        if (failure != null) {
+            log.warn("Another error was reported after the write operation already failed");
+            log.warn(error.getMessage(), error);
+            return;
         }
 
-        @Override
-        public void request(long n) {
-            innerSubscription.request(n);
-        }
+        failure = error;
 
-        @Override
-        public void cancel() {
-            innerSubscription.cancel();
-        }
+        buffer.forEach(ArrowBuf::close);
+        buffer.clear();
+        bufferedBytes = 0;
+
+        // Errors in the storage client stop the upstream data flow
+        if (!upstream && subscription != null && !completeReceived)
+            subscription.cancel();
+
+        // Errors from stage block and commit are mapped the same way as other storage errors
+
+        var signalError = upstream
+                ? error
+                : errors.handleException(WRITE_OPERATION, storagePath, error);
+
+        signal.completeExceptionally(signalError);
     }
 }
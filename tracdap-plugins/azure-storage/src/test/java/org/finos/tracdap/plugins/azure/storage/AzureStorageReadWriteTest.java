@@ -23,6 +23,7 @@ import io.netty.util.concurrent.DefaultThreadFactory;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.RootAllocator;
 import org.finos.tracdap.common.data.DataContext;
+import org.finos.tracdap.common.storage.IFileStorage;
 import org.finos.tracdap.common.storage.StorageReadWriteTestSuite;
 import org.junit.jupiter.api.*;
 
@@ -91,6 +92,19 @@ public class AzureStorageReadWriteTest extends StorageReadWriteTestSuite {
         dataContext = testCtx;
     }
 
+    @Override
+    protected IFileStorage missingBucketStorage() {
+
+        var missingProps = new Properties();
+        missingProps.putAll(storageProps);
+        missingProps.put(AzureBlobStorage.CONTAINER_PROPERTY, "tracdap-missing-" + Math.abs(new Random().nextInt()));
+
+        var missingStorage = new AzureBlobStorage("TEST_MISSING", missingProps);
+        missingStorage.start(elg);
+
+        return missingStorage;
+    }
+
     @AfterAll
     static void tearDownStorage() throws Exception {
 
@@ -603,7 +603,7 @@ public class GcsObjectStorage extends CommonFileStorage {
 
         var absoluteKey = usePrefix(objectKey);
 
-        return new GcsObjectWriter(storageClient, ctx, bucketName, absoluteKey, signal);
+        return new GcsObjectWriter(storageClient, ctx, errors, objectKey, bucketName, absoluteKey, signal);
     }
 
     private String normalizePrefix(String prefix) {
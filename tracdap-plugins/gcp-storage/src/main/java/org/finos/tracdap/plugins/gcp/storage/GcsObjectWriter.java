@@ -18,6 +18,7 @@
 package org.finos.tracdap.plugins.gcp.storage;
 
 import org.finos.tracdap.common.data.IDataContext;
+import org.finos.tracdap.common.storage.StorageErrors;
 
 import com.google.api.gax.grpc.GrpcCallContext;
 import com.google.api.gax.rpc.ApiStreamObserver;
@@ -37,6 +38,8 @@ import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Flow;
 
+import static org.finos.tracdap.common.storage.CommonFileStorage.WRITE_OPERATION;
+
 
 public class GcsObjectWriter implements Flow.Subscriber<ArrowBuf> {
 
@@ -51,6 +54,8 @@ public class GcsObjectWriter implements Flow.Subscriber<ArrowBuf> {
 
     private final StorageClient storageClient;
     private final IDataContext dataContext;
+    private final StorageErrors errors;
+    private final String storagePath;
     private final CompletableFuture<Long> signal;
 
     private final WriteObjectSpec gcsObjectSpec;
@@ -62,12 +67,14 @@ public class GcsObjectWriter implements Flow.Subscriber<ArrowBuf> {
     private Throwable upstreamError;
 
     GcsObjectWriter(
-            StorageClient storageClient, IDataContext dataContext,
-            BucketName bucketName, String objectKey,
+            StorageClient storageClient, IDataContext dataContext, StorageErrors errors,
+            String storagePath, BucketName bucketName, String objectKey,
             CompletableFuture<Long> signal) {
 
         this.storageClient = storageClient;
         this.dataContext = dataContext;
+        this.errors = errors;
+        this.storagePath = storagePath;
         this.signal = signal;
 
         this.gcsObjectSpec = WriteObjectSpec.newBuilder()
@@ -113,14 +120,14 @@ public class GcsObjectWriter implements Flow.Subscriber<ArrowBuf> {
 
         try (item) {  // auto-release buffer content
 
-            var buffer = item.nioBuffer();
+            var buffer = item.nioBuffer(item.readerIndex(), (int) item.readableBytes());
 
             while (buffer.remaining() > 0) {
 
                 var chunkRemaining = MAX_CHUNK_SIZE - pendingChunk.size();
                 var nBytes = (int) Math.min(buffer.remaining(), chunkRemaining);
 
-                // There is no easy way to release bytes once the chunk is written to the stream
+                // gRPC can queue messages and serialize them later, after onNext() has returned
                 // So we have to copy and let ByteString handle cleanup, which relies on the Java GC
 
                 var protoBytes = ByteString.copyFrom(buffer, nBytes);
@@ -129,7 +136,7 @@ public class GcsObjectWriter implements Flow.Subscriber<ArrowBuf> {
                 if (pendingChunk.size() >= MIN_CHUNK_SIZE) {
 
                     var data = ChecksummedData.newBuilder()
-                            .setContent(protoBytes);
+                            .setContent(pendingChunk);
 
                     var request = WriteObjectRequest.newBuilder()
                             .setChecksummedData(data)
@@ -207,7 +214,7 @@ public class GcsObjectWriter implements Flow.Subscriber<ArrowBuf> {
             if (error instanceof CancelledException && upstreamError != null)
                 signal.completeExceptionally(upstreamError);
             else
-                signal.completeExceptionally(error);
+                signal.completeExceptionally(errors.handleException(WRITE_OPERATION, storagePath, error));
 
             return;
         }
@@ -24,6 +24,7 @@ import io.netty.util.concurrent.DefaultThreadFactory;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.RootAllocator;
 import org.finos.tracdap.common.data.DataContext;
+import org.finos.tracdap.common.storage.IFileStorage;
 import org.finos.tracdap.common.storage.StorageReadWriteTestSuite;
 import org.junit.jupiter.api.*;
 
@@ -90,6 +91,19 @@ public class GcpStorageReadWriteTest extends StorageReadWriteTestSuite {
         storage = testStorage;
     }
 
+    @Override
+    protected IFileStorage missingBucketStorage() {
+
+        var missingProps = new Properties();
+        missingProps.putAll(storageProps);
+        missingProps.put(GcsObjectStorage.BUCKET_PROPERTY, "tracdap-missing-" + Math.abs(new Random().nextInt()));
+
+        var missingStorage = new GcsObjectStorage("TEST_MISSING", missingProps);
+        missingStorage.start(elg);
+
+        return missingStorage;
+    }
+
     @AfterAll
     static void tearDownStorage() throws Exception {
 
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.plugins.parquet;
+
+import org.finos.tracdap.common.codec.ICodec;
+import org.finos.tracdap.common.data.ArrowVsrSchema;
+import org.finos.tracdap.common.data.DataPipeline;
+import org.finos.tracdap.common.data.SchemaMapping;
+import org.finos.tracdap.common.exception.EConfigParse;
+import org.finos.tracdap.common.exception.EDataConstraint;
+import org.finos.tracdap.metadata.SchemaDefinition;
+import org.finos.tracdap.metadata.SchemaType;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+
+import java.util.List;
+import java.util.Map;
+
+
+public class ParquetCodec implements ICodec {
+
+    public static final String COMPRESSION_OPTION = "compression";
+    public static final String ROW_GROUP_SIZE_OPTION = "rowGroupSize";
+
+    private static final CompressionCodecName DEFAULT_COMPRESSION = CompressionCodecName.SNAPPY;
+    private static final long DEFAULT_ROW_GROUP_SIZE = ParquetWriter.DEFAULT_BLOCK_SIZE;
+    static final int BATCH_SIZE = 1024;
+
+    private static final String DEFAULT_FILE_EXTENSION = "parquet";
+    private static final String DEFAULT_MIME_TYPE = "application/vnd.apache.parquet";
+
+    @Override
+    public List<String> options() {
+        return List.of(COMPRESSION_OPTION, ROW_GROUP_SIZE_OPTION);
+    }
+
+    @Override
+    public String defaultFileExtension() {
+        return DEFAULT_FILE_EXTENSION;
+    }
+
+    @Override
+    public String defaultMimeType() {
+        return DEFAULT_MIME_TYPE;
+    }
+
+    @Override
+    public Encoder<DataPipeline.StreamApi>
+    getEncoder(BufferAllocator allocator, Map<String, String> options) {
+
+        var compression = compressionOption(options);
+        var rowGroupSize = rowGroupSizeOption(options);
+
+        return new ParquetEncoder(allocator, compression, rowGroupSize);
+    }
+
+    @Override
+    public Decoder<DataPipeline.BufferApi>
+    getDecoder(BufferAllocator allocator, Map<String, String> options) {
+
+        // Parquet files are self-describing, use the schema in the file footer
+        return new ParquetDecoder(null, allocator, BATCH_SIZE);
+    }
+
+    @Override
+    public Decoder<DataPipeline.BufferApi>
+    getDecoder(SchemaDefinition tracSchema, BufferAllocator allocator, Map<String, String> options) {
+
+        if (tracSchema.getSchemaType() != SchemaType.TABLE_SCHEMA) {
+            throw new EDataConstraint("Parquet decoder only support TABLE_SCHEMA");
+        }
+
+        var arrowSchema = SchemaMapping.tracToArrow(tracSchema, allocator);
+        return getDecoder(arrowSchema, allocator, options);
+    }
+
+    @Override
+    public Decoder<DataPipeline.BufferApi>
+    getDecoder(ArrowVsrSchema arrowSchema, BufferAllocator allocator, Map<String, String> options) {
+
+        return new ParquetDecoder(arrowSchema, allocator, BATCH_SIZE);
+    }
+
+    @Override
+    public Decoder<DataPipeline.BufferApi>
+    getDecoder(SchemaDefinition tracSchema, List<String> fields, BufferAllocator allocator, Map<String, String> options) {
+
+        if (tracSchema.getSchemaType() != SchemaType.TABLE_SCHEMA) {
+            throw new EDataConstraint("Parquet decoder only support TABLE_SCHEMA");
+        }
+
+        // Parquet is a columnar format, only the column chunks for the projected fields are read
+        var arrowSchema = SchemaMapping.tracToArrow(tracSchema, allocator).project(fields);
+        return getDecoder(arrowSchema, allocator, options);
+    }
+
+    @Override
+    public FileIndexReader getFileIndexReader() {
+
+        // Stored Parquet files are read one row group at a time, using the index in the file footer
+        return new ParquetFileIndex.Reader();
+    }
+
+    private CompressionCodecName compressionOption(Map<String, String> options) {
+
+        var compression = options.get(COMPRESSION_OPTION);
+
+        if (compression == null || compression.isBlank())
+            return DEFAULT_COMPRESSION;
+
+        try {
+            return CompressionCodecName.valueOf(compression.trim().toUpperCase());
+        }
+        catch (IllegalArgumentException e) {
+            var message = String.format("Invalid Parquet compression codec [%s]", compression);
+            throw new EConfigParse(message, e);
+        }
+    }
+
+    private long rowGroupSizeOption(Map<String, String> options) {
+
+        var rowGroupSize = options.get(ROW_GROUP_SIZE_OPTION);
+
+        if (rowGroupSize == null || rowGroupSize.isBlank())
+            return DEFAULT_ROW_GROUP_SIZE;
+
+        try {
+
+            var value = Long.parseLong(rowGroupSize.trim());
+
+            if (value <= 0)
+                throw new NumberFormatException("Row group size must be positive");
+
+            return value;
+        }
+        catch (NumberFormatException e) {
+            var message = String.format("Invalid Parquet row group size [%s]", rowGroupSize);
+            throw new EConfigParse(message, e);
+        }
+    }
+}
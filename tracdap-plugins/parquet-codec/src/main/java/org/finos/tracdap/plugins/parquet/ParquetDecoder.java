@@ -0,0 +1,298 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.plugins.parquet;
+
+import org.finos.tracdap.common.codec.BufferDecoder;
+import org.finos.tracdap.common.data.ArrowVsrContext;
+import org.finos.tracdap.common.data.ArrowVsrSchema;
+import org.finos.tracdap.common.data.util.Bytes;
+import org.finos.tracdap.common.exception.EDataCorruption;
+import org.finos.tracdap.common.exception.ETrac;
+import org.finos.tracdap.common.exception.ETracInternal;
+import org.finos.tracdap.common.exception.EUnexpected;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.api.ReadSupport;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.ParquetDecodingException;
+import org.apache.parquet.schema.MessageType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+
+public class ParquetDecoder extends BufferDecoder {
+
+    // Parquet metadata is held in the file footer, so the whole file is needed before decoding can start
+    // Once the data is available, batches are decoded one at a time as the consumer is ready for them
+
+    // Stored files can be decoded one row group at a time, using a file index that holds the footer
+    // In that case the buffer only holds the content of the row group
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final ArrowVsrSchema schema;
+    private final BufferAllocator allocator;
+    private final int batchSize;
+    private final ParquetFileIndex index;
+    private final int section;
+
+    private List<ArrowBuf> buffer;
+    private ParquetReadSupport readSupport;
+    private ParquetReader<Integer> reader;
+    private ArrowVsrContext context;
+    private boolean endOfStream;
+
+    public ParquetDecoder(ArrowVsrSchema schema, BufferAllocator allocator, int batchSize) {
+        this(schema, allocator, batchSize, null, 0);
+    }
+
+    ParquetDecoder(ArrowVsrSchema schema, BufferAllocator allocator, int batchSize, ParquetFileIndex index, int section) {
+        this.schema = schema;
+        this.allocator = allocator;
+        this.batchSize = batchSize;
+        this.index = index;
+        this.section = section;
+    }
+
+    @Override
+    public void onBuffer(List<ArrowBuf> buffer) {
+
+        if (log.isTraceEnabled())
+            log.trace("PARQUET DECODER: onBuffer()");
+
+        // Sanity check, should never happen
+        if (isDone() || this.buffer != null) {
+            var error = new ETracInternal("Parquet data parsed twice (this is a bug)");
+            log.error(error.getMessage(), error);
+            throw error;
+        }
+
+        // Empty file can and does happen, treat it as data corruption
+        if (Bytes.readableBytes(buffer) == 0) {
+            var error = new EDataCorruption("Parquet data is empty");
+            log.error(error.getMessage(), error);
+            throw error;
+        }
+
+        handleErrors(() -> {
+
+            this.buffer = buffer;
+
+            var inputFile = index != null
+                    ? index.sectionFile(section, buffer)
+                    : new ParquetStreams.BufferInputFile(buffer);
+
+            // Read the file schema from the footer, to work out which columns to read
+            // If no target schema is supplied, use the schema of the file
+
+            var fileSchema = index != null
+                    ? index.fileSchema()
+                    : readFileSchema(inputFile);
+
+            var targetSchema = schema != null
+                    ? schema
+                    : new ArrowVsrSchema(ParquetSchemaMapping.parquetToArrow(fileSchema));
+
+            this.readSupport = new ParquetReadSupport(targetSchema, fileSchema, allocator, batchSize);
+            var readerBuilder = new ReaderBuilder(inputFile, readSupport);
+
+            // Only read the row group in this section, row groups are selected by their midpoint
+            if (index != null)
+                readerBuilder.withFileRange(index.sectionStart(section), index.sectionEnd(section));
+
+            this.reader = readerBuilder.build();
+
+            this.context = ArrowVsrContext.forSource(
+                    readSupport.getVectorSchemaRoot(),
+                    readSupport, allocator);
+
+            consumer().onStart(context);
+
+            var isComplete = sendBatches();
+
+            if (isComplete) {
+                markAsDone();
+                consumer().onComplete();
+                close();
+            }
+
+            return null;
+        });
+    }
+
+    @Override
+    public void onError(Throwable error) {
+
+        try {
+
+            if (log.isTraceEnabled())
+                log.trace("PARQUET DECODER: onError()");
+
+            markAsDone();
+            consumer().onError(error);
+        }
+        finally {
+            close();
+        }
+    }
+
+    @Override
+    public void pump() {
+
+        // Don't try to pump if the data hasn't arrived yet, or if it has already gone
+        if (reader == null || context == null)
+            return;
+
+        handleErrors(() -> {
+
+            var isComplete = sendBatches();
+
+            if (isComplete) {
+                markAsDone();
+                consumer().onComplete();
+                close();
+            }
+
+            return null;
+        });
+    }
+
+    private MessageType readFileSchema(InputFile inputFile) throws IOException {
+
+        try (var fileReader = ParquetFileReader.open(inputFile)) {
+            return fileReader.getFooter().getFileMetaData().getSchema();
+        }
+        catch (ETrac e) {
+            throw e;
+        }
+        catch (RuntimeException e) {
+
+            // Parquet reports a missing or invalid footer with a plain runtime exception
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private boolean sendBatches() throws IOException {
+
+        // Keep pushing batches as long as the consumer is ready
+
+        while (consumerReady() && !endOfStream) {
+
+            readSupport.resetBatch();
+
+            for (var row = 0; row < batchSize && !endOfStream; row++) {
+                if (reader.read() == null)
+                    endOfStream = true;
+            }
+
+            var rowCount = readSupport.finishBatch();
+
+            if (rowCount > 0) {
+                context.setLoaded();
+                consumer().onBatch();
+            }
+        }
+
+        return endOfStream;
+    }
+
+    private void handleErrors(Callable<Void> parseFunc) {
+
+        try {
+            parseFunc.call();
+        }
+        catch (ETrac e) {
+
+            // Error has already been handled, propagate as-is
+
+            var errorMessage = "Parquet decoding failed: " + e.getMessage();
+
+            log.error(errorMessage, e);
+            throw e;
+        }
+        catch (IOException | ParquetDecodingException e) {
+
+            // Decoders work on a stream of buffers, "real" IO exceptions should not occur
+            // IO exceptions here indicate parse failures, not file/socket communication errors
+
+            var errorMessage = "Parquet decoding failed, content is garbled: " + e.getMessage();
+
+            log.error(errorMessage, e);
+            throw new EDataCorruption(errorMessage, e);
+        }
+        catch (Throwable e)  {
+
+            // Ensure unexpected errors are still reported to the Flow API
+
+            log.error("Unexpected error in Parquet decoding", e);
+            throw new EUnexpected(e);
+        }
+    }
+
+    @Override
+    public void close() {
+
+        try {
+
+            if (reader != null) {
+                reader.close();
+                reader = null;
+            }
+
+            if (context != null) {
+                context.close();
+                context = null;
+            }
+
+            if (readSupport != null) {
+                readSupport.close();
+                readSupport = null;
+            }
+
+            if (buffer != null) {
+                buffer.forEach(ArrowBuf::close);
+                buffer = null;
+            }
+        }
+        catch (IOException e) {
+            throw new ETracInternal("Unexpected error shutting down the Parquet reader: " + e.getMessage(), e);
+        }
+    }
+
+    private static class ReaderBuilder extends ParquetReader.Builder<Integer> {
+
+        private final ReadSupport<Integer> readSupport;
+
+        ReaderBuilder(InputFile inputFile, ReadSupport<Integer> readSupport) {
+            super(inputFile);
+            this.readSupport = readSupport;
+        }
+
+        @Override
+        protected ReadSupport<Integer> getReadSupport() {
+            return readSupport;
+        }
+    }
+}
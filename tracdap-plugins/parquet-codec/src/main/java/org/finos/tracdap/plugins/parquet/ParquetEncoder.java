@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.plugins.parquet;
+
+import org.finos.tracdap.common.codec.StreamingEncoder;
+import org.finos.tracdap.common.data.ArrowVsrContext;
+import org.finos.tracdap.common.data.util.ByteOutputStream;
+import org.finos.tracdap.common.exception.ETrac;
+import org.finos.tracdap.common.exception.EUnexpected;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.OutputFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+
+public class ParquetEncoder extends StreamingEncoder implements AutoCloseable {
+
+    // Parquet buffers each row group in memory and writes it out once it is complete
+    // Output is streamed to the consumer one row group at a time, the footer is written on completion
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final BufferAllocator allocator;
+    private final CompressionCodecName compression;
+    private final long rowGroupSize;
+
+    private OutputStream out;
+    private ParquetWriter<Integer> writer;
+
+    public ParquetEncoder(BufferAllocator allocator, CompressionCodecName compression, long rowGroupSize) {
+        this.allocator = allocator;
+        this.compression = compression;
+        this.rowGroupSize = rowGroupSize;
+    }
+
+    @Override
+    public void onStart(ArrowVsrContext context) {
+
+        try {
+
+            if (log.isTraceEnabled())
+                log.trace("PARQUET ENCODER: onStart()");
+
+            consumer().onStart();
+
+            this.context = context;
+            this.out = new ByteOutputStream(allocator, consumer()::onNext);
+
+            var parquetSchema = ParquetSchemaMapping.arrowToParquet(context.getSchema());
+            var writeSupport = new ParquetWriteSupport(context, parquetSchema);
+            var outputFile = new ParquetStreams.StreamOutputFile(out);
+
+            this.writer = new WriterBuilder(outputFile, writeSupport)
+                    .withCompressionCodec(compression)
+                    .withRowGroupSize(rowGroupSize)
+                    .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
+                    .build();
+        }
+        catch (IOException e) {
+
+            // Output stream is writing to memory buffers, IO errors are not expected
+            log.error("Unexpected error writing to codec buffer: {}", e.getMessage(), e);
+
+            close();
+
+            throw new EUnexpected(e);
+        }
+    }
+
+    @Override
+    public void onBatch() {
+
+        try {
+
+            if (log.isTraceEnabled())
+                log.trace("PARQUET ENCODER: onBatch()");
+
+            var rowCount = context.getVsr().getRowCount();
+
+            for (var row = 0; row < rowCount; row++)
+                writer.write(row);
+
+            context.setUnloaded();
+        }
+        catch (IOException e) {
+
+            // Output stream is writing to memory buffers, IO errors are not expected
+            log.error("Unexpected error writing to codec buffer: {}", e.getMessage(), e);
+
+            close();
+
+            throw new EUnexpected(e);
+        }
+        catch (ETrac e) {
+
+            // Errors in the data (e.g. nulls in non-nullable fields) are reported as-is
+            close();
+
+            throw e;
+        }
+    }
+
+    @Override
+    public void onComplete() {
+
+        try {
+
+            if (log.isTraceEnabled())
+                log.trace("PARQUET ENCODER: onComplete()");
+
+            // Closing the writer flushes the last row group and writes the footer
+            writer.close();
+            writer = null;
+            out = null;
+
+            markAsDone();
+            consumer().onComplete();
+        }
+        catch (IOException e) {
+
+            // Output stream is writing to memory buffers, IO errors are not expected
+            log.error("Unexpected error writing to codec buffer: {}", e.getMessage(), e);
+            throw new EUnexpected(e);
+        }
+        finally {
+
+            close();
+        }
+    }
+
+    @Override
+    public void onError(Throwable error) {
+
+        try {
+
+            if (log.isTraceEnabled())
+                log.trace("PARQUET ENCODER: onError()");
+
+            markAsDone();
+            consumer().onError(error);
+        }
+        finally {
+            close();
+        }
+    }
+
+    @Override
+    public void close() {
+
+        try {
+
+            // Do not close the writer if the encoding did not complete, that would write out the footer
+            // Closing the output stream releases any partially filled buffer
+
+            writer = null;
+
+            if (out != null) {
+                out.close();
+                out = null;
+            }
+
+            // Encoder does not own context, do not close it
+
+            if (context != null) {
+                context = null;
+            }
+        }
+        catch (IOException e) {
+
+            // Output stream is writing to memory buffers, IO errors are not expected
+            log.error("Unexpected error closing encoder: {}", e.getMessage(), e);
+            throw new EUnexpected(e);
+        }
+    }
+
+    private static class WriterBuilder extends ParquetWriter.Builder<Integer, WriterBuilder> {
+
+        private final WriteSupport<Integer> writeSupport;
+
+        WriterBuilder(OutputFile outputFile, WriteSupport<Integer> writeSupport) {
+            super(outputFile);
+            this.writeSupport = writeSupport;
+        }
+
+        @Override
+        protected WriterBuilder self() {
+            return this;
+        }
+
+        @Override
+        protected WriteSupport<Integer> getWriteSupport(Configuration conf) {
+            return writeSupport;
+        }
+    }
+}
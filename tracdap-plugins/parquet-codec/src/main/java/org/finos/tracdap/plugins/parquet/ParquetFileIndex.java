@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.plugins.parquet;
+
+import org.finos.tracdap.common.codec.ICodec;
+import org.finos.tracdap.common.data.ArrowVsrSchema;
+import org.finos.tracdap.common.exception.EDataCorruption;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.schema.MessageType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Index of the row groups in a Parquet file, built from the file footer.
+ *
+ * <p>Each row group is a section of the file that can be fetched with a single ranged read
+ * and decoded on its own, using the footer held in the index. Storage can use the index to
+ * read a range of rows, or a whole file, without loading the whole file at once.</p>
+ */
+class ParquetFileIndex implements ICodec.FileIndex {
+
+    // Parquet files end with [footer] [int32 footer length] [magic bytes]
+    private static final byte[] PARQUET_MAGIC = "PAR1".getBytes(StandardCharsets.UTF_8);
+    private static final int FOOTER_TRAILER_SIZE = Integer.BYTES + PARQUET_MAGIC.length;
+
+    private final byte[] footer;
+    private final long fileSize;
+    private final MessageType fileSchema;
+    private final List<BlockMetaData> rowGroups;
+
+    private ParquetFileIndex(byte[] footer, long fileSize, MessageType fileSchema, List<BlockMetaData> rowGroups) {
+        this.footer = footer;
+        this.fileSize = fileSize;
+        this.fileSchema = fileSchema;
+        this.rowGroups = rowGroups;
+    }
+
+    MessageType fileSchema() {
+        return fileSchema;
+    }
+
+    ParquetStreams.SectionInputFile sectionFile(int section, List<ArrowBuf> content) {
+        return new ParquetStreams.SectionInputFile(content, sectionStart(section), footer, fileSize);
+    }
+
+    @Override
+    public int sectionCount() {
+        return rowGroups.size();
+    }
+
+    @Override
+    public long sectionStart(int section) {
+        return rowGroups.get(section).getStartingPos();
+    }
+
+    @Override
+    public long sectionEnd(int section) {
+        var rowGroup = rowGroups.get(section);
+        return rowGroup.getStartingPos() + rowGroup.getCompressedSize();
+    }
+
+    @Override
+    public long sectionRowCount(int section) {
+        return rowGroups.get(section).getRowCount();
+    }
+
+    @Override
+    public ICodec.Decoder<?> getSectionDecoder(
+            int section, ArrowVsrSchema arrowSchema,
+            BufferAllocator allocator, Map<String, String> options) {
+
+        return new ParquetDecoder(arrowSchema, allocator, ParquetCodec.BATCH_SIZE, this, section);
+    }
+
+    static class Reader implements ICodec.FileIndexReader {
+
+        @Override
+        public int trailerSize() {
+            return FOOTER_TRAILER_SIZE;
+        }
+
+        @Override
+        public long readFooterLength(ArrowBuf trailer, long trailerOffset) {
+
+            var magicOffset = trailerOffset + Integer.BYTES;
+
+            for (var i = 0; i < PARQUET_MAGIC.length; i++) {
+                if (trailer.getByte(magicOffset + i) != PARQUET_MAGIC[i])
+                    throw new EDataCorruption("Parquet file is invalid (file trailer is missing)");
+            }
+
+            // Footer length is little-endian, as per the Parquet file format
+            var footerLength = trailer.getInt(trailerOffset);
+
+            if (footerLength <= 0)
+                throw new EDataCorruption("Parquet file is invalid (footer length is not valid)");
+
+            return footerLength;
+        }
+
+        @Override
+        public ParquetFileIndex readIndex(ArrowBuf footer, long footerOffset, long fileSize) {
+
+            var footerBytes = new byte[(int) (footer.writerIndex() - footerOffset)];
+            footer.getBytes(footerOffset, footerBytes);
+
+            // Parse the footer using a file that holds only the footer and no row group data
+
+            var footerFile = new ParquetStreams.SectionInputFile(List.of(), 0, footerBytes, fileSize);
+
+            try (var fileReader = ParquetFileReader.open(footerFile)) {
+
+                var metadata = fileReader.getFooter();
+                var fileSchema = metadata.getFileMetaData().getSchema();
+
+                return new ParquetFileIndex(footerBytes, fileSize, fileSchema, metadata.getBlocks());
+            }
+            catch (IOException | RuntimeException e) {
+
+                // Parquet reports a missing or invalid footer with a plain runtime exception
+                var message = "Parquet file is invalid (footer could not be read): " + e.getMessage();
+                throw new EDataCorruption(message, e);
+            }
+        }
+    }
+}
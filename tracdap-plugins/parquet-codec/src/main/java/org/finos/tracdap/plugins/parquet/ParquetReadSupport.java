@@ -0,0 +1,493 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.plugins.parquet;
+
+import org.finos.tracdap.common.data.ArrowVsrSchema;
+import org.finos.tracdap.common.data.ArrowVsrStaging;
+import org.finos.tracdap.common.exception.EDataConstraint;
+import org.finos.tracdap.common.exception.EDataTypeNotSupported;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.*;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.hadoop.api.InitContext;
+import org.apache.parquet.hadoop.api.ReadSupport;
+import org.apache.parquet.io.api.*;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.*;
+
+
+/**
+ * Parquet read support that materializes records directly into Arrow vectors.
+ *
+ * <p>Only the columns present in the target schema are requested from the file.
+ * Dictionary-encoded target fields are read into staging vectors and encoded
+ * once each batch is complete.</p>
+ */
+class ParquetReadSupport extends ReadSupport<Integer> implements DictionaryProvider, AutoCloseable {
+
+    private final MessageType requestedSchema;
+    private final VectorSchemaRoot root;
+    private final List<ColumnReader> columns;
+    private final List<ArrowVsrStaging<?>> staging;
+    private final List<Dictionary> ownedDictionaries;
+    private final DictionaryProvider.MapDictionaryProvider dictionaries;
+    private final Materializer materializer;
+
+    private int currentRow;
+
+    ParquetReadSupport(ArrowVsrSchema targetSchema, MessageType fileSchema, BufferAllocator allocator, int batchSize) {
+
+        this.columns = new ArrayList<>();
+        this.staging = new ArrayList<>();
+        this.ownedDictionaries = new ArrayList<>();
+        this.dictionaries = new DictionaryProvider.MapDictionaryProvider();
+
+        var physicalFields = targetSchema.physical().getFields();
+        var vectors = new ArrayList<FieldVector>(physicalFields.size());
+        var requestedFields = new ArrayList<Type>();
+
+        for (var field : physicalFields) {
+            var vector = field.createVector(allocator);
+            vector.setInitialCapacity(batchSize);
+            vector.allocateNew();
+            vectors.add(vector);
+        }
+
+        this.root = new VectorSchemaRoot(physicalFields, vectors, 0);
+
+        for (var i = 0; i < physicalFields.size(); i++) {
+
+            var field = physicalFields.get(i);
+            var vector = vectors.get(i);
+            var fileField = findField(fileSchema, field.getName());
+
+            // Missing columns are allowed if they are nullable, values will all be null
+            if (fileField == null) {
+
+                if (!field.isNullable()) {
+                    var message = String.format("Parquet data is missing the required field [%s]", field.getName());
+                    throw new EDataConstraint(message);
+                }
+
+                columns.add(new ColumnReader(vector, null, -1));
+                continue;
+            }
+
+            if (!fileField.isPrimitive() || fileField.isRepetition(Type.Repetition.REPEATED)) {
+                var message = String.format("Parquet codec does not support nested or repeated fields (field [%s])", field.getName());
+                throw new EDataTypeNotSupported(message);
+            }
+
+            var targetVector = field.getDictionary() != null
+                    ? stagingVector(targetSchema, vector, allocator, batchSize)
+                    : vector;
+
+            var converter = new FieldConverter(targetVector, fileField.asPrimitiveType());
+
+            columns.add(new ColumnReader(vector, converter, requestedFields.size()));
+            requestedFields.add(fileField);
+        }
+
+        this.requestedSchema = new MessageType(fileSchema.getName(), requestedFields);
+        this.materializer = new Materializer();
+    }
+
+    private static Type findField(MessageType fileSchema, String fieldName) {
+
+        // Prefer an exact match, fall back to case-insensitive matching (TRAC field names are case-insensitive)
+
+        if (fileSchema.containsField(fieldName))
+            return fileSchema.getType(fieldName);
+
+        for (var fileField : fileSchema.getFields()) {
+            if (fileField.getName().equalsIgnoreCase(fieldName))
+                return fileField;
+        }
+
+        return null;
+    }
+
+    private FieldVector stagingVector(
+            ArrowVsrSchema targetSchema, FieldVector targetVector,
+            BufferAllocator allocator, int batchSize) {
+
+        var encoding = targetVector.getField().getDictionary();
+        var dictionaryField = targetSchema.dictionaryFields().get(encoding.getId());
+
+        if (dictionaryField == null) {
+            var message = String.format(
+                    "Missing type information for dictionary-encoded field [%s]",
+                    targetVector.getField().getName());
+            throw new IllegalArgumentException(message);
+        }
+
+        // Staging vector may have different nullability from the dictionary field
+        var stagingType = new FieldType(targetVector.getField().isNullable(), dictionaryField.getType(), null);
+        var stagingField = new Field(dictionaryField.getName(), stagingType, dictionaryField.getChildren());
+
+        var stagingVector = (ElementAddressableVector) stagingField.createVector(allocator);
+        ((FieldVector) stagingVector).setInitialCapacity(batchSize);
+        ((FieldVector) stagingVector).allocateNew();
+
+        var indexVector = (BaseIntVector) targetVector;
+        var prebuiltDictionary = targetSchema.dictionaries() != null
+                ? targetSchema.dictionaries().lookup(encoding.getId())
+                : null;
+
+        ArrowVsrStaging<?> stagingPair;
+
+        // Named enums have pre-built dictionaries, categorical fields build the dictionary as data arrives
+        if (prebuiltDictionary != null && prebuiltDictionary.getVector().getValueCount() > 0) {
+            stagingPair = new ArrowVsrStaging<>(stagingVector, indexVector, prebuiltDictionary);
+        }
+        else {
+            stagingPair = new ArrowVsrStaging<>(stagingVector, indexVector);
+            ownedDictionaries.add(stagingPair.getDictionary());
+        }
+
+        staging.add(stagingPair);
+        dictionaries.put(stagingPair.getDictionary());
+
+        return (FieldVector) stagingVector;
+    }
+
+    VectorSchemaRoot getVectorSchemaRoot() {
+        return root;
+    }
+
+    @Override
+    public Set<Long> getDictionaryIds() {
+        return dictionaries.getDictionaryIds();
+    }
+
+    @Override
+    public Dictionary lookup(long id) {
+        return dictionaries.lookup(id);
+    }
+
+    @Override
+    public ReadContext init(InitContext context) {
+
+        // Only request the columns that are needed by the target schema
+        return new ReadContext(requestedSchema);
+    }
+
+    @Override
+    public RecordMaterializer<Integer> prepareForRead(
+            Configuration configuration, Map<String, String> keyValueMetaData,
+            MessageType fileSchema, ReadContext readContext) {
+
+        return materializer;
+    }
+
+    void resetBatch() {
+
+        for (var column : columns) {
+            column.vector.reset();
+            if (column.converter != null && column.converter.vector != column.vector)
+                column.converter.vector.reset();
+        }
+
+        currentRow = 0;
+    }
+
+    int finishBatch() {
+
+        for (var column : columns) {
+            if (column.converter != null && column.converter.vector != column.vector)
+                column.converter.vector.setValueCount(currentRow);
+        }
+
+        for (var stagingPair : staging)
+            stagingPair.encodeVector();
+
+        root.setRowCount(currentRow);
+
+        return currentRow;
+    }
+
+    @Override
+    public void close() {
+
+        root.close();
+
+        for (var stagingPair : staging)
+            ((FieldVector) stagingPair.getStagingVector()).close();
+
+        // Pre-built dictionaries belong to the schema, only close dictionaries created by the reader
+        for (var dictionary : ownedDictionaries)
+            dictionary.getVector().close();
+    }
+
+    private class Materializer extends RecordMaterializer<Integer> {
+
+        private final RootConverter rootConverter = new RootConverter();
+
+        @Override
+        public Integer getCurrentRecord() {
+            return currentRow - 1;
+        }
+
+        @Override
+        public GroupConverter getRootConverter() {
+            return rootConverter;
+        }
+    }
+
+    private class RootConverter extends GroupConverter {
+
+        private final Converter[] converters;
+
+        RootConverter() {
+
+            converters = new Converter[requestedSchema.getFieldCount()];
+
+            for (var column : columns) {
+                if (column.converter != null)
+                    converters[column.requestedIndex] = column.converter;
+            }
+        }
+
+        @Override
+        public Converter getConverter(int fieldIndex) {
+            return converters[fieldIndex];
+        }
+
+        @Override
+        public void start() {
+
+            for (var column : columns) {
+                if (column.converter != null)
+                    column.converter.valueSet = false;
+            }
+        }
+
+        @Override
+        public void end() {
+
+            // Fields that were not set in the record are null
+            for (var column : columns) {
+                if (column.converter == null)
+                    setNull(column.vector, currentRow);
+                else if (!column.converter.valueSet)
+                    setNull(column.converter.vector, currentRow);
+            }
+
+            currentRow++;
+        }
+
+        private void setNull(FieldVector vector, int row) {
+
+            if (vector instanceof BaseFixedWidthVector)
+                ((BaseFixedWidthVector) vector).setNull(row);
+            else if (vector instanceof BaseVariableWidthVector)
+                ((BaseVariableWidthVector) vector).setNull(row);
+            else
+                throw new EDataTypeNotSupported("Null values not supported for field [" + vector.getName() + "]");
+        }
+    }
+
+    private static class ColumnReader {
+
+        final FieldVector vector;
+        final FieldConverter converter;
+        final int requestedIndex;
+
+        ColumnReader(FieldVector vector, FieldConverter converter, int requestedIndex) {
+            this.vector = vector;
+            this.converter = converter;
+            this.requestedIndex = requestedIndex;
+        }
+    }
+
+    private class FieldConverter extends PrimitiveConverter {
+
+        final FieldVector vector;
+        private final PrimitiveType fileType;
+        private final LogicalTypeAnnotation annotation;
+        private final long timestampFactor;
+        private final boolean timestampDivide;
+
+        boolean valueSet;
+
+        FieldConverter(FieldVector vector, PrimitiveType fileType) {
+
+            this.vector = vector;
+            this.fileType = fileType;
+            this.annotation = fileType.getLogicalTypeAnnotation();
+
+            checkCompatible();
+
+            // Timestamps are converted between units if the file and target units are different
+
+            if (vector instanceof TimeStampVector &&
+                annotation instanceof LogicalTypeAnnotation.TimestampLogicalTypeAnnotation) {
+
+                var fileUnit = ((LogicalTypeAnnotation.TimestampLogicalTypeAnnotation) annotation).getUnit();
+                var targetUnit = ((ArrowType.Timestamp) vector.getField().getType()).getUnit();
+                var fileUnitsPerSecond = ParquetSchemaMapping.unitsPerSecond(ParquetSchemaMapping.arrowTimeUnit(fileUnit));
+                var targetUnitsPerSecond = ParquetSchemaMapping.unitsPerSecond(targetUnit);
+
+                timestampDivide = fileUnitsPerSecond > targetUnitsPerSecond;
+                timestampFactor = timestampDivide
+                        ? fileUnitsPerSecond / targetUnitsPerSecond
+                        : targetUnitsPerSecond / fileUnitsPerSecond;
+            }
+            else {
+                timestampDivide = false;
+                timestampFactor = 1;
+            }
+        }
+
+        private void checkCompatible() {
+
+            var physicalType = fileType.getPrimitiveTypeName();
+            var compatible = false;
+
+            if (vector instanceof BitVector)
+                compatible = physicalType == PrimitiveType.PrimitiveTypeName.BOOLEAN;
+
+            else if (vector instanceof DecimalVector)
+                compatible = annotation instanceof LogicalTypeAnnotation.DecimalLogicalTypeAnnotation;
+
+            else if (vector instanceof BaseIntVector)
+                compatible = (physicalType == PrimitiveType.PrimitiveTypeName.INT32 || physicalType == PrimitiveType.PrimitiveTypeName.INT64) &&
+                        (annotation == null || annotation instanceof LogicalTypeAnnotation.IntLogicalTypeAnnotation);
+
+            else if (vector instanceof Float4Vector || vector instanceof Float8Vector)
+                compatible = physicalType == PrimitiveType.PrimitiveTypeName.FLOAT || physicalType == PrimitiveType.PrimitiveTypeName.DOUBLE;
+
+            else if (vector instanceof VarCharVector)
+                compatible = physicalType == PrimitiveType.PrimitiveTypeName.BINARY;
+
+            else if (vector instanceof DateDayVector)
+                compatible = annotation instanceof LogicalTypeAnnotation.DateLogicalTypeAnnotation;
+
+            else if (vector instanceof TimeStampVector)
+                compatible = annotation instanceof LogicalTypeAnnotation.TimestampLogicalTypeAnnotation;
+
+            if (!compatible) {
+                var message = String.format(
+                        "Parquet column [%s] of type [%s] cannot be read as [%s]",
+                        fileType.getName(), fileType, vector.getField().getType());
+                throw new EDataTypeNotSupported(message);
+            }
+        }
+
+        @Override
+        public void addBoolean(boolean value) {
+            ((BitVector) vector).setSafe(currentRow, value ? 1 : 0);
+            valueSet = true;
+        }
+
+        @Override
+        public void addInt(int value) {
+            addLong(value);
+        }
+
+        @Override
+        public void addLong(long value) {
+
+            if (vector instanceof BaseIntVector)
+                ((BaseIntVector) vector).setWithPossibleTruncate(currentRow, value);
+
+            else if (vector instanceof Float8Vector)
+                ((Float8Vector) vector).setSafe(currentRow, (double) value);
+
+            else if (vector instanceof Float4Vector)
+                ((Float4Vector) vector).setSafe(currentRow, (float) value);
+
+            else if (vector instanceof DecimalVector)
+                setDecimal(BigInteger.valueOf(value));
+
+            else if (vector instanceof DateDayVector)
+                ((DateDayVector) vector).setSafe(currentRow, (int) value);
+
+            else if (vector instanceof TimeStampVector)
+                ((TimeStampVector) vector).setSafe(currentRow, convertTimestamp(value));
+
+            valueSet = true;
+        }
+
+        @Override
+        public void addFloat(float value) {
+            addDouble(value);
+        }
+
+        @Override
+        public void addDouble(double value) {
+
+            if (vector instanceof Float8Vector)
+                ((Float8Vector) vector).setSafe(currentRow, value);
+            else
+                ((Float4Vector) vector).setSafe(currentRow, (float) value);
+
+            valueSet = true;
+        }
+
+        @Override
+        public void addBinary(Binary value) {
+
+            if (vector instanceof DecimalVector) {
+                setDecimal(new BigInteger(value.getBytes()));
+            }
+            else {
+                var bytes = value.toByteBuffer();
+                ((VarCharVector) vector).setSafe(currentRow, bytes, bytes.position(), bytes.remaining());
+            }
+
+            valueSet = true;
+        }
+
+        private void setDecimal(BigInteger unscaled) {
+
+            var fileScale = ((LogicalTypeAnnotation.DecimalLogicalTypeAnnotation) annotation).getScale();
+            var decimalVector = (DecimalVector) vector;
+
+            var decimal = new BigDecimal(unscaled, fileScale);
+
+            if (decimal.scale() != decimalVector.getScale())
+                decimal = decimal.setScale(decimalVector.getScale(), RoundingMode.HALF_UP);
+
+            decimalVector.setSafe(currentRow, decimal);
+        }
+
+        private long convertTimestamp(long value) {
+
+            if (timestampFactor == 1)
+                return value;
+
+            return timestampDivide
+                    ? Math.floorDiv(value, timestampFactor)
+                    : value * timestampFactor;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.plugins.parquet;
+
+import org.finos.tracdap.common.data.ArrowVsrSchema;
+import org.finos.tracdap.common.exception.EDataTypeNotSupported;
+
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+import org.apache.parquet.schema.Types;
+
+import java.util.ArrayList;
+
+
+public class ParquetSchemaMapping {
+
+    // Mapping between Arrow and Parquet schemas, for flat (tabular) data
+    // Dictionary-encoded Arrow fields are mapped using their logical type,
+    // Parquet applies its own dictionary encoding to the column data
+
+    private static final String MESSAGE_NAME = "trac_schema";
+    private static final int DECIMAL_BIT_WIDTH = 128;
+
+    public static MessageType arrowToParquet(ArrowVsrSchema arrowSchema) {
+
+        var logicalFields = arrowSchema.logical().getFields();
+        var parquetFields = new ArrayList<Type>(logicalFields.size());
+
+        for (var field : logicalFields)
+            parquetFields.add(arrowToParquetField(field));
+
+        return new MessageType(MESSAGE_NAME, parquetFields);
+    }
+
+    public static Type arrowToParquetField(Field field) {
+
+        var name = field.getName();
+        var arrowType = field.getType();
+
+        var repetition = field.isNullable()
+                ? Type.Repetition.OPTIONAL
+                : Type.Repetition.REQUIRED;
+
+        switch (arrowType.getTypeID()) {
+
+            case Bool:
+
+                return Types.primitive(PrimitiveType.PrimitiveTypeName.BOOLEAN, repetition).named(name);
+
+            case Int:
+
+                var intType = (ArrowType.Int) arrowType;
+
+                var intPhysicalType = intType.getBitWidth() <= 32
+                        ? PrimitiveType.PrimitiveTypeName.INT32
+                        : PrimitiveType.PrimitiveTypeName.INT64;
+
+                return Types.primitive(intPhysicalType, repetition)
+                        .as(LogicalTypeAnnotation.intType(intType.getBitWidth(), intType.getIsSigned()))
+                        .named(name);
+
+            case FloatingPoint:
+
+                var floatType = (ArrowType.FloatingPoint) arrowType;
+
+                if (floatType.getPrecision() == FloatingPointPrecision.SINGLE)
+                    return Types.primitive(PrimitiveType.PrimitiveTypeName.FLOAT, repetition).named(name);
+
+                if (floatType.getPrecision() == FloatingPointPrecision.DOUBLE)
+                    return Types.primitive(PrimitiveType.PrimitiveTypeName.DOUBLE, repetition).named(name);
+
+                break;
+
+            case Decimal:
+
+                var decimalType = (ArrowType.Decimal) arrowType;
+
+                if (decimalType.getBitWidth() != DECIMAL_BIT_WIDTH)
+                    break;
+
+                return Types.primitive(PrimitiveType.PrimitiveTypeName.FIXED_LEN_BYTE_ARRAY, repetition)
+                        .length(decimalBytes(decimalType.getPrecision()))
+                        .as(LogicalTypeAnnotation.decimalType(decimalType.getScale(), decimalType.getPrecision()))
+                        .named(name);
+
+            case Utf8:
+
+                return Types.primitive(PrimitiveType.PrimitiveTypeName.BINARY, repetition)
+                        .as(LogicalTypeAnnotation.stringType())
+                        .named(name);
+
+            case Date:
+
+                var dateType = (ArrowType.Date) arrowType;
+
+                if (dateType.getUnit() != DateUnit.DAY)
+                    break;
+
+                return Types.primitive(PrimitiveType.PrimitiveTypeName.INT32, repetition)
+                        .as(LogicalTypeAnnotation.dateType())
+                        .named(name);
+
+            case Timestamp:
+
+                var timestampType = (ArrowType.Timestamp) arrowType;
+                var adjustedToUtc = timestampType.getTimezone() != null;
+
+                return Types.primitive(PrimitiveType.PrimitiveTypeName.INT64, repetition)
+                        .as(LogicalTypeAnnotation.timestampType(adjustedToUtc, parquetTimeUnit(timestampType.getUnit())))
+                        .named(name);
+
+            default:
+                break;
+        }
+
+        var message = String.format(
+                "Parquet codec does not support field type [%s] (field [%s])",
+                arrowType, name);
+
+        throw new EDataTypeNotSupported(message);
+    }
+
+    public static Schema parquetToArrow(MessageType parquetSchema) {
+
+        var arrowFields = new ArrayList<Field>(parquetSchema.getFieldCount());
+
+        for (var field : parquetSchema.getFields())
+            arrowFields.add(parquetToArrowField(field));
+
+        return new Schema(arrowFields);
+    }
+
+    public static Field parquetToArrowField(Type field) {
+
+        var name = field.getName();
+
+        if (!field.isPrimitive() || field.isRepetition(Type.Repetition.REPEATED)) {
+            var message = String.format("Parquet codec does not support nested or repeated fields (field [%s])", name);
+            throw new EDataTypeNotSupported(message);
+        }
+
+        var primitiveType = field.asPrimitiveType();
+        var annotation = field.getLogicalTypeAnnotation();
+        var nullable = !field.isRepetition(Type.Repetition.REQUIRED);
+
+        var arrowType = parquetToArrowType(primitiveType, annotation);
+
+        if (arrowType == null) {
+            var message = String.format(
+                    "Parquet codec does not support column type [%s] (field [%s])",
+                    primitiveType, name);
+            throw new EDataTypeNotSupported(message);
+        }
+
+        return new Field(name, new FieldType(nullable, arrowType, null), null);
+    }
+
+    private static ArrowType parquetToArrowType(PrimitiveType primitiveType, LogicalTypeAnnotation annotation) {
+
+        if (annotation instanceof LogicalTypeAnnotation.DecimalLogicalTypeAnnotation) {
+            var decimal = (LogicalTypeAnnotation.DecimalLogicalTypeAnnotation) annotation;
+            return new ArrowType.Decimal(decimal.getPrecision(), decimal.getScale(), DECIMAL_BIT_WIDTH);
+        }
+
+        switch (primitiveType.getPrimitiveTypeName()) {
+
+            case BOOLEAN:
+                return ArrowType.Bool.INSTANCE;
+
+            case INT32:
+
+                if (annotation instanceof LogicalTypeAnnotation.DateLogicalTypeAnnotation)
+                    return new ArrowType.Date(DateUnit.DAY);
+
+                if (annotation instanceof LogicalTypeAnnotation.IntLogicalTypeAnnotation) {
+                    var intType = (LogicalTypeAnnotation.IntLogicalTypeAnnotation) annotation;
+                    return new ArrowType.Int(intType.getBitWidth(), intType.isSigned());
+                }
+
+                return annotation == null ? new ArrowType.Int(32, true) : null;
+
+            case INT64:
+
+                if (annotation instanceof LogicalTypeAnnotation.TimestampLogicalTypeAnnotation) {
+                    var timestamp = (LogicalTypeAnnotation.TimestampLogicalTypeAnnotation) annotation;
+                    var timezone = timestamp.isAdjustedToUTC() ? "UTC" : null;
+                    return new ArrowType.Timestamp(arrowTimeUnit(timestamp.getUnit()), timezone);
+                }
+
+                if (annotation instanceof LogicalTypeAnnotation.IntLogicalTypeAnnotation) {
+                    var intType = (LogicalTypeAnnotation.IntLogicalTypeAnnotation) annotation;
+                    return new ArrowType.Int(intType.getBitWidth(), intType.isSigned());
+                }
+
+                return annotation == null ? new ArrowType.Int(64, true) : null;
+
+            case FLOAT:
+                return new ArrowType.FloatingPoint(FloatingPointPrecision.SINGLE);
+
+            case DOUBLE:
+                return new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE);
+
+            case BINARY:
+
+                if (annotation == null ||
+                    annotation instanceof LogicalTypeAnnotation.StringLogicalTypeAnnotation ||
+                    annotation instanceof LogicalTypeAnnotation.EnumLogicalTypeAnnotation)
+                    return ArrowType.Utf8.INSTANCE;
+
+                return null;
+
+            default:
+                return null;
+        }
+    }
+
+    static int decimalBytes(int precision) {
+
+        // Smallest number of bytes that can hold the unscaled value in two's complement
+        var bits = Math.ceil(precision * Math.log(10) / Math.log(2)) + 1;
+        return (int) Math.ceil(bits / 8);
+    }
+
+    static LogicalTypeAnnotation.TimeUnit parquetTimeUnit(TimeUnit arrowUnit) {
+
+        // Parquet does not have timestamps in seconds, they are stored as millis
+        switch (arrowUnit) {
+            case SECOND:
+            case MILLISECOND: return LogicalTypeAnnotation.TimeUnit.MILLIS;
+            case MICROSECOND: return LogicalTypeAnnotation.TimeUnit.MICROS;
+            case NANOSECOND: return LogicalTypeAnnotation.TimeUnit.NANOS;
+            default: throw new EDataTypeNotSupported("Unsupported time unit: " + arrowUnit);
+        }
+    }
+
+    static TimeUnit arrowTimeUnit(LogicalTypeAnnotation.TimeUnit parquetUnit) {
+
+        switch (parquetUnit) {
+            case MILLIS: return TimeUnit.MILLISECOND;
+            case MICROS: return TimeUnit.MICROSECOND;
+            case NANOS: return TimeUnit.NANOSECOND;
+            default: throw new EDataTypeNotSupported("Unsupported time unit: " + parquetUnit);
+        }
+    }
+
+    static long unitsPerSecond(TimeUnit arrowUnit) {
+
+        switch (arrowUnit) {
+            case SECOND: return 1;
+            case MILLISECOND: return 1000;
+            case MICROSECOND: return 1000000;
+            case NANOSECOND: return 1000000000;
+            default: throw new EDataTypeNotSupported("Unsupported time unit: " + arrowUnit);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.plugins.parquet;
+
+import org.finos.tracdap.common.data.util.ByteSeekableChannel;
+import org.finos.tracdap.common.data.util.Bytes;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.parquet.io.DelegatingSeekableInputStream;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.PositionOutputStream;
+import org.apache.parquet.io.SeekableInputStream;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.List;
+
+
+class ParquetStreams {
+
+    // Adapters between Parquet file I/O and the in-memory buffers used by the data pipeline
+    // Parquet never sees a real file, all the data stays in Arrow buffers
+
+    static class BufferInputFile implements InputFile {
+
+        private final List<ArrowBuf> buffer;
+
+        BufferInputFile(List<ArrowBuf> buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public long getLength() {
+            return Bytes.readableBytes(buffer);
+        }
+
+        @Override
+        public SeekableInputStream newStream() {
+
+            var channel = new ByteSeekableChannel(buffer);
+            var stream = Channels.newInputStream(channel);
+
+            return new DelegatingSeekableInputStream(stream) {
+
+                @Override
+                public long getPos() throws IOException {
+                    return channel.position();
+                }
+
+                @Override
+                public void seek(long newPos) throws IOException {
+                    channel.position(newPos);
+                }
+            };
+        }
+    }
+
+    static class SectionInputFile implements InputFile {
+
+        // Part of a stored file, holding one section (e.g. a row group) and the file footer
+        // Positions are the same as in the full file, reads outside those two ranges are errors
+
+        private final List<ArrowBuf> section;
+        private final long sectionStart;
+        private final byte[] footer;
+        private final long fileSize;
+
+        SectionInputFile(List<ArrowBuf> section, long sectionStart, byte[] footer, long fileSize) {
+            this.section = section;
+            this.sectionStart = sectionStart;
+            this.footer = footer;
+            this.fileSize = fileSize;
+        }
+
+        @Override
+        public long getLength() {
+            return fileSize;
+        }
+
+        @Override
+        public SeekableInputStream newStream() {
+
+            var stream = new SectionStream(this);
+
+            return new DelegatingSeekableInputStream(stream) {
+
+                @Override
+                public long getPos() {
+                    return stream.position;
+                }
+
+                @Override
+                public void seek(long newPos) {
+                    stream.position = newPos;
+                }
+            };
+        }
+    }
+
+    private static class SectionStream extends InputStream {
+
+        private final ByteSeekableChannel section;
+        private final long sectionStart;
+        private final long sectionEnd;
+        private final byte[] footer;
+        private final long footerStart;
+        private final long fileSize;
+
+        private long position;
+
+        SectionStream(SectionInputFile file) {
+            this.section = new ByteSeekableChannel(file.section);
+            this.sectionStart = file.sectionStart;
+            this.sectionEnd = file.sectionStart + Bytes.readableBytes(file.section);
+            this.footer = file.footer;
+            this.footerStart = file.fileSize - file.footer.length;
+            this.fileSize = file.fileSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+
+            var singleByte = new byte[1];
+            var nBytes = read(singleByte, 0, 1);
+
+            return nBytes < 0 ? -1 : singleByte[0] & 0xff;
+        }
+
+        @Override
+        public int read(@Nonnull byte[] b, int off, int len) throws IOException {
+
+            if (len == 0)
+                return 0;
+
+            if (position >= fileSize)
+                return -1;
+
+            if (position >= footerStart) {
+                var nBytes = (int) Math.min(len, fileSize - position);
+                System.arraycopy(footer, (int) (position - footerStart), b, off, nBytes);
+                position += nBytes;
+                return nBytes;
+            }
+
+            if (position >= sectionStart && position < sectionEnd) {
+                var nBytes = (int) Math.min(len, sectionEnd - position);
+                section.position(position - sectionStart);
+                section.read(ByteBuffer.wrap(b, off, nBytes));
+                position += nBytes;
+                return nBytes;
+            }
+
+            throw new IOException(String.format("Parquet data at offset %d is outside the section being read", position));
+        }
+    }
+
+    static class StreamOutputFile implements OutputFile {
+
+        private final OutputStream out;
+
+        StreamOutputFile(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public PositionOutputStream create(long blockSizeHint) {
+            return new StreamPositionOutput(out);
+        }
+
+        @Override
+        public PositionOutputStream createOrOverwrite(long blockSizeHint) {
+            return new StreamPositionOutput(out);
+        }
+
+        @Override
+        public boolean supportsBlockSize() {
+            return false;
+        }
+
+        @Override
+        public long defaultBlockSize() {
+            return 0;
+        }
+    }
+
+    private static class StreamPositionOutput extends PositionOutputStream {
+
+        private final OutputStream out;
+        private long position;
+
+        StreamPositionOutput(OutputStream out) {
+            this.out = out;
+            this.position = 0;
+        }
+
+        @Override
+        public long getPos() {
+            return position;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            position += 1;
+        }
+
+        @Override
+        public void write(@Nonnull byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            position += len;
+        }
+
+        @Override
+        public void flush() {
+            // No-op, output is sent in whole chunks and flushed when the stream is closed
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.plugins.parquet;
+
+import org.finos.tracdap.common.data.ArrowVsrContext;
+import org.finos.tracdap.common.exception.EDataConstraint;
+import org.finos.tracdap.common.exception.EDataTypeNotSupported;
+
+import org.apache.arrow.vector.*;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Parquet write support for Arrow data.
+ *
+ * <p>Records are identified by their row index in the current batch of the VSR context.</p>
+ */
+class ParquetWriteSupport extends WriteSupport<Integer> {
+
+    private static final String WRITER_NAME = "tracdap";
+
+    private final ArrowVsrContext context;
+    private final MessageType schema;
+    private final List<ColumnWriter> columns;
+
+    private RecordConsumer recordConsumer;
+
+    ParquetWriteSupport(ArrowVsrContext context, MessageType schema) {
+
+        this.context = context;
+        this.schema = schema;
+        this.columns = new ArrayList<>(schema.getFieldCount());
+
+        var vectors = context.getVsr().getFieldVectors();
+
+        for (var i = 0; i < vectors.size(); i++)
+            columns.add(columnWriter(vectors.get(i), schema.getType(i).asPrimitiveType()));
+    }
+
+    @Override
+    public String getName() {
+        return WRITER_NAME;
+    }
+
+    @Override
+    public WriteContext init(Configuration configuration) {
+        return new WriteContext(schema, Map.of());
+    }
+
+    @Override
+    public void prepareForWrite(RecordConsumer recordConsumer) {
+        this.recordConsumer = recordConsumer;
+    }
+
+    @Override
+    public void write(Integer row) {
+
+        recordConsumer.startMessage();
+
+        for (var i = 0; i < columns.size(); i++) {
+
+            var column = columns.get(i);
+
+            // Null values are written by leaving out the field
+            if (column.isNull(row)) {
+
+                if (column.required) {
+                    var message = String.format("Null value in non-nullable field [%s]", column.name);
+                    throw new EDataConstraint(message);
+                }
+
+                continue;
+            }
+
+            recordConsumer.startField(column.name, i);
+            column.writer.write(recordConsumer, row);
+            recordConsumer.endField(column.name, i);
+        }
+
+        recordConsumer.endMessage();
+    }
+
+    private ColumnWriter columnWriter(FieldVector vector, PrimitiveType parquetType) {
+
+        var encoding = vector.getField().getDictionary();
+
+        // Dictionary-encoded fields are written using their decoded values
+        if (encoding != null) {
+
+            var dictionary = context.getDictionaries().lookup(encoding.getId());
+            var dictionaryVector = dictionary.getVector();
+            var indexVector = (BaseIntVector) vector;
+            var valueWriter = valueWriter(dictionaryVector, parquetType);
+
+            ValueWriter indexWriter = (rc, row) -> valueWriter.write(rc, (int) indexVector.getValueAsLong(row));
+
+            return new ColumnWriter(vector, parquetType, indexWriter);
+        }
+
+        return new ColumnWriter(vector, parquetType, valueWriter(vector, parquetType));
+    }
+
+    private ValueWriter valueWriter(FieldVector vector, PrimitiveType parquetType) {
+
+        if (vector instanceof BitVector) {
+            var bitVector = (BitVector) vector;
+            return (rc, row) -> rc.addBoolean(bitVector.get(row) != 0);
+        }
+
+        if (vector instanceof BaseIntVector) {
+
+            var intVector = (BaseIntVector) vector;
+
+            if (parquetType.getPrimitiveTypeName() == PrimitiveType.PrimitiveTypeName.INT32)
+                return (rc, row) -> rc.addInteger((int) intVector.getValueAsLong(row));
+            else
+                return (rc, row) -> rc.addLong(intVector.getValueAsLong(row));
+        }
+
+        if (vector instanceof Float4Vector) {
+            var floatVector = (Float4Vector) vector;
+            return (rc, row) -> rc.addFloat(floatVector.get(row));
+        }
+
+        if (vector instanceof Float8Vector) {
+            var doubleVector = (Float8Vector) vector;
+            return (rc, row) -> rc.addDouble(doubleVector.get(row));
+        }
+
+        if (vector instanceof DecimalVector) {
+            var decimalVector = (DecimalVector) vector;
+            var length = parquetType.getTypeLength();
+            return (rc, row) -> rc.addBinary(decimalBinary(decimalVector, row, length));
+        }
+
+        if (vector instanceof VarCharVector) {
+            // Parquet holds on to values for its own dictionary encoding, so they must be copied
+            var varcharVector = (VarCharVector) vector;
+            return (rc, row) -> rc.addBinary(Binary.fromConstantByteArray(varcharVector.get(row)));
+        }
+
+        if (vector instanceof DateDayVector) {
+            var dateVector = (DateDayVector) vector;
+            return (rc, row) -> rc.addInteger(dateVector.get(row));
+        }
+
+        if (vector instanceof TimeStampVector) {
+
+            var timestampVector = (TimeStampVector) vector;
+            var timestampType = (ArrowType.Timestamp) vector.getField().getType();
+
+            // Parquet does not have timestamps in seconds, they are stored as millis
+            if (timestampType.getUnit() == TimeUnit.SECOND)
+                return (rc, row) -> rc.addLong(timestampVector.get(row) * 1000);
+            else
+                return (rc, row) -> rc.addLong(timestampVector.get(row));
+        }
+
+        var message = String.format(
+                "Parquet codec does not support field type [%s] (field [%s])",
+                vector.getField().getType(), vector.getField().getName());
+
+        throw new EDataTypeNotSupported(message);
+    }
+
+    private static Binary decimalBinary(DecimalVector vector, int row, int length) {
+
+        // Parquet decimals are big-endian two's complement, padded to the fixed column length
+
+        var unscaled = vector.getObject(row).unscaledValue().toByteArray();
+
+        if (unscaled.length == length)
+            return Binary.fromConstantByteArray(unscaled);
+
+        if (unscaled.length > length) {
+            var message = String.format("Decimal value is too large for field [%s]", vector.getField().getName());
+            throw new EDataConstraint(message);
+        }
+
+        var padded = new byte[length];
+        var padding = (byte) (unscaled[0] < 0 ? -1 : 0);
+
+        for (var i = 0; i < length - unscaled.length; i++)
+            padded[i] = padding;
+
+        System.arraycopy(unscaled, 0, padded, length - unscaled.length, unscaled.length);
+
+        return Binary.fromConstantByteArray(padded);
+    }
+
+    @FunctionalInterface
+    private interface ValueWriter {
+
+        void write(RecordConsumer recordConsumer, int row);
+    }
+
+    private static class ColumnWriter {
+
+        final FieldVector vector;
+        final String name;
+        final boolean required;
+        final ValueWriter writer;
+
+        ColumnWriter(FieldVector vector, PrimitiveType parquetType, ValueWriter writer) {
+            this.vector = vector;
+            this.name = parquetType.getName();
+            this.required = parquetType.isRepetition(Type.Repetition.REQUIRED);
+            this.writer = writer;
+        }
+
+        boolean isNull(int row) {
+            return vector.isNull(row);
+        }
+    }
+}
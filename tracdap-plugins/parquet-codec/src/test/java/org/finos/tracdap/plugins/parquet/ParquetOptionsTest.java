@@ -0,0 +1,374 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.plugins.parquet;
+
+import org.finos.tracdap.common.async.Flows;
+import org.finos.tracdap.common.codec.ICodec;
+import org.finos.tracdap.common.data.ArrowVsrContext;
+import org.finos.tracdap.common.data.DataContext;
+import org.finos.tracdap.common.data.DataPipeline;
+import org.finos.tracdap.common.data.util.Bytes;
+import org.finos.tracdap.common.exception.EConfigParse;
+import org.finos.tracdap.common.exception.EDataCorruption;
+import org.finos.tracdap.test.data.DataComparison;
+import org.finos.tracdap.test.data.MemoryTestHelpers;
+import org.finos.tracdap.test.data.SingleBatchDataSink;
+import org.finos.tracdap.test.data.SingleBatchDataSource;
+
+import io.netty.util.concurrent.DefaultEventExecutor;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseFixedWidthVector;
+import org.apache.arrow.vector.BaseVariableWidthVector;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+import static org.finos.tracdap.test.concurrent.ConcurrentTestHelpers.getResultOf;
+import static org.finos.tracdap.test.concurrent.ConcurrentTestHelpers.waitFor;
+import static org.finos.tracdap.test.data.SampleData.generateBasicData;
+
+
+class ParquetOptionsTest {
+
+    private static final Duration TEST_TIMEOUT = Duration.ofSeconds(20);
+
+    private final ParquetCodec codec = new ParquetCodec();
+    private BufferAllocator allocator;
+
+    @BeforeEach
+    void setupAllocator() {
+        allocator = MemoryTestHelpers.testAllocator(false);
+    }
+
+    @AfterEach
+    void closeAllocator() {
+        allocator.close();
+    }
+
+    @Test
+    void rowGroupSize_default() throws Exception {
+
+        try (var inputData = generateBasicData(allocator, 5000)) {
+
+            var footer = encodeAndReadFooter(inputData, Map.of());
+
+            Assertions.assertEquals(1, footer.getBlocks().size());
+            Assertions.assertEquals(5000, footer.getBlocks().get(0).getRowCount());
+        }
+    }
+
+    @Test
+    void rowGroupSize_small() throws Exception {
+
+        // A small row group size splits the data into several row groups, with no rows lost
+
+        try (var inputData = generateBasicData(allocator, 5000)) {
+
+            var options = Map.of(ParquetCodec.ROW_GROUP_SIZE_OPTION, "16384");
+            var footer = encodeAndReadFooter(inputData, options);
+
+            var totalRows = footer.getBlocks().stream().mapToLong(block -> block.getRowCount()).sum();
+
+            Assertions.assertTrue(footer.getBlocks().size() > 1);
+            Assertions.assertEquals(5000, totalRows);
+
+            roundTrip(inputData, options);
+        }
+    }
+
+    @Test
+    void rowGroupSize_invalid() {
+
+        Assertions.assertThrows(EConfigParse.class, () -> codec.getEncoder(allocator, Map.of(ParquetCodec.ROW_GROUP_SIZE_OPTION, "0")));
+        Assertions.assertThrows(EConfigParse.class, () -> codec.getEncoder(allocator, Map.of(ParquetCodec.ROW_GROUP_SIZE_OPTION, "-1")));
+        Assertions.assertThrows(EConfigParse.class, () -> codec.getEncoder(allocator, Map.of(ParquetCodec.ROW_GROUP_SIZE_OPTION, "large")));
+    }
+
+    @Test
+    void compression_default() throws Exception {
+
+        try (var inputData = generateBasicData(allocator)) {
+
+            var footer = encodeAndReadFooter(inputData, Map.of());
+
+            for (var column : footer.getBlocks().get(0).getColumns())
+                Assertions.assertEquals(CompressionCodecName.SNAPPY, column.getCodec());
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = CompressionCodecName.class, names = {"UNCOMPRESSED", "SNAPPY", "GZIP", "ZSTD"})
+    void compression_codecs(CompressionCodecName compression) throws Exception {
+
+        try (var inputData = generateBasicData(allocator)) {
+
+            // Option values are not case-sensitive
+            var options = Map.of(ParquetCodec.COMPRESSION_OPTION, compression.name().toLowerCase());
+            var footer = encodeAndReadFooter(inputData, options);
+
+            for (var column : footer.getBlocks().get(0).getColumns())
+                Assertions.assertEquals(compression, column.getCodec());
+
+            roundTrip(inputData, options);
+        }
+    }
+
+    @Test
+    void compression_invalid() {
+
+        Assertions.assertThrows(EConfigParse.class, () -> codec.getEncoder(allocator, Map.of(ParquetCodec.COMPRESSION_OPTION, "NOT_A_CODEC")));
+    }
+
+    @Test
+    void roundTrip_allNulls() throws Exception {
+
+        // Every value in every column is null, including the dictionary-encoded categorical field
+
+        try (var inputData = generateBasicData(allocator)) {
+
+            var vsr = inputData.getVsr();
+
+            for (var vector : vsr.getFieldVectors()) {
+                for (var row = 0; row < vsr.getRowCount(); row++) {
+
+                    if (vector instanceof BaseFixedWidthVector)
+                        ((BaseFixedWidthVector) vector).setNull(row);
+                    else
+                        ((BaseVariableWidthVector) vector).setNull(row);
+                }
+            }
+
+            roundTrip(inputData, Map.of());
+        }
+    }
+
+    @Test
+    void roundTrip_dictionary() throws Exception {
+
+        // Dictionary-encoded fields are written as plain values, then encoded again on read
+
+        try (var inputData = generateBasicData(allocator, 5000)) {
+
+            var categorical = inputData.getVsr().getVector("categorical_field");
+            Assertions.assertNotNull(categorical.getField().getDictionary());
+
+            ((BaseFixedWidthVector) categorical).setNull(0);
+
+            var options = Map.of(ParquetCodec.ROW_GROUP_SIZE_OPTION, "16384");
+
+            roundTrip(inputData, options, batch -> {
+
+                var rtCategorical = batch.getVsr().getVector("categorical_field");
+                var encoding = rtCategorical.getField().getDictionary();
+
+                Assertions.assertNotNull(encoding);
+                Assertions.assertNotNull(batch.getDictionaries().lookup(encoding.getId()));
+            });
+        }
+    }
+
+    @Test
+    void fileIndex_rowGroupSections() throws Exception {
+
+        // Each row group can be fetched on its own and decoded using the index built from the footer
+
+        try (var inputData = generateBasicData(allocator, 5000)) {
+
+            var options = Map.of(ParquetCodec.ROW_GROUP_SIZE_OPTION, "16384");
+            var content = encode(inputData, options);
+            var fileBytes = Bytes.copyFromBuffer(content);
+            content.forEach(ArrowBuf::close);
+
+            var index = readIndex(fileBytes);
+            var fileRow = 0L;
+
+            Assertions.assertTrue(index.sectionCount() > 1);
+
+            for (var section = 0; section < index.sectionCount(); section++) {
+
+                var start = index.sectionStart(section);
+                var end = index.sectionEnd(section);
+
+                Assertions.assertTrue(start >= 4 && start < end && end <= fileBytes.length);
+
+                var sectionBytes = Arrays.copyOfRange(fileBytes, (int) start, (int) end);
+                var sectionRows = decodeSection(index, section, sectionBytes, inputData, fileRow);
+
+                Assertions.assertEquals(index.sectionRowCount(section), sectionRows);
+                fileRow += sectionRows;
+            }
+
+            Assertions.assertEquals(5000, fileRow);
+        }
+    }
+
+    @Test
+    void fileIndex_invalidTrailer() throws Exception {
+
+        try (var inputData = generateBasicData(allocator)) {
+
+            var content = encode(inputData, Map.of());
+            var fileBytes = Bytes.copyFromBuffer(content);
+            content.forEach(ArrowBuf::close);
+
+            fileBytes[fileBytes.length - 1] = 0;
+
+            Assertions.assertThrows(EDataCorruption.class, () -> readIndex(fileBytes));
+        }
+    }
+
+    private ICodec.FileIndex readIndex(byte[] fileBytes) {
+
+        var indexReader = codec.getFileIndexReader();
+
+        try (var tail = Bytes.copyToBuffer(fileBytes, allocator)) {
+
+            var trailerOffset = fileBytes.length - indexReader.trailerSize();
+            var footerLength = indexReader.readFooterLength(tail, trailerOffset);
+
+            return indexReader.readIndex(tail, trailerOffset - footerLength, fileBytes.length);
+        }
+    }
+
+    private long decodeSection(
+            ICodec.FileIndex index, int section, byte[] sectionBytes,
+            ArrowVsrContext inputData, long fileRow) throws Exception {
+
+        var ctx = new DataContext(new DefaultEventExecutor(), allocator);
+        var sectionContent = Bytes.copyToBuffer(sectionBytes, allocator);
+        var pipeline = DataPipeline.forSource(Flows.publish(List.of(sectionContent)), ctx);
+
+        pipeline.addStage(index.getSectionDecoder(section, inputData.getSchema(), allocator, Map.of()));
+
+        var dataSink = new SingleBatchDataSink(pipeline, (batch, offset) ->
+                DataComparison.compareBatches(inputData, batch, fileRow + offset, false));
+
+        pipeline.addSink(dataSink);
+
+        var exec = pipeline.execute();
+        waitFor(TEST_TIMEOUT, exec);
+        getResultOf(exec);
+
+        return dataSink.getRowCount();
+    }
+
+    private ParquetMetadata encodeAndReadFooter(ArrowVsrContext inputData, Map<String, String> options) throws Exception {
+
+        var content = encode(inputData, options);
+
+        try (var reader = ParquetFileReader.open(new ParquetStreams.BufferInputFile(content))) {
+            return reader.getFooter();
+        }
+        finally {
+            content.forEach(ArrowBuf::close);
+        }
+    }
+
+    private List<ArrowBuf> encode(ArrowVsrContext inputData, Map<String, String> options) throws Exception {
+
+        var ctx = new DataContext(new DefaultEventExecutor(), allocator);
+        var pipeline = DataPipeline.forSource(new SingleBatchDataSource(inputData), ctx);
+        var sink = new BufferSink();
+
+        pipeline.addStage(codec.getEncoder(allocator, options));
+        pipeline.addSink(sink);
+
+        var exec = pipeline.execute();
+        waitFor(TEST_TIMEOUT, exec);
+
+        try {
+            getResultOf(exec);
+        }
+        catch (Exception e) {
+            sink.buffers.forEach(ArrowBuf::close);
+            throw e;
+        }
+
+        return sink.buffers;
+    }
+
+    private void roundTrip(ArrowVsrContext inputData, Map<String, String> options) throws Exception {
+
+        roundTrip(inputData, options, batch -> {});
+    }
+
+    private void roundTrip(
+            ArrowVsrContext inputData, Map<String, String> options,
+            Consumer<ArrowVsrContext> check) throws Exception {
+
+        var ctx = new DataContext(new DefaultEventExecutor(), allocator);
+        var pipeline = DataPipeline.forSource(new SingleBatchDataSource(inputData), ctx);
+
+        pipeline.addStage(codec.getEncoder(allocator, options));
+        pipeline.addStage(codec.getDecoder(inputData.getSchema(), allocator, Map.of()));
+
+        var dataSink = new SingleBatchDataSink(pipeline, (batch, offset) -> {
+            DataComparison.compareBatches(inputData, batch, offset, false);
+            check.accept(batch);
+        });
+
+        pipeline.addSink(dataSink);
+
+        var exec = pipeline.execute();
+        waitFor(TEST_TIMEOUT, exec);
+        getResultOf(exec);
+
+        DataComparison.compareSchemas(inputData.getSchema(), dataSink.getSchema());
+        Assertions.assertEquals(inputData.getVsr().getRowCount(), dataSink.getRowCount());
+    }
+
+    private static class BufferSink implements Flow.Subscriber<ArrowBuf> {
+
+        private final List<ArrowBuf> buffers = new ArrayList<>();
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(ArrowBuf chunk) {
+            buffers.add(chunk);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            // Errors are reported by the pipeline
+        }
+
+        @Override
+        public void onComplete() {
+            // No-op
+        }
+    }
+}
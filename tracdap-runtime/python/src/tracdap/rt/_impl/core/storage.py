@@ -1268,6 +1268,8 @@ class CommonFileStorage(IFileStorage):
 
 class CommonDataStorage(IDataStorage):
 
+    __CHUNK_INDEX_FILE = "chunk-index.csv"
+
     def __init__(
             self, config: _cfg.PluginConfig, file_storage: IFileStorage,
             pushdown_pandas: bool = False, pushdown_spark: bool = False):
@@ -1305,16 +1307,17 @@ class CommonDataStorage(IDataStorage):
             stat = self.__file_storage.stat(storage_path)
 
             if stat.file_type == FileType.DIRECTORY:
+                chunk_paths = self._chunk_paths(storage_path, codec.file_extension())
+            else:
+                chunk_paths = [storage_path]
 
-                dir_content = self.__file_storage.ls(storage_path)
+            chunks = []
 
-                if len(dir_content) == 1:
-                    storage_path = dir_content[0].storage_path
-                else:
-                    raise NotImplementedError("Directory storage format not available yet")
+            for chunk_path in chunk_paths:
+                with self.__file_storage.read_byte_stream(chunk_path) as byte_stream:
+                    chunks.append(codec.read_table(byte_stream, schema))
 
-            with self.__file_storage.read_byte_stream(storage_path) as byte_stream:
-                table = codec.read_table(byte_stream, schema)
+            table = chunks[0] if len(chunks) == 1 else pa.concat_tables(chunks)
 
             if schema is not None:
                 # Apply conformance, in case the format was not able to apply it fully on read
@@ -1334,6 +1337,39 @@ class CommonDataStorage(IDataStorage):
             self.__log.exception(str(e))
             raise _ex.ETracInternal(err) from e
 
+    def _chunk_paths(self, storage_path: str, extension: str) -> tp.List[str]:
+
+        # Datasets saved in chunks have a chunk index, listing the chunks in order
+        # Without an index, the dataset was saved as a single chunk
+
+        dir_path = storage_path.rstrip("/\\")
+        index_path = f"{dir_path}/{self.__CHUNK_INDEX_FILE}"
+
+        if not self.__file_storage.exists(index_path):
+            return [f"{dir_path}/chunk-0.{extension}"]
+
+        with self.__file_storage.read_byte_stream(index_path) as index_stream:
+            index_content = index_stream.read().decode("utf-8")
+
+        chunk_paths = []
+
+        for line in index_content.splitlines():
+
+            if not line.strip():
+                continue
+
+            fields = line.split(",")
+
+            if len(fields) != 3 or not fields[0].isdigit() or int(fields[0]) != len(chunk_paths):
+                raise _ex.EDataCorruption(f"Chunk index is invalid for [{index_path}]")
+
+            chunk_paths.append(f"{dir_path}/chunk-{fields[0]}.{extension}")
+
+        if not chunk_paths:
+            raise _ex.EDataCorruption(f"Chunk index is empty for [{index_path}]")
+
+        return chunk_paths
+
     def write_table(
             self, storage_path: str, storage_format: str,
             table: pa.Table,
@@ -17,6 +17,8 @@
 
 package org.finos.tracdap.gateway;
 
+import org.finos.tracdap.common.config.ConfigDefaults;
+import org.finos.tracdap.common.config.ConfigHelpers;
 import org.finos.tracdap.common.config.ConfigKeys;
 import org.finos.tracdap.common.config.ConfigManager;
 import org.finos.tracdap.common.exception.EStartup;
@@ -35,13 +37,13 @@ import org.finos.tracdap.gateway.builders.RouteBuilder;
 import org.finos.tracdap.gateway.exec.Redirect;
 import org.finos.tracdap.gateway.exec.Route;
 import org.finos.tracdap.gateway.routing.Http1Router;
+import org.finos.tracdap.gateway.routing.ProxyConnectionPool;
 import org.finos.tracdap.gateway.routing.WebSocketsRouter;
 
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.websocketx.WebSocketServerProtocolConfig;
 
@@ -51,6 +53,7 @@ import org.slf4j.LoggerFactory;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -85,6 +88,7 @@ public class TracPlatformGateway extends TracServiceBase {
     private AtomicInteger connId;
     private List<Route> routes;
     private List<Redirect> redirects;
+    private ProxyConnectionPool connectionPool;
 
     public static void main(String[] args) {
 
@@ -111,6 +115,7 @@ public class TracPlatformGateway extends TracServiceBase {
             connId = new AtomicInteger();
             routes = new RouteBuilder().buildRoutes(platformConfig);
             redirects = new RedirectBuilder().buildRedirects(platformConfig);
+            connectionPool = buildConnectionPool();
 
             log.info("Gateway config looks ok");
         }
@@ -140,18 +145,18 @@ public class TracPlatformGateway extends TracServiceBase {
             var bossExecutor = NettyHelpers.eventLoopExecutor("gw-boss");
             var bossScheduler = EventLoopScheduler.roundRobin();
 
-            bossGroup = NettyHelpers.nioEventLoopGroup(bossExecutor, bossScheduler, bossThreadCount);
+            bossGroup = NettyHelpers.eventLoopGroup(bossExecutor, bossScheduler, bossThreadCount);
 
             var serviceCoresAvailable= Runtime.getRuntime().availableProcessors() - 1;
             var serviceThreadCount = Math.max(Math.min(serviceCoresAvailable, MAX_SERVICE_CORES), MIN_SERVICE_CORES);
             var serviceExecutor = NettyHelpers.eventLoopExecutor("gw-svc");
             var serviceScheduler = EventLoopScheduler.preferLoopAffinity();
 
-            workerGroup = NettyHelpers.nioEventLoopGroup(serviceExecutor, serviceScheduler, serviceThreadCount);
+            workerGroup = NettyHelpers.eventLoopGroup(serviceExecutor, serviceScheduler, serviceThreadCount);
 
             var bootstrap = new ServerBootstrap()
                     .group(bossGroup, workerGroup)
-                    .channel(NioServerSocketChannel.class)
+                    .channel(NettyHelpers.serverChannelType(bossGroup))
                     .childHandler(protocolNegotiator)
                     .option(ChannelOption.SO_BACKLOG, 128)
                     .childOption(ChannelOption.SO_KEEPALIVE, true);
@@ -218,6 +223,9 @@ public class TracPlatformGateway extends TracServiceBase {
 
         log.info("Waiting for existing connections to clear...");
 
+        // Shared upstream connections get a GOAWAY, so targets see a clean shutdown
+        connectionPool.close();
+
         var shutdownElapsedTime = Duration.between(shutdownStartTime, Instant.now());
         var shutdownTimeRemaining = shutdownTimeout.minus(shutdownElapsedTime);
 
@@ -246,12 +254,51 @@ public class TracPlatformGateway extends TracServiceBase {
         return commonConcerns.build();
     }
 
+    private ProxyConnectionPool buildConnectionPool() {
+
+        // Upstream connections are shared by all client connections on the same event loop
+
+        var serviceProperties = new Properties();
+        serviceProperties.putAll(serviceConfig.getPropertiesMap());
+
+        var maxStreams = ConfigHelpers.readInt(
+                ConfigKeys.GATEWAY_SERVICE_KEY, serviceProperties,
+                ConfigKeys.GATEWAY_PROXY_MAX_STREAMS,
+                ConfigDefaults.GATEWAY_PROXY_MAX_STREAMS);
+
+        var maxConnections = ConfigHelpers.readInt(
+                ConfigKeys.GATEWAY_SERVICE_KEY, serviceProperties,
+                ConfigKeys.GATEWAY_PROXY_MAX_CONNECTIONS,
+                ConfigDefaults.GATEWAY_PROXY_MAX_CONNECTIONS);
+
+        var idleTimeout = ConfigHelpers.readInt(
+                ConfigKeys.GATEWAY_SERVICE_KEY, serviceProperties,
+                ConfigKeys.GATEWAY_PROXY_IDLE_TIMEOUT,
+                ConfigDefaults.GATEWAY_PROXY_IDLE_TIMEOUT);
+
+        var pendingTimeout = ConfigHelpers.readInt(
+                ConfigKeys.GATEWAY_SERVICE_KEY, serviceProperties,
+                ConfigKeys.GATEWAY_PROXY_PENDING_TIMEOUT,
+                ConfigDefaults.GATEWAY_PROXY_PENDING_TIMEOUT);
+
+        if (maxStreams < 1 || maxConnections < 1 || idleTimeout < 1 || pendingTimeout < 1)
+            throw new EStartup("Gateway proxy connection settings must be greater than zero");
+
+        log.info("Proxy connections: max streams = [{}], max connections = [{}], idle timeout = [{}s], pending timeout = [{}s]",
+                maxStreams, maxConnections, idleTimeout, pendingTimeout);
+
+        return new ProxyConnectionPool(
+                maxStreams, maxConnections,
+                Duration.ofSeconds(idleTimeout),
+                Duration.ofSeconds(pendingTimeout));
+    }
+
     private ChannelHandler httpHandler() {
-        return new Http1Router(routes, redirects, connId.getAndIncrement(), platformConfig);
+        return new Http1Router(routes, redirects, connectionPool, connId.getAndIncrement(), platformConfig);
     }
 
     private ChannelHandler websocketHandler() {
-        return new WebSocketsRouter(routes, connId.getAndIncrement());
+        return new WebSocketsRouter(routes, connectionPool, connId.getAndIncrement());
     }
 
     private WebSocketServerProtocolConfig websocketConfig(HttpRequest upgradeRequest) {
@@ -18,6 +18,7 @@
 package org.finos.tracdap.gateway.proxy.grpc;
 
 import io.grpc.Status;
+import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.http2.*;
@@ -28,7 +29,7 @@ import org.slf4j.Logger;
 import javax.annotation.Nonnull;
 
 
-public class GrpcProxy extends Http2ChannelDuplexHandler {
+public class GrpcProxy extends ChannelDuplexHandler {
 
     private static final ThreadLocal<Logger> logMap = new ThreadLocal<>();
     private final Logger log = LoggingHelpers.threadLocalLogger(this, logMap);
@@ -18,7 +18,6 @@
 package org.finos.tracdap.gateway.proxy.grpc;
 
 import io.netty.handler.codec.http.HttpResponseStatus;
-import io.netty.handler.logging.LogLevel;
 import org.finos.tracdap.common.exception.ENetworkHttp;
 import org.finos.tracdap.common.exception.EUnexpected;
 import org.finos.tracdap.common.util.LoggingHelpers;
@@ -26,8 +25,6 @@ import org.finos.tracdap.config.RouteConfig;
 import org.finos.tracdap.gateway.proxy.http.Http1to2Proxy;
 
 import io.netty.channel.*;
-import io.netty.handler.codec.http2.*;
-import org.finos.tracdap.gateway.proxy.http.Http2FlowControl;
 import org.finos.tracdap.gateway.proxy.http.HttpProtocol;
 import org.slf4j.Logger;
 
@@ -36,11 +33,6 @@ import javax.annotation.Nonnull;
 
 public class GrpcProxyBuilder extends ChannelInitializer<Channel> {
 
-    private static final String DATA_API_NAME = "TracDataApi";
-
-    private static final String HTTP2_PREFACE_HANDLER = "HTTP2_PREFACE";
-    private static final String HTTP2_FRAME_CODEC = "HTTP2_FRAME_CODEC";
-    private static final String HTTP2_FLOW_CTRL = "HTTP2_FLOW_CTRL";
     private static final String GRPC_PROXY_HANDLER = "GRPC_PROXY_HANDLER";
     private static final String GRPC_WEB_PROXY_HANDLER = "GRPC_WEB_PROXY_HANDLER";
     private static final String GRPC_WEBSOCKETS_TRANSLATOR = "GRPC_WEBSOCKETS_TRANSLATOR";
@@ -82,59 +74,20 @@ public class GrpcProxyBuilder extends ChannelInitializer<Channel> {
     protected void initChannel(@Nonnull Channel channel) {
 
         if (log.isDebugEnabled())
-            log.debug("conn = {}, target = {}, init gRPC proxy channel", connId, target);
+            log.debug("conn = {}, target = {}, init gRPC proxy stream", connId, target);
 
-        var pipeline = channel.pipeline();
+        // The channel is an HTTP/2 stream on a shared connection to the target
+        // HTTP/2 framing and flow control are already set up by the connection pool
 
-        // Set up foundation HTTP/2 proxy channel
-        setupHttp2(pipeline);
+        var pipeline = channel.pipeline();
 
-        // Now add the gRPC protocol handlers
+        // Add the gRPC protocol handlers
         setupGrpcTranslation(pipeline);
 
         // Finally, add the HTTP proxy and router link, which are closest to the core router
         setupRouterLink(pipeline);
     }
 
-    private void setupHttp2(ChannelPipeline pipeline) {
-
-        var initialSettings = (Http2Settings) null;
-
-        // Use a larger initial frame / window size for data transfers
-
-        if (isDataRoute()) {
-
-            if (log.isDebugEnabled())
-                log.debug("conn = {}, target = {}, using settings for bulk data transfer", connId, target);
-
-            initialSettings = new Http2Settings()
-                    .maxFrameSize(Http2FlowControl.TRAC_DATA_MAX_FRAME_SIZE)
-                    .initialWindowSize(Http2FlowControl.TRAC_DATA_INITIAL_WINDOW_SIZE);
-        }
-        else {
-
-            initialSettings = new Http2Settings()
-                    .maxFrameSize(Http2FlowControl.HTTP2_DEFAULT_MAX_FRAME_SIZE)
-                    .initialWindowSize(Http2FlowControl.HTTP2_DEFAULT_INITIAL_WINDOW_SIZE);
-        }
-
-        var http2Codec = Http2FrameCodecBuilder.forClient()
-                .initialSettings(initialSettings)
-                .autoAckSettingsFrame(true)
-                .autoAckPingFrame(true)
-                .validateHeaders(true);
-
-        // For trace logging, add an HTTP/2 frame logger
-        // Use DEBUG level, setting log level = TRACE on the frame logger logs the content of data frames
-        if (log.isTraceEnabled())
-            http2Codec.frameLogger(new Http2FrameLogger(LogLevel.DEBUG));
-
-        var http2FlowControl = new Http2FlowControl(connId, target, initialSettings);
-
-        pipeline.addLast(HTTP2_FRAME_CODEC, http2Codec.build());
-        pipeline.addLast(HTTP2_FLOW_CTRL, http2FlowControl);
-    }
-
     private void setupGrpcTranslation(ChannelPipeline pipeline) {
 
         switch (grpcProtocol) {
@@ -182,9 +135,4 @@ public class GrpcProxyBuilder extends ChannelInitializer<Channel> {
                 throw new ENetworkHttp(HttpResponseStatus.HTTP_VERSION_NOT_SUPPORTED.code(), message);
         }
     }
-
-    private boolean isDataRoute() {
-
-        return routeConfig.getMatch().getPath().contains(DATA_API_NAME);
-    }
 }
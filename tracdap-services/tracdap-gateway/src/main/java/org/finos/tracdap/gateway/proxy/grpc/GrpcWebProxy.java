@@ -22,6 +22,7 @@ import org.finos.tracdap.common.exception.EUnexpected;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.http.*;
@@ -33,7 +34,7 @@ import javax.annotation.Nonnull;
 import java.util.regex.Pattern;
 
 
-public class GrpcWebProxy extends Http2ChannelDuplexHandler {
+public class GrpcWebProxy extends ChannelDuplexHandler {
 
     private static final Pattern CONTENT_TYPE_MATCHER = Pattern.compile(
             "(?<type>\\w+)/(?<subtype>\\w+)(?:\\+(?<payload>\\w+))?(?:;\\w+=\\w+)*");
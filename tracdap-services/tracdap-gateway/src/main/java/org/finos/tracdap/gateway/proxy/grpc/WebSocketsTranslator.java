@@ -19,6 +19,7 @@ package org.finos.tracdap.gateway.proxy.grpc;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.http.websocketx.*;
@@ -35,7 +36,7 @@ import javax.annotation.Nonnull;
 import static org.finos.tracdap.gateway.proxy.grpc.GrpcUtils.LPM_PREFIX_LENGTH;
 
 
-public class WebSocketsTranslator extends Http2ChannelDuplexHandler {
+public class WebSocketsTranslator extends ChannelDuplexHandler {
 
     // This translator enables the grpc-websockets protocol
     // grpc-websockets is a further layer on top of the grpc-web, which itself is a layer on pure gRPC
@@ -47,6 +48,8 @@ public class WebSocketsTranslator extends Http2ChannelDuplexHandler {
     // The main use case for this transport is streaming upload of large datasets,
     // So the overhead of creating a channel is acceptable in that case
 
+    // The translator runs on an HTTP/2 stream channel, the single request uses the stream for that channel
+
     private static final ThreadLocal<Logger> logMap = new ThreadLocal<>();
     private final Logger log = LoggingHelpers.threadLocalLogger(this, logMap);
 
@@ -122,7 +125,7 @@ public class WebSocketsTranslator extends Http2ChannelDuplexHandler {
 
         // The initial WS headers come in a binary frame, they are converted into an HTTP/2 headers frame
 
-        requestStream = this.newStream();
+        requestStream = ((Http2StreamChannel) ctx.channel()).stream();
 
         var frameSize = wsFrame.content().readableBytes();
         var headers = GrpcUtils.decodeHeadersFrame(wsFrame.content());
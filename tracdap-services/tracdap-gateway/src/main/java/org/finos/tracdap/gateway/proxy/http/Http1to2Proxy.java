@@ -21,6 +21,7 @@ import io.netty.util.ReferenceCountUtil;
 import org.finos.tracdap.common.exception.EUnexpected;
 import org.finos.tracdap.common.util.LoggingHelpers;
 import org.finos.tracdap.config.RouteConfig;
+import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.http.*;
@@ -29,33 +30,26 @@ import org.slf4j.Logger;
 
 import javax.annotation.Nonnull;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
 
 
-public class Http1to2Proxy extends Http2ChannelDuplexHandler {
+public class Http1to2Proxy extends ChannelDuplexHandler {
+
+    // The proxy runs on an HTTP/2 stream channel, so each instance translates a single request
+    // Later requests on the same client connection are sent on new stream channels
 
     private static final ThreadLocal<Logger> logMap = new ThreadLocal<>();
     private final Logger log = LoggingHelpers.threadLocalLogger(this, logMap);
 
     private final RouteConfig routeConfig;
-
-    private final Map<Integer, Http2FrameStream> streams;
-    private final AtomicInteger nextSeqId;
     private final int connId;
 
-    private int inboundSeqId;
+    private Http2FrameStream stream;
 
     public Http1to2Proxy(RouteConfig routeConfig, int connId) {
 
         this.routeConfig = routeConfig;
         this.connId = connId;
-
-        this.streams = new HashMap<>();
-        this.nextSeqId = new AtomicInteger(0);
-        this.inboundSeqId = -1;
     }
 
     @Override
@@ -64,7 +58,7 @@ public class Http1to2Proxy extends Http2ChannelDuplexHandler {
         try {
 
             if (msg instanceof HttpRequest)
-                newSeqStream(promise);
+                startStream(ctx, promise);
 
             var frames = translateRequestFrames(msg);
             var notLastFrame = frames.subList(0, frames.size() - 1);
@@ -99,26 +93,24 @@ public class Http1to2Proxy extends Http2ChannelDuplexHandler {
         }
     }
 
-    private void newSeqStream(ChannelPromise promise) {
+    private void startStream(ChannelHandlerContext ctx, ChannelPromise promise) {
 
-        inboundSeqId = nextSeqId.getAndIncrement();
+        // Only one request can be sent on each stream
+        if (stream != null)
+            throw new EUnexpected();
 
-        var stream = this.newStream();
-        streams.put(inboundSeqId, stream);
+        stream = ((Http2StreamChannel) ctx.channel()).stream();
 
-        promise.addListener(f -> logTranslation(stream));
+        promise.addListener(f -> logTranslation());
     }
 
-    private void logTranslation(Http2FrameStream stream) {
+    private void logTranslation() {
 
-        log.info("TRANSLATE: conn = {}, stream = {}, seq = {}, HTTP/1 -> HTTP/2 ", connId, stream.id(), inboundSeqId);
+        log.info("TRANSLATE: conn = {}, stream = {}, HTTP/1 -> HTTP/2 ", connId, stream.id());
     }
 
     private List<Http2Frame> translateRequestFrames(Object http1) {
 
-        var seqId = inboundSeqId;
-        var stream = streams.get(seqId);
-
         if (stream == null)
             throw new EUnexpected();
 
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.gateway.proxy.http;
+
+import org.finos.tracdap.common.util.LoggingHelpers;
+import org.finos.tracdap.config.RouteConfig;
+
+import io.netty.channel.*;
+import io.netty.handler.codec.http2.*;
+import io.netty.handler.logging.LogLevel;
+import org.slf4j.Logger;
+
+import javax.annotation.Nonnull;
+
+
+public class Http2ConnectionBuilder extends ChannelInitializer<Channel> {
+
+    // Builds the pipeline for a shared HTTP/2 connection to a proxy target
+    // Each proxied request runs on its own stream channel, created by the multiplex handler
+    // Stream channels take care of flow control for their own stream
+
+    // Default HTTP/2 settings values as per the protocol
+    // If values are not specified in initial settings, these are the implicit defaults
+    public static final int HTTP2_DEFAULT_INITIAL_WINDOW_SIZE = (1 << 16) - 1;
+    public static final int HTTP2_DEFAULT_MAX_FRAME_SIZE = 1 << 14;
+
+    // Alternate initial settings to use for data transfer endpoints
+    public static final int TRAC_DATA_INITIAL_WINDOW_SIZE = (1 << 19) - 1;
+    public static final int TRAC_DATA_MAX_FRAME_SIZE = (1 << 16);
+
+    // The connection window is shared by all the streams on a connection
+    // Size it so several streams can be transferring at full speed
+    private static final int CONNECTION_WINDOW_STREAMS = 8;
+
+    private static final String DATA_API_NAME = "TracDataApi";
+
+    private static final String HTTP2_FRAME_CODEC = "HTTP2_FRAME_CODEC";
+    private static final String HTTP2_MULTIPLEX = "HTTP2_MULTIPLEX";
+    private static final String HTTP2_CONNECTION = "HTTP2_CONNECTION";
+
+    private static final ThreadLocal<Logger> logMap = new ThreadLocal<>();
+    private final Logger log = LoggingHelpers.threadLocalLogger(this, logMap);
+
+    private final RouteConfig routeConfig;
+    private final ChannelHandler connectionHandler;
+    private final Http2Settings initialSettings;
+
+    private final String target;
+
+    public Http2ConnectionBuilder(RouteConfig routeConfig, ChannelHandler connectionHandler) {
+
+        this.routeConfig = routeConfig;
+        this.connectionHandler = connectionHandler;
+        this.initialSettings = buildInitialSettings();
+
+        this.target = String.format("%s:%d",
+                routeConfig.getTarget().getHost(),
+                routeConfig.getTarget().getPort());
+    }
+
+    public int connectionWindowIncrement() {
+
+        // Extra window to add at the connection level, on top of the protocol default
+
+        var windowSize = (long) initialSettings.initialWindowSize() * CONNECTION_WINDOW_STREAMS;
+        var increment = windowSize - HTTP2_DEFAULT_INITIAL_WINDOW_SIZE;
+
+        return (int) Math.min(increment, Integer.MAX_VALUE);
+    }
+
+    @Override
+    protected void initChannel(@Nonnull Channel channel) {
+
+        if (log.isDebugEnabled())
+            log.debug("target = {}, init shared HTTP/2 connection", target);
+
+        var http2Codec = Http2FrameCodecBuilder.forClient()
+                .initialSettings(initialSettings)
+                .autoAckSettingsFrame(true)
+                .autoAckPingFrame(true)
+                .validateHeaders(true);
+
+        // For trace logging, add an HTTP/2 frame logger
+        // Use DEBUG level, setting log level = TRACE on the frame logger logs the content of data frames
+        if (log.isTraceEnabled())
+            http2Codec.frameLogger(new Http2FrameLogger(LogLevel.DEBUG));
+
+        var http2Multiplex = new Http2MultiplexHandler(new InboundStreamRejector(target));
+
+        var pipeline = channel.pipeline();
+        pipeline.addLast(HTTP2_FRAME_CODEC, http2Codec.build());
+        pipeline.addLast(HTTP2_MULTIPLEX, http2Multiplex);
+        pipeline.addLast(HTTP2_CONNECTION, connectionHandler);
+    }
+
+    private Http2Settings buildInitialSettings() {
+
+        // Use a larger initial frame / window size for data transfers
+        // Server push is never used by the proxy targets, so turn it off
+
+        if (isDataRoute()) {
+
+            return new Http2Settings()
+                    .maxFrameSize(TRAC_DATA_MAX_FRAME_SIZE)
+                    .initialWindowSize(TRAC_DATA_INITIAL_WINDOW_SIZE)
+                    .pushEnabled(false);
+        }
+        else {
+
+            return new Http2Settings()
+                    .maxFrameSize(HTTP2_DEFAULT_MAX_FRAME_SIZE)
+                    .initialWindowSize(HTTP2_DEFAULT_INITIAL_WINDOW_SIZE)
+                    .pushEnabled(false);
+        }
+    }
+
+    private boolean isDataRoute() {
+
+        return routeConfig.getMatch().getPath().contains(DATA_API_NAME);
+    }
+
+    @ChannelHandler.Sharable
+    private static class InboundStreamRejector extends ChannelInboundHandlerAdapter {
+
+        // The multiplex handler requires a handler for streams opened by the server
+        // Push is disabled in the initial settings, so this should never happen
+
+        private static final ThreadLocal<Logger> logMap = new ThreadLocal<>();
+        private final Logger log = LoggingHelpers.threadLocalLogger(this, logMap);
+
+        private final String target;
+
+        InboundStreamRejector(String target) {
+            this.target = target;
+        }
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) {
+
+            log.warn("target = {}, unexpected inbound HTTP/2 stream (stream will be closed)", target);
+
+            ctx.close();
+        }
+    }
+}
@@ -26,6 +26,7 @@ import io.grpc.Status;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.CompositeByteBuf;
 import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.http.*;
@@ -43,7 +44,7 @@ import java.util.Map;
 import java.util.Set;
 
 
-public class RestApiProxy extends Http2ChannelDuplexHandler {
+public class RestApiProxy extends ChannelDuplexHandler {
 
     private static final Set<String> FILTER_REQUEST_HEADERS = Set.of(
             Http2Headers.PseudoHeaderName.METHOD.value().toString(),
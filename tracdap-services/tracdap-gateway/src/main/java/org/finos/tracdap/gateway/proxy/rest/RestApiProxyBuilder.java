@@ -21,16 +21,11 @@ import org.finos.tracdap.common.exception.ENetworkHttp;
 import org.finos.tracdap.common.util.LoggingHelpers;
 import org.finos.tracdap.gateway.exec.Route;
 import org.finos.tracdap.gateway.proxy.http.Http1to2Proxy;
-import org.finos.tracdap.gateway.proxy.http.Http2FlowControl;
 import org.finos.tracdap.gateway.proxy.http.HttpProtocol;
 import org.finos.tracdap.gateway.routing.CoreRouterLink;
 
 import io.netty.channel.*;
 import io.netty.handler.codec.http.HttpResponseStatus;
-import io.netty.handler.codec.http2.Http2FrameCodecBuilder;
-import io.netty.handler.codec.http2.Http2FrameLogger;
-import io.netty.handler.codec.http2.Http2Settings;
-import io.netty.handler.logging.LogLevel;
 
 import org.slf4j.Logger;
 
@@ -60,30 +55,12 @@ public class RestApiProxyBuilder extends ChannelInitializer<Channel> {
     @Override
     protected void initChannel(Channel channel) {
 
-        log.info("conn = {}, Init REST proxy channel", connId);
+        log.info("conn = {}, Init REST proxy stream", connId);
 
-        var pipeline = channel.pipeline();
-
-        // HTTP/2 Codec, required for channels using the HTTP frame objects
-
-        var initialSettings = new Http2Settings()
-                .maxFrameSize(16 * 1024);
-
-        var target = String.format("%s:%d",
-                routeConfig.getConfig().getTarget().getHost(),
-                routeConfig.getConfig().getTarget().getPort());
+        // The channel is an HTTP/2 stream on a shared connection to the target
+        // HTTP/2 framing and flow control are already set up by the connection pool
 
-        var http2Codec = Http2FrameCodecBuilder.forClient()
-                .frameLogger(new Http2FrameLogger(LogLevel.INFO))
-                .initialSettings(initialSettings)
-                .autoAckSettingsFrame(true)
-                .autoAckPingFrame(true)
-                .build();
-
-        var http2FlowControl = new Http2FlowControl(connId, target, initialSettings);
-
-        pipeline.addLast(http2Codec);
-        pipeline.addLast(http2FlowControl);
+        var pipeline = channel.pipeline();
 
         // REST proxy
 
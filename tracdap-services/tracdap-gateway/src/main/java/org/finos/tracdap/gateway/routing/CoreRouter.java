@@ -22,9 +22,7 @@ import org.finos.tracdap.config.RoutingProtocol;
 import org.finos.tracdap.gateway.exec.Redirect;
 import org.finos.tracdap.gateway.exec.Route;
 
-import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.*;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.http.HttpMethod;
 import io.netty.util.ReferenceCountUtil;
 import io.netty.util.concurrent.Future;
@@ -53,24 +51,29 @@ abstract class CoreRouter extends ChannelDuplexHandler {
     protected final int connId;
     protected final String protocol;
 
+    private final ProxyConnectionPool connectionPool;
     private final Map<Integer, TargetChannelState> targets;
+    private final Map<Long, TargetChannelState> streamTargets;
     private final Map<Object, Integer> routeAssociation;
 
-    protected Bootstrap bootstrap;
+    public CoreRouter(List<Route> routes, ProxyConnectionPool connectionPool, int connId, String protocol) {
 
-    public CoreRouter(List<Route> routes, int connId, String protocol) {
-
-        this(routes, null, connId, protocol);
+        this(routes, null, connectionPool, connId, protocol);
     }
 
-    public CoreRouter(List<Route> routes, List<Redirect> redirects, int connId, String protocol) {
+    public CoreRouter(
+            List<Route> routes, List<Redirect> redirects,
+            ProxyConnectionPool connectionPool,
+            int connId, String protocol) {
 
         this.routes = routes;
         this.redirects = redirects;
+        this.connectionPool = connectionPool;
         this.connId = connId;
         this.protocol = protocol;
 
         this.targets = new HashMap<>();
+        this.streamTargets = new HashMap<>();
         this.routeAssociation = new HashMap<>();
     }
 
@@ -80,20 +83,9 @@ abstract class CoreRouter extends ChannelDuplexHandler {
         if (log.isDebugEnabled())
             log.debug("{} handlerAdded: conn = {}, protocol = {}", getClass().getSimpleName(), connId, protocol);
 
-        // Bootstrap is used to create proxy channels for this router channel
+        // Proxy channels come from the connection pool, which is shared by all the routers on an event loop
         // In an HTTP 1 world, browser clients will normally make several connections,
-        // so there will be multiple router instances per client
-
-        // Proxy channels will run on the same event loop as the router channel they belong to
-        // Proxy channels will use the same ByteBuf allocator as the router they belong to
-
-        var eventLoop = ctx.channel().eventLoop();
-        var allocator = ctx.alloc();
-
-        this.bootstrap = new Bootstrap()
-                .group(eventLoop)
-                .channel(NioSocketChannel.class)
-                .option(ChannelOption.ALLOCATOR, allocator);
+        // so there will be multiple router instances per client, all borrowing from the same pool
 
         super.handlerAdded(ctx);
     }
@@ -109,6 +101,9 @@ abstract class CoreRouter extends ChannelDuplexHandler {
         // Make sure any target connections that are still open are shut down cleanly
         var targetKeys = new ArrayList<>(this.targets.keySet());
         targetKeys.forEach(this::closeAndRemoveTarget);
+
+        var streamKeys = new ArrayList<>(this.streamTargets.keySet());
+        streamKeys.forEach(this::closeAndRemoveStreamTarget);
     }
 
     protected abstract ChannelInitializer<Channel> initializeProxyRoute(
@@ -117,6 +112,20 @@ abstract class CoreRouter extends ChannelDuplexHandler {
     protected abstract void reportProxyRouteError(
             ChannelHandlerContext ctx, Throwable error, boolean direction);
 
+    protected void relayResponse(ChannelHandlerContext ctx, TargetChannelState target, Object msg) {
+
+        // Calling .pipeline().write() means the message will pass through all handlers, including the router handler
+        // Calling ctx.write() will write the message into the pipeline after ctx, i.e. skipping the router
+
+        associateRoute(msg, target.routeIndex);
+        ctx.pipeline().write(msg);
+    }
+
+    protected void targetRemoved(ChannelHandlerContext ctx, TargetChannelState target) {
+
+        // No-op by default, routers can override to clean up their own state
+    }
+
 
     protected final Redirect lookupRedirect(URI uri, HttpMethod method, long requestId) {
 
@@ -165,11 +174,9 @@ abstract class CoreRouter extends ChannelDuplexHandler {
 
     protected final void openProxyChannel(TargetChannelState target, Route route, ChannelHandlerContext ctx) {
 
-        var targetConfig = route.getConfig().getTarget();
-
         // Router link signals the router link future once the link is active
         var routerLinkFuture = ctx.newPromise();
-        var routerLink = new CoreRouterLink(this, ctx, routerLinkFuture, route.getIndex(), connId);
+        var routerLink = new CoreRouterLink(this, ctx, routerLinkFuture, target, connId);
 
         // Channel initializer is built for the route
         // It will insert the router link as the last handler in the chain
@@ -199,15 +206,45 @@ abstract class CoreRouter extends ChannelDuplexHandler {
                 target.channelCloseFuture = ctx.newSucceededFuture();
             }
         }
+        else if (connectionPool.isMultiplexed(route)) {
+
+            // HTTP/2 targets run on a stream of a shared connection, borrowed from the pool
+            // The stream channel is only available once the pool has a connection ready for it
+            // Hold back the active signal until the stream channel is recorded in the target state
+
+            var streamFuture = connectionPool.openStream(ctx.channel().eventLoop(), route, channelInit);
+            var activePromise = ctx.newPromise();
+            var closePromise = ctx.newPromise();
+
+            target.multiplexed = true;
+            target.channelOpenFuture = streamFuture;
+            target.channelActiveFuture = activePromise;
+            target.channelCloseFuture = closePromise;
+
+            streamFuture.addListener(future -> {
+
+                if (!future.isSuccess())
+                    return;
+
+                target.channel = streamFuture.getNow();
+                target.channel.closeFuture().addListener(x -> closePromise.setSuccess());
+
+                routerLinkFuture.addListener(x -> {
+                    if (x.isSuccess())
+                        activePromise.setSuccess();
+                    else
+                        activePromise.setFailure(x.cause());
+                });
+            });
+        }
         else {
 
-            // Regular proxy connections are started with a client channel bootstrap
-            target.channelOpenFuture = bootstrap
-                    .handler(channelInit)
-                    .connect(targetConfig.getHost(), targetConfig.getPort());
+            // Other proxy targets need a dedicated connection, using the client bootstrap from the pool
+            var connectFuture = connectionPool.openConnection(ctx.channel().eventLoop(), route, channelInit);
 
             // Set up channel event futures - init will run on successful open
-            target.channel = target.channelOpenFuture.channel();
+            target.channel = connectFuture.channel();
+            target.channelOpenFuture = connectFuture;
             target.channelActiveFuture = routerLinkFuture;
             target.channelCloseFuture = target.channel.closeFuture();
         }
@@ -225,11 +262,19 @@ abstract class CoreRouter extends ChannelDuplexHandler {
         // TODO: Check reason for connect failure
         // TODO: Handle pipelining - there could be multiple queued requests, and/or requests to other targets
 
+        // Waiting for a pooled stream is cancelled if the target is closed before the stream opens
+        // Clean up has already been done, so there is nothing to report
+        if (future.isCancelled())
+            return;
+
         var targetConfig = routes.get(target.routeIndex).getConfig().getTarget();
 
         if (future.isSuccess()) {
 
-            log.info("PROXY CONNECT: conn = {}, target = {} {}", connId, targetConfig.getHost(), targetConfig.getPort());
+            if (!target.multiplexed)
+                log.info("PROXY CONNECT: conn = {}, target = {} {}", connId, targetConfig.getHost(), targetConfig.getPort());
+            else if (log.isDebugEnabled())
+                log.debug("PROXY STREAM: conn = {}, target = {} {}", connId, targetConfig.getHost(), targetConfig.getPort());
         }
         else {
 
@@ -252,7 +297,7 @@ abstract class CoreRouter extends ChannelDuplexHandler {
 
             // No need to close the target channel, it did not ever open
             // Remove the target, so closing the router does not try to clean it up
-            targets.remove(target.routeIndex);
+            removeTarget(ctx, target);
 
             reportProxyRouteError(ctx, future.cause(), CoreRouterLink.WRITE_DIRECTION);
         }
@@ -301,7 +346,11 @@ abstract class CoreRouter extends ChannelDuplexHandler {
             ReferenceCountUtil.release(queuedMsg);
         }
 
-        if (future.isSuccess())
+        if (future.isSuccess() && target.multiplexed) {
+            if (log.isDebugEnabled())
+                log.debug("PROXY STREAM CLOSED: conn = {}, target = {} {}", connId, targetConfig.getHost(), targetConfig.getPort());
+        }
+        else if (future.isSuccess())
             log.info("PROXY DISCONNECT: conn = {}, target = {} {}", connId, targetConfig.getHost(), targetConfig.getPort());
         else
             log.error("PROXY DISCONNECT FAILED: conn = {}, target = {} {}", connId, targetConfig.getHost(), targetConfig.getPort(), future.cause());
@@ -309,7 +358,8 @@ abstract class CoreRouter extends ChannelDuplexHandler {
         if (lostMsg)
             log.error("conn = {}, Pending messages have been lost", connId);
 
-        targets.remove(target.routeIndex);
+        // Stream targets belong to a single request, the stream closes once its own response is finished
+        removeTarget(ctx, target);
 
         // Errors here are unexpected, this means there could be inconsistent state
         // Take the nuclear option and kill the client connection
@@ -334,8 +384,9 @@ abstract class CoreRouter extends ChannelDuplexHandler {
 
             if (log.isTraceEnabled()) {
 
-                log.trace("conn = {}, target = {}, queuing message, queue size = [{}]",
-                        connId, target.channel.remoteAddress(),
+                // Channel is not available yet for pooled streams that are still waiting to open
+                log.trace("conn = {}, route = {}, queuing message, queue size = [{}]",
+                        connId, target.routeIndex,
                         target.outboundQueue.size());
             }
 
@@ -365,6 +416,15 @@ abstract class CoreRouter extends ChannelDuplexHandler {
         if (existingTarget != null)
             return existingTarget;
 
+        return createTarget(ctx, route);
+    }
+
+    protected final TargetChannelState createTarget(ChannelHandlerContext ctx, Route route) {
+
+        // Any existing target for the route is replaced
+        var routeId = route.getIndex();
+        closeAndRemoveTarget(routeId);
+
         var target = new TargetChannelState();
         targets.put(routeId, target);
 
@@ -373,23 +433,79 @@ abstract class CoreRouter extends ChannelDuplexHandler {
         return target;
     }
 
+    protected final TargetChannelState createStreamTarget(ChannelHandlerContext ctx, Route route, long requestId) {
+
+        // Multiplexed routes use a new stream for every request, targets are held per request
+        // Pipelined requests can be in flight on the same route at once, each on its own stream
+
+        var target = new TargetChannelState();
+        target.requestId = requestId;
+        streamTargets.put(requestId, target);
+
+        openProxyChannel(target, route, ctx);
+
+        return target;
+    }
+
+    protected final boolean isMultiplexed(Route route) {
+
+        return connectionPool.isMultiplexed(route);
+    }
+
     protected final TargetChannelState getTarget(int routeId) {
 
         return targets.getOrDefault(routeId, null);
     }
 
+    protected final TargetChannelState getStreamTarget(long requestId) {
+
+        return streamTargets.getOrDefault(requestId, null);
+    }
+
     protected final void closeAndRemoveTarget(int routeId) {
 
         var target = this.targets.remove(routeId);
 
-        if (target != null) {
+        if (target != null)
+            closeTarget(target);
+    }
+
+    protected final void closeAndRemoveStreamTarget(long requestId) {
 
-            for (var obj : target.outboundQueue)
-                ReferenceCountUtil.release(obj);
+        var target = this.streamTargets.remove(requestId);
 
-            if (target.channel.isOpen())
-                target.channel.close();
+        if (target != null)
+            closeTarget(target);
+    }
+
+    private void closeTarget(TargetChannelState target) {
+
+        while (!target.outboundQueue.isEmpty()) {
+            var queuedMsg = target.outboundQueue.poll();
+            ReferenceCountUtil.release(queuedMsg);
         }
+
+        while (!target.inboundQueue.isEmpty()) {
+            var queuedMsg = target.inboundQueue.poll();
+            ReferenceCountUtil.release(queuedMsg);
+        }
+
+        // Pooled streams that have not opened yet do not have a channel
+        if (target.channel == null)
+            target.channelOpenFuture.cancel(false);
+
+        else if (target.channel.isOpen())
+            target.channel.close();
+    }
+
+    private void removeTarget(ChannelHandlerContext ctx, TargetChannelState target) {
+
+        var removed = target.requestId >= 0
+                ? streamTargets.remove(target.requestId, target)
+                : targets.remove(target.routeIndex, target);
+
+        if (removed)
+            targetRemoved(ctx, target);
     }
 
     final void associateRoute(Object msg, int routeIndex) {
@@ -407,13 +523,16 @@ abstract class CoreRouter extends ChannelDuplexHandler {
     protected static final class TargetChannelState {
 
         int routeIndex;
+        long requestId = -1;
+        boolean multiplexed;
 
         Channel channel;
-        ChannelFuture channelOpenFuture;
-        ChannelFuture channelCloseFuture;
-        ChannelFuture channelActiveFuture;
+        Future<?> channelOpenFuture;
+        Future<?> channelCloseFuture;
+        Future<?> channelActiveFuture;
 
         Queue<Object> outboundQueue = new LinkedList<>();
+        Queue<Object> inboundQueue = new LinkedList<>();
     }
 
 }
\ No newline at end of file
@@ -51,20 +51,19 @@ public class CoreRouterLink extends ChannelDuplexHandler {
     private final ChannelHandlerContext routerCtx;
     private final ChannelPromise routeActivePromise;
 
-    private final int routeIndex;
+    private final CoreRouter.TargetChannelState target;
     private final int connId;
 
     public CoreRouterLink(
             CoreRouter router, ChannelHandlerContext routerCtx,
             ChannelPromise routeActivePromise,
-            int routeIndex, int connId) {
+            CoreRouter.TargetChannelState target, int connId) {
 
         this.router = router;
         this.routerCtx = routerCtx;
         this.routeActivePromise = routeActivePromise;
 
-
-        this.routeIndex = routeIndex;
+        this.target = target;
         this.connId = connId;
     }
 
@@ -110,11 +109,9 @@ public class CoreRouterLink extends ChannelDuplexHandler {
             log.debug("conn = {}, Router link inbound message of type {}", connId, msg.getClass().getSimpleName());
 
         // For inbound messages, we want to relay through the whole of the client-side channel
-        // Calling .pipeline().write() means the message will pass through all handlers, including the router handler
-        // Calling routerCtx.write() will write the message into the pipeline after routerCtx, i.e. skipping the router
+        // The router decides when to write, e.g. responses to pipelined requests must go back in order
 
-        router.associateRoute(msg, routeIndex);
-        routerCtx.pipeline().write(msg);
+        router.relayResponse(routerCtx, target, msg);
     }
 
     @Override
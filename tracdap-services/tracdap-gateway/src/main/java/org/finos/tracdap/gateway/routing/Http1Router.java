@@ -58,16 +58,21 @@ public class Http1Router extends CoreRouter {
 
     private final PlatformConfig platformConfig;
     private final Map<Long, RequestState> requests;
+    private final Deque<TargetChannelState> streamResponses;
 
     private long currentInboundRequest;
     private long currentOutboundRequest;
 
-    public Http1Router(List<Route> routes, List<Redirect> redirects, int connId, PlatformConfig platformConfig) {
+    public Http1Router(
+            List<Route> routes, List<Redirect> redirects,
+            ProxyConnectionPool connectionPool,
+            int connId, PlatformConfig platformConfig) {
 
-        super(routes, redirects, connId, "HTTP/1");
+        super(routes, redirects, connectionPool, connId, "HTTP/1");
 
         this.platformConfig = platformConfig;
         this.requests = new HashMap<>();
+        this.streamResponses = new ArrayDeque<>();
 
         this.currentInboundRequest = -1;
         this.currentOutboundRequest = -1;
@@ -77,6 +82,22 @@ public class Http1Router extends CoreRouter {
     // MESSAGES AND EVENTS
     // -----------------------------------------------------------------------------------------------------------------
 
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+
+        super.handlerRemoved(ctx);
+
+        // Responses still held for pipelined requests will never be sent
+
+        while (!streamResponses.isEmpty()) {
+
+            var target = streamResponses.poll();
+
+            while (!target.inboundQueue.isEmpty())
+                ReferenceCountUtil.release(target.inboundQueue.poll());
+        }
+    }
+
     @Override
     public void channelRead(@Nonnull ChannelHandlerContext ctx, @Nonnull Object msg) {
 
@@ -214,8 +235,16 @@ public class Http1Router extends CoreRouter {
 
         // Look up the proxy target for the selected route
         // If there is no state for the required target, create a new channel and target state record
+        // Multiplexed routes use a new stream for every request, so they always get a new target
 
-        var target = getOrCreateTarget(ctx, route);
+        TargetChannelState target;
+
+        if (isMultiplexed(route)) {
+            target = createStreamTarget(ctx, route, request.requestId);
+            streamResponses.add(target);
+        }
+        else
+            target = getOrCreateTarget(ctx, route);
 
         // Retain, in case this is a FullHttpRequest including content
         ReferenceCountUtil.retain(req);
@@ -240,7 +269,12 @@ public class Http1Router extends CoreRouter {
         if (!REQUEST_STATUS_CAN_RECEIVE.contains(request.status))
             throw new EUnexpected();
 
-        var target = getTarget(request.routeIndex);
+        var target = requestTarget(request);
+
+        // A multiplexed stream can finish before the request does, e.g. for an early error response
+        // The stream is closed and there is nowhere to send the content, so discard it
+        if (target == null && isMultiplexed(routes.get(request.routeIndex)))
+            return;
 
         if (target == null)
             throw new EUnexpected();
@@ -276,7 +310,11 @@ public class Http1Router extends CoreRouter {
                 throw new EUnexpected();
         }
 
-        var target = getTarget(request.routeIndex);
+        var target = requestTarget(request);
+
+        // Multiplexed stream already finished, content was discarded in processRequestContent()
+        if (target == null && isMultiplexed(routes.get(request.routeIndex)))
+            return;
 
         if (target == null)
             throw new EUnexpected();
@@ -286,6 +324,13 @@ public class Http1Router extends CoreRouter {
         flushMessages(target);
     }
 
+    private TargetChannelState requestTarget(RequestState request) {
+
+        return isMultiplexed(routes.get(request.routeIndex))
+                ? getStreamTarget(request.requestId)
+                : getTarget(request.routeIndex);
+    }
+
     // -----------------------------------------------------------------------------------------------------------------
     // PROXY CHANNEL HANDLING
     // -----------------------------------------------------------------------------------------------------------------
@@ -327,6 +372,74 @@ public class Http1Router extends CoreRouter {
         }
     }
 
+    @Override
+    protected void relayResponse(ChannelHandlerContext ctx, TargetChannelState target, Object msg) {
+
+        // Pipelined requests on a multiplexed route each have their own stream, which can respond at any time
+        // HTTP/1 responses must go back in request order, so hold responses until earlier streams are finished
+
+        if (!target.multiplexed) {
+            super.relayResponse(ctx, target, msg);
+            return;
+        }
+
+        if (streamResponses.peek() != target) {
+            target.inboundQueue.add(msg);
+            return;
+        }
+
+        super.relayResponse(ctx, target, msg);
+
+        if (msg instanceof LastHttpContent) {
+            streamResponses.poll();
+            releaseStreamResponses(ctx);
+        }
+    }
+
+    @Override
+    protected void targetRemoved(ChannelHandlerContext ctx, TargetChannelState target) {
+
+        if (!target.multiplexed)
+            return;
+
+        // A stream that finished its response is held in order, until earlier responses are sent
+        // A stream that closes before its response is finished cannot hold up later responses
+
+        var responseComplete = target.inboundQueue.stream().anyMatch(msg -> msg instanceof LastHttpContent);
+
+        if (responseComplete)
+            return;
+
+        var wasHead = streamResponses.peek() == target;
+        streamResponses.remove(target);
+
+        while (!target.inboundQueue.isEmpty())
+            ReferenceCountUtil.release(target.inboundQueue.poll());
+
+        if (wasHead)
+            releaseStreamResponses(ctx);
+    }
+
+    private void releaseStreamResponses(ChannelHandlerContext ctx) {
+
+        // Send responses that were held back, up to the first stream that has not finished its response
+
+        var next = streamResponses.peek();
+
+        while (next != null && !next.inboundQueue.isEmpty()) {
+
+            var msg = next.inboundQueue.poll();
+            super.relayResponse(ctx, next, msg);
+
+            if (msg instanceof LastHttpContent) {
+                streamResponses.poll();
+                next = streamResponses.peek();
+            }
+        }
+
+        ctx.channel().flush();
+    }
+
     @Override
     protected void reportProxyRouteError(ChannelHandlerContext ctx, Throwable error, boolean direction) {
 
@@ -0,0 +1,559 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.gateway.routing;
+
+import org.finos.tracdap.common.exception.ENetwork;
+import org.finos.tracdap.common.netty.NettyHelpers;
+import org.finos.tracdap.config.RoutingProtocol;
+import org.finos.tracdap.gateway.exec.Route;
+import org.finos.tracdap.gateway.proxy.http.Http2ConnectionBuilder;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.*;
+import io.netty.handler.codec.http2.*;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.Promise;
+import io.netty.util.concurrent.ScheduledFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+
+public class ProxyConnectionPool {
+
+    // Upstream connections for the gateway are shared between all the client connections on an event loop
+    // Targets that speak HTTP/2 are multiplexed, each proxied request runs on its own stream channel
+    // Other targets still need a dedicated connection, but share the client bootstrap for the event loop
+
+    // All the state for one event loop is only touched from that event loop, so there is no locking
+    // Proxy channels run on the same event loop as the router channel they belong to
+
+    private static final Duration RECONNECT_DELAY = Duration.ofSeconds(1);
+    private static final Duration MIN_EVICTION_INTERVAL = Duration.ofSeconds(1);
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final int maxStreams;
+    private final int maxConnections;
+    private final Duration idleTimeout;
+    private final Duration pendingTimeout;
+
+    private final Map<EventLoop, LoopPool> loopPools;
+    private volatile boolean closed;
+
+    public ProxyConnectionPool(int maxStreams, int maxConnections, Duration idleTimeout, Duration pendingTimeout) {
+
+        this.maxStreams = maxStreams;
+        this.maxConnections = maxConnections;
+        this.idleTimeout = idleTimeout;
+        this.pendingTimeout = pendingTimeout;
+
+        this.loopPools = new ConcurrentHashMap<>();
+    }
+
+    public void close() {
+
+        // Stop taking new streams and send GOAWAY on all the shared connections
+        // Connections close once their active streams finish, or when the event loops shut down
+
+        closed = true;
+
+        for (var loopPool : loopPools.values())
+            loopPool.eventLoop.execute(loopPool::close);
+    }
+
+    boolean isMultiplexed(Route route) {
+
+        var routeType = route.getConfig().getRouteType();
+
+        return routeType == RoutingProtocol.GRPC || routeType == RoutingProtocol.REST;
+    }
+
+    ChannelFuture openConnection(EventLoop eventLoop, Route route, ChannelHandler channelInit) {
+
+        var targetConfig = route.getConfig().getTarget();
+        var loopPool = loopPool(eventLoop);
+
+        return loopPool.bootstrap.clone()
+                .handler(channelInit)
+                .connect(targetConfig.getHost(), targetConfig.getPort());
+    }
+
+    Future<Http2StreamChannel> openStream(EventLoop eventLoop, Route route, ChannelHandler streamInit) {
+
+        if (closed)
+            return eventLoop.newFailedFuture(new ENetwork("Proxy connections are closed, the gateway is shutting down"));
+
+        var loopPool = loopPool(eventLoop);
+        var targetPool = loopPool.targets.computeIfAbsent(route.getIndex(), i -> new TargetPool(loopPool, route));
+
+        var stream = new PendingStream(streamInit, eventLoop.newPromise());
+        targetPool.acquire(stream);
+
+        return stream.promise;
+    }
+
+    private LoopPool loopPool(EventLoop eventLoop) {
+
+        return loopPools.computeIfAbsent(eventLoop, LoopPool::new);
+    }
+
+
+    // -----------------------------------------------------------------------------------------------------------------
+    // POOL STATE
+    // -----------------------------------------------------------------------------------------------------------------
+
+
+    private final class LoopPool {
+
+        final EventLoop eventLoop;
+        final Bootstrap bootstrap;
+        final Map<Integer, TargetPool> targets;
+        final ScheduledFuture<?> evictionTask;
+
+        LoopPool(EventLoop eventLoop) {
+
+            this.eventLoop = eventLoop;
+            this.targets = new HashMap<>();
+
+            this.bootstrap = new Bootstrap()
+                    .group(eventLoop)
+                    .channel(NettyHelpers.clientChannelType(eventLoop))
+                    .option(ChannelOption.SO_KEEPALIVE, true);
+
+            var evictionInterval = idleTimeout.dividedBy(2).compareTo(MIN_EVICTION_INTERVAL) > 0
+                    ? idleTimeout.dividedBy(2)
+                    : MIN_EVICTION_INTERVAL;
+
+            this.evictionTask = eventLoop.scheduleAtFixedRate(
+                    this::evictIdleConnections,
+                    evictionInterval.toMillis(), evictionInterval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+
+        void close() {
+
+            evictionTask.cancel(false);
+
+            for (var targetPool : targets.values())
+                targetPool.close();
+        }
+
+        void evictIdleConnections() {
+
+            var now = System.nanoTime();
+
+            for (var targetPool : targets.values())
+                targetPool.evictIdleConnections(now);
+        }
+    }
+
+    private final class TargetPool {
+
+        final LoopPool loopPool;
+        final Route route;
+        final String target;
+
+        final List<PooledConnection> connections;
+        final Deque<PendingStream> pending;
+
+        Throwable lastError;
+        long lastErrorTime;
+
+        TargetPool(LoopPool loopPool, Route route) {
+
+            this.loopPool = loopPool;
+            this.route = route;
+
+            this.target = String.format("%s:%d",
+                    route.getConfig().getTarget().getHost(),
+                    route.getConfig().getTarget().getPort());
+
+            this.connections = new ArrayList<>();
+            this.pending = new ArrayDeque<>();
+        }
+
+        void acquire(PendingStream stream) {
+
+            var connection = availableConnection();
+
+            if (connection != null) {
+                openStream(connection, stream);
+                return;
+            }
+
+            // If the target could not be reached just now, fail straight away
+            // Otherwise every request would queue up behind a new connection attempt
+
+            if (connections.isEmpty() && lastError != null &&
+                System.nanoTime() - lastErrorTime < RECONNECT_DELAY.toNanos()) {
+
+                stream.promise.tryFailure(lastError);
+                return;
+            }
+
+            // Do not wait forever for a stream, e.g. if the target accepts connections but never sends settings
+
+            stream.timeout = loopPool.eventLoop.schedule(
+                    () -> pendingTimeout(stream),
+                    pendingTimeout.toMillis(), TimeUnit.MILLISECONDS);
+
+            pending.add(stream);
+            connectIfNeeded();
+        }
+
+        void pendingTimeout(PendingStream stream) {
+
+            if (!pending.remove(stream))
+                return;
+
+            log.error("PROXY STREAM TIMEOUT: target = {}, no stream available after [{}s]",
+                    target, pendingTimeout.getSeconds());
+
+            var message = String.format("Timed out waiting for a connection to [%s]", target);
+            stream.promise.tryFailure(new ENetwork(message));
+        }
+
+        void close() {
+
+            failPending(new ENetwork("Proxy connections are closed, the gateway is shutting down"));
+
+            // Copy the list, closing a connection will remove it
+
+            for (var connection : List.copyOf(connections)) {
+
+                if (connection.draining)
+                    continue;
+
+                connection.draining = true;
+
+                if (connection.ready && connection.channel.isActive())
+                    connection.channel.writeAndFlush(new DefaultHttp2GoAwayFrame(Http2Error.NO_ERROR));
+
+                if (connection.activeStreams == 0)
+                    connection.channel.close();
+            }
+        }
+
+        PooledConnection availableConnection() {
+
+            // Fill connections in order, so spare connections at the end of the list can go idle and be evicted
+
+            for (var connection : connections)
+                if (connection.ready && !connection.draining && connection.activeStreams < connection.maxStreams)
+                    return connection;
+
+            return null;
+        }
+
+        void connectIfNeeded() {
+
+            // Open a new connection if pending streams will not fit on the connections that are still opening
+
+            var liveConnections = 0;
+            var openingCapacity = 0;
+
+            for (var connection : connections) {
+                if (!connection.draining) {
+                    liveConnections++;
+                    if (!connection.ready)
+                        openingCapacity += connection.maxStreams;
+                }
+            }
+
+            if (pending.size() > openingCapacity && liveConnections < maxConnections)
+                connect();
+        }
+
+        void connect() {
+
+            var connection = new PooledConnection(this);
+            var connectionInit = new Http2ConnectionBuilder(route.getConfig(), connection);
+            var targetConfig = route.getConfig().getTarget();
+
+            connection.windowIncrement = connectionInit.connectionWindowIncrement();
+
+            var connectFuture = loopPool.bootstrap.clone()
+                    .handler(connectionInit)
+                    .connect(targetConfig.getHost(), targetConfig.getPort());
+
+            connection.channel = connectFuture.channel();
+            connections.add(connection);
+
+            connectFuture.addListener(future -> connectionOpen(connection, future));
+            connection.channel.closeFuture().addListener(future -> connectionClosed(connection));
+        }
+
+        void connectionOpen(PooledConnection connection, Future<?> future) {
+
+            if (future.isSuccess()) {
+
+                log.info("PROXY CONNECT: target = {}, shared connection = {}", target, connection.channel.id());
+            }
+            else {
+
+                var cause = future.cause() != null ? future.cause() : new ENetwork("No details available");
+
+                log.error("PROXY CONNECT FAILED: target = {}, {}", target, cause.getMessage(), cause);
+
+                lastError = cause;
+                lastErrorTime = System.nanoTime();
+            }
+        }
+
+        void connectionReady(PooledConnection connection) {
+
+            lastError = null;
+
+            if (log.isDebugEnabled())
+                log.debug("target = {}, shared connection = {}, ready with max streams = [{}]",
+                        target, connection.channel.id(), connection.maxStreams);
+
+            dispatchPending();
+        }
+
+        void connectionDraining(PooledConnection connection) {
+
+            log.info("PROXY DRAIN: target = {}, shared connection = {}, active streams = [{}]",
+                    target, connection.channel.id(), connection.activeStreams);
+
+            if (connection.activeStreams == 0)
+                connection.channel.close();
+
+            // Requests waiting for a stream may need a replacement connection
+            connectIfNeeded();
+        }
+
+        void connectionClosed(PooledConnection connection) {
+
+            connections.remove(connection);
+
+            if (connection.ready)
+                log.info("PROXY DISCONNECT: target = {}, shared connection = {}", target, connection.channel.id());
+
+            else if (lastError == null) {
+                lastError = new ENetwork(String.format("Connection to [%s] closed before it was ready", target));
+                lastErrorTime = System.nanoTime();
+            }
+
+            // Streams still open on this connection are closed by the multiplex handler
+            // Pending streams can wait for another connection, unless this target is unreachable
+
+            if (pending.isEmpty())
+                return;
+
+            if (connections.isEmpty() && lastError != null)
+                failPending(lastError);
+            else
+                connectIfNeeded();
+        }
+
+        void openStream(PooledConnection connection, PendingStream stream) {
+
+            // Count the stream straight away, so the capacity is reserved while the stream opens
+
+            connection.activeStreams++;
+            connection.lastActive = System.nanoTime();
+
+            var openFuture = new Http2StreamChannelBootstrap(connection.channel)
+                    .handler(stream.streamInit)
+                    .open();
+
+            openFuture.addListener(future -> streamOpen(connection, stream, openFuture));
+        }
+
+        void streamOpen(PooledConnection connection, PendingStream stream, Future<Http2StreamChannel> future) {
+
+            if (!future.isSuccess()) {
+
+                connection.activeStreams--;
+                stream.promise.tryFailure(future.cause());
+
+                return;
+            }
+
+            var streamChannel = future.getNow();
+            streamChannel.closeFuture().addListener(f -> streamClosed(connection));
+
+            // The router may have stopped waiting, e.g. if the client disconnected
+            if (!stream.promise.trySuccess(streamChannel))
+                streamChannel.close();
+        }
+
+        void streamClosed(PooledConnection connection) {
+
+            connection.activeStreams--;
+            connection.lastActive = System.nanoTime();
+
+            if (connection.draining && connection.activeStreams == 0)
+                connection.channel.close();
+            else
+                dispatchPending();
+        }
+
+        void dispatchPending() {
+
+            while (!pending.isEmpty()) {
+
+                var connection = availableConnection();
+
+                if (connection == null)
+                    break;
+
+                var stream = pending.poll();
+                stream.timeout.cancel(false);
+
+                if (!stream.promise.isDone())
+                    openStream(connection, stream);
+            }
+
+            if (!pending.isEmpty())
+                connectIfNeeded();
+        }
+
+        void failPending(Throwable error) {
+
+            while (!pending.isEmpty()) {
+                var stream = pending.poll();
+                stream.timeout.cancel(false);
+                stream.promise.tryFailure(error);
+            }
+        }
+
+        void evictIdleConnections(long now) {
+
+            // Copy the list, closing a connection will remove it
+
+            for (var connection : List.copyOf(connections)) {
+
+                if (connection.ready && connection.activeStreams == 0 &&
+                    now - connection.lastActive > idleTimeout.toNanos()) {
+
+                    if (log.isDebugEnabled())
+                        log.debug("target = {}, shared connection = {}, closing idle connection",
+                                target, connection.channel.id());
+
+                    connection.channel.close();
+                }
+            }
+        }
+    }
+
+    private final class PooledConnection extends ChannelInboundHandlerAdapter {
+
+        // Handler at the end of the shared connection pipeline, it sees connection level frames
+        // Stream frames are dispatched to stream channels by the multiplex handler
+
+        final TargetPool targetPool;
+
+        Channel channel;
+        int windowIncrement;
+
+        boolean ready;
+        boolean draining;
+        int maxStreams;
+        int activeStreams;
+        long lastActive;
+
+        PooledConnection(TargetPool targetPool) {
+
+            this.targetPool = targetPool;
+            this.maxStreams = ProxyConnectionPool.this.maxStreams;
+            this.lastActive = System.nanoTime();
+        }
+
+        @Override
+        public void channelActive(@Nonnull ChannelHandlerContext ctx) throws Exception {
+
+            // Connection preface has been sent by the codec, now it is safe to enlarge the connection window
+            if (windowIncrement > 0)
+                ctx.writeAndFlush(new DefaultHttp2WindowUpdateFrame(windowIncrement));
+
+            super.channelActive(ctx);
+        }
+
+        @Override
+        public void channelRead(@Nonnull ChannelHandlerContext ctx, @Nonnull Object msg) {
+
+            try {
+
+                if (msg instanceof Http2SettingsFrame) {
+
+                    var settings = ((Http2SettingsFrame) msg).settings();
+                    var remoteMaxStreams = settings.maxConcurrentStreams();
+
+                    if (remoteMaxStreams != null)
+                        maxStreams = (int) Math.min(remoteMaxStreams, ProxyConnectionPool.this.maxStreams);
+
+                    // Streams can be opened once the server settings are received
+                    if (!ready) {
+                        ready = true;
+                        targetPool.connectionReady(this);
+                    }
+                    else {
+                        targetPool.dispatchPending();
+                    }
+                }
+
+                else if (msg instanceof Http2GoAwayFrame) {
+
+                    // The server is shutting down this connection, no new streams can be opened on it
+                    if (!draining) {
+                        draining = true;
+                        targetPool.connectionDraining(this);
+                    }
+                }
+            }
+            finally {
+                ReferenceCountUtil.release(msg);
+            }
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+
+            // Connection level errors cannot be attributed to any single stream
+            // The connection is no longer healthy, so close it and let streams fail individually
+
+            log.error("target = {}, shared connection = {}, unexpected error: {}",
+                    targetPool.target, ctx.channel().id(), cause.getMessage(), cause);
+
+            draining = true;
+            ctx.close();
+        }
+    }
+
+    private static final class PendingStream {
+
+        final ChannelHandler streamInit;
+        final Promise<Http2StreamChannel> promise;
+        ScheduledFuture<?> timeout;
+
+        PendingStream(ChannelHandler streamInit, Promise<Http2StreamChannel> promise) {
+            this.streamInit = streamInit;
+            this.promise = promise;
+        }
+    }
+}
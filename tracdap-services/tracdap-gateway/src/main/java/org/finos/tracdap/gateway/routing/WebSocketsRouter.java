@@ -60,8 +60,8 @@ public class WebSocketsRouter extends CoreRouter {
     private boolean firstMessageReceived = false;
     private boolean closeFrameSent = false;
 
-    public WebSocketsRouter(List<Route> routes, int connId) {
-        super(routes, connId, WEBSOCKETS_PROTOCOL);
+    public WebSocketsRouter(List<Route> routes, ProxyConnectionPool connectionPool, int connId) {
+        super(routes, connectionPool, connId, WEBSOCKETS_PROTOCOL);
     }
 
 
@@ -279,7 +279,7 @@ public class WebSocketsRouter extends CoreRouter {
                 return;
             }
 
-            // If the target is not active, create a new connection (For WS it will always be a new connection)
+            // If the target is not active, open a new stream (For WS it will always be a new stream)
             // This should always succeed inline, errors may be reported later
             getOrCreateTarget(ctx, route);
             routeId = route.getIndex();
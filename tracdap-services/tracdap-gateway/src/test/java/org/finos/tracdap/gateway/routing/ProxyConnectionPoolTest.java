@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.gateway.routing;
+
+import org.finos.tracdap.config.RouteConfig;
+import org.finos.tracdap.config.RoutingMatch;
+import org.finos.tracdap.config.RoutingProtocol;
+import org.finos.tracdap.config.RoutingTarget;
+import org.finos.tracdap.gateway.exec.Route;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.*;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http2.Http2FrameCodecBuilder;
+import io.netty.handler.codec.http2.Http2MultiplexHandler;
+import io.netty.handler.codec.http2.Http2StreamChannel;
+import io.netty.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+
+public class ProxyConnectionPoolTest {
+
+    private static final long TEST_TIMEOUT = 5;  // seconds
+
+    private static NioEventLoopGroup serverGroup;
+    private static NioEventLoopGroup clientGroup;
+    private static Channel serverChannel;
+    private static int serverPort;
+
+    @BeforeAll
+    static void startServer() throws Exception {
+
+        serverGroup = new NioEventLoopGroup(1);
+        clientGroup = new NioEventLoopGroup(1);
+
+        // Plain HTTP/2 server, streams are accepted but nothing is ever sent on them
+
+        var bootstrap = new ServerBootstrap()
+                .group(serverGroup)
+                .channel(NioServerSocketChannel.class)
+                .childHandler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel channel) {
+                        channel.pipeline().addLast(Http2FrameCodecBuilder.forServer().build());
+                        channel.pipeline().addLast(new Http2MultiplexHandler(new ChannelInitializer<Channel>() {
+                            @Override protected void initChannel(Channel stream) { }
+                        }));
+                    }
+                });
+
+        serverChannel = bootstrap.bind("localhost", 0).sync().channel();
+        serverPort = ((InetSocketAddress) serverChannel.localAddress()).getPort();
+    }
+
+    @AfterAll
+    static void stopServer() {
+
+        serverChannel.close().syncUninterruptibly();
+        clientGroup.shutdownGracefully(0, TEST_TIMEOUT, TimeUnit.SECONDS).syncUninterruptibly();
+        serverGroup.shutdownGracefully(0, TEST_TIMEOUT, TimeUnit.SECONDS).syncUninterruptibly();
+    }
+
+    @Test
+    void streamsShareConnection() throws Exception {
+
+        var pool = new ProxyConnectionPool(100, 4, Duration.ofSeconds(60), Duration.ofSeconds(30));
+        var route = grpcRoute(0, serverPort);
+
+        var stream1 = openStream(pool, route).get(TEST_TIMEOUT, TimeUnit.SECONDS);
+        var stream2 = openStream(pool, route).get(TEST_TIMEOUT, TimeUnit.SECONDS);
+
+        Assertions.assertTrue(stream1.isActive());
+        Assertions.assertTrue(stream2.isActive());
+        Assertions.assertSame(stream1.parent(), stream2.parent());
+
+        stream1.close().sync();
+        stream2.close().sync();
+
+        // Closing streams does not close the shared connection
+        Assertions.assertTrue(stream1.parent().isActive());
+    }
+
+    @Test
+    void streamLimitOpensNewConnection() throws Exception {
+
+        var pool = new ProxyConnectionPool(1, 2, Duration.ofSeconds(60), Duration.ofSeconds(30));
+        var route = grpcRoute(1, serverPort);
+
+        var stream1 = openStream(pool, route).get(TEST_TIMEOUT, TimeUnit.SECONDS);
+        var stream2 = openStream(pool, route).get(TEST_TIMEOUT, TimeUnit.SECONDS);
+
+        Assertions.assertNotSame(stream1.parent(), stream2.parent());
+
+        // Both connections are full and the connection limit is reached, so the next stream has to wait
+
+        var stream3Future = openStream(pool, route);
+        Thread.sleep(200);
+        Assertions.assertFalse(stream3Future.isDone());
+
+        stream1.close().sync();
+
+        var stream3 = stream3Future.get(TEST_TIMEOUT, TimeUnit.SECONDS);
+        Assertions.assertSame(stream1.parent(), stream3.parent());
+
+        stream2.close().sync();
+        stream3.close().sync();
+    }
+
+    @Test
+    void idleConnectionEvicted() throws Exception {
+
+        var pool = new ProxyConnectionPool(100, 4, Duration.ofSeconds(1), Duration.ofSeconds(30));
+        var route = grpcRoute(2, serverPort);
+
+        var stream = openStream(pool, route).get(TEST_TIMEOUT, TimeUnit.SECONDS);
+        var connection = stream.parent();
+
+        stream.close().sync();
+
+        Assertions.assertTrue(connection.closeFuture().await(TEST_TIMEOUT, TimeUnit.SECONDS));
+        Assertions.assertFalse(connection.isActive());
+
+        // A new connection is opened for the next stream
+        var nextStream = openStream(pool, route).get(TEST_TIMEOUT, TimeUnit.SECONDS);
+        Assertions.assertNotSame(connection, nextStream.parent());
+
+        nextStream.close().sync();
+    }
+
+    @Test
+    void unreachableTargetFails() throws Exception {
+
+        var pool = new ProxyConnectionPool(100, 4, Duration.ofSeconds(60), Duration.ofSeconds(30));
+        var route = grpcRoute(3, unusedPort());
+
+        var stream1 = openStream(pool, route);
+        Assertions.assertThrows(ExecutionException.class, () -> stream1.get(TEST_TIMEOUT, TimeUnit.SECONDS));
+
+        // Straight after a failure, requests fail without waiting for another connection attempt
+        var stream2 = openStream(pool, route);
+        Assertions.assertTrue(stream2.await(TEST_TIMEOUT, TimeUnit.SECONDS));
+        Assertions.assertFalse(stream2.isSuccess());
+    }
+
+    @Test
+    void pendingStreamTimesOut() throws Exception {
+
+        var pool = new ProxyConnectionPool(1, 1, Duration.ofSeconds(60), Duration.ofSeconds(1));
+        var route = grpcRoute(4, serverPort);
+
+        var stream1 = openStream(pool, route).get(TEST_TIMEOUT, TimeUnit.SECONDS);
+
+        // No stream is released, so the pending request must fail after the pending timeout
+
+        var stream2 = openStream(pool, route);
+        Assertions.assertTrue(stream2.await(TEST_TIMEOUT, TimeUnit.SECONDS));
+        Assertions.assertFalse(stream2.isSuccess());
+
+        // The stream that was already open is not affected
+        Assertions.assertTrue(stream1.isActive());
+
+        stream1.close().sync();
+    }
+
+    @Test
+    void closePool() throws Exception {
+
+        var pool = new ProxyConnectionPool(1, 1, Duration.ofSeconds(60), Duration.ofSeconds(30));
+        var route = grpcRoute(5, serverPort);
+
+        var stream1 = openStream(pool, route).get(TEST_TIMEOUT, TimeUnit.SECONDS);
+        var stream2 = openStream(pool, route);
+        var connection = stream1.parent();
+
+        pool.close();
+
+        // Pending streams fail, active streams are allowed to finish
+
+        Assertions.assertTrue(stream2.await(TEST_TIMEOUT, TimeUnit.SECONDS));
+        Assertions.assertFalse(stream2.isSuccess());
+        Assertions.assertTrue(connection.isActive());
+
+        // Once the last stream finishes, the connection is closed
+
+        stream1.close().sync();
+        Assertions.assertTrue(connection.closeFuture().await(TEST_TIMEOUT, TimeUnit.SECONDS));
+
+        // New streams are not accepted after the pool is closed
+
+        var stream3 = openStream(pool, route);
+        Assertions.assertTrue(stream3.await(TEST_TIMEOUT, TimeUnit.SECONDS));
+        Assertions.assertFalse(stream3.isSuccess());
+    }
+
+    private Future<Http2StreamChannel> openStream(ProxyConnectionPool pool, Route route) throws Exception {
+
+        // The pool must always be called from the event loop it is serving
+
+        var eventLoop = clientGroup.next();
+        var streamInit = new ChannelInitializer<Channel>() {
+            @Override protected void initChannel(Channel channel) { }
+        };
+
+        return eventLoop.submit(() -> pool.openStream(eventLoop, route, streamInit)).get();
+    }
+
+    private Route grpcRoute(int index, int port) {
+
+        var config = RouteConfig.newBuilder()
+                .setRouteName("test_route_" + index)
+                .setRouteType(RoutingProtocol.GRPC)
+                .setMatch(RoutingMatch.newBuilder().setPath("/test/"))
+                .setTarget(RoutingTarget.newBuilder()
+                        .setScheme("http")
+                        .setHost("localhost")
+                        .setPort(port))
+                .build();
+
+        return new Route(index, config, null);
+    }
+
+    private static int unusedPort() throws Exception {
+
+        try (var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -27,10 +27,12 @@ import org.finos.tracdap.config.TenantConfigMap;
 import org.finos.tracdap.common.config.ConfigHelpers;
 import org.finos.tracdap.common.middleware.GrpcConcern;
 import org.finos.tracdap.common.netty.*;
+import org.finos.tracdap.common.config.ConfigDefaults;
 import org.finos.tracdap.common.config.ConfigKeys;
 import org.finos.tracdap.common.codec.CodecManager;
 import org.finos.tracdap.common.config.ConfigManager;
 import org.finos.tracdap.common.exception.EStartup;
+import org.finos.tracdap.common.metadata.MetadataCache;
 import org.finos.tracdap.common.plugin.PluginManager;
 import org.finos.tracdap.common.service.TracServiceConfig;
 import org.finos.tracdap.common.service.TracServiceBase;
@@ -46,8 +48,6 @@ import io.grpc.*;
 import io.grpc.netty.NettyChannelBuilder;
 import io.grpc.netty.NettyServerBuilder;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import org.apache.arrow.memory.RootAllocator;
 import org.apache.arrow.memory.netty.NettyAllocationManager;
 import org.finos.tracdap.svc.data.service.StorageService;
@@ -58,6 +58,7 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Properties;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -78,6 +79,7 @@ public class TracDataService extends TracServiceBase {
     private ManagedChannel metaClientChanel;
     private ManagedChannel metaBlockingChanel;
     private TenantStorageManager storageManager;
+    private MetadataCache metadataCache;
     private Server server;
 
     public static void main(String[] args) {
@@ -117,9 +119,6 @@ public class TracDataService extends TracServiceBase {
 
         try {
 
-            var channelType = NioServerSocketChannel.class;
-            var clientChannelType = NioSocketChannel.class;
-
             // In an ideal setup, all processing is async on the EL with streaming data chunks
             // So we want 1 EL per core with 1 core free for OS / other tasks
             // Minimum of 2 ELs in the case of a single-core or dual-core host
@@ -132,14 +131,18 @@ public class TracDataService extends TracServiceBase {
             var bossExecutor = NettyHelpers.eventLoopExecutor("data-boss");
             var bossScheduler = EventLoopScheduler.roundRobin();
 
-            bossGroup = NettyHelpers.nioEventLoopGroup(bossExecutor, bossScheduler, bossThreadCount);
+            bossGroup = NettyHelpers.eventLoopGroup(bossExecutor, bossScheduler, bossThreadCount);
 
             var serviceCoresAvailable= Runtime.getRuntime().availableProcessors() - 1;
             var serviceThreadCount = Math.max(Math.min(serviceCoresAvailable, MAX_SERVICE_CORES), MIN_SERVICE_CORES);
             var serviceExecutor = NettyHelpers.eventLoopExecutor("data-svc");
             var serviceScheduler = EventLoopScheduler.preferLoopAffinity(offloadTracking);
 
-            serviceGroup = NettyHelpers.nioEventLoopGroup(serviceExecutor, serviceScheduler, serviceThreadCount);
+            serviceGroup = NettyHelpers.eventLoopGroup(serviceExecutor, serviceScheduler, serviceThreadCount);
+
+            // Native transport is used if available, channel types must match the event loop groups
+            var channelType = NettyHelpers.serverChannelType(bossGroup);
+            var clientChannelType = NettyHelpers.clientChannelType(serviceGroup);
 
             var baseOffloadExecutor = NettyHelpers.threadPoolExecutor("data-offload");
             offloadExecutor = offloadTracking.wrappExecutorService(baseOffloadExecutor);
@@ -186,12 +189,15 @@ public class TracDataService extends TracServiceBase {
             // Load config for all tenants and initialize storage
             storageManager.init();
 
-            var dataService = new DataService(storageManager, formats, metaClient);
-            var fileService = new FileService(storageManager, metaClient);
+            metadataCache = prepareMetadataCache(serviceConfig);
+            metadataCache.registerMetrics("data");
+
+            var dataService = new DataService(storageManager, formats, metaClient, metadataCache);
+            var fileService = new FileService(storageManager, metaClient, metadataCache);
             var storageService = new StorageService(storageManager);
 
-            var dataApi = new TracDataApi(dataService, fileService, formats, eventLoopResolver, arrowAllocator, commonConcerns);
-            var storageApi = new TracStorageApi(storageService, eventLoopResolver, arrowAllocator);
+            var dataApi = new TracDataApi(dataService, fileService, formats, eventLoopResolver, arrowAllocator, offloadExecutor, commonConcerns);
+            var storageApi = new TracStorageApi(storageService, eventLoopResolver, arrowAllocator, offloadExecutor);
             var messageProcessor = new MessageProcessor(storageManager, offloadExecutor);
 
             var serverBuilder = NettyServerBuilder
@@ -297,6 +303,34 @@ public class TracDataService extends TracServiceBase {
         return commonConcerns.configureClient(client);
     }
 
+    private MetadataCache prepareMetadataCache(ServiceConfig serviceConfig) {
+
+        var serviceProperties = new Properties();
+        serviceProperties.putAll(serviceConfig.getPropertiesMap());
+
+        var cacheSize = ConfigHelpers.readInt(
+                ConfigKeys.DATA_SERVICE_KEY, serviceProperties,
+                ConfigKeys.METADATA_CACHE_SIZE,
+                ConfigDefaults.METADATA_CACHE_SIZE);
+
+        var latestTtl = ConfigHelpers.readInt(
+                ConfigKeys.DATA_SERVICE_KEY, serviceProperties,
+                ConfigKeys.METADATA_CACHE_LATEST_TTL,
+                ConfigDefaults.METADATA_CACHE_LATEST_TTL);
+
+        if (cacheSize < 0 || latestTtl < 0)
+            throw new EStartup("Metadata cache settings cannot be negative");
+
+        if (cacheSize == 0) {
+            log.info("Metadata cache is disabled");
+            return MetadataCache.disabled();
+        }
+
+        log.info("Metadata cache size = [{} MB], latest TTL = [{} seconds]", cacheSize, latestTtl);
+
+        return new MetadataCache((long) cacheSize * 1024 * 1024, Duration.ofSeconds(latestTtl));
+    }
+
     @Override
     protected int doShutdown(Duration shutdownTimeout) {
 
@@ -308,6 +342,9 @@ public class TracDataService extends TracServiceBase {
             return server.awaitTermination(remaining.toMillis(), TimeUnit.MILLISECONDS);
         });
 
+        if (metadataCache != null)
+            metadataCache.unregisterMetrics();
+
         var storageDown = shutdownResource("Tenant storage services", deadline, remaining -> {
 
             storageManager.shutdown();
@@ -26,6 +26,8 @@ import org.finos.tracdap.common.util.LoggingHelpers;
 
 import org.slf4j.Logger;
 
+import java.util.concurrent.Executor;
+
 
 public class DataContextHelpers {
 
@@ -36,15 +38,19 @@ public class DataContextHelpers {
 
     private final EventLoopResolver eventLoopResolver;
     private final BufferAllocator rootAllocator;
+    private final Executor offloadExecutor;
 
     private final long reqInitAllocation;
     private final long reqMaxAllocation;
 
-    DataContextHelpers(Logger log, EventLoopResolver eventLoopResolver,  BufferAllocator rootAllocator) {
+    DataContextHelpers(
+            Logger log, EventLoopResolver eventLoopResolver,
+            BufferAllocator rootAllocator, Executor offloadExecutor) {
 
         this.log = log;
         this.eventLoopResolver = eventLoopResolver;
         this.rootAllocator = rootAllocator;
+        this.offloadExecutor = offloadExecutor;
 
         this.reqInitAllocation = DEFAULT_INITIAL_ALLOCATION;
         this.reqMaxAllocation = DEFAULT_MAX_ALLOCATION;
@@ -65,7 +71,8 @@ public class DataContextHelpers {
 
         log.info("OPEN data context for [{}]", requestId);
 
-        return new DataContext(eventLoop, allocator);
+        // CPU heavy work in the data pipeline (e.g. parallel decoding) runs on the service offload pool
+        return new DataContext(eventLoop, allocator, offloadExecutor);
     }
 
     void closeDataContext(IDataContext dataContext) {
@@ -33,6 +33,8 @@ import io.grpc.stub.StreamObserver;
 import org.apache.arrow.memory.BufferAllocator;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.Executor;
+
 
 public class TracDataApi extends TracDataApiGrpc.TracDataApiImplBase {
 
@@ -49,6 +51,7 @@ public class TracDataApi extends TracDataApiGrpc.TracDataApiImplBase {
             ICodecManager formats,
             EventLoopResolver eventLoopResolver,
             BufferAllocator allocator,
+            Executor offloadExecutor,
             GrpcConcern commonConcerns) {
 
         this.dataService = dataService;
@@ -57,7 +60,7 @@ public class TracDataApi extends TracDataApiGrpc.TracDataApiImplBase {
         this.commonConcerns = commonConcerns;
 
         var log = LoggerFactory.getLogger(getClass());
-        this.helpers = new DataContextHelpers(log, eventLoopResolver, allocator);
+        this.helpers = new DataContextHelpers(log, eventLoopResolver, allocator, offloadExecutor);
     }
 
 
@@ -29,6 +29,8 @@ import io.grpc.Context;
 import io.grpc.stub.StreamObserver;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.Executor;
+
 
 public class TracStorageApi extends TracStorageApiGrpc.TracStorageApiImplBase {
 
@@ -39,12 +41,13 @@ public class TracStorageApi extends TracStorageApiGrpc.TracStorageApiImplBase {
     public TracStorageApi(
             StorageService storageService,
             EventLoopResolver eventLoopResolver,
-            BufferAllocator allocator) {
+            BufferAllocator allocator,
+            Executor offloadExecutor) {
 
         this.storageService = storageService;
 
         var log = LoggerFactory.getLogger(getClass());
-        this.helpers = new DataContextHelpers(log, eventLoopResolver, allocator);
+        this.helpers = new DataContextHelpers(log, eventLoopResolver, allocator, offloadExecutor);
     }
 
     @Override
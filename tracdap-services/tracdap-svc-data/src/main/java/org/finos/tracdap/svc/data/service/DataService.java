@@ -26,6 +26,7 @@ import org.finos.tracdap.common.util.LoggingHelpers;
 import org.finos.tracdap.metadata.*;
 import org.finos.tracdap.common.async.Futures;
 import org.finos.tracdap.common.data.DataPipeline;
+import org.finos.tracdap.common.exception.EInputValidation;
 import org.finos.tracdap.common.exception.EMetadataDuplicate;
 import org.finos.tracdap.common.codec.ICodec;
 import org.finos.tracdap.common.codec.ICodecManager;
@@ -33,6 +34,7 @@ import org.finos.tracdap.common.data.IDataContext;
 import org.finos.tracdap.common.exception.EUnexpected;
 import org.finos.tracdap.common.middleware.GrpcClientConfig;
 import org.finos.tracdap.common.grpc.RequestMetadata;
+import org.finos.tracdap.common.metadata.MetadataCache;
 import org.finos.tracdap.common.metadata.MetadataCodec;
 import org.finos.tracdap.common.metadata.MetadataUtil;
 import org.finos.tracdap.common.metadata.PartKeys;
@@ -42,8 +44,11 @@ import org.apache.arrow.memory.ArrowBuf;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Flow;
@@ -65,17 +70,20 @@ public class DataService {
     private final TenantStorageManager storageManager;
     private final ICodecManager codecManager;
     private final InternalMetadataApiGrpc.InternalMetadataApiFutureStub metaClient;
+    private final MetadataCache metadataCache;
 
     private final Validator validator = new Validator();
 
     public DataService(
             TenantStorageManager storageManager,
             ICodecManager codecManager,
-            InternalMetadataApiGrpc.InternalMetadataApiFutureStub metaClient) {
+            InternalMetadataApiGrpc.InternalMetadataApiFutureStub metaClient,
+            MetadataCache metadataCache) {
 
         this.storageManager = storageManager;
         this.codecManager = codecManager;
         this.metaClient = metaClient;
+        this.metadataCache = metadataCache;
     }
 
     public CompletionStage<TagHeader> createDataset(
@@ -93,7 +101,7 @@ public class DataService {
         // Look up the requested data codec
         // If the codec is unknown the request will fail right away
         var codec = codecManager.getCodec(request.getFormat());
-        var codecOptions = Map.<String, String>of();
+        var codecOptions = codecManager.getCodecOptions(request.getFormat());
 
         return CompletableFuture.completedFuture(initialState)
 
@@ -143,7 +151,7 @@ public class DataService {
         // Look up the requested data codec
         // If the codec is unknown the request will fail right away
         var codec = codecManager.getCodec(request.getFormat());
-        var codecOptions = Map.<String, String>of();
+        var codecOptions = codecManager.getCodecOptions(request.getFormat());
 
         return CompletableFuture.completedFuture(priorState)
 
@@ -193,10 +201,11 @@ public class DataService {
         state.clientConfig = clientConfig;
 
         var codec = codecManager.getCodec(request.getFormat());
-        var codecOptions = Map.<String, String>of();
+        var codecOptions = codecManager.getCodecOptions(request.getFormat());
 
         state.offset = request.getOffset();
         state.limit = request.getLimit();
+        state.fields = request.getFieldsList();
 
         CompletableFuture.completedFuture(null)
 
@@ -206,9 +215,12 @@ public class DataService {
                 // Select which copy of the data will be read
                 .thenAccept(x -> selectCopy(state))
 
+                // Apply field selection to the schema, if only some fields are requested
+                .thenAccept(x -> selectFields(state))
+
                 // Report the resolved schema back to the caller
                 // This will be used to construct the first message in the response stream
-                .thenAccept(x -> schema.complete(state.schema))
+                .thenAccept(x -> schema.complete(state.fieldsSchema))
 
                 // Load data from storage and encode it for transmission
                 // This is where the main data processing streams are executed
@@ -249,28 +261,28 @@ public class DataService {
     private CompletionStage<RequestState> loadMetadata(String tenant, TagSelector dataSelector, RequestState state) {
 
         var client = state.clientConfig.configureClient(metaClient);
-        var request = MetadataBuilders.requestForSelector(tenant, dataSelector);
 
-        return Futures.javaFuture(client.readObject(request))
+        return metadataCache.readObject(client, tenant, dataSelector)
                 .thenAccept(tag -> {
                     state.dataId = tag.getHeader();
                     state.data = tag.getDefinition().getData();
                 })
                 .thenCompose(x -> state.data.hasSchemaId()
                     ? loadStorageAndExternalSchema(tenant, state)
-                    : loadStorageAndEmbeddedSchema(tenant, state));
+                    : loadStorageAndEmbeddedSchema(tenant, state))
+                .thenCompose(x -> checkStorageIsCurrent(tenant, state));
     }
 
     private CompletionStage<RequestState> loadStorageAndExternalSchema(String tenant, RequestState state) {
 
         var client = state.clientConfig.configureClient(metaClient);
-        var request = MetadataBuilders.requestForBatch(tenant, state.data.getStorageId(), state.data.getSchemaId());
+        var selectors = List.of(state.data.getStorageId(), state.data.getSchemaId());
 
-        return Futures.javaFuture(client.readBatch(request))
-                .thenApply(response -> {
+        return metadataCache.readBatch(client, tenant, selectors)
+                .thenApply(tags -> {
 
-                    var storageTag = response.getTag(0);
-                    var schemaTag = response.getTag(1);
+                    var storageTag = tags.get(0);
+                    var schemaTag = tags.get(1);
 
                     state.storageId = storageTag.getHeader();
                     state.storage = storageTag.getDefinition().getStorage();
@@ -285,9 +297,8 @@ public class DataService {
     private CompletionStage<RequestState> loadStorageAndEmbeddedSchema(String tenant, RequestState state) {
 
         var client = state.clientConfig.configureClient(metaClient);
-        var request = MetadataBuilders.requestForSelector(tenant, state.data.getStorageId());
 
-        return Futures.javaFuture(client.readObject(request))
+        return metadataCache.readObject(client, tenant, state.data.getStorageId())
                 .thenApply(tag -> {
 
                     state.storageId = tag.getHeader();
@@ -300,6 +311,30 @@ public class DataService {
                 });
     }
 
+    private CompletionStage<RequestState> checkStorageIsCurrent(String tenant, RequestState state) {
+
+        // Storage is always selected for the latest version, so it can come from the cache with a short TTL
+        // If the cached storage does not know about this data version yet, it must be reloaded
+
+        var storageIsCurrent = state.data.getPartsMap().values().stream()
+                .flatMap(part -> part.getSnap().getDeltasList().stream())
+                .allMatch(delta -> state.storage.containsDataItems(delta.getDataItem()));
+
+        if (storageIsCurrent)
+            return CompletableFuture.completedFuture(state);
+
+        var client = state.clientConfig.configureClient(metaClient);
+
+        return metadataCache.reloadObject(client, tenant, state.data.getStorageId())
+                .thenApply(tag -> {
+
+                    state.storageId = tag.getHeader();
+                    state.storage = tag.getDefinition().getStorage();
+
+                    return state;
+                });
+    }
+
     private CompletionStage<RequestState> resolveSchema(DataWriteRequest request, RequestState state) {
 
         return resolveSchema(request, state, null);
@@ -322,9 +357,7 @@ public class DataService {
                 return CompletableFuture.completedFuture(state);
             }
 
-            var schemaReq = MetadataBuilders.requestForSelector(request.getTenant(), request.getSchemaId());
-
-            return Futures.javaFuture(client.readObject(schemaReq))
+            return metadataCache.readObject(client, request.getTenant(), request.getSchemaId())
                     .thenApply(tag -> { state.schema = tag.getDefinition().getSchema(); return state; });
         }
 
@@ -357,6 +390,44 @@ public class DataService {
                 .getCopies(copyIndex);
     }
 
+    private void selectFields(RequestState state) {
+
+        if (state.fields.isEmpty()) {
+            state.fieldsSchema = state.schema;
+            return;
+        }
+
+        if (state.schema.getSchemaType() != SchemaType.TABLE_SCHEMA)
+            throw new EInputValidation("Field selection is only available for datasets with a table schema");
+
+        var schemaFields = new TreeMap<String, FieldSchema>(String.CASE_INSENSITIVE_ORDER);
+
+        for (var field : state.schema.getTable().getFieldsList())
+            schemaFields.put(field.getFieldName(), field);
+
+        var selectedNames = new ArrayList<String>(state.fields.size());
+        var selectedTable = TableSchema.newBuilder();
+
+        for (var fieldName : state.fields) {
+
+            var field = schemaFields.get(fieldName);
+
+            if (field == null) {
+                var message = String.format("Field [%s] is not present in the dataset", fieldName);
+                throw new EInputValidation(message);
+            }
+
+            // Use field names from the schema, so decoders see the names that are stored
+            selectedNames.add(field.getFieldName());
+            selectedTable.addFields(field.toBuilder().setFieldOrder(selectedTable.getFieldsCount()));
+        }
+
+        state.fields = selectedNames;
+        state.fieldsSchema = state.schema.toBuilder()
+                .setTable(selectedTable)
+                .build();
+    }
+
     private CompletionStage<TagHeader> saveMetadata(DataWriteRequest request, RequestState state) {
 
         var client = state.clientConfig.configureClient(metaClient);
@@ -396,7 +467,14 @@ public class DataService {
 
         return Futures
                 .javaFuture(client.writeBatch(batchReq))
-                .thenApply(batchResp -> batchResp.getUpdateObjects(0));
+                .thenApply(batchResp -> {
+
+                    // New versions are now live, cached lookups for the latest versions are out of date
+                    metadataCache.invalidateLatest(request.getTenant(), prior.dataId);
+                    metadataCache.invalidateLatest(request.getTenant(), prior.storageId);
+
+                    return batchResp.getUpdateObjects(0);
+                });
     }
 
     private RequestState buildMetadata(DataWriteRequest request, RequestState state) {
@@ -615,6 +693,7 @@ public class DataService {
 
         var tenantStorage = storageManager.getTenantStorage(state.tenant);
         var location = tenantStorage.defaultLocation();
+        var dataStorage = tenantStorage.getDataStorage(location);
 
         var format = state.schema.getSchemaType() == SchemaType.STRUCT_SCHEMA
                 ? STRUCT_STORAGE_FORMAT
@@ -630,7 +709,8 @@ public class DataService {
                 .setCopyTimestamp(storageTimestamp)
                 .setStorageKey(location)
                 .setStoragePath(storagePath)
-                .setStorageFormat(format);
+                .setStorageFormat(format)
+                .putAllStorageOptions(dataStorage.storageOptions());
 
         var incarnation = StorageIncarnation.newBuilder()
                 .setIncarnationStatus(IncarnationStatus.INCARNATION_AVAILABLE)
@@ -711,7 +791,7 @@ public class DataService {
                 .getTenantStorage(state.tenant)
                 .getDataStorage(state.copy.getStorageKey());
 
-        var pipeline = storage.pipelineReader(state.copy, state.schema, dataCtx, state.offset, state.limit);
+        var pipeline = storage.pipelineReader(state.copy, state.schema, state.fields, dataCtx, state.offset, state.limit);
         var encoder = codec.getEncoder(dataCtx.arrowAllocator(), codecOptions);
 
         pipeline.addStage(encoder);
@@ -729,8 +809,12 @@ public class DataService {
                 .getTenantStorage(state.tenant)
                 .getDataStorage(state.copy.getStorageKey());
 
+        // Decoding options for the upload can also be set on the target storage bucket (e.g. CSV parallelism)
+        var decoderOptions = new HashMap<>(storage.codecOptions(codec));
+        decoderOptions.putAll(codecOptions);
+
         var pipeline = DataPipeline.forSource(contentStream, dataCtx);
-        var decoder = codec.getDecoder(state.schema, dataCtx.arrowAllocator(), codecOptions);
+        var decoder = codec.getDecoder(state.schema, dataCtx.arrowAllocator(), decoderOptions);
         var counter = new CounterStage();
         var signal = new CompletableFuture<Long>();
 
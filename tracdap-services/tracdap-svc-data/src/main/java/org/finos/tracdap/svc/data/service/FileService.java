@@ -30,6 +30,7 @@ import org.finos.tracdap.common.middleware.GrpcClientConfig;
 import org.finos.tracdap.common.grpc.RequestMetadata;
 import org.finos.tracdap.common.metadata.MetadataUtil;
 import org.finos.tracdap.common.exception.EDataSize;
+import org.finos.tracdap.common.metadata.MetadataCache;
 import org.finos.tracdap.common.metadata.MetadataCodec;
 import org.finos.tracdap.common.storage.IFileStorage;
 import org.finos.tracdap.common.validation.Validator;
@@ -61,15 +62,18 @@ public class FileService {
 
     private final TenantStorageManager storageManager;
     private final InternalMetadataApiFutureStub metaApi;
+    private final MetadataCache metadataCache;
 
     private final Validator validator = new Validator();
 
     public FileService(
             TenantStorageManager storageManager,
-            InternalMetadataApiFutureStub metaApi) {
+            InternalMetadataApiFutureStub metaApi,
+            MetadataCache metadataCache) {
 
         this.storageManager = storageManager;
         this.metaApi = metaApi;
+        this.metadataCache = metadataCache;
     }
 
     public CompletionStage<TagHeader> createFile(
@@ -193,9 +197,8 @@ public class FileService {
     private CompletionStage<RequestState> loadMetadata(String tenant, TagSelector fileSelector, RequestState state) {
 
         var client = state.clientConfig.configureClient(metaApi);
-        var request = requestForSelector(tenant, fileSelector);
 
-        return Futures.javaFuture(client.readObject(request))
+        return metadataCache.readObject(client, tenant, fileSelector)
                 .thenAccept(tag -> {
                     state.fileId = tag.getHeader();
                     state.file = tag.getDefinition().getFile();
@@ -206,9 +209,13 @@ public class FileService {
     private CompletionStage<RequestState> loadStorageMetadata(String tenant, RequestState state) {
 
         var client = state.clientConfig.configureClient(metaApi);
-        var request = requestForSelector(tenant, state.file.getStorageId());
 
-        return Futures.javaFuture(client.readObject(request))
+        // Storage is selected for the latest version, a cached copy may not know about this file version yet
+
+        return metadataCache.readObject(client, tenant, state.file.getStorageId())
+                .thenCompose(tag -> tag.getDefinition().getStorage().containsDataItems(state.file.getDataItem())
+                        ? CompletableFuture.completedFuture(tag)
+                        : metadataCache.reloadObject(client, tenant, state.file.getStorageId()))
                 .thenApply(tag -> {
                     state.storageId = tag.getHeader();
                     state.storage = tag.getDefinition().getStorage();
@@ -257,7 +264,14 @@ public class FileService {
 
         return Futures
                 .javaFuture(client.writeBatch(batchReq))
-                .thenApply(resp -> resp.getUpdateObjects(0));
+                .thenApply(resp -> {
+
+                    // New versions are now live, cached lookups for the latest versions are out of date
+                    metadataCache.invalidateLatest(tenant, prior.fileId);
+                    metadataCache.invalidateLatest(tenant, prior.storageId);
+
+                    return resp.getUpdateObjects(0);
+                });
     }
 
     private CompletionStage<RequestState> writeFileContent(
@@ -49,6 +49,8 @@ class RequestState {
 
     long offset;
     long limit;
+    List<String> fields;
+    SchemaDefinition fieldsSchema;
 
     StorageCopy copy;
 
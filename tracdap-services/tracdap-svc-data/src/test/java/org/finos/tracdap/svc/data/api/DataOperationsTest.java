@@ -2136,6 +2136,86 @@ abstract class DataOperationsTest {
         assertDataEqualForRange(originalData, responseData1, 2, 2);
     }
 
+    @Test
+    void readDataset_ok_fieldSelection() throws Exception {
+
+        // Create an object to read
+        var createDataset = DataApiTestHelpers.clientStreaming(dataClient::createDataset, BASIC_CREATE_DATASET_REQUEST);
+        waitFor(TEST_TIMEOUT, createDataset);
+        var dataId = resultOf(createDataset);
+
+        var readRequest = readRequest(dataId)
+                .toBuilder()
+                .addFields("string_field")
+                .addFields("INTEGER_FIELD")
+                .build();
+
+        var readDataset = DataApiTestHelpers.serverStreaming(dataClient::readDataset, readRequest, execContext);
+        waitFor(TEST_TIMEOUT, readDataset);
+        var responseList = resultOf(readDataset);
+
+        // Schema in the first message should contain only the selected fields, in the order requested
+        var response0 = responseList.get(0);
+        var responseFields = response0.getSchema().getTable().getFieldsList();
+
+        Assertions.assertEquals(ByteString.EMPTY, response0.getContent());
+        Assertions.assertEquals(2, responseFields.size());
+        Assertions.assertEquals("string_field", responseFields.get(0).getFieldName());
+        Assertions.assertEquals("integer_field", responseFields.get(1).getFieldName());
+
+        var content = responseList.stream().skip(1)
+                .map(DataReadResponse::getContent)
+                .reduce(ByteString.EMPTY, ByteString::concat);
+
+        var originalData = DataApiTestHelpers.decodeCsv(BASIC_SCHEMA, List.of(BASIC_CSV_CONTENT));
+        var responseData = DataApiTestHelpers.decodeCsv(response0.getSchema(), List.of(content));
+
+        // string_field and integer_field are at positions 4 and 1 in the basic schema
+        var selectedData = List.of(originalData.get(4), originalData.get(1));
+
+        assertDataEqual(selectedData, responseData);
+    }
+
+    @Test
+    void readDataset_fieldNotFound() throws Exception {
+
+        var createDataset = DataApiTestHelpers.clientStreaming(dataClient::createDataset, BASIC_CREATE_DATASET_REQUEST);
+        waitFor(TEST_TIMEOUT, createDataset);
+        var dataId = resultOf(createDataset);
+
+        var readRequest = readRequest(dataId)
+                .toBuilder()
+                .addFields("string_field")
+                .addFields("no_such_field")
+                .build();
+
+        var readDataset = DataApiTestHelpers.serverStreamingDiscard(dataClient::readDataset, readRequest, execContext);
+
+        waitFor(TEST_TIMEOUT, readDataset);
+        var error = assertThrows(StatusRuntimeException.class, () -> resultOf(readDataset));
+        assertEquals(Status.Code.INVALID_ARGUMENT, error.getStatus().getCode());
+    }
+
+    @Test
+    void readDataset_fieldDuplicated() throws Exception {
+
+        var createDataset = DataApiTestHelpers.clientStreaming(dataClient::createDataset, BASIC_CREATE_DATASET_REQUEST);
+        waitFor(TEST_TIMEOUT, createDataset);
+        var dataId = resultOf(createDataset);
+
+        var readRequest = readRequest(dataId)
+                .toBuilder()
+                .addFields("string_field")
+                .addFields("STRING_FIELD")
+                .build();
+
+        var readDataset = DataApiTestHelpers.serverStreamingDiscard(dataClient::readDataset, readRequest, execContext);
+
+        waitFor(TEST_TIMEOUT, readDataset);
+        var error = assertThrows(StatusRuntimeException.class, () -> resultOf(readDataset));
+        assertEquals(Status.Code.INVALID_ARGUMENT, error.getStatus().getCode());
+    }
+
     @Test
     void readDataset_selectorTypeOmitted() throws Exception {
 
@@ -209,13 +209,17 @@ class MetadataApiImpl {
 
             var tenant = request.getTenant();
             var searchParams = request.getSearchParams();
+            var pageSize = request.hasPageSize() ? request.getPageSize() : 0;
+            var pageToken = request.hasPageToken() ? request.getPageToken() : null;
 
-            var searchResult = searchService.search(tenant, searchParams);
+            var searchResult = searchService.search(tenant, searchParams, pageSize, pageToken);
             var result = MetadataSearchResponse.newBuilder()
-                    .addAllSearchResult(searchResult)
-                    .build();
+                    .addAllSearchResult(searchResult.getResults());
 
-            response.onNext(result);
+            if (searchResult.hasNextPage())
+                result.setNextPageToken(searchResult.getNextPageToken());
+
+            response.onNext(result.build());
             response.onCompleted();
         }
         catch (Exception error) {
@@ -223,6 +227,18 @@ class MetadataApiImpl {
         }
     }
 
+    void searchStream(MetadataSearchRequest request, StreamObserver<MetadataSearchResponse> response) {
+
+        try {
+
+            var searchStream = new MetadataSearchStream(searchService, request, response);
+            searchStream.start();
+        }
+        catch (Exception error) {
+            response.onError(error);
+        }
+    }
+
     void getObject(MetadataGetRequest request, StreamObserver<Tag> response) {
 
         try {
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.finos.tracdap.svc.meta.api;
+
+import org.finos.tracdap.api.MetadataSearchRequest;
+import org.finos.tracdap.api.MetadataSearchResponse;
+import org.finos.tracdap.common.exception.EUnexpected;
+import org.finos.tracdap.metadata.SearchParameters;
+import org.finos.tracdap.svc.meta.services.MetadataSearchService;
+
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+
+
+class MetadataSearchStream {
+
+    // Send search results one page at a time, using keyset paging in the metadata store
+    // Each page is read in its own short transaction, so a slow client does not hold a database cursor open
+    // Pages are only read when the response stream is ready, which gives flow control back to the client
+
+    private final MetadataSearchService searchService;
+    private final ServerCallStreamObserver<MetadataSearchResponse> response;
+
+    private final String tenant;
+    private final SearchParameters searchParams;
+    private final int pageSize;
+
+    private String pageToken;
+    private boolean done;
+
+    MetadataSearchStream(
+            MetadataSearchService searchService,
+            MetadataSearchRequest request,
+            StreamObserver<MetadataSearchResponse> response) {
+
+        if (!(response instanceof ServerCallStreamObserver))
+            throw new EUnexpected();
+
+        this.searchService = searchService;
+        this.response = (ServerCallStreamObserver<MetadataSearchResponse>) response;
+
+        this.tenant = request.getTenant();
+        this.searchParams = request.getSearchParams();
+        this.pageSize = request.hasPageSize() ? request.getPageSize() : 0;
+        this.pageToken = request.hasPageToken() ? request.getPageToken() : null;
+    }
+
+    void start() {
+
+        response.setOnCancelHandler(this::onCancel);
+        response.setOnReadyHandler(this::sendPages);
+
+        sendPages();
+    }
+
+    private void sendPages() {
+
+        try {
+
+            while (!done && response.isReady()) {
+
+                var page = searchService.search(tenant, searchParams, pageSize, pageToken);
+                var result = MetadataSearchResponse.newBuilder()
+                        .addAllSearchResult(page.getResults());
+
+                if (page.hasNextPage()) {
+                    result.setNextPageToken(page.getNextPageToken());
+                    pageToken = page.getNextPageToken();
+                }
+                else
+                    done = true;
+
+                response.onNext(result.build());
+
+                if (done)
+                    response.onCompleted();
+            }
+        }
+        catch (Exception error) {
+
+            done = true;
+            response.onError(error);
+        }
+    }
+
+    private void onCancel() {
+
+        done = true;
+    }
+}
@@ -92,6 +92,12 @@ public class TracMetadataApi extends TracMetadataApiGrpc.TracMetadataApiImplBase
         apiImpl.search(request, response);
     }
 
+    @Override
+    public void searchStream(MetadataSearchRequest request, StreamObserver<MetadataSearchResponse> response) {
+
+        apiImpl.searchStream(request, response);
+    }
+
     @Override
     public void getObject(MetadataGetRequest request, StreamObserver<Tag> response) {
 
@@ -17,11 +17,9 @@
 
 package org.finos.tracdap.svc.meta.services;
 
-import org.finos.tracdap.metadata.Tag;
 import org.finos.tracdap.metadata.SearchParameters;
 import org.finos.tracdap.common.metadata.store.IMetadataStore;
-
-import java.util.List;
+import org.finos.tracdap.common.metadata.store.MetadataSearchPage;
 
 
 public class MetadataSearchService {
@@ -32,11 +30,11 @@ public class MetadataSearchService {
         this.metadataStore = metadataStore;
     }
 
-    public List<Tag>
-    search(String tenant, SearchParameters searchParameters) {
+    public MetadataSearchPage
+    search(String tenant, SearchParameters searchParameters, int pageSize, String pageToken) {
 
         // Validation currently in the API layer
 
-        return metadataStore.search(tenant, searchParameters);
+        return metadataStore.search(tenant, searchParameters, pageSize, pageToken);
     }
 }
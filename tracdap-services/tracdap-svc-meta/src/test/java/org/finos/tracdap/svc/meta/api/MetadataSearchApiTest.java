@@ -35,6 +35,7 @@ import org.junit.jupiter.api.extension.RegisterExtension;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 
+import java.util.ArrayList;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -725,9 +726,92 @@ abstract class MetadataSearchApiTest {
     }
 
     @Test
-    @Disabled("Search result limit not implemented yet")
-    void maxResultsLimit() {
-        Assertions.fail();
+    void pagedSearch() {
+
+        var searchAttr = "pagedSearch_WHICH_DROIDS";
+        var searchRequest = createPagingObjects(searchAttr, 7)
+                .setPageSize(3)
+                .build();
+
+        var page1 = searchApi.search(searchRequest);
+        assertEquals(3, page1.getSearchResultCount());
+        assertTrue(page1.hasNextPageToken());
+
+        var page2 = searchApi.search(searchRequest.toBuilder().setPageToken(page1.getNextPageToken()).build());
+        assertEquals(3, page2.getSearchResultCount());
+        assertTrue(page2.hasNextPageToken());
+
+        var page3 = searchApi.search(searchRequest.toBuilder().setPageToken(page2.getNextPageToken()).build());
+        assertEquals(1, page3.getSearchResultCount());
+        assertFalse(page3.hasNextPageToken());
+
+        var objectIds = Stream.of(page1, page2, page3)
+                .flatMap(page -> page.getSearchResultList().stream())
+                .map(tag -> tag.getHeader().getObjectId())
+                .collect(Collectors.toSet());
+
+        assertEquals(7, objectIds.size());
+    }
+
+    @Test
+    void streamingSearch() {
+
+        var searchAttr = "streamingSearch_WHICH_DROIDS";
+        var searchRequest = createPagingObjects(searchAttr, 7)
+                .setPageSize(2)
+                .build();
+
+        var pages = new ArrayList<MetadataSearchResponse>();
+        searchApi.searchStream(searchRequest).forEachRemaining(pages::add);
+
+        assertEquals(4, pages.size());
+        assertFalse(pages.get(3).hasNextPageToken());
+
+        var objectIds = pages.stream()
+                .flatMap(page -> page.getSearchResultList().stream())
+                .map(tag -> tag.getHeader().getObjectId())
+                .collect(Collectors.toSet());
+
+        assertEquals(7, objectIds.size());
+
+        // Streaming and paged searches return results in the same order
+
+        var pagedResult = searchApi.search(searchRequest.toBuilder().setPageSize(7).build());
+
+        var streamedResult = pages.stream()
+                .flatMap(page -> page.getSearchResultList().stream())
+                .collect(Collectors.toList());
+
+        assertEquals(pagedResult.getSearchResultList(), streamedResult);
+    }
+
+    private MetadataSearchRequest.Builder createPagingObjects(String searchAttr, int nObjects) {
+
+        for (var i = 0; i < nObjects; i++) {
+
+            var request = MetadataWriteRequest.newBuilder()
+                    .setTenant(TEST_TENANT)
+                    .setObjectType(ObjectType.DATA)
+                    .setDefinition(dummyDataDef())
+                    .addTagUpdates(TagUpdate.newBuilder()
+                            .setAttrName(searchAttr)
+                            .setValue(encodeValue("the_droids_you_are_looking_for")))
+                    .build();
+
+            // noinspection ResultOfMethodCallIgnored
+            writeApi.createObject(request);
+        }
+
+        return MetadataSearchRequest.newBuilder()
+                .setTenant(TEST_TENANT)
+                .setSearchParams(SearchParameters.newBuilder()
+                .setObjectType(ObjectType.DATA)
+                .setSearch(SearchExpression.newBuilder()
+                .setTerm(SearchTerm.newBuilder()
+                        .setAttrName(searchAttr)
+                        .setAttrType(BasicType.STRING)
+                        .setOperator(SearchOperator.EQ)
+                        .setSearchValue(encodeValue("the_droids_you_are_looking_for")))));
     }
 
     @Test
@@ -797,4 +881,37 @@ abstract class MetadataSearchApiTest {
         var error = assertThrows(StatusRuntimeException.class, () -> searchApi.search(searchRequest));
         assertEquals(Status.Code.INVALID_ARGUMENT, error.getStatus().getCode());
     }
+
+    @Test
+    void invalidSearch_badPaging() {
+
+        var searchParams = SearchParameters.newBuilder()
+                .setObjectType(ObjectType.DATA)
+                .setSearch(SearchExpression.newBuilder()
+                .setTerm(SearchTerm.newBuilder()
+                        .setAttrName("invalidSearch_badPaging")
+                        .setAttrType(BasicType.STRING)
+                        .setOperator(SearchOperator.EQ)
+                        .setSearchValue(encodeValue("the_droids_you_are_looking_for"))));
+
+        var badPageSize = MetadataSearchRequest.newBuilder()
+                .setTenant(TEST_TENANT)
+                .setSearchParams(searchParams)
+                .setPageSize(-1)
+                .build();
+
+        // noinspection ResultOfMethodCallIgnored
+        var error = assertThrows(StatusRuntimeException.class, () -> searchApi.search(badPageSize));
+        assertEquals(Status.Code.INVALID_ARGUMENT, error.getStatus().getCode());
+
+        var badPageToken = MetadataSearchRequest.newBuilder()
+                .setTenant(TEST_TENANT)
+                .setSearchParams(searchParams)
+                .setPageToken("not_a_page_token")
+                .build();
+
+        // noinspection ResultOfMethodCallIgnored
+        var error2 = assertThrows(StatusRuntimeException.class, () -> searchApi.search(badPageToken));
+        assertEquals(Status.Code.INVALID_ARGUMENT, error2.getStatus().getCode());
+    }
 }
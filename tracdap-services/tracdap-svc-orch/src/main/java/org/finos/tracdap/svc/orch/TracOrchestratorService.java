@@ -28,8 +28,10 @@ import org.finos.tracdap.config.TenantConfigMap;
 import org.finos.tracdap.svc.orch.service.JobExecutor;
 import org.finos.tracdap.common.exec.IBatchExecutor;
 import org.finos.tracdap.common.exception.EStartup;
+import org.finos.tracdap.common.metadata.MetadataCache;
 import org.finos.tracdap.common.grpc.*;
 import org.finos.tracdap.common.middleware.GrpcConcern;
+import org.finos.tracdap.common.netty.NettyHelpers;
 import org.finos.tracdap.common.plugin.PluginManager;
 import org.finos.tracdap.common.plugin.PluginRegistry;
 import org.finos.tracdap.common.service.TracServiceConfig;
@@ -49,10 +51,6 @@ import io.grpc.netty.NettyChannelBuilder;
 import io.grpc.netty.NettyServerBuilder;
 import io.netty.channel.Channel;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
-import io.netty.util.concurrent.DefaultThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -60,6 +58,7 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Properties;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -82,7 +81,9 @@ public class TracOrchestratorService extends TracServiceBase {
     private ManagedChannel clientChannel;
 
     private IBatchExecutor<? extends Serializable> batchExecutor;
+    private IJobCacheManager jobCacheManager;
     private JobManager jobManager;
+    private MetadataCache metadataCache;
 
     public static void main(String[] args) {
 
@@ -132,14 +133,15 @@ public class TracOrchestratorService extends TracServiceBase {
             // E.g. meta svc uses high level ServerBuilder with just one worker pool
             // Orch framework still needs a channel factory to connect to instances of TRAC runtime
 
-            var channelType = NioServerSocketChannel.class;
-            var clientChannelType = NioSocketChannel.class;
+            bossGroup = NettyHelpers.eventLoopGroup("orch-boss", 1);
+            nettyGroup = NettyHelpers.eventLoopGroup("orch-netty", 2);
 
-            bossGroup = new NioEventLoopGroup(1, new DefaultThreadFactory("orch-boss"));
-            nettyGroup = new NioEventLoopGroup(2, new DefaultThreadFactory("orch-netty"));
+            // Native transport is used if available, channel types must match the event loop groups
+            var channelType = NettyHelpers.serverChannelType(bossGroup);
+            var clientChannelType = NettyHelpers.clientChannelType(nettyGroup);
 
             // Main executor for requests and background tasks
-            serviceGroup = new NioEventLoopGroup(CONCURRENT_REQUESTS, new DefaultThreadFactory("orch-svc"));
+            serviceGroup = NettyHelpers.eventLoopGroup("orch-svc", CONCURRENT_REQUESTS);
             registry.addSingleton(ScheduledExecutorService.class, serviceGroup);
 
             // Set up API clients and cross-cutting concerns
@@ -174,6 +176,10 @@ public class TracOrchestratorService extends TracServiceBase {
             registry.addSingleton(IJobCacheManager.class, jobCacheManager);
 
             // Create service objects
+            var metadataCache = prepareMetadataCache(serviceConfig);
+            metadataCache.registerMetrics("orch");
+            registry.addSingleton(MetadataCache.class, metadataCache);
+
             var jobExecutor = new JobExecutor<>(registry);
             registry.addSingleton(JobExecutor.class, jobExecutor);
 
@@ -189,7 +195,9 @@ public class TracOrchestratorService extends TracServiceBase {
 
             // Store references for shutdown
             this.batchExecutor = (IBatchExecutor<? extends Serializable>) registry.getSingleton(IBatchExecutor.class);
+            this.jobCacheManager = registry.getSingleton(IJobCacheManager.class);
             this.jobManager = registry.getSingleton(JobManager.class);
+            this.metadataCache = registry.getSingleton(MetadataCache.class);
 
             // Start internal services
             this.batchExecutor.start();
@@ -237,6 +245,9 @@ public class TracOrchestratorService extends TracServiceBase {
             return server.awaitTermination(remaining.toMillis(), TimeUnit.MILLISECONDS);
         });
 
+        if (metadataCache != null)
+            metadataCache.unregisterMetrics();
+
         var clientDown = shutdownResource("Metadata service client", deadline, remaining -> {
 
             clientChannel.shutdown();
@@ -255,6 +266,12 @@ public class TracOrchestratorService extends TracServiceBase {
             return true;
         });
 
+        var jobCacheDown = shutdownResource("Job cache", deadline, remaining -> {
+
+            jobCacheManager.close();
+            return true;
+        });
+
         var serviceThreadsDown = shutdownResource("Service thread pool", deadline, remaining -> {
 
             serviceGroup.shutdownGracefully(0, remaining.toMillis(), TimeUnit.MILLISECONDS);
@@ -273,7 +290,7 @@ public class TracOrchestratorService extends TracServiceBase {
             return bossGroup.awaitTermination(remaining.toMillis(), TimeUnit.MILLISECONDS);
         });
 
-        if (serverDown && clientDown && executorDown && jobMonitorDown &&
+        if (serverDown && clientDown && executorDown && jobMonitorDown && jobCacheDown &&
                 serviceThreadsDown && nettyDown && bossDown)
             return 0;
 
@@ -337,6 +354,29 @@ public class TracOrchestratorService extends TracServiceBase {
         return commonConcerns.configureClient(storageClient);
     }
 
+    private MetadataCache prepareMetadataCache(ServiceConfig serviceConfig) {
+
+        var serviceProperties = new Properties();
+        serviceProperties.putAll(serviceConfig.getPropertiesMap());
+
+        var cacheSize = ConfigHelpers.readInt(
+                ConfigKeys.ORCHESTRATOR_SERVICE_KEY, serviceProperties,
+                ConfigKeys.METADATA_CACHE_SIZE,
+                ConfigDefaults.METADATA_CACHE_SIZE);
+
+        if (cacheSize < 0)
+            throw new EStartup("Metadata cache size cannot be negative");
+
+        if (cacheSize == 0)
+            log.info("Metadata cache is disabled");
+        else
+            log.info("Metadata cache size = [{} MB]", cacheSize);
+
+        // Latest selectors are not cached here, job setup always sees the current version of resources
+
+        return new MetadataCache((long) cacheSize * 1024 * 1024, Duration.ZERO);
+    }
+
     private class ClientChannelFactory implements GrpcChannelFactory {
 
         private final Class<? extends io.netty.channel.Channel> channelType;
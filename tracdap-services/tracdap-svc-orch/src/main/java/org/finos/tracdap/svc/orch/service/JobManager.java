@@ -22,8 +22,10 @@ import org.finos.tracdap.common.cache.IJobCacheManager;
 import org.finos.tracdap.common.exception.*;
 import org.finos.tracdap.common.cache.CacheEntry;
 import org.finos.tracdap.common.cache.IJobCache;
+import org.finos.tracdap.common.cache.IJobCacheListener;
 import org.finos.tracdap.common.metadata.MetadataUtil;
 import org.finos.tracdap.common.plugin.PluginRegistry;
+import org.finos.tracdap.common.service.TenantConfigManager;
 import org.finos.tracdap.config.PlatformConfig;
 import org.finos.tracdap.config.PluginConfig;
 import org.finos.tracdap.metadata.JobStatusCode;
@@ -39,11 +41,15 @@ import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 
@@ -53,6 +59,7 @@ public class JobManager {
 
     public static final Duration STARTUP_DELAY = Duration.of(10, ChronoUnit.SECONDS);
     public static final Duration SCHEDULED_REMOVAL_DURATION = Duration.of(2, ChronoUnit.MINUTES);
+    public static final Duration EXECUTOR_FAST_POLL_DELAY = Duration.of(1, ChronoUnit.SECONDS);
     public static final int PROCESSING_RETRY_LIMIT = 2;
     public static final int CACHE_POLL_ERROR_LIMIT = 100;
     public static final int EXECUTOR_POLL_ERROR_LIMIT = 20;
@@ -71,6 +78,7 @@ public class JobManager {
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     private final JobProcessor processor;
+    private final LaunchScheduler launchScheduler;
     private final IJobCache<JobState> cache;
     private final ScheduledExecutorService javaExecutor;
 
@@ -86,6 +94,12 @@ public class JobManager {
     private final AtomicInteger cachePollErrorCount = new AtomicInteger(0);
     private final AtomicInteger executorPollErrorCount = new AtomicInteger(0);
 
+    private final IJobCacheListener cacheListener = this::onCacheChange;
+    private final Set<String> activeJobs = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean launchCheckPending = new AtomicBoolean(false);
+    private final AtomicBoolean executorPollPending = new AtomicBoolean(false);
+    private final AtomicLong executorPollDelay = new AtomicLong(0);
+
     public JobManager(PlatformConfig config, PluginRegistry registry) {
 
         this.processor = registry.getSingleton(JobProcessor.class);
@@ -99,6 +113,9 @@ public class JobManager {
         executorPollInterval = Duration.ofSeconds(readIntegerProperty(config.getExecutor(), POLL_INTERVAL_CONFIG_KEY, DEFAULT_EXECUTOR_POLL_INTERVAL));
         executorTicketDuration = Duration.ofSeconds(readIntegerProperty(config.getExecutor(), TICKET_DURATION_CONFI_KEY, DEFAULT_EXECUTOR_TICKET_DURATION));
         executorJobLimit = readIntegerProperty(config.getExecutor(), MAX_JOBS_CONFIG_KEY, DEFAULT_EXECUTOR_JOB_LIMIT);
+
+        var tenantState = registry.getSingleton(TenantConfigManager.class);
+        this.launchScheduler = new LaunchScheduler(tenantState::getTenantConfig, executorJobLimit, cacheTicketDuration);
     }
 
     private int readIntegerProperty(PluginConfig config, String propertyKey, int defaultValue) {
@@ -128,6 +145,11 @@ public class JobManager {
 
             log.info("Starting job manager service...");
 
+            // Job operations are scheduled as soon as the cache reports a change
+            // Polling is still needed as a fallback, notifications are best-effort
+
+            cache.addListener(cacheListener);
+
             // Delay initial polls by the polling interval
             // This is to prevent polling while the service is still starting
 
@@ -156,6 +178,8 @@ public class JobManager {
 
         log.info("Stopping job manager service...");
 
+        cache.removeListener(cacheListener);
+
         if (cachePollingTask != null) {
             cachePollingTask.cancel(false);
         }
@@ -186,10 +210,10 @@ public class JobManager {
                 cache.createEntry(ticket, newState.cacheStatus, newState);
             }
 
-            // Avoid polling delay if multiple updates are processed in succession
-            // This will also tend to make all the updates in a sequence run on one orchestrator node
+            // Avoid polling delay for the launch, this needs to happen after the ticket is closed
+            // The change notification for the new entry may arrive while the ticket is still open
 
-            javaExecutor.submit(this::pollCache);
+            requestLaunchCheck();
 
             return newState;
         }
@@ -237,22 +261,7 @@ public class JobManager {
                 javaExecutor.submit(() -> processJobOperation(operation));
             }
 
-            // The launch scheduling operation is special - we don't want to launch everything in the queue!
-            // Currently just a simple capacity cap to prevent spamming the executor with too many jobs
-            // No queuing or prioritisation yet!!
-
-            var launchableJobs = cache.queryStatus(STATUS_FOR_LAUNCH);
-            var runningJobs = cache.queryStatus(STATUS_FOR_RUNNING_JOBS, true);  // Include jobs with launch in progress
-
-            var launchCapacity = Math.max(executorJobLimit - runningJobs.size(), 0);
-            var launchJobs = launchableJobs.size() > launchCapacity
-                    ? launchableJobs.subList(0, launchCapacity)
-                    : launchableJobs;
-
-            for (var job : launchJobs) {
-                var operation = getNextOperation(job);
-                javaExecutor.submit(() -> processJobOperation(operation));
-            }
+            scheduleLaunches();
 
             // No polling errors, reset the error count
             cachePollErrorCount.set(0);
@@ -291,7 +300,110 @@ public class JobManager {
         }
     }
 
-    private void pollExecutor() {
+    private void scheduleLaunches() {
+
+        // The launch scheduling operation is special - we don't want to launch everything in the queue!
+        // The launch scheduler applies the executor capacity limit, tenant quotas, fair share and priority
+
+        var launchableJobs = cache.queryStatus(STATUS_FOR_LAUNCH);
+        var runningJobs = cache.queryStatus(STATUS_FOR_RUNNING_JOBS, true);  // Include jobs with launch in progress
+
+        var launchJobs = launchScheduler.selectJobs(launchableJobs, runningJobs);
+
+        for (var job : launchJobs) {
+            var operation = getNextOperation(job);
+            javaExecutor.submit(() -> processJobOperation(operation));
+        }
+    }
+
+    private void onCacheChange(String jobKey, int revision, String cacheStatus) {
+
+        try {
+
+            // Schedule the next operation for jobs that are ready to be updated
+            // Jobs being processed on this node are skipped, processJobOperation() submits their next step
+            // once the current ticket is closed, otherwise the new operation would be superseded
+
+            if (STATUS_FOR_UPDATE.contains(cacheStatus) && !activeJobs.contains(jobKey)) {
+                var operation = getNextOperation(jobKey, revision, cacheStatus);
+                operation.fromNotification = true;
+                javaExecutor.submit(() -> processJobOperation(operation));
+            }
+
+            // New jobs may be ready to launch, or a running job may have released executor capacity
+
+            if (STATUS_FOR_LAUNCH.contains(cacheStatus) || !STATUS_FOR_RUNNING_JOBS.contains(cacheStatus))
+                requestLaunchCheck();
+
+            // Short jobs spend most of their time waiting for the executor poll
+            // Poll more often straight after a launch, backing off to the regular interval
+
+            else if (!CacheStatus.LAUNCH_SCHEDULED.equals(cacheStatus))
+                requestExecutorPoll();
+        }
+        catch (RejectedExecutionException e) {
+
+            // The executor is shutting down, the change will be picked up by polling if the service is still running
+            log.warn("Job cache change could not be scheduled: [{}] {}", jobKey, e.getMessage());
+        }
+    }
+
+    private void requestLaunchCheck() {
+
+        // Several changes in quick succession only need one launch check
+
+        if (launchCheckPending.compareAndSet(false, true))
+            javaExecutor.submit(this::launchCheck);
+    }
+
+    private void launchCheck() {
+
+        // Clear the flag before checking, so changes that arrive during the check trigger another one
+        launchCheckPending.set(false);
+
+        try {
+            scheduleLaunches();
+        }
+        catch (Exception e) {
+
+            // Errors here are not fatal, queued jobs will be picked up in the next polling loop
+            log.warn("There was a problem scheduling job launches: " + e.getMessage(), e);
+        }
+    }
+
+    private void requestExecutorPoll() {
+
+        // Reset the backoff for each launch, polling slows down again after the last launch
+
+        executorPollDelay.set(EXECUTOR_FAST_POLL_DELAY.toMillis());
+
+        if (executorPollPending.compareAndSet(false, true)) {
+            javaExecutor.schedule(
+                    this::fastExecutorPoll,
+                    EXECUTOR_FAST_POLL_DELAY.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void fastExecutorPoll() {
+
+        executorPollPending.set(false);
+
+        var runningJobs = pollExecutor();
+        var nextDelay = executorPollDelay.updateAndGet(delay -> delay * 2);
+
+        // Once the backoff reaches the regular interval, the regular polling loop takes over
+
+        if (runningJobs > 0 && nextDelay < executorPollInterval.toMillis()) {
+            if (executorPollPending.compareAndSet(false, true)) {
+                javaExecutor.schedule(
+                        this::fastExecutorPoll,
+                        nextDelay, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private int pollExecutor() {
 
         try {
 
@@ -320,6 +432,8 @@ public class JobManager {
                     javaExecutor.submit(() -> processJobOperation(operation));
                 }
             }
+
+            return runningJobs.size();
         }
         catch (ECache | EExecutor e) {
 
@@ -348,6 +462,8 @@ public class JobManager {
                 System.exit(-1);
             }
         }
+
+        return 0;
     }
 
     // Job processing state machine
@@ -520,6 +636,9 @@ public class JobManager {
         String newCacheStatus = null;
         boolean isRetry = false;
 
+        // Changes made while the job is active here are chained below, instead of by the change listener
+        activeJobs.add(operation.jobKey);
+
         try (var ticket = cache.openTicket(operation.jobKey, operation.revision, operation.timeout)) {
 
             if (ticket.superseded())
@@ -528,6 +647,10 @@ public class JobManager {
             var cacheEntry = cache.readEntry(ticket);
             var jobState = cacheEntry.value();
 
+            // Retries are left for the regular polling loop, which gives a delay before the next attempt
+            if (operation.fromNotification && jobState.retries > 0)
+                return;
+
             var newState = processRetryOrFail(operation, jobState);
 
             if (newState != null) {
@@ -554,6 +677,9 @@ public class JobManager {
             log.warn("There was a problem talking to the job cache: " + e.getMessage(), e);
             log.warn("Processing will continue, the cache may become available at a later time");
         }
+        finally {
+            activeJobs.remove(operation.jobKey);
+        }
 
         // If the next operation can happen right away, submit it now to avoid cache polling delay
         // This will also tend to make all the updates in a sequence run on one orchestrator node
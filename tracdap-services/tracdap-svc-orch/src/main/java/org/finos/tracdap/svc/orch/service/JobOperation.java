@@ -30,6 +30,7 @@ class JobOperation {
     int revision;
     String cacheStatus;
     Duration timeout;
+    boolean fromNotification;
 
     String operationName;
     Function<JobState, JobState> operation;
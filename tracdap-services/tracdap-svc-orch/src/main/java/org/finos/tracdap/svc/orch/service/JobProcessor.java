@@ -93,6 +93,7 @@ public class JobProcessor {
         jobState.jobRequest = request;
         jobState.jobType = request.getJob().getJobType();
         jobState.definition = request.getJob();
+        jobState.priority = request.hasPriority() ? request.getPriority() : 0;
 
         jobState.clientState = clientState;
         jobState.requestMetadata = RequestMetadata.get(Context.current());
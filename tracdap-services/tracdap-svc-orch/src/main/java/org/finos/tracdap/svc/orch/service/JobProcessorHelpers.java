@@ -24,6 +24,7 @@ import org.finos.tracdap.common.exception.EConsistencyValidation;
 import org.finos.tracdap.common.exception.EJobResult;
 import org.finos.tracdap.common.exception.EUnexpected;
 import org.finos.tracdap.common.metadata.MetadataBundle;
+import org.finos.tracdap.common.metadata.MetadataCache;
 import org.finos.tracdap.common.metadata.MetadataCodec;
 import org.finos.tracdap.common.metadata.MetadataConstants;
 import org.finos.tracdap.common.metadata.MetadataUtil;
@@ -56,6 +57,7 @@ public class JobProcessorHelpers {
     private final Logger log = LoggerFactory.getLogger(JobProcessorHelpers.class);
 
     private final InternalMetadataApiGrpc.InternalMetadataApiBlockingStub metaClient;
+    private final MetadataCache metadataCache;
     private final GrpcConcern commonConcerns;
 
     private final TenantConfigManager tenantState;
@@ -73,6 +75,7 @@ public class JobProcessorHelpers {
         this.commonConcerns = commonConcerns;
 
         this.metaClient = registry.getSingleton(InternalMetadataApiGrpc.InternalMetadataApiBlockingStub.class);
+        this.metadataCache = registry.getSingleton(MetadataCache.class);
         this.configManager = registry.getSingleton(ConfigManager.class);
     }
 
@@ -95,29 +98,52 @@ public class JobProcessorHelpers {
         log.info("Loading additional required metadata...");
 
         var orderedKeys = new ArrayList<String>(selectors.size());
-        var orderedSelectors = new ArrayList<TagSelector>(selectors.size());
+        var orderedTags = new ArrayList<Tag>(selectors.size());
+        var missingSelectors = new ArrayList<TagSelector>();
+
+        // Explicitly versioned objects can come from the shared cache, only the rest are read from the metadata service
 
         for (var selector : selectors) {
+            var cachedTag = metadataCache.get(jobState.tenant, selector);
             orderedKeys.add(MetadataUtil.objectKey(selector));
-            orderedSelectors.add(selector);
+            orderedTags.add(cachedTag);
+            if (cachedTag == null)
+                missingSelectors.add(selector);
         }
 
-        var batchRequest = MetadataBatchRequest.newBuilder()
-                .setTenant(jobState.tenant)
-                .addAllSelector(orderedSelectors)
-                .build();
+        if (!missingSelectors.isEmpty()) {
 
-        var client = configureClient(metaClient, jobState);
-        var batchResponse = client.readBatch(batchRequest);
+            var batchRequest = MetadataBatchRequest.newBuilder()
+                    .setTenant(jobState.tenant)
+                    .addAllSelector(missingSelectors)
+                    .build();
+
+            var client = configureClient(metaClient, jobState);
+            var batchResponse = client.readBatch(batchRequest);
+
+            if (batchResponse.getTagCount() != missingSelectors.size())
+                throw new EUnexpected();
+
+            for (int i = 0, j = 0; i < orderedTags.size(); i++) {
+                if (orderedTags.get(i) == null) {
+                    var tag = batchResponse.getTag(j++);
+                    metadataCache.put(jobState.tenant, selectors.get(i), tag);
+                    orderedTags.set(i, tag);
+                }
+            }
+        }
+
+        log.info("Loaded [{}] metadata objects, [{}] from cache",
+                selectors.size(), selectors.size() - missingSelectors.size());
 
-        return loadMetadataResponse(jobState, orderedKeys, batchResponse);
+        return loadMetadataResponse(jobState, orderedKeys, orderedTags);
     }
 
     private JobState loadMetadataResponse(
             JobState jobState, List<String> orderedKeys,
-            MetadataBatchResponse batchResponse) {
+            List<Tag> orderedTags) {
 
-        if (batchResponse.getTagCount() != orderedKeys.size())
+        if (orderedTags.size() != orderedKeys.size())
             throw new EUnexpected();
 
         var objectMapping = new HashMap<String, TagHeader>(orderedKeys.size());
@@ -127,7 +153,7 @@ public class JobProcessorHelpers {
         for (var i = 0; i < orderedKeys.size(); i++) {
 
             var orderedKey = orderedKeys.get(i);
-            var orderedTag = batchResponse.getTag(i);
+            var orderedTag = orderedTags.get(i);
 
             var objectKey = MetadataUtil.objectKey(orderedTag.getHeader());
             var object_ = orderedTag.getDefinition();
@@ -143,7 +169,7 @@ public class JobProcessorHelpers {
         else
             jobState.metadata.addToBundle(objectMapping, objects, tags);
 
-        var dependencies = loadMetadataDependencies(batchResponse.getTagList());
+        var dependencies = loadMetadataDependencies(orderedTags);
 
         var missingDependencies = dependencies.stream()
                 .filter(selector -> !jobState.metadata.hasObject(selector))
@@ -66,6 +66,9 @@ public class JobState implements Serializable, Cloneable {
     TagHeader jobId;
     JobType jobType;
 
+    // Launch priority within the tenant's queue
+    int priority;
+
     // Status information
     JobStatusCode tracStatus;
     String cacheStatus;
@@ -0,0 +1,279 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.svc.orch.service;
+
+import org.finos.tracdap.common.cache.CacheEntry;
+import org.finos.tracdap.common.config.ConfigKeys;
+import org.finos.tracdap.common.metadata.MetadataCodec;
+import org.finos.tracdap.config.TenantConfig;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+
+class LaunchScheduler {
+
+    // Decide which queued jobs to launch, when executor capacity is available
+    // Capacity is shared between tenants by weighted fair share, each tenant can also have a hard quota
+    // Within a tenant's queue, jobs are launched by priority and then in submission order
+
+    // Tenant settings are read from the tenant config properties on every scheduling round,
+    // so changes to the tenant config take effect without a restart
+
+    public static final int DEFAULT_SHARE_WEIGHT = 1;
+
+    private static final Comparator<QueuedJob> QUEUE_ORDER = Comparator
+            .comparingInt((QueuedJob job) -> job.priority).reversed()
+            .thenComparing(job -> job.queueTime)
+            .thenComparing(job -> job.entry.key());
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final Function<String, TenantConfig> tenantConfig;
+    private final int executorJobLimit;
+    private final Duration admissionTimeout;
+
+    // Jobs admitted by this node that have not yet shown up as running
+    // These count against capacity, otherwise jobs could be admitted twice before the launch is recorded
+    private final Map<String, Admission> admissions = new HashMap<>();
+
+    private final AtomicLong admittedCount = new AtomicLong(0);
+    private final AtomicLong deferredCount = new AtomicLong(0);
+    private final AtomicLong quotaLimitedCount = new AtomicLong(0);
+
+    LaunchScheduler(Function<String, TenantConfig> tenantConfig, int executorJobLimit, Duration admissionTimeout) {
+        this.tenantConfig = tenantConfig;
+        this.executorJobLimit = executorJobLimit;
+        this.admissionTimeout = admissionTimeout;
+    }
+
+    synchronized List<CacheEntry<JobState>> selectJobs(
+            List<CacheEntry<JobState>> queuedJobs,
+            List<CacheEntry<JobState>> runningJobs) {
+
+        var now = Instant.now();
+        var selected = new ArrayList<CacheEntry<JobState>>();
+
+        // Current load for each tenant, including admissions that are still in progress
+
+        var load = new HashMap<String, Integer>();
+        var runningKeys = new HashSet<String>();
+
+        for (var job : runningJobs) {
+            runningKeys.add(job.key());
+            if (job.cacheOk())
+                load.merge(job.value().tenant, 1, Integer::sum);
+        }
+
+        // While the launch is being scheduled the job is not reported as queued or running
+        // Admissions that never show up as running (e.g. a failed launch) expire after the timeout
+
+        admissions.values().removeIf(admission ->
+                runningKeys.contains(admission.jobKey) ||
+                admission.admitTime.plus(admissionTimeout).isBefore(now));
+
+        for (var admission : admissions.values())
+            load.merge(admission.tenant, 1, Integer::sum);
+
+        var capacity = Math.max(executorJobLimit - runningJobs.size() - admissions.size(), 0);
+
+        // Build the queue for each tenant
+        // Entries with cache errors are passed straight through, so job processing can clean them up
+
+        var queues = new HashMap<String, PriorityQueue<QueuedJob>>();
+
+        for (var job : queuedJobs) {
+
+            if (admissions.containsKey(job.key()))
+                continue;
+
+            if (!job.cacheOk()) {
+                selected.add(job);
+                continue;
+            }
+
+            var queuedJob = new QueuedJob(job);
+            queues.computeIfAbsent(queuedJob.tenant, t -> new PriorityQueue<>(QUEUE_ORDER)).add(queuedJob);
+        }
+
+        var quotas = new HashMap<String, Integer>();
+        var weights = new HashMap<String, Integer>();
+
+        for (var tenant : queues.keySet()) {
+            var config = readTenantConfig(tenant);
+            quotas.put(tenant, readTenantSetting(tenant, config, ConfigKeys.JOB_MAX_CONCURRENT, executorJobLimit));
+            weights.put(tenant, readTenantSetting(tenant, config, ConfigKeys.JOB_SHARE_WEIGHT, DEFAULT_SHARE_WEIGHT));
+        }
+
+        // Admit one job at a time to the tenant with the lowest weighted load
+        // A burst of jobs from one tenant cannot hold capacity that other tenants are waiting for
+
+        while (capacity > 0) {
+
+            String nextTenant = null;
+            double nextShare = Double.MAX_VALUE;
+
+            for (var queue : queues.entrySet()) {
+
+                var tenant = queue.getKey();
+                var tenantLoad = load.getOrDefault(tenant, 0);
+
+                if (queue.getValue().isEmpty() || tenantLoad >= quotas.get(tenant))
+                    continue;
+
+                var share = (double) tenantLoad / weights.get(tenant);
+
+                if (share < nextShare || (share == nextShare && QUEUE_ORDER.compare(queue.getValue().peek(), queues.get(nextTenant).peek()) < 0)) {
+                    nextTenant = tenant;
+                    nextShare = share;
+                }
+            }
+
+            if (nextTenant == null)
+                break;
+
+            var job = queues.get(nextTenant).poll();
+
+            selected.add(job.entry);
+            admissions.put(job.entry.key(), new Admission(job.entry.key(), nextTenant, now));
+            load.merge(nextTenant, 1, Integer::sum);
+            capacity -= 1;
+
+            log.info("JOB ADMITTED: [{}] tenant = [{}], priority = [{}], queue time = [{}s]",
+                    job.entry.key(), nextTenant, job.priority,
+                    Duration.between(job.queueTime, now).getSeconds());
+        }
+
+        // Admission control metrics, jobs left in the queue are either waiting for capacity or limited by quota
+
+        var waiting = 0;
+        var quotaLimited = 0;
+
+        for (var queue : queues.entrySet()) {
+
+            waiting += queue.getValue().size();
+
+            if (load.getOrDefault(queue.getKey(), 0) >= quotas.get(queue.getKey()))
+                quotaLimited += queue.getValue().size();
+        }
+
+        admittedCount.addAndGet(selected.size());
+        deferredCount.addAndGet(waiting);
+        quotaLimitedCount.addAndGet(quotaLimited);
+
+        if (waiting > 0 && !selected.isEmpty()) {
+            log.info("Launch queue: admitted [{}], waiting [{}], limited by tenant quota [{}]",
+                    selected.size(), waiting, quotaLimited);
+        }
+        else if (waiting > 0 && log.isDebugEnabled()) {
+            log.debug("Launch queue: waiting [{}], limited by tenant quota [{}]", waiting, quotaLimited);
+        }
+
+        return selected;
+    }
+
+    long admittedCount() {
+        return admittedCount.get();
+    }
+
+    long deferredCount() {
+        return deferredCount.get();
+    }
+
+    long quotaLimitedCount() {
+        return quotaLimitedCount.get();
+    }
+
+    private TenantConfig readTenantConfig(String tenant) {
+
+        try {
+            return tenantConfig.apply(tenant);
+        }
+        catch (Exception e) {
+
+            // Do not hold up the launch queue for a tenant config problem, fall back to default settings
+            log.warn("Tenant config not available for job scheduling: [{}] {}", tenant, e.getMessage());
+            return TenantConfig.getDefaultInstance();
+        }
+    }
+
+    private int readTenantSetting(String tenant, TenantConfig config, String key, int defaultValue) {
+
+        if (!config.containsProperties(key))
+            return defaultValue;
+
+        var configValue = config.getPropertiesOrThrow(key);
+
+        try {
+
+            var value = Integer.parseInt(configValue.trim());
+
+            if (value > 0)
+                return value;
+        }
+        catch (NumberFormatException e) {
+            // Drop through to the warning
+        }
+
+        log.warn("Invalid tenant config property [{}] for tenant [{}]: Expected a positive integer, got [{}]",
+                key, tenant, configValue);
+
+        return defaultValue;
+    }
+
+    private static class QueuedJob {
+
+        final CacheEntry<JobState> entry;
+        final String tenant;
+        final int priority;
+        final Instant queueTime;
+
+        QueuedJob(CacheEntry<JobState> entry) {
+
+            var state = entry.value();
+
+            this.entry = entry;
+            this.tenant = state.tenant;
+            this.priority = state.priority;
+
+            // Submission time is the timestamp of the job object
+            this.queueTime = state.jobId != null && state.jobId.hasObjectTimestamp()
+                    ? MetadataCodec.decodeDatetime(state.jobId.getObjectTimestamp()).toInstant()
+                    : Instant.EPOCH;
+        }
+    }
+
+    private static class Admission {
+
+        final String jobKey;
+        final String tenant;
+        final Instant admitTime;
+
+        Admission(String jobKey, String tenant, Instant admitTime) {
+            this.jobKey = jobKey;
+            this.tenant = tenant;
+            this.admitTime = admitTime;
+        }
+    }
+}
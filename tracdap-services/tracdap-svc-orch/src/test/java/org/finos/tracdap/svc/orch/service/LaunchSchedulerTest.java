@@ -0,0 +1,282 @@
+/*
+ * Licensed to the Fintech Open Source Foundation (FINOS) under one or
+ * more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * FINOS licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.finos.tracdap.svc.orch.service;
+
+import org.finos.tracdap.common.cache.CacheEntry;
+import org.finos.tracdap.common.config.ConfigKeys;
+import org.finos.tracdap.common.exception.ECacheNotFound;
+import org.finos.tracdap.common.exception.ETenantNotFound;
+import org.finos.tracdap.common.metadata.MetadataCodec;
+import org.finos.tracdap.config.TenantConfig;
+import org.finos.tracdap.metadata.ObjectType;
+import org.finos.tracdap.metadata.TagHeader;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+
+class LaunchSchedulerTest {
+
+    private static final Duration ADMISSION_TIMEOUT = Duration.ofMinutes(1);
+    private static final OffsetDateTime START_TIME = OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    private int jobCount = 0;
+
+    @Test
+    void capacityLimit() {
+
+        var scheduler = new LaunchScheduler(tenantConfig(Map.of()), 3, ADMISSION_TIMEOUT);
+
+        var queued = queuedJobs("ACME_CORP", 10, 0);
+        var running = runningJobs("ACME_CORP", 1);
+
+        var selected = scheduler.selectJobs(queued, running);
+
+        Assertions.assertEquals(2, selected.size());
+        Assertions.assertEquals(keys(queued.subList(0, 2)), keys(selected));
+        Assertions.assertEquals(2, scheduler.admittedCount());
+        Assertions.assertEquals(8, scheduler.deferredCount());
+    }
+
+    @Test
+    void admissionsCountAgainstCapacity() {
+
+        var scheduler = new LaunchScheduler(tenantConfig(Map.of()), 3, ADMISSION_TIMEOUT);
+
+        var queued = queuedJobs("ACME_CORP", 10, 0);
+
+        var selected1 = scheduler.selectJobs(queued, List.of());
+        Assertions.assertEquals(3, selected1.size());
+
+        // Admitted jobs have not shown up as running yet, so there is no more capacity
+
+        var selected2 = scheduler.selectJobs(queued, List.of());
+        Assertions.assertEquals(0, selected2.size());
+
+        // Once the admitted jobs show up as running, they are no longer counted as admissions
+
+        var running = selected1.stream()
+                .map(job -> CacheEntry.forValue(job.key(), job.revision() + 1, CacheStatus.RUNNING_IN_EXECUTOR, job.value()))
+                .collect(Collectors.toList());
+
+        var stillQueued = queued.subList(3, queued.size());
+
+        var selected3 = scheduler.selectJobs(stillQueued, running);
+        Assertions.assertEquals(0, selected3.size());
+
+        // After one job completes, one more slot is available
+
+        var selected4 = scheduler.selectJobs(stillQueued, running.subList(0, 2));
+        Assertions.assertEquals(1, selected4.size());
+        Assertions.assertEquals(queued.get(3).key(), selected4.get(0).key());
+    }
+
+    @Test
+    void priorityOrder() {
+
+        var scheduler = new LaunchScheduler(tenantConfig(Map.of()), 2, ADMISSION_TIMEOUT);
+
+        var queued = new ArrayList<CacheEntry<JobState>>();
+        queued.addAll(queuedJobs("ACME_CORP", 3, 0));
+        queued.addAll(queuedJobs("ACME_CORP", 2, 5));
+
+        var selected = scheduler.selectJobs(queued, List.of());
+
+        // Higher priority jobs go first, even though they were submitted later
+        Assertions.assertEquals(keys(queued.subList(3, 5)), keys(selected));
+    }
+
+    @Test
+    void fairShare() {
+
+        var scheduler = new LaunchScheduler(tenantConfig(Map.of()), 6, ADMISSION_TIMEOUT);
+
+        // One tenant submits a burst of jobs before the others
+
+        var queued = new ArrayList<CacheEntry<JobState>>();
+        queued.addAll(queuedJobs("ACME_CORP", 500, 0));
+        queued.addAll(queuedJobs("TENANT_B", 5, 0));
+        queued.addAll(queuedJobs("TENANT_C", 5, 0));
+
+        var selected = scheduler.selectJobs(queued, List.of());
+
+        Assertions.assertEquals(6, selected.size());
+        Assertions.assertEquals(2, countTenant(selected, "ACME_CORP"));
+        Assertions.assertEquals(2, countTenant(selected, "TENANT_B"));
+        Assertions.assertEquals(2, countTenant(selected, "TENANT_C"));
+    }
+
+    @Test
+    void fairShare_runningJobs() {
+
+        var scheduler = new LaunchScheduler(tenantConfig(Map.of()), 6, ADMISSION_TIMEOUT);
+
+        var queued = new ArrayList<CacheEntry<JobState>>();
+        queued.addAll(queuedJobs("ACME_CORP", 10, 0));
+        queued.addAll(queuedJobs("TENANT_B", 10, 0));
+
+        var running = runningJobs("ACME_CORP", 3);
+
+        var selected = scheduler.selectJobs(queued, running);
+
+        // Capacity goes to the tenant with fewer running jobs
+        Assertions.assertEquals(3, selected.size());
+        Assertions.assertEquals(3, countTenant(selected, "TENANT_B"));
+    }
+
+    @Test
+    void fairShare_weighted() {
+
+        var config = Map.of("ACME_CORP", Map.of(ConfigKeys.JOB_SHARE_WEIGHT, "2"));
+        var scheduler = new LaunchScheduler(tenantConfig(config), 6, ADMISSION_TIMEOUT);
+
+        var queued = new ArrayList<CacheEntry<JobState>>();
+        queued.addAll(queuedJobs("ACME_CORP", 10, 0));
+        queued.addAll(queuedJobs("TENANT_B", 10, 0));
+
+        var selected = scheduler.selectJobs(queued, List.of());
+
+        Assertions.assertEquals(4, countTenant(selected, "ACME_CORP"));
+        Assertions.assertEquals(2, countTenant(selected, "TENANT_B"));
+    }
+
+    @Test
+    void tenantQuota() {
+
+        var config = Map.of("ACME_CORP", Map.of(ConfigKeys.JOB_MAX_CONCURRENT, "2"));
+        var scheduler = new LaunchScheduler(tenantConfig(config), 6, ADMISSION_TIMEOUT);
+
+        var queued = queuedJobs("ACME_CORP", 10, 0);
+        var running = runningJobs("ACME_CORP", 1);
+
+        var selected = scheduler.selectJobs(queued, running);
+
+        // Quota applies even when there is spare capacity
+        Assertions.assertEquals(1, selected.size());
+        Assertions.assertEquals(9, scheduler.quotaLimitedCount());
+    }
+
+    @Test
+    void tenantConfigInvalid() {
+
+        var config = Map.of("ACME_CORP", Map.of(ConfigKeys.JOB_MAX_CONCURRENT, "not_a_number"));
+        var scheduler = new LaunchScheduler(tenantConfig(config), 4, ADMISSION_TIMEOUT);
+
+        var queued = queuedJobs("ACME_CORP", 10, 0);
+
+        // Invalid settings fall back to the default, scheduling still happens
+        var selected = scheduler.selectJobs(queued, List.of());
+        Assertions.assertEquals(4, selected.size());
+    }
+
+    @Test
+    void tenantConfigMissing() {
+
+        var scheduler = new LaunchScheduler(tenantConfig(Map.of()), 4, ADMISSION_TIMEOUT);
+
+        var queued = queuedJobs("UNKNOWN", 10, 0);
+
+        // Missing tenant config falls back to the default settings
+        var selected = scheduler.selectJobs(queued, List.of());
+        Assertions.assertEquals(4, selected.size());
+    }
+
+    @Test
+    void cacheErrorsPassThrough() {
+
+        var scheduler = new LaunchScheduler(tenantConfig(Map.of()), 1, ADMISSION_TIMEOUT);
+
+        var queued = new ArrayList<CacheEntry<JobState>>();
+        queued.add(CacheEntry.error("bad_entry", 1, CacheStatus.QUEUED_IN_TRAC, new ECacheNotFound("bad entry")));
+        queued.addAll(queuedJobs("ACME_CORP", 3, 0));
+
+        var selected = scheduler.selectJobs(queued, List.of());
+
+        Assertions.assertEquals(2, selected.size());
+        Assertions.assertEquals("bad_entry", selected.get(0).key());
+    }
+
+    private List<CacheEntry<JobState>> queuedJobs(String tenant, int count, int priority) {
+
+        var jobs = new ArrayList<CacheEntry<JobState>>();
+
+        for (var i = 0; i < count; i++)
+            jobs.add(newJob(tenant, priority, CacheStatus.QUEUED_IN_TRAC));
+
+        return jobs;
+    }
+
+    private List<CacheEntry<JobState>> runningJobs(String tenant, int count) {
+
+        var jobs = new ArrayList<CacheEntry<JobState>>();
+
+        for (var i = 0; i < count; i++)
+            jobs.add(newJob(tenant, 0, CacheStatus.RUNNING_IN_EXECUTOR));
+
+        return jobs;
+    }
+
+    private CacheEntry<JobState> newJob(String tenant, int priority, String cacheStatus) {
+
+        var jobNumber = ++jobCount;
+        var jobKey = String.format("job_%d", jobNumber);
+
+        var state = new JobState();
+        state.tenant = tenant;
+        state.priority = priority;
+        state.jobKey = jobKey;
+        state.cacheStatus = cacheStatus;
+        state.jobId = TagHeader.newBuilder()
+                .setObjectType(ObjectType.JOB)
+                .setObjectId(jobKey)
+                .setObjectTimestamp(MetadataCodec.encodeDatetime(START_TIME.plusSeconds(jobNumber)))
+                .build();
+
+        return CacheEntry.forValue(jobKey, 1, cacheStatus, state);
+    }
+
+    private Function<String, TenantConfig> tenantConfig(Map<String, Map<String, String>> properties) {
+
+        return tenant -> {
+
+            if (tenant.equals("UNKNOWN"))
+                throw new ETenantNotFound("Tenant not found");
+
+            return TenantConfig.newBuilder()
+                    .putAllProperties(properties.getOrDefault(tenant, Map.of()))
+                    .build();
+        };
+    }
+
+    private List<String> keys(List<CacheEntry<JobState>> jobs) {
+        return jobs.stream().map(CacheEntry::key).collect(Collectors.toList());
+    }
+
+    private long countTenant(List<CacheEntry<JobState>> jobs, String tenant) {
+        return jobs.stream().filter(job -> job.value().tenant.equals(tenant)).count();
+    }
+}